@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.sourceforge.ccxjc.it.model.batch.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.batch.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.batch.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests the {@code -cc-batch} option.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class BatchCopyTest
+{
+
+    @Test public void testCopyAll() throws Exception
+    {
+        final List<NestedComplexType> documents = this.getDocuments( 100 );
+        documents.add( null );
+
+        final List<NestedComplexType> copies = ObjectFactory.copyAllNestedComplexType( documents );
+        assertEquals( documents.size(), copies.size() );
+        assertNull( copies.get( documents.size() - 1 ) );
+
+        for ( int i = documents.size() - 2; i >= 0; i-- )
+        {
+            assertNotSame( documents.get( i ), copies.get( i ) );
+            assertEquals( documents.get( i ), copies.get( i ) );
+        }
+    }
+
+    @Test public void testCopyAllSingleOperation() throws Exception
+    {
+        final SimpleTypeAttributes referenced = new SimpleTypeAttributes();
+        referenced.setID( "referenced" );
+
+        final List<SimpleTypeAttributes> instances = new ArrayList<SimpleTypeAttributes>();
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            final SimpleTypeAttributes instance = new SimpleTypeAttributes();
+            instance.setID( "instance" + i );
+            instance.setIDREF( referenced );
+            instances.add( instance );
+        }
+
+        final List<SimpleTypeAttributes> copies = ObjectFactory.copyAllSimpleTypeAttributes( instances );
+        assertNotSame( referenced, copies.get( 0 ).getIDREF() );
+        assertSame( copies.get( 0 ).getIDREF(), copies.get( 1 ).getIDREF() );
+        assertNotSame( instances.get( 0 ).clone().getIDREF(), instances.get( 1 ).clone().getIDREF() );
+    }
+
+    @Test public void testCopyStream() throws Exception
+    {
+        final List<NestedComplexType> documents = this.getDocuments( 1000 );
+        final List<NestedComplexType> sequential =
+            ObjectFactory.copyNestedComplexTypeStream( documents.stream() ).collect( Collectors.<NestedComplexType>toList() );
+
+        final List<NestedComplexType> parallel =
+            ObjectFactory.copyNestedComplexTypeStream( documents.parallelStream() ).collect( Collectors.<NestedComplexType>toList() );
+
+        assertEquals( documents, sequential );
+        assertEquals( documents, parallel );
+
+        for ( int i = documents.size() - 1; i >= 0; i-- )
+        {
+            assertNotSame( documents.get( i ), sequential.get( i ) );
+            assertNotSame( documents.get( i ), parallel.get( i ) );
+        }
+    }
+
+    private List<NestedComplexType> getDocuments( final int count )
+    {
+        final List<NestedComplexType> documents = new ArrayList<NestedComplexType>( count );
+
+        for ( int i = 0; i < count; i++ )
+        {
+            final NestedComplexType document = new NestedComplexType();
+            final NestedComplexType nested = new NestedComplexType();
+            document.setName( "document" + i );
+            nested.setName( "nested" + i );
+            document.getNested().add( nested );
+            documents.add( document );
+        }
+
+        return documents;
+    }
+
+}
@@ -32,7 +32,14 @@ package net.sourceforge.ccxjc.it;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ObjectFactory;
 import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
 
 /**
  * Tests the {@code ChoiceComplexType} complex type.
@@ -56,4 +63,32 @@ public class ChoiceComplexTypeTest
         }
     }
 
+    @Test public void testElementCopies() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType choice = new ChoiceComplexType();
+        final JAXBElement<String> nil = objectFactory.createChoiceComplexTypeStringItem( null );
+        nil.setNil( true );
+
+        choice.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "a" ) );
+        choice.getStringItemOrIntItemOrBase64BinaryItem().add( nil );
+        choice.getStringItemOrIntItemOrBase64BinaryItem().add(
+            objectFactory.createChoiceComplexTypeChoiceItem( new ChoiceComplexType() ) );
+
+        final ChoiceComplexType copy = new ChoiceComplexType( choice );
+        final JAXBElement<?> string = (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem().get( 0 );
+        final JAXBElement<?> nilCopy = (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem().get( 1 );
+        final JAXBElement<?> item = (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem().get( 2 );
+        final JAXBElement<?> source = (JAXBElement<?>) choice.getStringItemOrIntItemOrBase64BinaryItem().get( 2 );
+
+        assertEquals( "a", string.getValue() );
+        assertFalse( string.isNil() );
+        assertTrue( nilCopy.isNil() );
+        assertNull( nilCopy.getValue() );
+        assertSame( source.getName(), item.getName() );
+        assertSame( source.getDeclaredType(), item.getDeclaredType() );
+        assertNotSame( source, item );
+        assertNotSame( source.getValue(), item.getValue() );
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.CloneMethods;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests the generated {@code CloneMethods} class.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CloneMethodsTest
+{
+
+    @Test public void testInvokeClone() throws Exception
+    {
+        final List<String> list = new ArrayList<String>();
+        list.add( "TEST" );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            final Object copy = CloneMethods.invokeClone( list );
+            assertNotSame( list, copy );
+            assertEquals( list, copy );
+        }
+
+        final Date date = new Date();
+        final Object copy = CloneMethods.invokeClone( date );
+        assertNotSame( date, copy );
+        assertEquals( date, copy );
+    }
+
+    @Test public void testNoCloneMethod() throws Exception
+    {
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertSame( CloneMethods.NOT_CLONEABLE, CloneMethods.invokeClone( new Object() ) );
+            assertSame( CloneMethods.NOT_CLONEABLE, CloneMethods.invokeClone( new StringBuilder() ) );
+        }
+    }
+
+    @Test public void testCloneReturningNull() throws Exception
+    {
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertNull( CloneMethods.invokeClone( new NullClone() ) );
+        }
+    }
+
+    public static final class NullClone implements Cloneable
+    {
+
+        @Override public Object clone()
+        {
+            return null;
+        }
+
+    }
+
+}
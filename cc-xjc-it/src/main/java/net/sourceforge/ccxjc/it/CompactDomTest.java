@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.lang.ref.WeakReference;
+import javax.xml.parsers.DocumentBuilderFactory;
+import net.sourceforge.ccxjc.it.model.compactdom.collections.ccxjcit.DomCopies;
+import net.sourceforge.ccxjc.it.model.compactdom.collections.ccxjcit.SkipBoundedAnyComplexType;
+import net.sourceforge.ccxjc.it.model.compactdom.collections.ccxjcit.SkipUnboundedAnyComplexType;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests copying DOM elements into new documents.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CompactDomTest
+{
+
+    @Test public void testOwnedByNewDocument() throws Exception
+    {
+        final Document document = this.getDocument( 10 );
+        final Element element = (Element) document.getDocumentElement().getFirstChild();
+        final SkipBoundedAnyComplexType any = new SkipBoundedAnyComplexType();
+        any.setAny( element );
+
+        final SkipBoundedAnyComplexType copy = new SkipBoundedAnyComplexType( any );
+        assertNotSame( element, copy.getAny() );
+        assertTrue( element.isEqualNode( copy.getAny() ) );
+        assertNotSame( document, copy.getAny().getOwnerDocument() );
+        assertNull( copy.getAny().getOwnerDocument().getDocumentElement() );
+        assertNull( copy.getAny().getParentNode() );
+        assertSame( copy.getAny().getOwnerDocument(), copy.getAny().getFirstChild().getOwnerDocument() );
+
+        final SkipUnboundedAnyComplexType list = new SkipUnboundedAnyComplexType();
+        list.getAny().add( element );
+        list.getAny().add( element );
+
+        final SkipUnboundedAnyComplexType listCopy = new SkipUnboundedAnyComplexType( list );
+        assertTrue( element.isEqualNode( listCopy.getAny().get( 0 ) ) );
+        assertNotSame( document, listCopy.getAny().get( 1 ).getOwnerDocument() );
+        assertSame( listCopy.getAny().get( 0 ).getOwnerDocument(), listCopy.getAny().get( 1 ).getOwnerDocument() );
+        assertNotSame( listCopy.getAny().get( 0 ).getOwnerDocument(),
+                       new SkipUnboundedAnyComplexType( list ).getAny().get( 0 ).getOwnerDocument() );
+    }
+
+    @Test public void testSharedElements() throws Exception
+    {
+        final Document document = this.getDocument( 10 );
+        final Element element = (Element) document.getDocumentElement().getFirstChild();
+        final Element shared = DomCopies.share( element );
+        assertNotSame( element, shared );
+        assertTrue( element.isEqualNode( shared ) );
+        assertTrue( DomCopies.isShared( shared ) );
+        assertFalse( DomCopies.isShared( element ) );
+        assertSame( shared, DomCopies.share( shared ) );
+        assertNull( DomCopies.share( null ) );
+
+        final SkipBoundedAnyComplexType any = new SkipBoundedAnyComplexType();
+        any.setAny( shared );
+        assertSame( shared, new SkipBoundedAnyComplexType( any ).getAny() );
+        assertSame( shared, any.clone().getAny() );
+
+        final SkipUnboundedAnyComplexType list = new SkipUnboundedAnyComplexType();
+        list.getAny().add( shared );
+        list.getAny().add( element );
+
+        final SkipUnboundedAnyComplexType listCopy = new SkipUnboundedAnyComplexType( list );
+        assertSame( shared, listCopy.getAny().get( 0 ) );
+        assertFalse( DomCopies.isShared( listCopy.getAny().get( 1 ) ) );
+        assertNotSame( shared.getOwnerDocument(), listCopy.getAny().get( 1 ).getOwnerDocument() );
+    }
+
+    @Test public void testSourceDocumentNotRetained() throws Exception
+    {
+        final int count = 2000;
+        Document document = this.getDocument( 10000 );
+        final WeakReference<Document> reference = new WeakReference<Document>( document );
+        Element element = (Element) document.getDocumentElement().getFirstChild();
+        final SkipBoundedAnyComplexType any = new SkipBoundedAnyComplexType();
+        any.setAny( element );
+
+        final SkipBoundedAnyComplexType copy = new SkipBoundedAnyComplexType( any );
+        final SkipUnboundedAnyComplexType list = new SkipUnboundedAnyComplexType();
+
+        for ( int i = 0; i < count; i++ )
+        {
+            list.getAny().add( element );
+        }
+
+        final SkipUnboundedAnyComplexType listCopy = new SkipUnboundedAnyComplexType( list );
+        assertSame( listCopy.getAny().get( 0 ).getOwnerDocument(),
+                    listCopy.getAny().get( count - 1 ).getOwnerDocument() );
+
+        assertNotSame( document, copy.getAny().getOwnerDocument() );
+
+        document = null;
+        element = null;
+        any.setAny( null );
+        list.getAny().clear();
+
+        for ( int i = 0; i < 10 && reference.get() != null; i++ )
+        {
+            System.gc();
+            Thread.sleep( 10L );
+        }
+
+        assertNull( reference.get() );
+        assertTrue( copy.getAny().hasChildNodes() );
+        assertTrue( listCopy.getAny().get( 0 ).hasChildNodes() );
+    }
+
+    private Document getDocument( final int elements ) throws Exception
+    {
+        final Document document =
+            DocumentBuilderFactory.newInstance().newDocumentBuilder().getDOMImplementation().
+            createDocument( "http://sourceforge.net/ccxjc/it", "document", null );
+
+        for ( int i = 0; i < elements; i++ )
+        {
+            final Element element = document.createElementNS( "http://sourceforge.net/ccxjc/it", "element" );
+            element.setAttribute( "index", Integer.toString( i ) );
+
+            final Element child = document.createElementNS( "http://sourceforge.net/ccxjc/it", "child" );
+            child.appendChild( document.createTextNode( "Text " + i ) );
+            element.appendChild( child );
+            document.getDocumentElement().appendChild( element );
+        }
+
+        return document;
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.ChildOfChildOfChildOfChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.ChildOfChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.Copier;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.HierarchicalChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.copier.collections.ccxjcit.ParentComplexType;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+
+/**
+ * Tests the {@code -cc-copier} option.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopierTest
+{
+
+    @Test public void testGetTypeId() throws Exception
+    {
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertEquals( Copier.NO_TYPE_ID, Copier.getTypeId( String.class ) );
+            assertEquals( Copier.NO_TYPE_ID, Copier.getTypeId( Object.class ) );
+            assertFalse( Copier.getTypeId( ParentComplexType.class ) == Copier.NO_TYPE_ID );
+            assertFalse( Copier.getTypeId( ParentComplexType.class )
+                         == Copier.getTypeId( ChildOfParentComplexType.class ) );
+
+            assertEquals( Copier.getTypeId( ChildOfParentComplexType.class ),
+                          Copier.getTypeId( CustomChildOfParentComplexType.class ) );
+
+        }
+    }
+
+    @Test public void testCopyDispatchedByTypeId() throws Exception
+    {
+        final HierarchicalChoiceComplexType hierarchicalChoiceComplexType = new HierarchicalChoiceComplexType();
+        final List<ParentComplexType> values =
+            hierarchicalChoiceComplexType.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent();
+
+        values.add( new ParentComplexType() );
+        values.add( new ChildOfParentComplexType() );
+        values.add( new ChildOfChildOfParentComplexType() );
+        values.add( new ChildOfChildOfChildOfChildOfParentComplexType() );
+        values.add( new CustomChildOfParentComplexType() );
+
+        final HierarchicalChoiceComplexType copy = new HierarchicalChoiceComplexType( hierarchicalChoiceComplexType );
+        final List<ParentComplexType> copies =
+            copy.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent();
+
+        assertEquals( values.size(), copies.size() );
+
+        for ( int i = values.size() - 1; i >= 0; i-- )
+        {
+            assertNotSame( values.get( i ), copies.get( i ) );
+            assertEquals( values.get( i ).getClass(), copies.get( i ).getClass() );
+        }
+    }
+
+    public static class CustomChildOfParentComplexType extends ChildOfParentComplexType
+    {
+
+        private static final long serialVersionUID = 1L;
+
+    }
+
+}
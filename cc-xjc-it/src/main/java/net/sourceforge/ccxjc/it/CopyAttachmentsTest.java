@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.activation.FileDataSource;
+import javax.xml.bind.JAXBElement;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import net.sourceforge.ccxjc.it.model.copyattachments.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.copyattachments.collections.ccxjcit.XMimeComplexType;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests deep copying of attachments.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopyAttachmentsTest
+{
+
+    static
+    {
+        System.setProperty( "net.sourceforge.ccxjc.it.model.copyattachments.collections.ccxjcit.Attachments.threshold",
+                            "1024" );
+
+    }
+
+    private final ObjectFactory objectFactory = new ObjectFactory();
+
+    @Test public void testDataHandler() throws Exception
+    {
+        this.assertDataHandlerCopied( 512 );
+        this.assertDataHandlerCopied( 1024 * 1024 );
+    }
+
+    @Test public void testOneShotDataHandler() throws Exception
+    {
+        final byte[] content = this.getContent( 4096 );
+        final JAXBElement<DataHandler> element = this.objectFactory.createXMimeComplexTypeApplicationOctetStream(
+            new DataHandler( new OneShotDataSource( content ) ) );
+
+        final DataHandler copy = (DataHandler) this.getValue( this.copyOf( element ) );
+        assertTrue( Arrays.equals( content, this.read( copy.getInputStream() ) ) );
+        assertTrue( Arrays.equals( content, this.read( element.getValue().getInputStream() ) ) );
+
+        final DataHandler source = element.getValue();
+        this.copyOf( element );
+        assertSame( source, element.getValue() );
+    }
+
+    @Test public void testTemporaryFileDeleted() throws Exception
+    {
+        final File directory = new File( System.getProperty( "java.io.tmpdir" ) );
+        final int files = this.countTemporaryFiles( directory );
+        final byte[] content = this.getContent( 1024 * 1024 );
+        final DataHandler copy = (DataHandler) this.getValue( this.copyOf(
+            this.objectFactory.createXMimeComplexTypeApplicationOctetStream(
+            new DataHandler( new OneShotDataSource( content ) ) ) ) );
+
+        assertEquals( files, this.countTemporaryFiles( directory ) );
+        assertTrue( Arrays.equals( content, this.read( copy.getInputStream() ) ) );
+    }
+
+    @Test public void testIOError() throws Exception
+    {
+        final OneShotDataSource dataSource = new OneShotDataSource( this.getContent( 16 ) );
+        dataSource.getInputStream();
+
+        try
+        {
+            this.copyOf( this.objectFactory.createXMimeComplexTypeApplicationOctetStream(
+                new DataHandler( dataSource ) ) );
+
+            fail( "Expected 'RuntimeException' not thrown." );
+        }
+        catch ( final RuntimeException e )
+        {
+            assertTrue( e.getCause() instanceof IOException );
+        }
+    }
+
+    @Test public void testTemporaryFileDeletedOnError() throws Exception
+    {
+        final File directory = new File( System.getProperty( "java.io.tmpdir" ) );
+        final int files = this.countTemporaryFiles( directory );
+
+        try
+        {
+            this.copyOf( this.objectFactory.createXMimeComplexTypeTextXml(
+                new StreamSource( new FailingReader( 4096 ) ) ) );
+
+            fail( "Expected 'RuntimeException' not thrown." );
+        }
+        catch ( final RuntimeException e )
+        {
+            assertTrue( e.getCause() instanceof IOException );
+        }
+
+        assertEquals( files, this.countTemporaryFiles( directory ) );
+    }
+
+    @Test public void testImage() throws Exception
+    {
+        final BufferedImage image = new BufferedImage( 2, 2, BufferedImage.TYPE_INT_ARGB );
+        image.setRGB( 0, 0, 0xff00ff00 );
+
+        final XMimeComplexType copy = this.copyOf( this.objectFactory.createXMimeComplexTypeJpegImage( image ) );
+        final BufferedImage copied = (BufferedImage) this.getValue( copy );
+        assertNotSame( image, copied );
+        assertEquals( 0xff00ff00, copied.getRGB( 0, 0 ) );
+
+        image.setRGB( 0, 0, 0xffff0000 );
+        assertEquals( 0xff00ff00, copied.getRGB( 0, 0 ) );
+    }
+
+    @Test public void testStreamSource() throws Exception
+    {
+        final byte[] content = this.getContent( 4096 );
+        final StreamSource source = new StreamSource( new ByteArrayInputStream( content ), "urn:test" );
+        final StreamSource copy = (StreamSource) this.getValue( this.copyOf(
+            this.objectFactory.createXMimeComplexTypeTextXml( source ) ) );
+
+        assertNotSame( source, copy );
+        assertEquals( "urn:test", copy.getSystemId() );
+        assertTrue( Arrays.equals( content, this.read( source.getInputStream() ) ) );
+        assertTrue( Arrays.equals( content, this.read( copy.getInputStream() ) ) );
+
+        final StreamSource readerSource = new StreamSource( new StringReader( "<text>\u00e4</text>" ) );
+        final StreamSource readerCopy = (StreamSource) this.getValue( this.copyOf(
+            this.objectFactory.createXMimeComplexTypeTextXml( readerSource ) ) );
+
+        assertEquals( "<text>\u00e4</text>", this.read( readerSource.getReader() ) );
+        assertEquals( "<text>\u00e4</text>", this.read( readerCopy.getReader() ) );
+    }
+
+    @Test public void testDOMSource() throws Exception
+    {
+        final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        document.appendChild( document.createElement( "text" ) );
+
+        final DOMSource copy = (DOMSource) this.getValue( this.copyOf(
+            this.objectFactory.createXMimeComplexTypeTextXml( new DOMSource( document ) ) ) );
+
+        assertNotSame( document, copy.getNode() );
+        assertEquals( "text", ( (Document) copy.getNode() ).getDocumentElement().getNodeName() );
+    }
+
+    private void assertDataHandlerCopied( final int length ) throws Exception
+    {
+        final byte[] content = this.getContent( length );
+        final File file = File.createTempFile( "cc-xjc-it", ".bin" );
+        file.deleteOnExit();
+
+        final FileOutputStream out = new FileOutputStream( file );
+        out.write( content );
+        out.close();
+
+        final DataHandler dataHandler = new DataHandler( new FileDataSource( file ) );
+        final DataHandler copy = (DataHandler) this.getValue( this.copyOf(
+            this.objectFactory.createXMimeComplexTypeApplicationOctetStream( dataHandler ) ) );
+
+        assertNotSame( dataHandler, copy );
+        assertEquals( dataHandler.getContentType(), copy.getContentType() );
+        assertEquals( dataHandler.getName(), copy.getName() );
+        assertTrue( file.delete() );
+        assertTrue( Arrays.equals( content, this.read( copy.getInputStream() ) ) );
+        assertTrue( Arrays.equals( content, this.read( copy.getInputStream() ) ) );
+    }
+
+    private int countTemporaryFiles( final File directory )
+    {
+        int count = 0;
+
+        for ( String name : directory.list() )
+        {
+            if ( name.startsWith( "cc-xjc-" ) && name.endsWith( ".tmp" ) )
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private XMimeComplexType copyOf( final JAXBElement<?> element )
+    {
+        final XMimeComplexType xmime = new XMimeComplexType();
+        xmime.getContent().add( element );
+        return new XMimeComplexType( xmime );
+    }
+
+    private Object getValue( final XMimeComplexType xmime )
+    {
+        return ( (JAXBElement<?>) xmime.getContent().get( 0 ) ).getValue();
+    }
+
+    private byte[] getContent( final int length )
+    {
+        final byte[] content = new byte[ length ];
+
+        for ( int i = content.length - 1; i >= 0; i-- )
+        {
+            content[i] = (byte) i;
+        }
+
+        return content;
+    }
+
+    private byte[] read( final InputStream in ) throws Exception
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[ 1024 ];
+
+        for ( int n = in.read( buffer ); n != -1; n = in.read( buffer ) )
+        {
+            out.write( buffer, 0, n );
+        }
+
+        in.close();
+        return out.toByteArray();
+    }
+
+    private String read( final Reader reader ) throws Exception
+    {
+        final StringWriter writer = new StringWriter();
+        final char[] buffer = new char[ 1024 ];
+
+        for ( int n = reader.read( buffer ); n != -1; n = reader.read( buffer ) )
+        {
+            writer.write( buffer, 0, n );
+        }
+
+        reader.close();
+        return writer.toString();
+    }
+
+    /** Reader failing after having provided a given number of characters. */
+    private static final class FailingReader extends Reader
+    {
+
+        private int remaining;
+
+        FailingReader( final int length )
+        {
+            super();
+            this.remaining = length;
+        }
+
+        @Override
+        public int read( final char[] cbuf, final int off, final int len ) throws IOException
+        {
+            if ( this.remaining == 0 )
+            {
+                throw new IOException( "Reading failed." );
+            }
+
+            final int n = Math.min( len, this.remaining );
+            Arrays.fill( cbuf, off, off + n, 'x' );
+            this.remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+    }
+
+    /** Data source providing its content only once. */
+    private static final class OneShotDataSource implements DataSource
+    {
+
+        private final byte[] content;
+
+        private boolean read;
+
+        OneShotDataSource( final byte[] content )
+        {
+            super();
+            this.content = content;
+        }
+
+        public InputStream getInputStream() throws IOException
+        {
+            if ( this.read )
+            {
+                throw new IOException( "Content already read." );
+            }
+
+            this.read = true;
+            return new ByteArrayInputStream( this.content );
+        }
+
+        public OutputStream getOutputStream() throws IOException
+        {
+            throw new IOException( "Cannot write to a one-shot data source." );
+        }
+
+        public String getContentType()
+        {
+            return "application/octet-stream";
+        }
+
+        public String getName()
+        {
+            return "one-shot";
+        }
+
+    }
+
+}
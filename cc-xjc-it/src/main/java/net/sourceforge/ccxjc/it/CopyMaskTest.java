@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import net.sourceforge.ccxjc.it.model.copymask.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copymask.collections.ccxjcit.CopyMask;
+import net.sourceforge.ccxjc.it.model.copymask.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.copymask.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests copying the properties selected by a mask.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopyMaskTest
+{
+
+    @Test public void testPropertiesNotSelectedLeftNull() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", null ) );
+
+        final NestedComplexType copy = document.copy( CopyMask.compile( false, "name", "detail" ) );
+
+        assertEquals( "document", copy.getName() );
+        assertEquals( document.getDetail(), copy.getDetail() );
+        assertNotSame( document.getDetail(), copy.getDetail() );
+        assertTrue( copy.getNested().isEmpty() );
+        assertEquals( 1, document.getNested().size() );
+    }
+
+    @Test public void testPropertiesNotSelectedShared() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", null ) );
+
+        final NestedComplexType copy = document.copy( CopyMask.compile( true, "name" ) );
+
+        assertEquals( document, copy );
+        assertSame( document.getDetail(), copy.getDetail() );
+        assertNotSame( document.getNested(), copy.getNested() );
+        assertSame( document.getNested().get( 0 ), copy.getNested().get( 0 ) );
+
+        copy.getNested().add( newNested( NestedComplexType.class, "added", null ) );
+        assertEquals( 1, document.getNested().size() );
+        assertEquals( 2, copy.getNested().size() );
+    }
+
+    @Test public void testNestedPaths() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", "nestedDetail" ) );
+
+        final CopyMask mask = CopyMask.compile( false, "nested/name", "detail/parentString" );
+        final NestedComplexType copy = document.copy( mask );
+
+        assertNull( copy.getName() );
+        assertEquals( 1, copy.getNested().size() );
+        assertNotSame( document.getNested().get( 0 ), copy.getNested().get( 0 ) );
+        assertEquals( "nested", copy.getNested().get( 0 ).getName() );
+        assertNull( copy.getNested().get( 0 ).getDetail() );
+        assertTrue( copy.getDetail() instanceof ChildOfParentComplexType );
+        assertEquals( "detail", copy.getDetail().getParentString() );
+        assertNull( ( (ChildOfParentComplexType) copy.getDetail() ).getChildOfParentString() );
+        assertEquals( copy, document.copy( mask ) );
+    }
+
+    @Test public void testPathSelectingPropertyCompletely() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        final NestedComplexType copy = document.copy( CopyMask.compile( false, "detail/parentString", "detail" ) );
+
+        assertEquals( document.getDetail(), copy.getDetail() );
+        assertNotSame( document.getDetail(), copy.getDetail() );
+    }
+
+    @Test public void testIdReferencesResolved() throws Exception
+    {
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        root.setID( "root" );
+        root.setIDREF( root );
+
+        final SimpleTypeAttributes copy = root.copy( CopyMask.compile( false, "id", "idref" ) );
+
+        assertEquals( "root", copy.getID() );
+        assertSame( copy, copy.getIDREF() );
+        assertTrue( copy.getIDREFS().isEmpty() );
+    }
+
+    @Test public void testIllegalArguments() throws Exception
+    {
+        try
+        {
+            new NestedComplexType().copy( null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+
+        try
+        {
+            CopyMask.compile( false, "nested//name" );
+            fail( "Expected 'IllegalArgumentException' not thrown." );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+    }
+
+}
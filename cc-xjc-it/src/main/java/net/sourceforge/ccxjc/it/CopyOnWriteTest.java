@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.Arrays;
+import net.sourceforge.ccxjc.it.model.copyonwrite.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests sharing binary values between copies until written.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopyOnWriteTest
+{
+
+    @Test public void testSharedUntilWritten() throws Exception
+    {
+        final byte[] bytes = new byte[]
+        {
+            1, 2, 3
+        };
+
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setBase64Binary( bytes );
+
+        final SimpleTypeAttributes copy = new SimpleTypeAttributes( attributes );
+        final SimpleTypeAttributes clone = attributes.clone();
+        assertSame( bytes, copy.getBase64Binary() );
+        assertSame( bytes, clone.getBase64Binary() );
+
+        copy.getBase64BinaryForWrite()[0] = 9;
+        assertNotSame( bytes, copy.getBase64Binary() );
+        assertTrue( Arrays.equals( new byte[]
+            {
+                9, 2, 3
+            }, copy.getBase64Binary() ) );
+
+        assertTrue( Arrays.equals( new byte[]
+            {
+                1, 2, 3
+            }, attributes.getBase64Binary() ) );
+
+        final byte[] written = copy.getBase64BinaryForWrite();
+        assertSame( written, copy.getBase64BinaryForWrite() );
+
+        attributes.getBase64BinaryForWrite()[1] = 8;
+        assertEquals( 2, clone.getBase64Binary()[1] );
+        assertEquals( 8, attributes.getBase64Binary()[1] );
+    }
+
+    @Test public void testUnsharedNotCopied() throws Exception
+    {
+        final byte[] bytes = new byte[ 16 ];
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setBase64Binary( bytes );
+        assertSame( bytes, attributes.getBase64BinaryForWrite() );
+
+        final SimpleTypeAttributes copy = new SimpleTypeAttributes( attributes );
+        final byte[] replacement = new byte[ 16 ];
+        copy.setBase64Binary( replacement );
+        assertSame( replacement, copy.getBase64BinaryForWrite() );
+
+        assertNull( new SimpleTypeAttributes().getBase64BinaryForWrite() );
+    }
+
+    @Test public void testLargePayload() throws Exception
+    {
+        final byte[] payload = new byte[ 16 * 1024 * 1024 ];
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setBase64Binary( payload );
+
+        final long start = System.nanoTime();
+        SimpleTypeAttributes copy = attributes;
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            copy = new SimpleTypeAttributes( copy );
+        }
+
+        System.out.println( "Copied 1000 instances with a " + payload.length + " bytes payload in "
+                            + ( System.nanoTime() - start ) / 1000000L + "ms." );
+
+        assertSame( payload, copy.getBase64Binary() );
+    }
+
+}
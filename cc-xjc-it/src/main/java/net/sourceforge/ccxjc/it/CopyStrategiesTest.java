@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ClassCache;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.CopyStrategies;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * Tests the generated {@code CopyStrategies} class.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopyStrategiesTest
+{
+
+    @Test public void testGetCopyStrategy() throws Exception
+    {
+        for ( int i = 0; i < 2; i++ )
+        {
+            assertEquals( CopyStrategies.IMMUTABLE, CopyStrategies.getCopyStrategy( String.class ) );
+            assertEquals( CopyStrategies.IMMUTABLE, CopyStrategies.getCopyStrategy( BigDecimal.class ) );
+            assertEquals( CopyStrategies.IMMUTABLE, CopyStrategies.getCopyStrategy( QName.class ) );
+            assertEquals( CopyStrategies.IMMUTABLE, CopyStrategies.getCopyStrategy( Thread.State.class ) );
+            assertEquals( CopyStrategies.ARRAY, CopyStrategies.getCopyStrategy( byte[].class ) );
+            assertEquals( CopyStrategies.ELEMENT, CopyStrategies.getCopyStrategy( Element.class ) );
+            assertEquals( CopyStrategies.JAXB_ELEMENT, CopyStrategies.getCopyStrategy( JAXBElement.class ) );
+            assertEquals( CopyStrategies.REFLECTIVE, CopyStrategies.getCopyStrategy( ArrayList.class ) );
+            assertEquals( CopyStrategies.DATE, CopyStrategies.getCopyStrategy( Date.class ) );
+            assertEquals( CopyStrategies.URI, CopyStrategies.getCopyStrategy( URI.class ) );
+        }
+    }
+
+    @Test public void testClassCache() throws Exception
+    {
+        final ClassCache cache = new ClassCache();
+        final Class<?>[] types =
+        {
+            String.class, Integer.class, Long.class, Short.class, Byte.class, Character.class, Boolean.class,
+            Float.class, Double.class, Object.class, Number.class, Thread.class, Class.class, Date.class,
+            URI.class, BigDecimal.class, QName.class, Element.class, JAXBElement.class, ArrayList.class,
+            byte[].class, int.class, long.class
+        };
+
+        assertNull( cache.get( String.class ) );
+
+        for ( int i = 0; i < types.length; i++ )
+        {
+            cache.put( types[i], Integer.valueOf( i ) );
+
+            for ( int j = 0; j <= i; j++ )
+            {
+                assertEquals( Integer.valueOf( j ), cache.get( types[j] ) );
+            }
+
+            for ( int j = i + 1; j < types.length; j++ )
+            {
+                assertNull( cache.get( types[j] ) );
+            }
+        }
+
+        cache.put( String.class, "replaced" );
+        assertEquals( "replaced", cache.get( String.class ) );
+        assertEquals( Integer.valueOf( 1 ), cache.get( Integer.class ) );
+    }
+
+}
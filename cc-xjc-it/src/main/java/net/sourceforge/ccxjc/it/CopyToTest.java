@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.ChildOfChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.HierarchicalChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.ParentComplexType;
+import net.sourceforge.ccxjc.it.model.copyto.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests copying instances to existing instances.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class CopyToTest
+{
+
+    @Test public void testCopyToReusesTarget() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", "nestedDetail" ) );
+
+        final NestedComplexType target = newNested( NestedComplexType.class, "target", "targetDetail" );
+        target.getNested().add( newNested( NestedComplexType.class, "target1", null ) );
+        target.getNested().add( newNested( NestedComplexType.class, "target2", null ) );
+
+        final List<NestedComplexType> nested = target.getNested();
+        final ParentComplexType detail = target.getDetail();
+
+        document.copyTo( target );
+        assertEquals( document, target );
+        assertSame( nested, target.getNested() );
+        assertSame( detail, target.getDetail() );
+        assertNotSame( document.getNested().get( 0 ), target.getNested().get( 0 ) );
+        assertNotSame( document.getDetail(), target.getDetail() );
+
+        target.setDetail( new ChildOfChildOfParentComplexType() );
+        document.copyTo( target );
+        assertEquals( document, target );
+        assertEquals( ChildOfParentComplexType.class, target.getDetail().getClass() );
+
+        document.getNested().clear();
+        document.setDetail( null );
+        document.copyTo( target );
+        assertEquals( document, target );
+        assertSame( nested, target.getNested() );
+        assertNull( target.getDetail() );
+
+        document.copyTo( document );
+        assertEquals( target, document );
+
+        try
+        {
+            document.copyTo( null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertEquals( "document", document.getName() );
+        }
+    }
+
+    @Test public void testCopyToHierarchy() throws Exception
+    {
+        final ChildOfChildOfParentComplexType child = new ChildOfChildOfParentComplexType();
+        child.setParentString( "parent" );
+        child.setChildOfParentString( "childOfParent" );
+        child.setChildOfChildOfParentString( "childOfChildOfParent" );
+
+        final ParentComplexType parent = new ParentComplexType();
+        child.copyTo( parent );
+        assertEquals( "parent", parent.getParentString() );
+
+        final ChildOfParentComplexType childOfParent = new ChildOfParentComplexType();
+        childOfParent.setChildOfParentString( "unchanged" );
+        parent.copyTo( childOfParent );
+        assertEquals( "parent", childOfParent.getParentString() );
+        assertEquals( "unchanged", childOfParent.getChildOfParentString() );
+
+        final HierarchicalChoiceComplexType choice = new HierarchicalChoiceComplexType();
+        choice.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().add( child );
+
+        assertEquals( child, new ChildOfChildOfParentComplexType( child ) );
+        assertEquals( child, child.clone() );
+        assertEquals( choice, new HierarchicalChoiceComplexType( choice ) );
+        assertEquals( choice, choice.clone() );
+        assertNotSame( child, choice.clone().getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().
+            get( 0 ) );
+
+    }
+
+    @Test public void testCloneDoesNotModifySource() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", "nestedDetail" ) );
+
+        final List<NestedComplexType> nested = document.getNested();
+        final ParentComplexType detail = document.getDetail();
+        final NestedComplexType clone = document.clone();
+
+        assertEquals( document, clone );
+        assertSame( nested, document.getNested() );
+        assertSame( detail, document.getDetail() );
+        assertEquals( 1, document.getNested().size() );
+        assertNotSame( nested, clone.getNested() );
+        assertNotSame( detail, clone.getDetail() );
+    }
+
+    @Test public void testReferencesResolvedAgainstTarget() throws Exception
+    {
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        final SimpleTypeAttributes referenced = new SimpleTypeAttributes();
+        root.setID( "root" );
+        root.setIDREF( root );
+        root.getIDREFS().add( referenced );
+        root.getIDREFS().add( referenced );
+        referenced.setID( "referenced" );
+        referenced.setIDREF( root );
+
+        final SimpleTypeAttributes target = new SimpleTypeAttributes();
+        root.copyTo( target );
+        assertSame( target, target.getIDREF() );
+        assertNotSame( referenced, target.getIDREFS().get( 0 ) );
+        assertSame( target.getIDREFS().get( 0 ), target.getIDREFS().get( 1 ) );
+        assertSame( target, ( (SimpleTypeAttributes) target.getIDREFS().get( 0 ) ).getIDREF() );
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+import net.sourceforge.ccxjc.it.model.dedup.collections.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.dedup.collections.ccxjcit.DedupTable;
+import net.sourceforge.ccxjc.it.model.dedup.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.dedup.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests sharing equal string and qualified name values copied.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class DedupTest
+{
+
+    @Test public void testEqualStringsShared() throws Exception
+    {
+        final NestedComplexType document = new NestedComplexType();
+        document.setName( new String( "dedup" ) );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            final NestedComplexType nested = new NestedComplexType();
+            nested.setName( new String( "dedup" ) );
+            document.getNested().add( nested );
+        }
+
+        final NestedComplexType copy = new NestedComplexType( document );
+        assertEquals( document, copy );
+        assertSame( copy.getName(), copy.getNested().get( 0 ).getName() );
+        assertSame( copy.getName(), copy.getNested().get( 2 ).getName() );
+        assertSame( copy.getName(), new NestedComplexType( document.getNested().get( 1 ) ).getName() );
+    }
+
+    @Test public void testTokensShared() throws Exception
+    {
+        final SimpleTypeAttributes first = new SimpleTypeAttributes();
+        first.setToken( new String( "dedup-token" ) );
+        first.setNormalizedString( new String( "dedup-normalized" ) );
+
+        final SimpleTypeAttributes second = new SimpleTypeAttributes();
+        second.setToken( new String( "dedup-token" ) );
+        second.setNormalizedString( new String( "dedup-normalized" ) );
+
+        assertSame( new SimpleTypeAttributes( first ).getToken(), new SimpleTypeAttributes( second ).getToken() );
+        assertSame( new SimpleTypeAttributes( first ).getNormalizedString(),
+                    new SimpleTypeAttributes( second ).getNormalizedString() );
+
+    }
+
+    @Test public void testQNamesShared() throws Exception
+    {
+        final SimpleTypeAttributes first = new SimpleTypeAttributes();
+        first.setQName( new QName( "http://ccxjc.sourceforge.net/it", "dedup", "it" ) );
+
+        final SimpleTypeAttributes second = new SimpleTypeAttributes();
+        second.setQName( new QName( "http://ccxjc.sourceforge.net/it", "dedup", "it" ) );
+
+        final SimpleTypeAttributes prefixed = new SimpleTypeAttributes();
+        prefixed.setQName( new QName( "http://ccxjc.sourceforge.net/it", "dedup", "other" ) );
+
+        final QName canonical = new SimpleTypeAttributes( first ).getQName();
+        assertSame( canonical, new SimpleTypeAttributes( second ).getQName() );
+        assertNotSame( canonical, new SimpleTypeAttributes( prefixed ).getQName() );
+        assertEquals( "other", new SimpleTypeAttributes( prefixed ).getQName().getPrefix() );
+        assertNull( new SimpleTypeAttributes( new SimpleTypeAttributes() ).getQName() );
+    }
+
+    @Test public void testElementNamesShared() throws Exception
+    {
+        final ChoiceComplexType choice = new ChoiceComplexType();
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            choice.getStringItemOrIntItemOrBase64BinaryItem().add( new JAXBElement<String>(
+                new QName( "http://ccxjc.sourceforge.net/it", "dedupItem" ), String.class, "value" ) );
+
+        }
+
+        final ChoiceComplexType copy = new ChoiceComplexType( choice );
+        assertEquals( choice, copy );
+        assertSame( ( (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem().get( 0 ) ).getName(),
+                    ( (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem().get( 1 ) ).getName() );
+
+    }
+
+    @Test public void testStatistics() throws Exception
+    {
+        final long lookups = DedupTable.getLookupCount();
+        final long hits = DedupTable.getHitCount();
+        final NestedComplexType nested = new NestedComplexType();
+        nested.setName( new String( "dedup-statistics" ) );
+
+        new NestedComplexType( nested );
+        new NestedComplexType( nested );
+
+        assertEquals( lookups + 2, DedupTable.getLookupCount() );
+        assertEquals( hits + 1, DedupTable.getHitCount() );
+        assertTrue( DedupTable.size() > 0 );
+        assertTrue( DedupTable.getHitRate() > 0.0D && DedupTable.getHitRate() <= 1.0D );
+        System.out.println( "Deduplicated values: " + DedupTable.size() + " - hit rate: "
+                            + DedupTable.getHitRate() );
+
+    }
+
+}
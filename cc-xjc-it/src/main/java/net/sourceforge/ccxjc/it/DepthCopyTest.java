@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import javax.xml.bind.JAXBElement;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.HierarchicalChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.depth.collections.ccxjcit.ParentComplexType;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests shallow copies and copies bounded to a depth of schema derived instances.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class DepthCopyTest
+{
+
+    @Test public void testShallowCopy() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType copy = document.shallowCopy();
+
+        assertEquals( document, copy );
+        assertNotSame( document, copy );
+        assertSame( document.getDetail(), copy.getDetail() );
+        assertNotSame( document.getNested(), copy.getNested() );
+        assertSame( document.getNested().get( 0 ), copy.getNested().get( 0 ) );
+
+        copy.getNested().clear();
+        assertEquals( 1, document.getNested().size() );
+    }
+
+    @Test public void testDepthCopy() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType copy = document.copy( 1 );
+
+        assertEquals( document, copy );
+        assertNotSame( document.getDetail(), copy.getDetail() );
+        assertTrue( copy.getDetail() instanceof ChildOfParentComplexType );
+
+        final NestedComplexType nested = document.getNested().get( 0 );
+        final NestedComplexType nestedCopy = copy.getNested().get( 0 );
+        assertNotSame( nested, nestedCopy );
+        assertSame( nested.getDetail(), nestedCopy.getDetail() );
+        assertNotSame( nested.getNested(), nestedCopy.getNested() );
+        assertSame( nested.getNested().get( 0 ), nestedCopy.getNested().get( 0 ) );
+    }
+
+    @Test public void testUnboundedDepthCopy() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType copy = document.copy( Integer.MAX_VALUE );
+        final NestedComplexType nested = document.getNested().get( 0 );
+        final NestedComplexType nestedCopy = copy.getNested().get( 0 );
+
+        assertEquals( document, copy );
+        assertEquals( document.clone(), copy );
+        assertNotSame( nested.getDetail(), nestedCopy.getDetail() );
+        assertNotSame( nested.getNested().get( 0 ), nestedCopy.getNested().get( 0 ) );
+    }
+
+    @Test public void testChoiceDepthCopy() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType nestedChoice = new ChoiceComplexType();
+        final ChoiceComplexType nestedNestedChoice = new ChoiceComplexType();
+        nestedChoice.getStringItemOrIntItemOrBase64BinaryItem().add(
+            objectFactory.createChoiceComplexTypeChoiceItem( nestedNestedChoice ) );
+
+        final ChoiceComplexType choice = new ChoiceComplexType();
+        final List<Object> items = choice.getStringItemOrIntItemOrBase64BinaryItem();
+        items.add( objectFactory.createChoiceComplexTypeStringItem( "TEST" ) );
+        items.add( objectFactory.createChoiceComplexTypeChoiceItem( nestedChoice ) );
+
+        final ChoiceComplexType copy = choice.copy( 1 );
+        final List<Object> copies = copy.getStringItemOrIntItemOrBase64BinaryItem();
+        assertEquals( choice, copy );
+        assertEquals( items.size(), copies.size() );
+        assertNotSame( items.get( 1 ), copies.get( 1 ) );
+
+        final JAXBElement<?> nestedElement = (JAXBElement<?>) items.get( 1 );
+        final JAXBElement<?> nestedElementCopy = (JAXBElement<?>) copies.get( 1 );
+        assertEquals( nestedElement.getName(), nestedElementCopy.getName() );
+        assertNotSame( nestedChoice, nestedElementCopy.getValue() );
+
+        // The nested choice is copied to depth 0, sharing the elements of its list.
+        final ChoiceComplexType nestedChoiceCopy = (ChoiceComplexType) nestedElementCopy.getValue();
+        assertNotSame( nestedChoice.getStringItemOrIntItemOrBase64BinaryItem(),
+                       nestedChoiceCopy.getStringItemOrIntItemOrBase64BinaryItem() );
+
+        assertSame( nestedChoice.getStringItemOrIntItemOrBase64BinaryItem().get( 0 ),
+                    nestedChoiceCopy.getStringItemOrIntItemOrBase64BinaryItem().get( 0 ) );
+
+        final HierarchicalChoiceComplexType hierarchicalChoice = new HierarchicalChoiceComplexType();
+        final ParentComplexType parent = new ParentComplexType();
+        final ChildOfParentComplexType childOfParent = new ChildOfParentComplexType();
+        hierarchicalChoice.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().add( parent );
+        hierarchicalChoice.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().add(
+            childOfParent );
+
+        final List<ParentComplexType> parentCopies = hierarchicalChoice.copy( 1 ).
+            getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent();
+
+        assertEquals( 2, parentCopies.size() );
+        assertNotSame( parent, parentCopies.get( 0 ) );
+        assertNotSame( childOfParent, parentCopies.get( 1 ) );
+        assertEquals( ChildOfParentComplexType.class, parentCopies.get( 1 ).getClass() );
+        assertSame( hierarchicalChoice.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().
+            get( 0 ), hierarchicalChoice.copy( 0 ).
+            getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().get( 0 ) );
+
+    }
+
+    @Test public void testIllegalDepth() throws Exception
+    {
+        try
+        {
+            this.getDocument().copy( -1 );
+            fail( "Expected 'IllegalArgumentException' not thrown." );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+    }
+
+    private NestedComplexType getDocument() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        final NestedComplexType nested = newNested( NestedComplexType.class, "nested", "nestedDetail" );
+        nested.getNested().add( newNested( NestedComplexType.class, "nestedNested", "nestedNestedDetail" ) );
+        document.getNested().add( nested );
+        return document;
+    }
+
+}
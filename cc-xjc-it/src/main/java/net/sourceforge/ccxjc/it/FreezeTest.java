@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import javax.xml.bind.JAXBElement;
+import net.sourceforge.ccxjc.it.model.frozen.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.frozen.collections.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.frozen.collections.ccxjcit.ObjectFactory;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests the {@code -cc-freezable} option.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class FreezeTest
+{
+
+    @Test public void testFrozenInstancesRejectModifications() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType child = new ChoiceComplexType();
+        final ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( child ) );
+        root.freeze();
+
+        assertTrue( root.isFrozen() );
+        assertTrue( child.isFrozen() );
+
+        try
+        {
+            root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "" ) );
+            fail( "Expected 'UnsupportedOperationException' not thrown." );
+        }
+        catch ( final UnsupportedOperationException e )
+        {
+            assertEquals( 1, root.getStringItemOrIntItemOrBase64BinaryItem().size() );
+        }
+
+        final ChildOfParentComplexType hierarchy = new ChildOfParentComplexType();
+        hierarchy.setChildOfParentString( "child" );
+        hierarchy.freeze();
+
+        try
+        {
+            hierarchy.setChildOfParentString( "changed" );
+            fail( "Expected 'UnsupportedOperationException' not thrown." );
+        }
+        catch ( final UnsupportedOperationException e )
+        {
+            assertEquals( "child", hierarchy.getChildOfParentString() );
+        }
+    }
+
+    @Test public void testFrozenChildrenShared() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType frozen = new ChoiceComplexType();
+        frozen.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "" ) );
+        frozen.freeze();
+
+        final ChoiceComplexType mutable = new ChoiceComplexType();
+        final ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( frozen ) );
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( mutable ) );
+
+        this.assertFrozenChildrenShared( root, new ChoiceComplexType( root ) );
+        this.assertFrozenChildrenShared( root, root.clone() );
+
+        root.freeze();
+        final ChoiceComplexType copy = root.clone();
+        assertFalse( copy.isFrozen() );
+        assertSame( this.getValue( root, 1 ), this.getValue( copy, 1 ) );
+        copy.getStringItemOrIntItemOrBase64BinaryItem().clear();
+        assertEquals( 2, root.getStringItemOrIntItemOrBase64BinaryItem().size() );
+    }
+
+    @Test public void testFrozenIndexedCollections() throws Exception
+    {
+        final net.sourceforge.ccxjc.it.model.frozen.indexed.ccxjcit.ObjectFactory objectFactory =
+            new net.sourceforge.ccxjc.it.model.frozen.indexed.ccxjcit.ObjectFactory();
+
+        final net.sourceforge.ccxjc.it.model.frozen.indexed.ccxjcit.ChoiceComplexType root =
+            new net.sourceforge.ccxjc.it.model.frozen.indexed.ccxjcit.ChoiceComplexType();
+
+        root.setStringItemOrIntItemOrBase64BinaryItem( new Object[]
+            {
+                objectFactory.createChoiceComplexTypeStringItem( "a" )
+            } );
+
+        root.freeze();
+
+        try
+        {
+            root.setStringItemOrIntItemOrBase64BinaryItem( 0, objectFactory.createChoiceComplexTypeStringItem( "b" ) );
+            fail( "Expected 'UnsupportedOperationException' not thrown." );
+        }
+        catch ( final UnsupportedOperationException e )
+        {
+            assertEquals( "a", ( (JAXBElement<?>) root.getStringItemOrIntItemOrBase64BinaryItem( 0 ) ).getValue() );
+        }
+    }
+
+    private void assertFrozenChildrenShared( final ChoiceComplexType root, final ChoiceComplexType copy )
+    {
+        assertSame( this.getValue( root, 0 ), this.getValue( copy, 0 ) );
+        assertNotSame( this.getValue( root, 1 ), this.getValue( copy, 1 ) );
+    }
+
+    private Object getValue( final ChoiceComplexType choice, final int index )
+    {
+        final List<Object> items = choice.getStringItemOrIntItemOrBase64BinaryItem();
+        return ( (JAXBElement<?>) items.get( index ) ).getValue();
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ChildOfChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.HierarchicalChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.ParentComplexType;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+
+/**
+ * Tests copying homogeneous and heterogeneous collections.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class HomogeneousCollectionsTest
+{
+
+    @Test public void testHomogeneousCollections() throws Exception
+    {
+        final HierarchicalChoiceComplexType hierarchicalChoiceComplexType = new HierarchicalChoiceComplexType();
+        final List<ParentComplexType> values = this.getValues( hierarchicalChoiceComplexType );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            values.add( new ChildOfParentComplexType() );
+        }
+
+        this.assertCopy( values, this.getValues( new HierarchicalChoiceComplexType( hierarchicalChoiceComplexType ) ) );
+        this.assertCopy( values, this.getValues( hierarchicalChoiceComplexType.clone() ) );
+    }
+
+    @Test public void testHeterogeneousCollections() throws Exception
+    {
+        final HierarchicalChoiceComplexType hierarchicalChoiceComplexType = new HierarchicalChoiceComplexType();
+        final List<ParentComplexType> values = this.getValues( hierarchicalChoiceComplexType );
+        values.add( new ChildOfParentComplexType() );
+        values.add( new ChildOfParentComplexType() );
+        values.add( new ChildOfChildOfParentComplexType() );
+        values.add( new ChildOfParentComplexType() );
+        values.add( new ParentComplexType() );
+
+        this.assertCopy( values, this.getValues( new HierarchicalChoiceComplexType( hierarchicalChoiceComplexType ) ) );
+        this.assertCopy( values, this.getValues( hierarchicalChoiceComplexType.clone() ) );
+
+        values.add( 0, new ParentComplexType() );
+        this.assertCopy( values, this.getValues( hierarchicalChoiceComplexType.clone() ) );
+    }
+
+    private List<ParentComplexType> getValues( final HierarchicalChoiceComplexType hierarchicalChoiceComplexType )
+    {
+        return hierarchicalChoiceComplexType.
+            getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent();
+
+    }
+
+    private void assertCopy( final List<ParentComplexType> values, final List<ParentComplexType> copies )
+    {
+        assertEquals( values.size(), copies.size() );
+
+        for ( int i = values.size() - 1; i >= 0; i-- )
+        {
+            assertNotSame( values.get( i ), copies.get( i ) );
+            assertEquals( values.get( i ).getClass(), copies.get( i ).getClass() );
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import net.sourceforge.ccxjc.it.model.priv.collections.valueclass.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests copying of {@code IDREF} and {@code IDREFS} properties.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class IdReferenceTest
+{
+
+    @Test public void testReferencesResolvedAgainstCopy() throws Exception
+    {
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        final SimpleTypeAttributes referenced = new SimpleTypeAttributes();
+        root.setID( "root" );
+        root.setIDREF( root );
+        root.getIDREFS().add( referenced );
+        root.getIDREFS().add( root );
+        root.getIDREFS().add( referenced );
+        referenced.setID( "referenced" );
+        referenced.setIDREF( root );
+
+        this.assertReferencesResolvedAgainstCopy( root, new SimpleTypeAttributes( root ) );
+        this.assertReferencesResolvedAgainstCopy( root, root.clone() );
+    }
+
+    @Test public void testUnresolvedReferences() throws Exception
+    {
+        final SimpleTypeAttributes t = new SimpleTypeAttributes();
+        t.setIDREF( "ID" );
+        t.getIDREFS().add( "ID" );
+
+        final SimpleTypeAttributes copy = t.clone();
+        assertEquals( "ID", copy.getIDREF() );
+        assertEquals( 1, copy.getIDREFS().size() );
+        assertEquals( "ID", copy.getIDREFS().get( 0 ) );
+    }
+
+    private void assertReferencesResolvedAgainstCopy( final SimpleTypeAttributes root,
+                                                      final SimpleTypeAttributes copy )
+    {
+        assertNotSame( root, copy );
+        assertSame( copy, copy.getIDREF() );
+        assertEquals( 3, copy.getIDREFS().size() );
+        assertSame( copy, copy.getIDREFS().get( 1 ) );
+
+        final SimpleTypeAttributes referenced = (SimpleTypeAttributes) copy.getIDREFS().get( 0 );
+        assertNotSame( root.getIDREFS().get( 0 ), referenced );
+        assertSame( referenced, copy.getIDREFS().get( 2 ) );
+        assertEquals( "referenced", referenced.getID() );
+        assertSame( copy, referenced.getIDREF() );
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.xml.datatype.DatatypeFactory;
+import net.sourceforge.ccxjc.it.model.intern.collections.ccxjcit.InternTable;
+import net.sourceforge.ccxjc.it.model.intern.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.intern.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests creating copies sharing one instance per distinct value.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class InternTest
+{
+
+    @Test public void testEqualInstancesShared() throws Exception
+    {
+        final NestedComplexType document = this.getDocument( "first", "second", "first" );
+        final NestedComplexType copy = document.internedCopy( new InternTable( 1024 ) );
+        assertEquals( document, copy );
+        assertTrue( copy.isFrozen() );
+        assertSame( copy.getNested().get( 0 ), copy.getNested().get( 2 ) );
+        assertNotSame( copy.getNested().get( 0 ), copy.getNested().get( 1 ) );
+        assertSame( copy.getNested().get( 0 ).getDetail(), copy.getNested().get( 1 ).getDetail() );
+        assertNotSame( copy.getDetail(), copy.getNested().get( 0 ).getDetail() );
+    }
+
+    @Test public void testBoundedTable() throws Exception
+    {
+        final InternTable table = new InternTable( 0 );
+        final NestedComplexType document = this.getDocument( "first", "first" );
+        final NestedComplexType copy = document.internedCopy( table );
+        assertEquals( document, copy );
+        assertEquals( 0, table.size() );
+        assertNotSame( copy.getNested().get( 0 ), copy.getNested().get( 1 ) );
+    }
+
+    @Test public void testLexicalRepresentationsKept() throws Exception
+    {
+        final InternTable table = new InternTable( 1024 );
+        final SimpleTypeAttributes utc = this.getAttributes( "2020-01-01T12:00:00Z", "PT24H" );
+        final SimpleTypeAttributes offset = this.getAttributes( "2020-01-01T14:00:00+02:00", "P1D" );
+        assertEquals( utc.getDateTime(), offset.getDateTime() );
+        assertEquals( utc.getDuration(), offset.getDuration() );
+
+        final SimpleTypeAttributes internedUtc = utc.internedCopy( table );
+        final SimpleTypeAttributes internedOffset = offset.internedCopy( table );
+
+        assertNotSame( internedUtc, internedOffset );
+        assertEquals( "2020-01-01T12:00:00Z", internedUtc.getDateTime().toXMLFormat() );
+        assertEquals( "PT24H", internedUtc.getDuration().toString() );
+        assertEquals( "2020-01-01T14:00:00+02:00", internedOffset.getDateTime().toXMLFormat() );
+        assertEquals( "P1D", internedOffset.getDuration().toString() );
+        assertSame( internedOffset, this.getAttributes( "2020-01-01T14:00:00+02:00", "P1D" ).internedCopy( table ) );
+    }
+
+    @Test public void testInstanceCount() throws Exception
+    {
+        final String[] names = new String[ 10000 ];
+
+        for ( int i = names.length - 1; i >= 0; i-- )
+        {
+            names[i] = "nested" + ( i % 10 );
+        }
+
+        final NestedComplexType document = this.getDocument( names );
+        final NestedComplexType copy = document.internedCopy( new InternTable( 1024 ) );
+        final int documentCount = this.countInstances( document, new IdentityHashMap<Object, Object>() );
+        final int copyCount = this.countInstances( copy, new IdentityHashMap<Object, Object>() );
+
+        assertEquals( document, copy );
+        assertEquals( 2 * names.length + 2, documentCount );
+        assertEquals( 13, copyCount );
+    }
+
+    @Test public void testIllegalArguments() throws Exception
+    {
+        try
+        {
+            new NestedComplexType().internedCopy( null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+
+        try
+        {
+            new InternTable( -1 );
+            fail( "Expected 'IllegalArgumentException' not thrown." );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+    }
+
+    private int countInstances( final NestedComplexType nested, final Map<Object, Object> counted )
+    {
+        if ( nested != null && counted.put( nested, nested ) == null )
+        {
+            counted.put( nested.getDetail(), nested.getDetail() );
+
+            for ( NestedComplexType n : nested.getNested() )
+            {
+                this.countInstances( n, counted );
+            }
+        }
+
+        return counted.size();
+    }
+
+    private SimpleTypeAttributes getAttributes( final String dateTime, final String duration ) throws Exception
+    {
+        final DatatypeFactory datatypeFactory = DatatypeFactory.newInstance();
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setDateTime( datatypeFactory.newXMLGregorianCalendar( dateTime ) );
+        attributes.setDuration( datatypeFactory.newDuration( duration ) );
+        return attributes;
+    }
+
+    private NestedComplexType getDocument( final String... names ) throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+
+        for ( String name : names )
+        {
+            document.getNested().add( newNested( NestedComplexType.class, name, "nestedDetail" ) );
+        }
+
+        return document;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import net.sourceforge.ccxjc.it.model.iterative.collections.ccxjcit.ChildOfChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.iterative.collections.ccxjcit.HierarchicalChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.iterative.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.iterative.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests copying instances iteratively.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class IterativeCopyTest
+{
+
+    /** Depth of the nested document exceeding the stack depth available for recursive copies. */
+    private static final int DEPTH = 100000;
+
+    @Test public void testDeeplyNestedCopy() throws Exception
+    {
+        final NestedComplexType document = this.getNested( DEPTH );
+
+        this.assertNestedCopy( document, new NestedComplexType( document ) );
+        this.assertNestedCopy( document, document.clone() );
+    }
+
+    @Test public void testShallowCopy() throws Exception
+    {
+        final NestedComplexType document = this.getNested( 3 );
+        document.getNested().add( this.getNested( 2 ) );
+
+        final HierarchicalChoiceComplexType choice = new HierarchicalChoiceComplexType();
+        final ChildOfChildOfParentComplexType child = new ChildOfChildOfParentComplexType();
+        child.setParentString( "parent" );
+        child.setChildOfParentString( "childOfParent" );
+        child.setChildOfChildOfParentString( "childOfChildOfParent" );
+        choice.getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().add( child );
+
+        assertEquals( document, new NestedComplexType( document ) );
+        assertEquals( document, document.clone() );
+        assertEquals( choice, new HierarchicalChoiceComplexType( choice ) );
+        assertEquals( choice, choice.clone() );
+        assertNotSame( child, choice.clone().getChildOfChildOfChildOfChildOfParentOrChildOfChildOfChildOfParentOrParent().
+            get( 0 ) );
+
+    }
+
+    @Test public void testReferencesResolvedAgainstCopy() throws Exception
+    {
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        final SimpleTypeAttributes referenced = new SimpleTypeAttributes();
+        root.setID( "root" );
+        root.setIDREF( root );
+        root.getIDREFS().add( referenced );
+        root.getIDREFS().add( referenced );
+        referenced.setID( "referenced" );
+        referenced.setIDREF( root );
+
+        final SimpleTypeAttributes copy = root.clone();
+        assertNotSame( root, copy );
+        assertSame( copy, copy.getIDREF() );
+        assertSame( copy.getIDREFS().get( 0 ), copy.getIDREFS().get( 1 ) );
+        assertSame( copy, ( (SimpleTypeAttributes) copy.getIDREFS().get( 0 ) ).getIDREF() );
+    }
+
+    private NestedComplexType getNested( final int depth )
+    {
+        final NestedComplexType root = new NestedComplexType();
+        NestedComplexType current = root;
+        current.setName( "0" );
+
+        for ( int i = 1; i < depth; i++ )
+        {
+            final NestedComplexType nested = new NestedComplexType();
+            nested.setName( Integer.toString( i ) );
+            current.getNested().add( nested );
+            current = nested;
+        }
+
+        return root;
+    }
+
+    private void assertNestedCopy( final NestedComplexType document, final NestedComplexType copy )
+    {
+        NestedComplexType source = document;
+        NestedComplexType target = copy;
+        int depth = 0;
+
+        while ( source != null )
+        {
+            assertNotSame( source, target );
+            assertEquals( source.getName(), target.getName() );
+            assertEquals( source.getNested().size(), target.getNested().size() );
+            depth++;
+
+            source = source.getNested().isEmpty() ? null : source.getNested().get( 0 );
+            target = target.getNested().isEmpty() ? null : target.getNested().get( 0 );
+        }
+
+        assertEquals( DEPTH, depth );
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.List;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import net.sourceforge.ccxjc.it.model.lazy.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.lazy.collections.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.lazy.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.lazy.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests the {@code -cc-lazy} option.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class LazyCopyTest
+{
+
+    @Test public void testCollectionsStayIndependent() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType child = new ChoiceComplexType();
+        child.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "c" ) );
+
+        final ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( child ) );
+
+        final ChoiceComplexType copy = new ChoiceComplexType( root, true );
+        copy.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "a" ) );
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "b" ) );
+
+        assertEquals( 2, root.getStringItemOrIntItemOrBase64BinaryItem().size() );
+        assertEquals( 2, copy.getStringItemOrIntItemOrBase64BinaryItem().size() );
+        assertEquals( "b", this.getValue( root, 1 ) );
+        assertEquals( "a", this.getValue( copy, 1 ) );
+
+        final ChoiceComplexType childCopy = (ChoiceComplexType) this.getValue( copy, 0 );
+        assertNotSame( child, childCopy );
+        childCopy.getStringItemOrIntItemOrBase64BinaryItem().clear();
+        assertEquals( 1, child.getStringItemOrIntItemOrBase64BinaryItem().size() );
+    }
+
+    @Test public void testPropertiesStayIndependent() throws Exception
+    {
+        final XMLGregorianCalendar calendar = DatatypeFactory.newInstance().newXMLGregorianCalendar();
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        root.setDate( calendar );
+        root.setBase64Binary( new byte[]
+            {
+                1, 2, 3
+            } );
+
+        final SimpleTypeAttributes copy = new SimpleTypeAttributes( root, true );
+        assertEquals( calendar, copy.getDate() );
+        assertNotSame( calendar, copy.getDate() );
+        assertEquals( 1, copy.getBase64Binary()[0] );
+
+        root.getBase64Binary()[0] = 0;
+        root.setDate( null );
+
+        assertNull( root.getDate() );
+        assertEquals( calendar, copy.getDate() );
+        assertEquals( 1, copy.getBase64Binary()[0] );
+
+        final SimpleTypeAttributes copyOfCopy = new SimpleTypeAttributes( copy, true );
+        copy.setDate( null );
+        assertEquals( calendar, copyOfCopy.getDate() );
+        assertEquals( calendar, copyOfCopy.clone().getDate() );
+    }
+
+    @Test public void testHierarchicalLazyCopy() throws Exception
+    {
+        final ChildOfParentComplexType root = new ChildOfParentComplexType();
+        root.setChildOfParentString( "child" );
+
+        final ChildOfParentComplexType copy = new ChildOfParentComplexType( root, true );
+        root.setChildOfParentString( "changed" );
+        assertEquals( "child", copy.getChildOfParentString() );
+    }
+
+    @Test public void testIndexedCollectionsStayIndependent() throws Exception
+    {
+        final net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ObjectFactory objectFactory =
+            new net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ObjectFactory();
+
+        final net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ChoiceComplexType root =
+            new net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ChoiceComplexType();
+
+        root.setStringItemOrIntItemOrBase64BinaryItem( new Object[]
+            {
+                objectFactory.createChoiceComplexTypeStringItem( "a" )
+            } );
+
+        final net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ChoiceComplexType copy =
+            new net.sourceforge.ccxjc.it.model.lazy.indexed.ccxjcit.ChoiceComplexType( root, true );
+
+        assertEquals( "a", ( (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem( 0 ) ).getValue() );
+        root.setStringItemOrIntItemOrBase64BinaryItem( 0, objectFactory.createChoiceComplexTypeStringItem( "b" ) );
+
+        assertEquals( "b", ( (JAXBElement<?>) root.getStringItemOrIntItemOrBase64BinaryItem( 0 ) ).getValue() );
+        assertEquals( "a", ( (JAXBElement<?>) copy.getStringItemOrIntItemOrBase64BinaryItem( 0 ) ).getValue() );
+    }
+
+    @Test public void testUnmarshalledLazyCopy() throws Exception
+    {
+        final JAXBElement<ChoiceComplexType> e = (JAXBElement<ChoiceComplexType>) JAXBContext.newInstance(
+            ChoiceComplexType.class ).createUnmarshaller().unmarshal( this.getClass().getResource(
+            "ChoiceComplexTypeTest.xml" ) );
+
+        final ChoiceComplexType copy = new ChoiceComplexType( e.getValue(), true );
+        assertFalse( copy.getStringItemOrIntItemOrBase64BinaryItem().isEmpty() );
+        e.getValue().getStringItemOrIntItemOrBase64BinaryItem().clear();
+        assertFalse( copy.getStringItemOrIntItemOrBase64BinaryItem().isEmpty() );
+    }
+
+    @Test public void testSourceNotModified() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType child = new ChoiceComplexType();
+        child.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeStringItem( "c" ) );
+
+        final ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( child ) );
+
+        final List<Object> items = root.getStringItemOrIntItemOrBase64BinaryItem();
+        final ChoiceComplexType copy = new ChoiceComplexType( root, true );
+
+        assertSame( items, root.getStringItemOrIntItemOrBase64BinaryItem() );
+        assertSame( child, this.getValue( root, 0 ) );
+        assertNotSame( items, copy.getStringItemOrIntItemOrBase64BinaryItem() );
+        assertNotSame( child, this.getValue( copy, 0 ) );
+
+        items.add( objectFactory.createChoiceComplexTypeStringItem( "b" ) );
+        child.getStringItemOrIntItemOrBase64BinaryItem().clear();
+
+        assertSame( child, this.getValue( root, 0 ) );
+        assertEquals( 2, root.getStringItemOrIntItemOrBase64BinaryItem().size() );
+        assertEquals( 1, copy.getStringItemOrIntItemOrBase64BinaryItem().size() );
+        assertEquals( "c", this.getValue( (ChoiceComplexType) this.getValue( copy, 0 ), 0 ) );
+    }
+
+    private Object getValue( final ChoiceComplexType choice, final int index )
+    {
+        final List<Object> items = choice.getStringItemOrIntItemOrBase64BinaryItem();
+        return ( (JAXBElement<?>) items.get( index ) ).getValue();
+    }
+
+}
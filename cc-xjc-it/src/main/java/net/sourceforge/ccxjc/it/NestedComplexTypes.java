@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+/**
+ * Creates {@code NestedComplexType} instances of the packages generated by the test suite.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+final class NestedComplexTypes
+{
+
+    private NestedComplexTypes()
+    {
+        super();
+    }
+
+    /**
+     * Creates a new {@code NestedComplexType} instance.
+     *
+     * @param nestedClass The {@code NestedComplexType} class of the package to create an instance of.
+     * @param name The name of the instance.
+     * @param detail The strings of a {@code ChildOfParentComplexType} detail or {@code null}, to create an instance
+     * without detail.
+     *
+     * @return A new {@code NestedComplexType} instance named {@code name}.
+     *
+     * @throws Exception if creating the instance fails.
+     */
+    static <T> T newNested( final Class<T> nestedClass, final String name, final String detail ) throws Exception
+    {
+        final T nested = nestedClass.newInstance();
+        nestedClass.getMethod( "setName", String.class ).invoke( nested, name );
+
+        if ( detail != null )
+        {
+            final String packageName = nestedClass.getPackage().getName();
+            final Class<?> parentClass =
+                Class.forName( packageName + ".ParentComplexType", true, nestedClass.getClassLoader() );
+
+            final Class<?> childOfParentClass =
+                Class.forName( packageName + ".ChildOfParentComplexType", true, nestedClass.getClassLoader() );
+
+            final Object childOfParent = childOfParentClass.newInstance();
+            childOfParentClass.getMethod( "setParentString", String.class ).invoke( childOfParent, detail );
+            childOfParentClass.getMethod( "setChildOfParentString", String.class ).invoke( childOfParent, detail );
+            nestedClass.getMethod( "setDetail", parentClass ).invoke( nested, childOfParent );
+        }
+
+        return nested;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import net.sourceforge.ccxjc.it.model.packcalendars.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.packcalendars.collections.ccxjcit.PackedCalendar;
+import net.sourceforge.ccxjc.it.model.packcalendars.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * Tests storing calendars packed.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class PackCalendarsTest
+{
+
+    private static final String[] LEXICAL_FORMS =
+    {
+        "2010-12-12T04:53:29+01:00", "2010-12-12T04:53:29.123456789Z", "-0044-03-15T12:00:00.5-14:00",
+        "2010-12-12", "04:53:29.10", "2010-12", "2010", "--12-12", "---12", "--12", "24:00:00",
+        "2010-12-12T04:53:29.1234567891+01:00", "12345678-01-01", "2010-12-12T00:00:00.000"
+    };
+
+    @Test public void testPackedCalendars() throws Exception
+    {
+        final DatatypeFactory datatypeFactory = DatatypeFactory.newInstance();
+
+        for ( String lexicalForm : LEXICAL_FORMS )
+        {
+            final XMLGregorianCalendar calendar = datatypeFactory.newXMLGregorianCalendar( lexicalForm );
+            final PackedCalendar packed = PackedCalendar.valueOf( calendar );
+            assertEquals( lexicalForm, calendar, packed.toXMLGregorianCalendar() );
+            assertEquals( lexicalForm, calendar.toXMLFormat(), packed.toString() );
+            assertEquals( lexicalForm, packed, PackedCalendar.valueOf( packed.toXMLGregorianCalendar() ) );
+            assertEquals( lexicalForm, packed.hashCode(),
+                          PackedCalendar.valueOf( packed.toXMLGregorianCalendar() ).hashCode() );
+
+        }
+
+        assertFalse( PackedCalendar.valueOf( datatypeFactory.newXMLGregorianCalendar( "2010" ) ).equals(
+            PackedCalendar.valueOf( datatypeFactory.newXMLGregorianCalendar( "2011" ) ) ) );
+
+        assertNull( PackedCalendar.valueOf( null ) );
+    }
+
+    @Test public void testCopiesShareValues() throws Exception
+    {
+        final XMLGregorianCalendar dateTime =
+            DatatypeFactory.newInstance().newXMLGregorianCalendar( "2010-12-12T04:53:29.123+01:00" );
+
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setDateTime( dateTime );
+        dateTime.setYear( 2011 );
+        assertEquals( 2010, attributes.getDateTime().getYear() );
+
+        attributes.getDateTime().setYear( 2011 );
+        assertEquals( 2010, attributes.getDateTime().getYear() );
+        assertNotSame( attributes.getDateTime(), attributes.getDateTime() );
+
+        final SimpleTypeAttributes copy = new SimpleTypeAttributes( attributes );
+        assertEquals( attributes.getDateTime(), copy.getDateTime() );
+        assertEquals( attributes.getDateTime(), attributes.clone().getDateTime() );
+        assertNull( copy.getGYear() );
+
+        attributes.setDateTime( null );
+        assertNull( attributes.getDateTime() );
+    }
+
+    @Test public void testMarshalling() throws Exception
+    {
+        final DatatypeFactory datatypeFactory = DatatypeFactory.newInstance();
+        final SimpleTypeAttributes attributes = new SimpleTypeAttributes();
+        attributes.setDateTime( datatypeFactory.newXMLGregorianCalendar( "2010-12-12T04:53:29.123+01:00" ) );
+        attributes.setGYear( datatypeFactory.newXMLGregorianCalendar( "2010" ) );
+        attributes.setGMonthDay( datatypeFactory.newXMLGregorianCalendar( "--12-12" ) );
+
+        final JAXBContext context = JAXBContext.newInstance( ObjectFactory.class );
+        final StringWriter writer = new StringWriter();
+        context.createMarshaller().marshal( new ObjectFactory().createSimpleTypeAttibutesTest( attributes ), writer );
+
+        final JAXBElement<SimpleTypeAttributes> e = (JAXBElement<SimpleTypeAttributes>)
+            context.createUnmarshaller().unmarshal( new StringReader( writer.toString() ) );
+
+        assertEquals( attributes.getDateTime(), e.getValue().getDateTime() );
+        assertEquals( attributes.getGYear(), e.getValue().getGYear() );
+        assertEquals( attributes.getGMonthDay(), e.getValue().getGMonthDay() );
+        assertNull( e.getValue().getDate() );
+    }
+
+}
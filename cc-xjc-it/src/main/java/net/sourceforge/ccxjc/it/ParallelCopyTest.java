@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sourceforge.ccxjc.it.model.parallel.ChildOfParallelItemType;
+import net.sourceforge.ccxjc.it.model.parallel.CopyOptions;
+import net.sourceforge.ccxjc.it.model.parallel.ParallelDocumentType;
+import net.sourceforge.ccxjc.it.model.parallel.ParallelItemType;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Tests copying instances in parallel.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class ParallelCopyTest
+{
+
+    @Test public void testParallelCopy() throws Exception
+    {
+        final ParallelDocumentType document = this.getDocument( 1000 );
+        final AtomicInteger workers = new AtomicInteger();
+        final ForkJoinPool pool = new ForkJoinPool( 4, new ForkJoinPool.ForkJoinWorkerThreadFactory()
+        {
+
+            public ForkJoinWorkerThread newThread( final ForkJoinPool pool )
+            {
+                workers.incrementAndGet();
+                return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( pool );
+            }
+
+        }, null, false );
+
+        try
+        {
+            final ParallelDocumentType copy = new ParallelDocumentType( document, CopyOptions.parallel( pool, 10 ) );
+            assertEquals( new ParallelDocumentType( document ), copy );
+            assertEquals( document, copy );
+            assertEquals( document.getItem().size(), copy.getItem().size() );
+            assertEquals( document.getChildOrText().size(), copy.getChildOrText().size() );
+
+            for ( int i = document.getItem().size() - 1; i >= 0; i-- )
+            {
+                assertNotSame( document.getItem().get( i ), copy.getItem().get( i ) );
+                assertEquals( document.getItem().get( i ).getClass(), copy.getItem().get( i ).getClass() );
+                assertNotSame( document.getItem().get( i ).getItem().get( 0 ),
+                               copy.getItem().get( i ).getItem().get( 0 ) );
+
+            }
+
+            assertNotSame( document.getHeader(), copy.getHeader() );
+            assertNull( CopyOptions.current() );
+
+            // Tasks got executed by worker threads of the pool instead of the calling thread.
+            assertTrue( workers.get() > 0 );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test public void testSmallCopy() throws Exception
+    {
+        final ParallelDocumentType document = this.getDocument( 10 );
+        final ForkJoinPool pool = new ForkJoinPool( 2 );
+
+        try
+        {
+            assertEquals( document, new ParallelDocumentType( document, CopyOptions.parallel( pool ) ) );
+            assertEquals( new ParallelDocumentType(), new ParallelDocumentType(
+                new ParallelDocumentType(), CopyOptions.parallel( pool ) ) );
+
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test public void testIllegalOptions() throws Exception
+    {
+        try
+        {
+            CopyOptions.parallel( null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertEquals( "pool", e.getMessage() );
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool( 1 );
+
+        try
+        {
+            CopyOptions.parallel( pool, 0 );
+            fail( "Expected 'IllegalArgumentException' not thrown." );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            assertEquals( "0", e.getMessage() );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        try
+        {
+            new ParallelDocumentType( new ParallelDocumentType(), null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertEquals( "copyOptions", e.getMessage() );
+        }
+    }
+
+    private ParallelDocumentType getDocument( final int size )
+    {
+        final ParallelDocumentType document = new ParallelDocumentType();
+        document.setTitle( "Title" );
+        document.setHeader( this.getItem( "Header", new ParallelItemType() ) );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            final ParallelItemType item = this.getItem(
+                "Item " + i, i % 3 == 0 ? new ChildOfParallelItemType() : new ParallelItemType() );
+
+            document.getItem().add( item );
+
+            if ( i % 2 == 0 )
+            {
+                final ChildOfParallelItemType child =
+                    (ChildOfParallelItemType) this.getItem( "Child " + i, new ChildOfParallelItemType() );
+
+                child.getValue().add( i );
+                document.getChildOrText().add( child );
+            }
+            else
+            {
+                document.getChildOrText().add( "Text " + i );
+            }
+        }
+
+        return document;
+    }
+
+    private ParallelItemType getItem( final String name, final ParallelItemType item )
+    {
+        item.setName( name );
+
+        final ParallelItemType nested = new ParallelItemType();
+        nested.setName( name + " nested" );
+        item.getItem().add( nested );
+        return item;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import net.sourceforge.ccxjc.it.model.patch.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.patch.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.patch.collections.ccxjcit.ParentComplexType;
+import net.sourceforge.ccxjc.it.model.patch.collections.ccxjcit.Patch;
+import org.apache.commons.lang.SerializationUtils;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests computing and applying patches of differing properties.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class PatchTest
+{
+
+    @Test public void testEqualInstances() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        assertEquals( 0, Patch.diff( document, document.clone() ).size() );
+    }
+
+    @Test public void testNestedProperties() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType changed = document.clone();
+        changed.getNested().get( 1 ).setName( "changed" );
+        ( (ChildOfParentComplexType) changed.getNested().get( 0 ).getDetail() ).setChildOfParentString( "changed" );
+        changed.getDetail().setParentString( "changed" );
+
+        final Patch patch = Patch.diff( document, changed );
+        assertEquals( 3, patch.size() );
+
+        final NestedComplexType target = document.clone();
+        patch.applyTo( target );
+        assertEquals( changed, target );
+        assertNotSame( changed.getNested().get( 0 ).getDetail(), target.getNested().get( 0 ).getDetail() );
+    }
+
+    @Test public void testReplacedProperties() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType changed = document.clone();
+        changed.getNested().remove( 0 );
+        changed.setDetail( new ParentComplexType() );
+
+        final Patch patch = Patch.diff( document, changed );
+        assertEquals( 2, patch.size() );
+
+        final NestedComplexType target = document.clone();
+        patch.applyTo( target );
+        assertEquals( changed, target );
+        assertNotSame( changed.getNested(), target.getNested() );
+        assertNotSame( changed.getDetail(), target.getDetail() );
+    }
+
+    @Test public void testDetachedPatch() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType changed = document.clone();
+        changed.getNested().get( 1 ).setName( "changed" );
+        changed.setDetail( new ParentComplexType() );
+
+        final NestedComplexType expected = changed.clone();
+        final Patch patch = Patch.diff( document, changed );
+        final Patch deserialized = (Patch) SerializationUtils.clone( patch );
+
+        // Modifying the instance compared does not change the patch.
+        changed.getNested().get( 1 ).setName( "modified" );
+        changed.getDetail().setParentString( "modified" );
+
+        final NestedComplexType target = document.clone();
+        patch.applyTo( target );
+        assertEquals( expected, target );
+
+        final NestedComplexType deserializedTarget = document.clone();
+        deserialized.applyTo( deserializedTarget );
+        assertEquals( expected, deserializedTarget );
+
+        // Applying a patch copies the values again.
+        final NestedComplexType secondTarget = document.clone();
+        patch.applyTo( secondTarget );
+        assertEquals( expected, secondTarget );
+        assertNotSame( target.getDetail(), secondTarget.getDetail() );
+    }
+
+    @Test public void testIllegalArguments() throws Exception
+    {
+        try
+        {
+            Patch.diff( new NestedComplexType(), new ParentComplexType() );
+            fail( "Expected 'IllegalArgumentException' not thrown." );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+
+        try
+        {
+            Patch.diff( null, new ParentComplexType() );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+
+        try
+        {
+            Patch.diff( new NestedComplexType(), new NestedComplexType() ).applyTo( null );
+            fail( "Expected 'NullPointerException' not thrown." );
+        }
+        catch ( final NullPointerException e )
+        {
+            assertTrue( e.getMessage().length() > 0 );
+        }
+    }
+
+    private NestedComplexType getDocument() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "first", "firstDetail" ) );
+        document.getNested().add( newNested( NestedComplexType.class, "second", "secondDetail" ) );
+        return document;
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.sourceforge.ccxjc.it.model.pool.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.pool.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.pool.collections.ccxjcit.Pool;
+import net.sourceforge.ccxjc.it.model.pool.collections.ccxjcit.SimpleTypeAttributes;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests releasing instances to and reusing instances from the pool of a thread.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class PoolTest
+{
+
+    @Test public void testReset() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", null ) );
+
+        final List<NestedComplexType> nested = document.getNested();
+        document.reset();
+
+        assertEquals( new NestedComplexType(), document );
+        assertSame( nested, document.getNested() );
+        assertTrue( nested.isEmpty() );
+    }
+
+    @Test public void testReleasedInstancesReused() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "nested", "nestedDetail" ) );
+
+        final NestedComplexType copy = document.clone();
+        final Map<Object, Object> released = new IdentityHashMap<Object, Object>();
+        released.put( copy, copy );
+        released.put( copy.getNested(), copy.getNested() );
+        released.put( copy.getDetail(), copy.getDetail() );
+        released.put( copy.getNested().get( 0 ), copy.getNested().get( 0 ) );
+        released.put( copy.getNested().get( 0 ).getDetail(), copy.getNested().get( 0 ).getDetail() );
+
+        Pool.release( copy );
+        final NestedComplexType reused = document.clone();
+
+        assertEquals( document, reused );
+        assertTrue( released.containsKey( reused ) );
+        assertTrue( released.containsKey( reused.getDetail() ) );
+        assertTrue( released.containsKey( reused.getNested().get( 0 ) ) );
+        assertTrue( released.containsKey( reused.getNested().get( 0 ).getDetail() ) );
+        assertNull( Pool.poll( NestedComplexType.class ) );
+        assertNull( Pool.poll( ChildOfParentComplexType.class ) );
+    }
+
+    @Test public void testInstancesReleasedOnce() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", null );
+        final NestedComplexType nested = newNested( NestedComplexType.class, "nested", null );
+        document.getNested().add( nested );
+        document.getNested().add( nested );
+
+        Pool.release( document );
+        assertSame( nested, Pool.poll( NestedComplexType.class ) );
+        assertSame( document, Pool.poll( NestedComplexType.class ) );
+        assertNull( Pool.poll( NestedComplexType.class ) );
+    }
+
+    @Test public void testInstancesReleasedTwice() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", null );
+        final NestedComplexType nested = newNested( NestedComplexType.class, "nested", null );
+        document.getNested().add( nested );
+
+        Pool.release( document );
+        Pool.release( document );
+        Pool.release( nested );
+
+        final NestedComplexType template = newNested( NestedComplexType.class, "template", null );
+        final NestedComplexType first = template.clone();
+        final NestedComplexType second = template.clone();
+
+        assertNotSame( first, second );
+        assertEquals( template, first );
+        assertEquals( template, second );
+        assertNull( Pool.poll( NestedComplexType.class ) );
+    }
+
+    @Test public void testReferencesNotReleased() throws Exception
+    {
+        final SimpleTypeAttributes root = new SimpleTypeAttributes();
+        final SimpleTypeAttributes referenced = new SimpleTypeAttributes();
+        root.setID( "root" );
+        root.setIDREF( referenced );
+        root.getIDREFS().add( referenced );
+        referenced.setID( "referenced" );
+
+        Pool.release( root );
+        assertNull( root.getID() );
+        assertEquals( "referenced", referenced.getID() );
+        assertSame( root, Pool.poll( SimpleTypeAttributes.class ) );
+        assertNull( Pool.poll( SimpleTypeAttributes.class ) );
+    }
+
+}
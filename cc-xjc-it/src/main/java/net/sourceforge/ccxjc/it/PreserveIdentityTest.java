@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import javax.xml.bind.JAXBElement;
+import net.sourceforge.ccxjc.it.model.identity.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.identity.ccxjcit.ObjectFactory;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests the {@code -cc-preserve-identity} option.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class PreserveIdentityTest
+{
+
+    @Test public void testSharedInstancesCopiedOnce() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType shared = new ChoiceComplexType();
+        shared.getStringItemOrIntItemOrBase64BinaryItem().add(
+            objectFactory.createChoiceComplexTypeStringItem( "shared" ) );
+
+        final JAXBElement<ChoiceComplexType> sharedElement = objectFactory.createChoiceComplexTypeChoiceItem( shared );
+        final ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( sharedElement );
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( sharedElement );
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( shared ) );
+
+        this.assertSharedInstancesCopiedOnce( root, new ChoiceComplexType( root ) );
+        this.assertSharedInstancesCopiedOnce( root, root.clone() );
+
+        final ChoiceComplexType first = root.clone();
+        final ChoiceComplexType second = root.clone();
+        assertNotSame( this.getValue( first, 0 ), this.getValue( second, 0 ) );
+    }
+
+    @Test public void testCyclicReferences() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType root = new ChoiceComplexType();
+        final ChoiceComplexType child = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( child ) );
+        child.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( root ) );
+
+        this.assertCyclicReferences( root, new ChoiceComplexType( root ) );
+        this.assertCyclicReferences( root, root.clone() );
+        this.assertCyclicReferences( child, child.clone() );
+    }
+
+    @Test public void testSubclassCopyReleasesCopies() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        ChoiceComplexType shared = new ChoiceComplexType();
+        final WeakReference<ChoiceComplexType> reference = new WeakReference<ChoiceComplexType>( shared );
+        ChoiceComplexType root = new ChoiceComplexType();
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( shared ) );
+        root.getStringItemOrIntItemOrBase64BinaryItem().add( objectFactory.createChoiceComplexTypeChoiceItem( shared ) );
+
+        final UserChoiceComplexType copy = new UserChoiceComplexType( root );
+        assertSame( this.getValue( copy, 0 ), this.getValue( copy, 1 ) );
+        assertNotSame( shared, this.getValue( copy, 0 ) );
+
+        shared = null;
+        root = null;
+
+        for ( int i = 0; i < 10 && reference.get() != null; i++ )
+        {
+            System.gc();
+            Thread.sleep( 10L );
+        }
+
+        assertNull( reference.get() );
+    }
+
+    private void assertSharedInstancesCopiedOnce( final ChoiceComplexType root, final ChoiceComplexType copy )
+    {
+        final List<Object> items = copy.getStringItemOrIntItemOrBase64BinaryItem();
+        assertEquals( 3, items.size() );
+        assertSame( items.get( 0 ), items.get( 1 ) );
+        assertNotSame( items.get( 0 ), items.get( 2 ) );
+        assertNotSame( root.getStringItemOrIntItemOrBase64BinaryItem().get( 0 ), items.get( 0 ) );
+        assertSame( this.getValue( copy, 0 ), this.getValue( copy, 2 ) );
+        assertNotSame( this.getValue( root, 0 ), this.getValue( copy, 0 ) );
+    }
+
+    private void assertCyclicReferences( final ChoiceComplexType source, final ChoiceComplexType copy )
+    {
+        assertNotSame( source, copy );
+        final ChoiceComplexType child = this.getValue( copy, 0 );
+        assertNotSame( this.getValue( source, 0 ), child );
+        assertSame( copy, this.getValue( child, 0 ) );
+    }
+
+    private ChoiceComplexType getValue( final ChoiceComplexType choice, final int index )
+    {
+        return ( (JAXBElement<ChoiceComplexType>) choice.getStringItemOrIntItemOrBase64BinaryItem().get( index ) ).
+            getValue();
+
+    }
+
+    private static final class UserChoiceComplexType extends ChoiceComplexType
+    {
+
+        UserChoiceComplexType( final ChoiceComplexType o )
+        {
+            super( o );
+        }
+
+    }
+
+}
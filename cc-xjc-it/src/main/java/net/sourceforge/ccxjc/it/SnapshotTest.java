@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import net.sourceforge.ccxjc.it.model.snapshot.collections.ccxjcit.ChildOfParentComplexType;
+import net.sourceforge.ccxjc.it.model.snapshot.collections.ccxjcit.NestedComplexType;
+import net.sourceforge.ccxjc.it.model.snapshot.collections.ccxjcit.ObjectFactory;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.sourceforge.ccxjc.it.NestedComplexTypes.newNested;
+
+/**
+ * Tests creating snapshots sharing unmodified instances with a previous snapshot.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class SnapshotTest
+{
+
+    @Test public void testUnmodifiedDocument() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType snapshot = document.snapshot( null );
+        assertEquals( document, snapshot );
+        assertNotSame( document, snapshot );
+        assertNotSame( document.getNested().get( 0 ), snapshot.getNested().get( 0 ) );
+        assertSame( snapshot, document.snapshot( snapshot ) );
+    }
+
+    @Test public void testModifiedProperty() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType previous = document.snapshot( null );
+        ( (ChildOfParentComplexType) document.getNested().get( 1 ).getDetail() ).setChildOfParentString( "changed" );
+
+        final NestedComplexType snapshot = document.snapshot( previous );
+        assertEquals( document, snapshot );
+        assertNotSame( previous, snapshot );
+        assertSame( previous.getDetail(), snapshot.getDetail() );
+        assertSame( previous.getNested().get( 0 ), snapshot.getNested().get( 0 ) );
+        assertNotSame( previous.getNested().get( 1 ), snapshot.getNested().get( 1 ) );
+        assertEquals( "secondDetail", ( (ChildOfParentComplexType) previous.getNested().get( 1 ).getDetail() ).
+            getChildOfParentString() );
+
+    }
+
+    @Test public void testModifiedList() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType previous = document.snapshot( null );
+        document.getNested().add( newNested( NestedComplexType.class, "third", "thirdDetail" ) );
+        document.getNested().get( 2 ).setName( "changed" );
+
+        final NestedComplexType snapshot = document.snapshot( previous );
+        assertEquals( document, snapshot );
+        assertEquals( 2, previous.getNested().size() );
+        assertEquals( 3, snapshot.getNested().size() );
+        assertSame( previous.getNested().get( 1 ), snapshot.getNested().get( 1 ) );
+    }
+
+    @Test public void testOutdatedSnapshot() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType first = document.snapshot( null );
+        final NestedComplexType second = document.snapshot( null );
+        assertEquals( first, second );
+        assertNotSame( first.getNested().get( 0 ), second.getNested().get( 0 ) );
+
+        final NestedComplexType third = document.snapshot( first );
+        assertNotSame( first.getNested().get( 0 ), third.getNested().get( 0 ) );
+    }
+
+    @Test public void testFrozenSnapshot() throws Exception
+    {
+        final NestedComplexType document = this.getDocument();
+        final NestedComplexType previous = document.snapshot( null );
+        document.setName( "changed" );
+
+        final NestedComplexType snapshot = document.snapshot( previous );
+        assertFalse( document.isFrozen() );
+        assertTrue( snapshot.isFrozen() );
+        assertSame( previous.getNested().get( 0 ), snapshot.getNested().get( 0 ) );
+
+        try
+        {
+            snapshot.getNested().get( 0 ).setName( "changed" );
+            fail( "Expected 'UnsupportedOperationException' not thrown." );
+        }
+        catch ( final UnsupportedOperationException e )
+        {
+            assertEquals( "first", previous.getNested().get( 0 ).getName() );
+        }
+
+        try
+        {
+            snapshot.getNested().clear();
+            fail( "Expected 'UnsupportedOperationException' not thrown." );
+        }
+        catch ( final UnsupportedOperationException e )
+        {
+            assertEquals( 2, snapshot.getNested().size() );
+        }
+    }
+
+    @Test public void testUnmarshalledList() throws Exception
+    {
+        final JAXBContext context = JAXBContext.newInstance( ObjectFactory.class );
+        final StringWriter writer = new StringWriter();
+        context.createMarshaller().marshal( new ObjectFactory().createNestedTest( this.getDocument() ), writer );
+
+        final NestedComplexType document = ( (JAXBElement<NestedComplexType>) context.createUnmarshaller().
+            unmarshal( new StringReader( writer.toString() ) ) ).getValue();
+
+        final NestedComplexType previous = document.snapshot( null );
+        document.getNested().remove( 0 );
+
+        final NestedComplexType snapshot = document.snapshot( previous );
+        assertNotSame( previous, snapshot );
+        assertEquals( 1, snapshot.getNested().size() );
+        assertSame( previous.getNested().get( 1 ), snapshot.getNested().get( 0 ) );
+    }
+
+    private NestedComplexType getDocument() throws Exception
+    {
+        final NestedComplexType document = newNested( NestedComplexType.class, "document", "detail" );
+        document.getNested().add( newNested( NestedComplexType.class, "first", "firstDetail" ) );
+        document.getNested().add( newNested( NestedComplexType.class, "second", "secondDetail" ) );
+        return document;
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2009 The CC-XJC Project. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   o Redistributions of source code must retain the above copyright
+ *     notice, this  list of conditions and the following disclaimer.
+ *
+ *   o Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the
+ *     distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE CC-XJC PROJECT AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE CC-XJC PROJECT OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id$
+ */
+package net.sourceforge.ccxjc.it;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Properties;
+import javax.xml.bind.JAXBElement;
+import net.sourceforge.ccxjc.it.model.profiling.collections.ccxjcit.ChoiceComplexType;
+import net.sourceforge.ccxjc.it.model.profiling.collections.ccxjcit.ObjectFactory;
+import net.sourceforge.ccxjc.it.model.profiling.collections.ccxjcit.TypeProfile;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the {@code -cc-profiling} and {@code -cc-profile} options.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $Id$
+ */
+public class TypeProfileTest
+{
+
+    private static final String KEY_PREFIX = ChoiceComplexType.class.getName()
+                                             + "/StringItemOrIntItemOrBase64BinaryItem/"
+                                             + JAXBElement.class.getName() + "/";
+
+    @Test public void testProfiling() throws Exception
+    {
+        final ObjectFactory objectFactory = new ObjectFactory();
+        final ChoiceComplexType choiceComplexType = new ChoiceComplexType();
+        final List<Object> items = choiceComplexType.getStringItemOrIntItemOrBase64BinaryItem();
+        items.add( objectFactory.createChoiceComplexTypeStringItem( "TEST" ) );
+        items.add( objectFactory.createChoiceComplexTypeStringItem( "TEST" ) );
+        items.add( objectFactory.createChoiceComplexTypeIntItem( 1 ) );
+
+        TypeProfile.reset();
+        new ChoiceComplexType( choiceComplexType );
+        choiceComplexType.clone();
+
+        final Properties profile = TypeProfile.getProfile();
+        assertEquals( "4", profile.getProperty( KEY_PREFIX + String.class.getName() ) );
+        assertEquals( "2", profile.getProperty( KEY_PREFIX + Integer.class.getName() ) );
+        assertNull( profile.getProperty( KEY_PREFIX + "byte[]" ) );
+
+        final File file = File.createTempFile( "cc-xjc-it", ".properties" );
+        file.deleteOnExit();
+        TypeProfile.store( file );
+
+        final Properties stored = new Properties();
+        final InputStream in = new FileInputStream( file );
+
+        try
+        {
+            stored.load( in );
+        }
+        finally
+        {
+            in.close();
+        }
+
+        assertEquals( profile, stored );
+    }
+
+    @Test public void testProfile() throws Exception
+    {
+        final net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ObjectFactory objectFactory =
+            new net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ObjectFactory();
+
+        final net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ChoiceComplexType choiceComplexType =
+            new net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ChoiceComplexType();
+
+        final List<Object> items = choiceComplexType.getStringItemOrIntItemOrBase64BinaryItem();
+        items.add( objectFactory.createChoiceComplexTypeStringItem( "TEST" ) );
+        items.add( objectFactory.createChoiceComplexTypeIntItem( 1 ) );
+        items.add( objectFactory.createChoiceComplexTypeBase64BinaryItem( new byte[] { 1 } ) );
+        items.add( objectFactory.createChoiceComplexTypeChoiceItem(
+            new net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ChoiceComplexType() ) );
+
+        final List<Object> copies = choiceComplexType.clone().getStringItemOrIntItemOrBase64BinaryItem();
+        assertEquals( items.size(), copies.size() );
+
+        for ( int i = items.size() - 1; i >= 0; i-- )
+        {
+            final JAXBElement<?> item = (JAXBElement<?>) items.get( i );
+            final JAXBElement<?> copy = (JAXBElement<?>) copies.get( i );
+            assertEquals( item.getName(), copy.getName() );
+            assertEquals( item.getValue().getClass(), copy.getValue().getClass() );
+        }
+    }
+
+    @Test public void testProfileOrder() throws Exception
+    {
+        final String source = readSource(
+            net.sourceforge.ccxjc.it.model.profile.collections.ccxjcit.ChoiceComplexType.class );
+
+        final int start = source.indexOf( "void copyStringItemOrIntItemOrBase64BinaryItem(" );
+        assertTrue( start >= 0 );
+
+        final int end = source.indexOf( "private static", start );
+        final String method = end >= 0 ? source.substring( start, end ) : source.substring( start );
+
+        // The profile ranks 'String' before 'byte[]', unprofiled types follow in declaration order.
+        final int stringTest = method.indexOf( "getValue() instanceof String" );
+        final int bytesTest = method.indexOf( "getValue() instanceof byte[]" );
+        final int choiceTest = method.indexOf( "getValue() instanceof ChoiceComplexType" );
+        final int integerTest = method.indexOf( "getValue() instanceof Integer" );
+
+        assertTrue( stringTest >= 0 );
+        assertTrue( stringTest < bytesTest );
+        assertTrue( bytesTest < choiceTest );
+        assertTrue( bytesTest < integerTest );
+    }
+
+    private static String readSource( final Class<?> clazz ) throws Exception
+    {
+        final File file = new File( System.getProperty( "basedir", "." ), "target/generated-sources/xjc/"
+                                                                          + clazz.getName().replace( '.', '/' )
+                                                                          + ".java" );
+
+        final StringBuilder source = new StringBuilder( (int) file.length() );
+        final Reader reader = new InputStreamReader( new FileInputStream( file ), "UTF-8" );
+
+        try
+        {
+            final char[] buffer = new char[ 4096 ];
+            for ( int read = reader.read( buffer ); read >= 0; read = reader.read( buffer ) )
+            {
+                source.append( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return source.toString();
+    }
+
+}
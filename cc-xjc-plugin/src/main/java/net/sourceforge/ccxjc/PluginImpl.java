@@ -29,22 +29,34 @@
  */
 package net.sourceforge.ccxjc;
 
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCase;
 import com.sun.codemodel.JCatchBlock;
 import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
 import com.sun.codemodel.JVar;
+import com.sun.codemodel.JWhileLoop;
 import com.sun.tools.xjc.BadCommandLineException;
 import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.Plugin;
@@ -57,6 +69,8 @@ import com.sun.tools.xjc.model.CCustomizations;
 import com.sun.tools.xjc.model.CElementInfo;
 import com.sun.tools.xjc.model.CEnumLeafInfo;
 import com.sun.tools.xjc.model.CNonElement;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
 import com.sun.tools.xjc.model.CTypeInfo;
 import com.sun.tools.xjc.model.CWildcardTypeInfo;
 import com.sun.tools.xjc.model.nav.NType;
@@ -69,26 +83,44 @@ import com.sun.xml.bind.v2.model.core.ID;
 import com.sun.xml.bind.v2.runtime.Location;
 import com.sun.xml.xsom.XSComponent;
 import com.sun.xml.xsom.XmlString;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.InvalidClassException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OptionalDataException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
 import java.io.Serializable;
 import java.io.StreamCorruptedException;
+import java.io.Writer;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.MessageFormat;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -97,23 +129,51 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Currency;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
 import javax.activation.MimeType;
 import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.Duration;
 import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.Locator;
 
 /**
@@ -147,6 +207,114 @@ public final class PluginImpl extends Plugin
 
     private static final String STRING_TYPES_OPTION_NAME = "-cc-string-types";
 
+    private static final String PRESERVE_IDENTITY_OPTION_NAME = "-cc-preserve-identity";
+
+    private static final String LAZY_OPTION_NAME = "-cc-lazy";
+
+    private static final String FREEZABLE_OPTION_NAME = "-cc-freezable";
+
+    private static final String COPIER_OPTION_NAME = "-cc-copier";
+
+    private static final String PROFILING_OPTION_NAME = "-cc-profiling";
+
+    private static final String PROFILE_OPTION_NAME = "-cc-profile";
+
+    private static final String PARALLEL_OPTION_NAME = "-cc-parallel";
+
+    private static final String ITERATIVE_OPTION_NAME = "-cc-iterative";
+
+    private static final String BATCH_OPTION_NAME = "-cc-batch";
+
+    private static final String COPY_TO_OPTION_NAME = "-cc-copy-to";
+
+    private static final String POOL_OPTION_NAME = "-cc-pool";
+
+    private static final String COPY_MASK_OPTION_NAME = "-cc-copy-mask";
+
+    private static final String DEPTH_OPTION_NAME = "-cc-depth";
+
+    private static final String PATCH_OPTION_NAME = "-cc-patch";
+
+    private static final String SNAPSHOT_OPTION_NAME = "-cc-snapshot";
+
+    private static final String INTERN_OPTION_NAME = "-cc-intern";
+
+    private static final String DEDUP_OPTION_NAME = "-cc-dedup";
+
+    private static final String COPY_ON_WRITE_OPTION_NAME = "-cc-copy-on-write";
+
+    private static final String COPY_ATTACHMENTS_OPTION_NAME = "-cc-copy-attachments";
+
+    private static final String COMPACT_DOM_OPTION_NAME = "-cc-compact-dom";
+
+    private static final String SHARE_CALENDARS_OPTION_NAME = "-cc-share-calendars";
+
+    private static final String PACK_CALENDARS_OPTION_NAME = "-cc-pack-calendars";
+
+    private static final String COPY_CONTEXT_CLASS_NAME = "CopyContext";
+
+    private static final String FREEZABLE_CLASS_NAME = "Freezable";
+
+    private static final String CLONE_METHODS_CLASS_NAME = "CloneMethods";
+
+    private static final String COPY_STRATEGIES_CLASS_NAME = "CopyStrategies";
+
+    private static final String CLASS_CACHE_CLASS_NAME = "ClassCache";
+
+    private static final String COPIER_CLASS_NAME = "Copier";
+
+    private static final String POOL_CLASS_NAME = "Pool";
+
+    private static final String POOLABLE_CLASS_NAME = "Poolable";
+
+    private static final int POOL_CAPACITY = 1024;
+
+    private static final String DEDUP_TABLE_CLASS_NAME = "DedupTable";
+
+    private static final int DEDUP_CAPACITY = 65536;
+
+    private static final int DEDUP_SEGMENTS = 16;
+
+    private static final String ATTACHMENTS_CLASS_NAME = "Attachments";
+
+    private static final int ATTACHMENTS_THRESHOLD = 1048576;
+
+    private static final String DOM_COPIES_CLASS_NAME = "DomCopies";
+
+    private static final String PACKED_CALENDAR_CLASS_NAME = "PackedCalendar";
+
+    private static final String COPY_MASK_CLASS_NAME = "CopyMask";
+
+    private static final String PATCH_CLASS_NAME = "Patch";
+
+    private static final String PATCHABLE_CLASS_NAME = "Patchable";
+
+    private static final String DEPTH_COPYABLE_CLASS_NAME = "DepthCopyable";
+
+    private static final String TRACKABLE_CLASS_NAME = "Trackable";
+
+    private static final String TRACKED_LIST_CLASS_NAME = "TrackedList";
+
+    private static final String INTERNABLE_CLASS_NAME = "Internable";
+
+    private static final String INTERN_TABLE_CLASS_NAME = "InternTable";
+
+    private static final String TYPE_PROFILE_CLASS_NAME = "TypeProfile";
+
+    private static final String COPY_OPTIONS_CLASS_NAME = "CopyOptions";
+
+    private static final String COPY_QUEUE_CLASS_NAME = "CopyQueue";
+
+    private static final String ITERATIVE_COPYABLE_CLASS_NAME = "IterativeCopyable";
+
+    private static final String COPY_PROPERTIES_TASK_CLASS_NAME = "CopyPropertiesTask";
+
+    private static final int ITERATIVE_RECURSION_LIMIT = 64;
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+    private static final int FIRST_TYPE_COPY_STRATEGY = 5;
+
     private static final String ELEMENT_SEPARATOR = ":";
 
     private static final List<String> DEFAULT_IMMUTABLE_TYPES = Arrays.asList( new String[]
@@ -205,7 +373,7 @@ public final class PluginImpl extends Plugin
 
     private static final String[] TARGET_ARGUMENTS =
     {
-        "1.5", "1.6", "1.7"
+        "1.5", "1.6", "1.7", "1.8"
     };
 
     private static final int TARGET_1_5 = 5;
@@ -214,6 +382,8 @@ public final class PluginImpl extends Plugin
 
     private static final int TARGET_1_7 = 7;
 
+    private static final int TARGET_1_8 = 8;
+
     private boolean success;
 
     private Options options;
@@ -226,6 +396,52 @@ public final class PluginImpl extends Plugin
 
     private boolean hierarchical = false;
 
+    private boolean preserveIdentity = false;
+
+    private boolean lazy = false;
+
+    private boolean freezable = false;
+
+    private boolean copier = false;
+
+    private boolean profiling = false;
+
+    private String profileFileName;
+
+    private boolean parallel = false;
+
+    private boolean iterative = false;
+
+    private boolean batch = false;
+
+    private boolean copyTo = false;
+
+    private boolean pool = false;
+
+    private boolean copyMask = false;
+
+    private boolean depth = false;
+
+    private boolean patch = false;
+
+    private boolean snapshot = false;
+
+    private boolean intern = false;
+
+    private boolean dedup = false;
+
+    private boolean copyOnWrite = false;
+
+    private boolean copyAttachments = false;
+
+    private boolean compactDom = false;
+
+    private boolean shareCalendars = false;
+
+    private boolean packCalendars = false;
+
+    private final Map<String, Long> profile = new HashMap<String, Long>();
+
     private final List<String> immutableTypes = new ArrayList<String>( 64 );
 
     private final List<String> cloneableTypes = new ArrayList<String>( 64 );
@@ -242,6 +458,30 @@ public final class PluginImpl extends Plugin
 
     private boolean tryCatchCopyExpression = false;
 
+    private final Set<JDefinedClass> supportClasses = new HashSet<JDefinedClass>();
+
+    private final Map<FieldOutline, JFieldVar> lazyFlags = new HashMap<FieldOutline, JFieldVar>();
+
+    private final Map<FieldOutline, JFieldVar> sharedFlags = new HashMap<FieldOutline, JFieldVar>();
+
+    private final Set<FieldOutline> packedCalendars = new HashSet<FieldOutline>();
+
+    private final Map<ClassOutline, JFieldVar> frozenFlags = new HashMap<ClassOutline, JFieldVar>();
+
+    private final Map<ClassOutline, JFieldVar> dirtyFlags = new HashMap<ClassOutline, JFieldVar>();
+
+    private final Map<ClassOutline, JFieldVar> trackingParents = new HashMap<ClassOutline, JFieldVar>();
+
+    private final Map<ClassOutline, JFieldVar> snapshots = new HashMap<ClassOutline, JFieldVar>();
+
+    private final Map<CClassInfo, Boolean> idReferencesReached = new HashMap<CClassInfo, Boolean>();
+
+    private final Map<CClassInfo, Boolean> domReached = new HashMap<CClassInfo, Boolean>();
+
+    private final Set<JFieldVar> supportFields = new HashSet<JFieldVar>();
+
+    private final Map<CClassInfo, Integer> typeIds = new HashMap<CClassInfo, Integer>();
+
     @Override
     public String getOptionName()
     {
@@ -253,21 +493,65 @@ public final class PluginImpl extends Plugin
     {
         final String n = System.getProperty( "line.separator", "\n" );
 
-        return new StringBuilder( 1024 ).append( "  -" ).append( OPTION_NAME ).append( "  :  " ).
+        return new StringBuilder( 1024 ).append( "  -" ).append( OPTION_NAME ).append( "    :  " ).
             append( getMessage( "usage" ) ).append( n ).
-            append( "  " ).append( VISIBILITY_OPTION_NAME ).append( "     :  " ).
+            append( "  " ).append( VISIBILITY_OPTION_NAME ).append( "       :  " ).
             append( getMessage( "visibilityUsage" ) ).append( n ).
-            append( "  " ).append( TARGET_OPTION_NAME ).append( "         :  " ).
+            append( "  " ).append( TARGET_OPTION_NAME ).append( "           :  " ).
             append( getMessage( "targetUsage" ) ).append( n ).
-            append( "  " ).append( NULLABLE_OPTION_NAME ).append( "       :  " ).
+            append( "  " ).append( NULLABLE_OPTION_NAME ).append( "         :  " ).
             append( getMessage( "nullableUsage" ) ).append( n ).
-            append( "  " ).append( HIERARCHICAL_OPTION_NAME ).append( "   :  " ).
+            append( "  " ).append( HIERARCHICAL_OPTION_NAME ).append( "     :  " ).
             append( getMessage( "hierarchicalUsage" ) ).append( n ).
-            append( "  " ).append( CLONEABLE_TYPES_OPTION_NAME ).append( ":  " ).
+            append( "  " ).append( PRESERVE_IDENTITY_OPTION_NAME ).append( ":  " ).
+            append( getMessage( "preserveIdentityUsage" ) ).append( n ).
+            append( "  " ).append( LAZY_OPTION_NAME ).append( "             :  " ).
+            append( getMessage( "lazyUsage" ) ).append( n ).
+            append( "  " ).append( FREEZABLE_OPTION_NAME ).append( "        :  " ).
+            append( getMessage( "freezableUsage" ) ).append( n ).
+            append( "  " ).append( COPIER_OPTION_NAME ).append( "           :  " ).
+            append( getMessage( "copierUsage" ) ).append( n ).
+            append( "  " ).append( PROFILING_OPTION_NAME ).append( "        :  " ).
+            append( getMessage( "profilingUsage" ) ).append( n ).
+            append( "  " ).append( PROFILE_OPTION_NAME ).append( "          :  " ).
+            append( getMessage( "profileUsage" ) ).append( n ).
+            append( "  " ).append( PARALLEL_OPTION_NAME ).append( "         :  " ).
+            append( getMessage( "parallelUsage" ) ).append( n ).
+            append( "  " ).append( ITERATIVE_OPTION_NAME ).append( "        :  " ).
+            append( getMessage( "iterativeUsage" ) ).append( n ).
+            append( "  " ).append( BATCH_OPTION_NAME ).append( "            :  " ).
+            append( getMessage( "batchUsage" ) ).append( n ).
+            append( "  " ).append( COPY_TO_OPTION_NAME ).append( "          :  " ).
+            append( getMessage( "copyToUsage" ) ).append( n ).
+            append( "  " ).append( POOL_OPTION_NAME ).append( "             :  " ).
+            append( getMessage( "poolUsage", COPY_TO_OPTION_NAME ) ).append( n ).
+            append( "  " ).append( COPY_MASK_OPTION_NAME ).append( "        :  " ).
+            append( getMessage( "copyMaskUsage" ) ).append( n ).
+            append( "  " ).append( DEPTH_OPTION_NAME ).append( "            :  " ).
+            append( getMessage( "depthUsage" ) ).append( n ).
+            append( "  " ).append( PATCH_OPTION_NAME ).append( "            :  " ).
+            append( getMessage( "patchUsage" ) ).append( n ).
+            append( "  " ).append( SNAPSHOT_OPTION_NAME ).append( "         :  " ).
+            append( getMessage( "snapshotUsage", FREEZABLE_OPTION_NAME ) ).append( n ).
+            append( "  " ).append( INTERN_OPTION_NAME ).append( "           :  " ).
+            append( getMessage( "internUsage", FREEZABLE_OPTION_NAME ) ).append( n ).
+            append( "  " ).append( DEDUP_OPTION_NAME ).append( "            :  " ).
+            append( getMessage( "dedupUsage" ) ).append( n ).
+            append( "  " ).append( COPY_ON_WRITE_OPTION_NAME ).append( "    :  " ).
+            append( getMessage( "copyOnWriteUsage" ) ).append( n ).
+            append( "  " ).append( COPY_ATTACHMENTS_OPTION_NAME ).append( " :  " ).
+            append( getMessage( "copyAttachmentsUsage" ) ).append( n ).
+            append( "  " ).append( COMPACT_DOM_OPTION_NAME ).append( "      :  " ).
+            append( getMessage( "compactDomUsage" ) ).append( n ).
+            append( "  " ).append( SHARE_CALENDARS_OPTION_NAME ).append( "  :  " ).
+            append( getMessage( "shareCalendarsUsage" ) ).append( n ).
+            append( "  " ).append( PACK_CALENDARS_OPTION_NAME ).append( "   :  " ).
+            append( getMessage( "packCalendarsUsage" ) ).append( n ).
+            append( "  " ).append( CLONEABLE_TYPES_OPTION_NAME ).append( "  :  " ).
             append( getMessage( "cloneableTypesUsage", ELEMENT_SEPARATOR ) ).append( n ).
-            append( "  " ).append( IMMUTABLE_TYPES_OPTION_NAME ).append( ":  " ).
+            append( "  " ).append( IMMUTABLE_TYPES_OPTION_NAME ).append( "  :  " ).
             append( getMessage( "immutableTypesUsage", ELEMENT_SEPARATOR ) ).append( n ).
-            append( "  " ).append( STRING_TYPES_OPTION_NAME ).append( "   :  " ).
+            append( "  " ).append( STRING_TYPES_OPTION_NAME ).append( "     :  " ).
             append( getMessage( "stringTypesUsage", ELEMENT_SEPARATOR ) ).toString();
 
     }
@@ -373,6 +657,10 @@ public final class PluginImpl extends Plugin
             {
                 this.targetJdk = TARGET_1_7;
             }
+            else if ( targetArg.equals( "1.8" ) )
+            {
+                this.targetJdk = TARGET_1_8;
+            }
 
             return 2;
         }
@@ -389,6 +677,148 @@ public final class PluginImpl extends Plugin
             return 1;
         }
 
+        if ( args[i].startsWith( PRESERVE_IDENTITY_OPTION_NAME ) )
+        {
+            this.preserveIdentity = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( LAZY_OPTION_NAME ) )
+        {
+            this.lazy = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( FREEZABLE_OPTION_NAME ) )
+        {
+            this.freezable = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COPIER_OPTION_NAME ) )
+        {
+            this.copier = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( PROFILING_OPTION_NAME ) )
+        {
+            this.profiling = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( PROFILE_OPTION_NAME ) )
+        {
+            if ( i + 1 >= args.length )
+            {
+                throw new BadCommandLineException( getMessage( "missingOptionArgument", PROFILE_OPTION_NAME ) );
+            }
+
+            this.profileFileName = args[i + 1].trim();
+            this.profile.clear();
+            this.profile.putAll( this.readProfile( this.profileFileName ) );
+            return 2;
+        }
+
+        if ( args[i].startsWith( PARALLEL_OPTION_NAME ) )
+        {
+            this.parallel = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( ITERATIVE_OPTION_NAME ) )
+        {
+            this.iterative = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( BATCH_OPTION_NAME ) )
+        {
+            this.batch = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COPY_TO_OPTION_NAME ) )
+        {
+            this.copyTo = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( POOL_OPTION_NAME ) )
+        {
+            this.pool = true;
+            this.copyTo = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COPY_MASK_OPTION_NAME ) )
+        {
+            this.copyMask = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( DEPTH_OPTION_NAME ) )
+        {
+            this.depth = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( PATCH_OPTION_NAME ) )
+        {
+            this.patch = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( SNAPSHOT_OPTION_NAME ) )
+        {
+            this.snapshot = true;
+            this.freezable = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( INTERN_OPTION_NAME ) )
+        {
+            this.intern = true;
+            this.freezable = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( DEDUP_OPTION_NAME ) )
+        {
+            this.dedup = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COPY_ON_WRITE_OPTION_NAME ) )
+        {
+            this.copyOnWrite = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COPY_ATTACHMENTS_OPTION_NAME ) )
+        {
+            this.copyAttachments = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( COMPACT_DOM_OPTION_NAME ) )
+        {
+            this.compactDom = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( SHARE_CALENDARS_OPTION_NAME ) )
+        {
+            this.shareCalendars = true;
+            return 1;
+        }
+
+        if ( args[i].startsWith( PACK_CALENDARS_OPTION_NAME ) )
+        {
+            this.packCalendars = true;
+            return 1;
+        }
+
         if ( args[i].startsWith( IMMUTABLE_TYPES_OPTION_NAME ) )
         {
             if ( i + 1 >= args.length )
@@ -471,6 +901,15 @@ public final class PluginImpl extends Plugin
         this.methodCount = BigInteger.ZERO;
         this.constructorCount = BigInteger.ZERO;
         this.expressionCount = BigInteger.ZERO;
+        this.supportClasses.clear();
+        this.lazyFlags.clear();
+        this.sharedFlags.clear();
+        this.packedCalendars.clear();
+        this.idReferencesReached.clear();
+        this.domReached.clear();
+        this.frozenFlags.clear();
+        this.supportFields.clear();
+        this.typeIds.clear();
 
         this.cloneableTypes.removeAll( DEFAULT_CLONEABLE_TYPES );
         this.cloneableTypes.addAll( DEFAULT_CLONEABLE_TYPES );
@@ -479,6 +918,16 @@ public final class PluginImpl extends Plugin
         this.stringTypes.removeAll( DEFAULT_STRING_TYPES );
         this.stringTypes.addAll( DEFAULT_STRING_TYPES );
 
+        if ( this.shareCalendars )
+        {
+            this.cloneableTypes.remove( XMLGregorianCalendar.class.getName() );
+
+            if ( !this.immutableTypes.contains( XMLGregorianCalendar.class.getName() ) )
+            {
+                this.immutableTypes.add( XMLGregorianCalendar.class.getName() );
+            }
+        }
+
         this.log( Level.INFO, "title" );
         this.log( Level.INFO, "visibilityReport", this.visibility );
 
@@ -505,15 +954,75 @@ public final class PluginImpl extends Plugin
         this.log( Level.INFO, "immutableTypesInfo", immutableInfo.toString() );
         this.log( Level.INFO, "stringTypesInfo", stringInfo.toString() );
 
+        if ( this.profileFileName != null )
+        {
+            this.log( Level.INFO, "profileReport", this.profileFileName, this.profile.size() );
+        }
+
+        if ( this.parallel )
+        {
+            if ( !this.isTargetSupported( TARGET_1_7 ) )
+            {
+                this.log( Level.SEVERE, "parallelTargetNotSupported", PARALLEL_OPTION_NAME, "1.7" );
+                this.options = null;
+                return false;
+            }
+
+            if ( this.needsCopyContext( model ) )
+            {
+                this.log( Level.SEVERE, "parallelCopyContext", PARALLEL_OPTION_NAME );
+                this.options = null;
+                return false;
+            }
+        }
+
+        if ( this.copier )
+        {
+            for ( ClassOutline clazz : model.getClasses() )
+            {
+                this.typeIds.put( clazz.target, this.typeIds.size() );
+            }
+        }
+
         for ( ClassOutline clazz : model.getClasses() )
         {
             this.warnOnReferencedSupertypes( clazz );
 
+            if ( this.packCalendars )
+            {
+                this.generatePackedCalendarFields( clazz );
+            }
+
+            if ( this.lazy )
+            {
+                this.generateLazyFlags( clazz );
+            }
+
+            if ( this.freezable )
+            {
+                this.generateFrozenFlag( clazz );
+            }
+
+            if ( this.snapshot )
+            {
+                this.generateTrackingFields( clazz );
+            }
+
+            if ( this.copyOnWrite )
+            {
+                this.generateSharedFlags( clazz );
+            }
+
             if ( this.getStandardConstructor( clazz ) == null )
             {
                 this.log( Level.WARNING, "couldNotAddStdCtor", clazz.implClass.binaryName() );
             }
 
+            if ( this.copyTo && this.getCopyToMethod( clazz ) == null )
+            {
+                this.log( Level.WARNING, "couldNotAddMethod", "copyTo", clazz.implClass.binaryName() );
+            }
+
             if ( this.getCopyConstructor( clazz ) == null )
             {
                 this.log( Level.WARNING, "couldNotAddCopyCtor", clazz.implClass.binaryName() );
@@ -523,31 +1032,164 @@ public final class PluginImpl extends Plugin
             {
                 this.log( Level.WARNING, "couldNotAddMethod", "clone", clazz.implClass.binaryName() );
             }
-        }
 
-        this.log( Level.INFO, "report", this.methodCount, this.constructorCount, this.expressionCount );
+            if ( this.iterative )
+            {
+                if ( clazz.getSuperClass() == null )
+                {
+                    clazz.implClass._implements( this.getIterativeCopyableClass( clazz.parent() ) );
 
-        this.options = null;
-        return this.success;
-    }
+                    if ( this.getCloneShallowMethod( clazz ) == null )
+                    {
+                        this.log( Level.WARNING, "couldNotAddMethod", "cloneShallow", clazz.implClass.binaryName() );
+                    }
+                }
 
-    private int getVisibilityModifier()
-    {
-        if ( "private".equals( this.visibility ) )
-        {
-            return JMod.PRIVATE;
-        }
-        else if ( "protected".equals( this.visibility ) )
-        {
-            return JMod.PROTECTED;
-        }
-        else if ( "public".equals( this.visibility ) )
-        {
-            return JMod.PUBLIC;
-        }
+                if ( this.getCompleteCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "completeCopy", clazz.implClass.binaryName() );
+                }
+            }
 
-        return JMod.NONE;
-    }
+            if ( this.lazy )
+            {
+                if ( this.getLazyCopyConstructor( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddLazyCopyCtor", clazz.implClass.binaryName() );
+                }
+
+                this.generateLazyAccessors( clazz );
+            }
+
+            if ( this.parallel && this.getParallelCopyConstructor( clazz ) == null )
+            {
+                this.log( Level.WARNING, "couldNotAddParallelCopyCtor", clazz.implClass.binaryName() );
+            }
+
+            if ( this.freezable )
+            {
+                if ( this.getFreezeMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "freeze", clazz.implClass.binaryName() );
+                }
+
+                this.generateFrozenAccessors( clazz );
+            }
+
+            if ( this.batch )
+            {
+                this.generateBatchCopyMethods( clazz );
+            }
+
+            if ( this.pool )
+            {
+                if ( clazz.getSuperClass() == null )
+                {
+                    this.generatePooledFlag( clazz );
+                }
+
+                if ( this.getResetMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "reset", clazz.implClass.binaryName() );
+                }
+
+                if ( this.getReleaseReferencesMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "releaseReferences", clazz.implClass.binaryName() );
+                }
+            }
+
+            if ( this.copyMask )
+            {
+                if ( this.getMaskedCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "copy", clazz.implClass.binaryName() );
+                }
+
+                if ( this.getMaskedCompleteCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "completeCopy", clazz.implClass.binaryName() );
+                }
+            }
+
+            if ( this.depth )
+            {
+                if ( clazz.getSuperClass() == null )
+                {
+                    clazz.implClass._implements( this.getDepthCopyableClass( clazz.parent() ) );
+                }
+
+                if ( this.getDepthCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "copy", clazz.implClass.binaryName() );
+                }
+
+                if ( this.getDepthCompleteCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "completeCopy", clazz.implClass.binaryName() );
+                }
+
+                if ( this.getShallowCopyMethod( clazz ) == null )
+                {
+                    this.log( Level.WARNING, "couldNotAddMethod", "shallowCopy", clazz.implClass.binaryName() );
+                }
+            }
+
+            if ( this.patch )
+            {
+                if ( clazz.getSuperClass() == null )
+                {
+                    clazz.implClass._implements( this.getPatchableClass( clazz.parent() ) );
+                }
+
+                this.generatePatchMethods( clazz );
+            }
+
+            if ( this.snapshot )
+            {
+                this.generateSnapshotMethods( clazz );
+                this.generateTrackingAccessors( clazz );
+            }
+
+            if ( this.intern )
+            {
+                if ( clazz.getSuperClass() == null )
+                {
+                    clazz.implClass._implements( this.getInternableClass( clazz.parent() ) );
+                }
+
+                this.generateInternMethods( clazz );
+            }
+
+            if ( this.copyOnWrite )
+            {
+                this.generateCopyOnWriteAccessors( clazz );
+            }
+        }
+
+        this.log( Level.INFO, "report", this.methodCount, this.constructorCount, this.expressionCount );
+
+        this.options = null;
+        return this.success;
+    }
+
+    private int getVisibilityModifier()
+    {
+        if ( "private".equals( this.visibility ) )
+        {
+            return JMod.PRIVATE;
+        }
+        else if ( "protected".equals( this.visibility ) )
+        {
+            return JMod.PROTECTED;
+        }
+        else if ( "public".equals( this.visibility ) )
+        {
+            return JMod.PUBLIC;
+        }
+
+        return JMod.NONE;
+    }
 
     private boolean isTargetSupported( final int target )
     {
@@ -588,6 +1230,46 @@ public final class PluginImpl extends Plugin
         return ctor;
     }
 
+    private JMethod getLazyCopyConstructor( final ClassOutline clazz )
+    {
+        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
+        JMethod ctor = clazz.implClass.getConstructor( new JType[]
+            {
+                paramClass, clazz.parent().getCodeModel().BOOLEAN
+            } );
+
+        if ( ctor == null )
+        {
+            ctor = this.generateLazyCopyConstructor( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "lazyCopyCtorExists", clazz.implClass.binaryName() );
+        }
+
+        return ctor;
+    }
+
+    private JMethod getParallelCopyConstructor( final ClassOutline clazz )
+    {
+        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
+        JMethod ctor = clazz.implClass.getConstructor( new JType[]
+            {
+                paramClass, this.getCopyOptionsClass( clazz.parent() )
+            } );
+
+        if ( ctor == null )
+        {
+            ctor = this.generateParallelCopyConstructor( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "parallelCopyCtorExists", clazz.implClass.binaryName() );
+        }
+
+        return ctor;
+    }
+
     private JMethod getCloneMethod( final ClassOutline clazz )
     {
         JMethod clone = clazz.implClass.getMethod( "clone", NO_ARGS );
@@ -603,1887 +1285,10140 @@ public final class PluginImpl extends Plugin
         return clone;
     }
 
-    private JMethod getPropertyGetter( final FieldOutline f )
+    private JMethod getCopyToMethod( final ClassOutline clazz )
     {
-        final JDefinedClass clazz = f.parent().implClass;
-        final String name = f.getPropertyInfo().getName( true );
-        JMethod getter = clazz.getMethod( "get" + name, NO_ARGS );
+        JMethod copyToMethod = clazz.implClass.getMethod( "copyTo", new JType[]
+            {
+                this.getHierarchyRoot( clazz ).implClass
+            } );
 
-        if ( getter == null )
+        if ( copyToMethod == null )
         {
-            getter = clazz.getMethod( "is" + name, NO_ARGS );
+            copyToMethod = this.generateCopyToMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "copyTo", clazz.implClass.binaryName() );
         }
 
-        return getter;
+        return copyToMethod;
     }
 
-    private FieldOutline getFieldOutline( final ClassOutline clazz, final String fieldName )
+    private JPackage getSupportPackage( final Outline outline )
     {
-        for ( FieldOutline f : clazz.getDeclaredFields() )
+        JPackage supportPackage = null;
+
+        for ( ClassOutline clazz : outline.getClasses() )
         {
-            if ( f.getPropertyInfo().getName( false ).equals( fieldName ) )
+            final JPackage p = clazz._package()._package();
+            if ( supportPackage == null || p.compareTo( supportPackage ) < 0 )
             {
-                return f;
+                supportPackage = p;
             }
         }
 
-        return null;
+        return supportPackage;
     }
 
-    private JInvocation getCopyOfJaxbElementInvocation( final ClassOutline clazz )
+    private JDefinedClass getSupportClass( final Outline outline, final String name )
     {
-        final JClass jaxbElement = clazz.parent().getCodeModel().ref( JAXBElement.class );
-        final JType[] signature =
+        final JPackage supportPackage = this.getSupportPackage( outline );
+        final JDefinedClass supportClass = supportPackage._getClass( name );
+
+        if ( supportClass != null && !this.supportClasses.contains( supportClass ) )
         {
-            jaxbElement
-        };
+            this.log( Level.SEVERE, "supportClassExists", supportClass.fullName() );
+            this.success = false;
+        }
 
-        final String methodName = "copyOf";
-        final int mod = this.getVisibilityModifier();
+        return supportClass;
+    }
 
-        if ( mod != JMod.PRIVATE )
+    private JDefinedClass newSupportClass( final Outline outline, final String name, final ClassType classType )
+    {
+        try
         {
-            for ( JMethod m : clazz._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return clazz._package().objectFactory().staticInvoke( m );
-                }
-            }
+            final JDefinedClass supportClass = this.getSupportPackage( outline )._class(
+                classType == ClassType.INTERFACE ? JMod.PUBLIC : JMod.PUBLIC | JMod.FINAL, name, classType );
+
+            this.supportClasses.add( supportClass );
+            return supportClass;
         }
-        else
+        catch ( final JClassAlreadyExistsException e )
         {
-            for ( JMethod m : clazz.implClass.methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return JExpr.invoke( m );
-                }
-            }
+            throw new AssertionError( e );
         }
+    }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? clazz._package().objectFactory().method( JMod.STATIC | mod, JAXBElement.class, methodName )
-              : clazz.implClass.method( JMod.STATIC | mod, JAXBElement.class, methodName ) );
+    private boolean needsCopyContext( final Outline outline )
+    {
+        return this.preserveIdentity || this.hasIdReferences( outline );
+    }
 
-        final JVar element = m.param( JMod.FINAL, jaxbElement, "element" );
+    private boolean needsCopyContext( final ClassOutline clazz )
+    {
+        if ( this.preserveIdentity )
+        {
+            return true;
+        }
 
-        m.javadoc().append( "Creates and returns a deep copy of a given {@code JAXBElement} instance." );
-        m.javadoc().addParam( element ).append( "The instance to copy or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code element} or {@code null} if {@code element} is {@code null}." );
+        if ( !this.hasIdReferences( clazz.parent() ) )
+        {
+            return false;
+        }
 
-        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
-        m.body().directStatement( "// " + getMessage( "title" ) );
+        // Copy constructors of a hierarchy need to agree on entering the copy operation.
+        for ( ClassOutline c = clazz; c != null; c = c.getSuperClass() )
+        {
+            if ( this.needsCopyRegistration( c ) || this.reachesIdReferences( c ) )
+            {
+                return true;
+            }
+        }
 
-        final JConditional isNotNull = m.body()._if( element.ne( JExpr._null() ) );
-        final JExpression newElement = JExpr._new( jaxbElement ).
-            arg( JExpr.invoke( element, "getName" ) ).
-            arg( JExpr.invoke( element, "getDeclaredType" ) ).
-            arg( JExpr.invoke( element, "getScope" ) ).
-            arg( JExpr.invoke( element, "getValue" ) );
+        return false;
+    }
 
-        final JVar copy = isNotNull._then().decl( JMod.FINAL, jaxbElement, "copy", newElement );
-        isNotNull._then().add( copy.invoke( "setNil" ).arg( element.invoke( "isNil" ) ) );
-        isNotNull._then().add( copy.invoke( "setValue" ).arg( this.getCopyOfObjectInvocation( clazz ).
-            arg( JExpr.invoke( copy, "getValue" ) ) ) );
+    private boolean reachesIdReferences( final ClassOutline clazz )
+    {
+        Boolean reaches = this.idReferencesReached.get( clazz.target );
 
-        isNotNull._then()._return( copy );
-        m.body()._return( JExpr._null() );
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+        if ( reaches == null )
+        {
+            reaches = this.reachesWildcardContent( clazz.parent(), clazz.target, new HashSet<CClassInfo>(), true );
+            this.idReferencesReached.put( clazz.target, reaches );
+        }
+
+        return reaches;
     }
 
-    private JExpression getCopyOfPrimitiveArrayExpression( final ClassOutline classOutline, final JClass arrayType,
-                                                           final JExpression source )
+    private boolean reachesDom( final ClassOutline clazz )
     {
-        if ( this.isTargetSupported( TARGET_1_6 ) )
-        {
-            final JClass arrays = classOutline.parent().getCodeModel().ref( Arrays.class );
-            return JOp.cond( source.eq( JExpr._null() ), JExpr._null(), arrays.staticInvoke( "copyOf" ).
-                arg( source ).arg( source.ref( "length" ) ) );
+        Boolean reaches = this.domReached.get( clazz.target );
 
+        if ( reaches == null )
+        {
+            // DOM elements are held by wildcard and 'anyType' properties only.
+            reaches = this.reachesWildcardContent( clazz.parent(), clazz.target, new HashSet<CClassInfo>(), false );
+            this.domReached.put( clazz.target, reaches );
         }
 
-        final JClass array = classOutline.parent().getCodeModel().ref( Array.class );
-        final JClass system = classOutline.parent().getCodeModel().ref( System.class );
+        return reaches;
+    }
 
-        final int mod = this.getVisibilityModifier();
-        final String methodName = "copyOf";
-        final JType[] signature = new JType[]
+    private boolean reachesWildcardContent( final Outline outline, final CClassInfo classInfo,
+                                            final Set<CClassInfo> visited, final boolean idReferences )
+    {
+        if ( !visited.add( classInfo ) )
         {
-            arrayType
-        };
+            return false;
+        }
 
-        if ( mod != JMod.PRIVATE )
+        for ( CClassInfo c = classInfo; c != null; c = c.getBaseClass() )
         {
-            for ( JMethod m : classOutline._package().objectFactory().methods() )
+            for ( CPropertyInfo p : c.getProperties() )
             {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                if ( ( idReferences && p.id() == ID.IDREF )
+                     || ( p instanceof CReferencePropertyInfo && ( (CReferencePropertyInfo) p ).getWildcard() != null ) )
                 {
-                    return classOutline._package().objectFactory().staticInvoke( m ).arg( source );
+                    return true;
+                }
+
+                for ( CTypeInfo type : p.ref() )
+                {
+                    final CTypeInfo t = type instanceof CElementInfo ? ( (CElementInfo) type ).getContentType() : type;
+
+                    if ( t == CBuiltinLeafInfo.ANYTYPE || t instanceof CWildcardTypeInfo )
+                    {
+                        return true;
+                    }
+
+                    if ( t instanceof CClassInfo )
+                    {
+                        // Any subclass of the referenced class may be copied.
+                        for ( ClassOutline o : outline.getClasses() )
+                        {
+                            for ( CClassInfo s = o.target; s != null; s = s.getBaseClass() )
+                            {
+                                if ( s == t && this.reachesWildcardContent( outline, o.target, visited, idReferences ) )
+                                {
+                                    return true;
+                                }
+                            }
+                        }
+                    }
                 }
             }
         }
-        else
+
+        return false;
+    }
+
+    private boolean hasIdReferences( final Outline outline )
+    {
+        for ( ClassOutline clazz : outline.getClasses() )
         {
-            for ( JMethod m : classOutline.implClass.methods() )
+            for ( CPropertyInfo p : clazz.target.getProperties() )
             {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                if ( p.id() == ID.IDREF )
                 {
-                    return JExpr.invoke( m ).arg( source );
+                    return true;
                 }
             }
         }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? classOutline._package().objectFactory().method( JMod.STATIC | mod, arrayType, methodName )
-              : classOutline.implClass.method( JMod.STATIC | mod, arrayType, methodName ) );
-
-        final JVar arrayParam = m.param( JMod.FINAL, arrayType, "array" );
-
-        m.javadoc().append( "Creates and returns a deep copy of a given array." );
-        m.javadoc().addParam( arrayParam ).append( "The array to copy or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
-
-        m.body().directStatement( "// " + getMessage( "title" ) );
-
-        final JConditional arrayNotNull = m.body()._if( arrayParam.ne( JExpr._null() ) );
-        final JVar copy = arrayNotNull._then().decl(
-            JMod.FINAL, arrayType, "copy", JExpr.cast( arrayType, array.staticInvoke( "newInstance" ).arg(
-            arrayParam.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( arrayParam.ref( "length" ) ) ) );
-
-        arrayNotNull._then().add( system.staticInvoke( "arraycopy" ).arg( arrayParam ).arg( JExpr.lit( 0 ) ).
-            arg( copy ).arg( JExpr.lit( 0 ) ).arg( arrayParam.ref( "length" ) ) );
-
-        arrayNotNull._then()._return( copy );
-
-        m.body()._return( JExpr._null() );
-
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE ? classOutline._package().objectFactory().staticInvoke( m ).arg( source )
-                 : JExpr.invoke( m ).arg( source ) );
-
+        return false;
     }
 
-    private JInvocation getCopyOfArrayInvocation( final ClassOutline clazz )
+    private boolean declaresId( final ClassOutline clazz )
     {
-        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
-        final JClass array = clazz.parent().getCodeModel().ref( Array.class );
-        final JType[] signature =
+        for ( CPropertyInfo p : clazz.target.getProperties() )
         {
-            object
-        };
+            if ( p.id() == ID.ID )
+            {
+                return true;
+            }
+        }
 
-        final String methodName = "copyOfArray";
-        final int mod = this.getVisibilityModifier();
+        return false;
+    }
 
-        if ( mod != JMod.PRIVATE )
+    private boolean needsCopyRegistration( final ClassOutline clazz )
+    {
+        if ( this.preserveIdentity )
         {
-            for ( JMethod m : clazz._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return clazz._package().objectFactory().staticInvoke( m );
-                }
-            }
+            return true;
         }
-        else
+
+        for ( ClassOutline c : clazz.parent().getClasses() )
         {
-            for ( JMethod m : clazz.implClass.methods() )
+            if ( this.declaresId( c ) )
             {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                for ( ClassOutline s = c; s != null; s = s.getSuperClass() )
                 {
-                    return JExpr.invoke( m );
+                    if ( s == clazz )
+                    {
+                        return true;
+                    }
                 }
             }
         }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? clazz._package().objectFactory().method( JMod.STATIC | mod, object, methodName )
-              : clazz.implClass.method( JMod.STATIC | mod, object, methodName ) );
-
-        final JVar arrayArg = m.param( JMod.FINAL, object, "array" );
-
-        m.javadoc().append( "Creates and returns a deep copy of a given array." );
-        m.javadoc().addParam( arrayArg ).append( "The array to copy or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
-
-        m.body().directStatement( "// " + getMessage( "title" ) );
+        return false;
+    }
 
-        final JConditional arrayNotNull = m.body()._if( arrayArg.ne( JExpr._null() ) );
+    private JDefinedClass getIterativeCopyableClass( final Outline outline )
+    {
+        JDefinedClass iterativeCopyable = this.getSupportClass( outline, ITERATIVE_COPYABLE_CLASS_NAME );
 
-        for ( Class<?> a : PRIMITIVE_ARRAY_TYPES )
+        if ( iterativeCopyable == null )
         {
-            final JClass primitiveArray = clazz.parent().getCodeModel().ref( a );
-            final JConditional isArrayOfPrimitive =
-                arrayNotNull._then()._if( arrayArg.invoke( "getClass" ).eq( primitiveArray.dotclass() ) );
+            final JClass object = outline.getCodeModel().ref( Object.class );
+            iterativeCopyable = this.newSupportClass( outline, ITERATIVE_COPYABLE_CLASS_NAME, ClassType.INTERFACE );
+            iterativeCopyable.javadoc().append(
+                "Instances which can be copied with bounded recursion.\n<p>A copy is created in two steps. A shallow "
+                + "copy is created first and completed by copying the values of the properties of the copied "
+                + "instance to that copy. Completing a copy can be deferred, so that the stack depth needed for "
+                + "copying is independent of the depth of the copied document.</p>" );
 
-            isArrayOfPrimitive._then()._return( this.getCopyOfPrimitiveArrayExpression(
-                clazz, primitiveArray, JExpr.cast( primitiveArray, arrayArg ) ) );
+            final JMethod cloneShallow = iterativeCopyable.method( JMod.NONE, object, "cloneShallow" );
+            cloneShallow.javadoc().append( "Creates and returns a shallow copy of this instance." );
+            cloneShallow.javadoc().addReturn().append( "A shallow copy of this instance." );
+
+            final JMethod completeCopy = iterativeCopyable.method( JMod.NONE, Void.TYPE, "completeCopy" );
+            final JVar copy = completeCopy.param( JMod.FINAL, object, "copy" );
+            completeCopy.javadoc().append( "Completes a shallow copy of this instance." );
+            completeCopy.javadoc().addParam( copy ).append(
+                "The shallow copy of this instance to complete as returned by the {@code cloneShallow} method." );
 
         }
 
-        final JVar len = arrayNotNull._then().decl(
-            JMod.FINAL, clazz.parent().getCodeModel().INT, "len", array.staticInvoke( "getLength" ).
-            arg( arrayArg ) );
+        return iterativeCopyable;
+    }
 
-        final JVar copy = arrayNotNull._then().decl( JMod.FINAL, object, "copy", array.staticInvoke( "newInstance" ).
-            arg( arrayArg.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( len ) );
+    private JDefinedClass getCopyQueueClass( final Outline outline )
+    {
+        JDefinedClass copyQueue = this.getSupportClass( outline, COPY_QUEUE_CLASS_NAME );
 
-        final JForLoop forEachRef = arrayNotNull._then()._for();
-        final JVar i = forEachRef.init( clazz.parent().getCodeModel().INT, "i", len.minus( JExpr.lit( 1 ) ) );
-        forEachRef.test( i.gte( JExpr.lit( 0 ) ) );
-        forEachRef.update( i.decr() );
-        forEachRef.body().add( array.staticInvoke( "set" ).arg( copy ).arg( i ).
-            arg( this.getCopyOfObjectInvocation( clazz ).arg( array.staticInvoke( "get" ).
-            arg( arrayArg ).arg( i ) ) ) );
+        if ( copyQueue == null )
+        {
+            copyQueue = this.generateCopyQueueClass( outline );
+        }
 
-        arrayNotNull._then()._return( copy );
-        m.body()._return( JExpr._null() );
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+        return copyQueue;
     }
 
-    private JInvocation getCopyOfSerializableInvocation( final ClassOutline clazz )
+    private JDefinedClass generateCopyQueueClass( final Outline outline )
     {
-        final JClass serializable = clazz.parent().getCodeModel().ref( Serializable.class );
-        final JClass byteArrayOutputStream = clazz.parent().getCodeModel().ref( ByteArrayOutputStream.class );
-        final JClass byteArrayInputStream = clazz.parent().getCodeModel().ref( ByteArrayInputStream.class );
-        final JClass objectOutputStream = clazz.parent().getCodeModel().ref( ObjectOutputStream.class );
-        final JClass objectInputStream = clazz.parent().getCodeModel().ref( ObjectInputStream.class );
-        final JClass ioException = clazz.parent().getCodeModel().ref( IOException.class );
-        final JClass invalidClass = clazz.parent().getCodeModel().ref( InvalidClassException.class );
-        final JClass notSerializable = clazz.parent().getCodeModel().ref( NotSerializableException.class );
-        final JClass streamCorrupted = clazz.parent().getCodeModel().ref( StreamCorruptedException.class );
-        final JClass securityException = clazz.parent().getCodeModel().ref( SecurityException.class );
-        final JClass optionalData = clazz.parent().getCodeModel().ref( OptionalDataException.class );
-        final JClass classNotFound = clazz.parent().getCodeModel().ref( ClassNotFoundException.class );
-        final JClass assertionError = clazz.parent().getCodeModel().ref( AssertionError.class );
-        final JType[] signature =
-        {
-            serializable
-        };
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass copyQueue = this.newSupportClass( outline, COPY_QUEUE_CLASS_NAME, ClassType.CLASS );
+        final JDefinedClass iterativeCopyable = this.getIterativeCopyableClass( outline );
+        final JClass object = cm.ref( Object.class );
+        final JClass threadLocal = cm.ref( ThreadLocal.class ).narrow( copyQueue );
 
-        final String methodName = "copyOf";
-        final int mod = this.getVisibilityModifier();
+        copyQueue.javadoc().append( "Pending copies of a thread.\n<p>Copy constructors and {@code clone()} methods "
+                                    + "copy referenced instances recursively up to a limited number of nested "
+                                    + "copies. Beyond that limit, a shallow copy of each referenced instance is "
+                                    + "pushed onto the queue of the current thread and completed in a loop by the "
+                                    + "outermost copy, so that the stack depth needed for copying is independent of "
+                                    + "the depth of the copied document. The queue is kept per thread and reused by "
+                                    + "subsequent copy operations.</p>" );
 
-        if ( mod != JMod.PRIVATE )
-        {
-            for ( JMethod m : clazz._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return clazz._package().objectFactory().staticInvoke( m );
-                }
-            }
-        }
-        else
-        {
-            for ( JMethod m : clazz.implClass.methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return JExpr.invoke( m );
-                }
-            }
-        }
+        final JFieldVar recursionLimit = copyQueue.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                          "RECURSION_LIMIT", JExpr.lit( ITERATIVE_RECURSION_LIMIT ) );
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? clazz._package().objectFactory().method( JMod.STATIC | mod, serializable, methodName )
-              : clazz.implClass.method( JMod.STATIC | mod, serializable, methodName ) );
+        recursionLimit.javadoc().append( "Maximum number of nested copies completed recursively." );
 
-        final JVar s = m.param( JMod.FINAL, serializable, "serializable" );
+        final JFieldVar current = copyQueue.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, threadLocal, "CURRENT",
+                                                   JExpr._new( threadLocal ) );
 
-        m.javadoc().append( "Creates and returns a deep copy of a given {@code Serializable}." );
-        m.javadoc().addParam( s ).append( "The instance to copy or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code serializable} or {@code null} if {@code serializable} is {@code null}." );
+        final JFieldVar pending = copyQueue.field(
+            JMod.PRIVATE | JMod.FINAL, cm.ref( List.class ).narrow( object ), "pending",
+            JExpr._new( cm.ref( ArrayList.class ).narrow( object ) ).arg( JExpr.lit( 64 ) ) );
 
-        m.body().directStatement( "// " + getMessage( "title" ) );
+        pending.javadoc().append( "Pending copies as pairs of copied instances and shallow copies." );
 
-        final JConditional sNotNull = m.body()._if( s.ne( JExpr._null() ) );
-        final JTryBlock tryClone = sNotNull._then()._try();
+        final JFieldVar depth = copyQueue.field( JMod.PRIVATE, cm.INT, "depth" );
+        depth.javadoc().append( "Number of nested copies currently being completed." );
 
-        final JVar byteArrayOutput = tryClone.body().decl(
-            JMod.FINAL, byteArrayOutputStream, "byteArrayOutput", JExpr._new( byteArrayOutputStream ) );
+        final JMethod ctor = copyQueue.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + copyQueue.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-        final JVar objectOutput = tryClone.body().decl(
-            JMod.FINAL, objectOutputStream, "out", JExpr._new( objectOutputStream ).arg( byteArrayOutput ) );
+        final JMethod copyOf = copyQueue.method( JMod.PUBLIC | JMod.STATIC, object, "copyOf" );
+        final JVar o = copyOf.param( JMod.FINAL, object, "o" );
+        copyOf.javadoc().append( "Creates and returns a deep copy of a given instance.\n<p>If the current thread is "
+                                 + "not copying any other instance, the copy is completed before this method "
+                                 + "returns. Otherwise the returned copy may be a shallow copy completed before "
+                                 + "the outermost invocation of this method returns.</p>" );
 
-        tryClone.body().add( objectOutput.invoke( "writeObject" ).arg( s ) );
-        tryClone.body().add( objectOutput.invoke( "close" ) );
+        copyOf.javadoc().addParam( o ).append( "The {@code " + iterativeCopyable.name() + "} instance to copy." );
+        copyOf.javadoc().addReturn().append( "A copy of {@code o}." );
+        copyOf.javadoc().addThrows( NullPointerException.class ).append( "if {@code o} is {@code null}." );
+        copyOf.body().directStatement( "// " + getMessage( "title" ) );
 
-        final JVar byteArrayInput = tryClone.body().decl(
-            JMod.FINAL, byteArrayInputStream, "byteArrayInput",
-            JExpr._new( byteArrayInputStream ).arg( byteArrayOutput.invoke( "toByteArray" ) ) );
+        if ( this.needsCopyContext( outline ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( outline );
+            final JVar copyContext = copyOf.body().decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                         copyContextClass.staticInvoke( "current" ) );
 
-        final JVar objectInput = tryClone.body().decl(
-            JMod.FINAL, objectInputStream, "in", JExpr._new( objectInputStream ).arg( byteArrayInput ) );
+            final JVar registeredCopy = copyOf.body().decl(
+                JMod.FINAL, object, "registeredCopy", JOp.cond( copyContext.ne( JExpr._null() ),
+                                                                copyContext.invoke( "get" ).arg( o ),
+                                                                JExpr._null() ) );
 
-        final JVar copy = tryClone.body().decl(
-            JMod.FINAL, serializable, "copy", JExpr.cast( serializable, objectInput.invoke( "readObject" ) ) );
+            copyOf.body()._if( registeredCopy.ne( JExpr._null() ) )._then()._return( registeredCopy );
+        }
 
-        tryClone.body().invoke( objectInput, "close" );
-        tryClone.body()._return( copy );
+        final JVar queue = copyOf.body().decl( copyQueue, "copyQueue", current.invoke( "get" ) );
+        final JConditional isNull = copyOf.body()._if( queue.eq( JExpr._null() ) );
+        isNull._then().assign( queue, JExpr._new( copyQueue ) );
+        isNull._then().add( current.invoke( "set" ).arg( queue ) );
 
-        final JExpression assertionErrorMsg =
-            JExpr.lit( "Unexpected instance during copying object '" ).plus( s ).plus( JExpr.lit( "'." ) );
+        final JVar source = copyOf.body().decl( JMod.FINAL, iterativeCopyable, "source",
+                                                JExpr.cast( iterativeCopyable, o ) );
 
-        final JCatchBlock catchSecurityException = tryClone._catch( securityException );
-        catchSecurityException.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchSecurityException.param( "e" ) ) ) );
+        final JVar copy = copyOf.body().decl( JMod.FINAL, object, "copy", source.invoke( "cloneShallow" ) );
+        final JConditional outermost = copyOf.body()._if( queue.ref( depth ).eq( JExpr.lit( 0 ) ) );
+        outermost._then().directStatement( "// Outermost copy completing any pending copies." );
+        outermost._then().assign( queue.ref( depth ), JExpr.lit( 1 ) );
 
-        final JCatchBlock catchClassNotFound = tryClone._catch( classNotFound );
-        catchClassNotFound.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchClassNotFound.param( "e" ) ) ) );
+        final JTryBlock tryComplete = outermost._then()._try();
+        tryComplete.body().add( source.invoke( "completeCopy" ).arg( copy ) );
 
-        final JCatchBlock catchInvalidClass = tryClone._catch( invalidClass );
-        catchInvalidClass.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchInvalidClass.param( "e" ) ) ) );
+        final JWhileLoop completePending = tryComplete.body()._while( queue.ref( pending ).invoke( "isEmpty" ).not() );
+        final JVar pendingCopy = completePending.body().decl(
+            JMod.FINAL, object, "pendingCopy", queue.ref( pending ).invoke( "remove" ).arg(
+            queue.ref( pending ).invoke( "size" ).minus( JExpr.lit( 1 ) ) ) );
 
-        final JCatchBlock catchNotSerializable = tryClone._catch( notSerializable );
-        catchNotSerializable.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchNotSerializable.param( "e" ) ) ) );
+        final JVar pendingSource = completePending.body().decl(
+            JMod.FINAL, iterativeCopyable, "pendingSource", JExpr.cast( iterativeCopyable, queue.ref( pending ).
+            invoke( "remove" ).arg( queue.ref( pending ).invoke( "size" ).minus( JExpr.lit( 1 ) ) ) ) );
 
-        final JCatchBlock catchStreamCorrupted = tryClone._catch( streamCorrupted );
-        catchStreamCorrupted.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchStreamCorrupted.param( "e" ) ) ) );
+        completePending.body().add( pendingSource.invoke( "completeCopy" ).arg( pendingCopy ) );
+        tryComplete._finally().assign( queue.ref( depth ), JExpr.lit( 0 ) );
+        tryComplete._finally().add( queue.ref( pending ).invoke( "clear" ) );
 
-        final JCatchBlock catchOptionalData = tryClone._catch( optionalData );
-        catchOptionalData.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchOptionalData.param( "e" ) ) ) );
+        final JConditional recursive = outermost._else()._if( queue.ref( depth ).lt( recursionLimit ) );
+        recursive._then().directStatement( "// Nested copy within the recursion limit." );
+        recursive._then().assignPlus( queue.ref( depth ), JExpr.lit( 1 ) );
+        recursive._then().add( source.invoke( "completeCopy" ).arg( copy ) );
+        recursive._then().assignPlus( queue.ref( depth ), JExpr.lit( -1 ) );
 
-        final JCatchBlock catchIOException = tryClone._catch( ioException );
-        catchIOException.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchIOException.param( "e" ) ) ) );
+        recursive._else().directStatement( "// Nested copy beyond the recursion limit." );
+        recursive._else().add( queue.ref( pending ).invoke( "add" ).arg( o ) );
+        recursive._else().add( queue.ref( pending ).invoke( "add" ).arg( copy ) );
 
-        m.body()._return( JExpr._null() );
+        copyOf.body()._return( copy );
         this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+        return copyQueue;
     }
 
-    private JInvocation getCopyOfObjectInvocation( final ClassOutline clazz )
+    private JDefinedClass getPoolableClass( final Outline outline )
     {
-        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
-        final JClass element = clazz.parent().getCodeModel().ref( Element.class );
-        final JClass jaxbElement = clazz.parent().getCodeModel().ref( JAXBElement.class );
-        final JClass noSuchMethod = clazz.parent().getCodeModel().ref( NoSuchMethodException.class );
-        final JClass illegalAccess = clazz.parent().getCodeModel().ref( IllegalAccessException.class );
-        final JClass invocationTarget = clazz.parent().getCodeModel().ref( InvocationTargetException.class );
-        final JClass securityException = clazz.parent().getCodeModel().ref( SecurityException.class );
-        final JClass illegalArgument = clazz.parent().getCodeModel().ref( IllegalArgumentException.class );
-        final JClass initializerError = clazz.parent().getCodeModel().ref( ExceptionInInitializerError.class );
-        final JClass assertionError = clazz.parent().getCodeModel().ref( AssertionError.class );
-        final JClass classArray = clazz.parent().getCodeModel().ref( Class[].class );
-        final JClass objectArray = clazz.parent().getCodeModel().ref( Object[].class );
-        final JClass serializable = clazz.parent().getCodeModel().ref( Serializable.class );
+        JDefinedClass poolable = this.getSupportClass( outline, POOLABLE_CLASS_NAME );
 
-        final String methodName = "copyOf";
-        final int mod = this.getVisibilityModifier();
-        final JType[] signature = new JType[]
+        if ( poolable == null )
         {
-            object
-        };
+            final JClass objectList = outline.getCodeModel().ref( List.class ).narrow( Object.class );
+            poolable = this.newSupportClass( outline, POOLABLE_CLASS_NAME, ClassType.INTERFACE );
+            poolable.javadoc().append( "Instances which can be reused by {@code clone()} methods after being released "
+                                       + "to the {@code " + POOL_CLASS_NAME + "} of a thread." );
+
+            final JMethod reset = poolable.method( JMod.NONE, Void.TYPE, "reset" );
+            reset.javadoc().append( "Resets this instance to the state of a newly created instance." );
+
+            final JMethod releaseReferences = poolable.method( JMod.NONE, Void.TYPE, "releaseReferences" );
+            final JVar instances = releaseReferences.param( JMod.FINAL, objectList, "instances" );
+            releaseReferences.javadoc().append(
+                "Adds the instances referenced by this instance to a given list of instances to release." );
+
+            releaseReferences.javadoc().addParam( instances ).append(
+                "The list to add the instances referenced by this instance to." );
+
+            final JMethod isPooled = poolable.method( JMod.NONE, outline.getCodeModel().BOOLEAN, "isPooled" );
+            isPooled.javadoc().append( "Gets a flag indicating this instance is held by a free list of a pool." );
+            isPooled.javadoc().addReturn().append( "{@code true}, if this instance is held by a free list of a pool; "
+                                                   + "{@code false}, else." );
+
+            final JMethod setPooled = poolable.method( JMod.NONE, Void.TYPE, "setPooled" );
+            final JVar pooled = setPooled.param( JMod.FINAL, outline.getCodeModel().BOOLEAN, "pooled" );
+            setPooled.javadoc().append( "Sets the flag indicating this instance is held by a free list of a pool." );
+            setPooled.javadoc().addParam( pooled ).append( "{@code true}, if this instance is held by a free list of "
+                                                           + "a pool; {@code false}, else." );
 
-        if ( mod != JMod.PRIVATE )
-        {
-            for ( JMethod m : clazz._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return clazz._package().objectFactory().staticInvoke( m );
-                }
-            }
         }
-        else
+
+        return poolable;
+    }
+
+    private JDefinedClass getPoolClass( final Outline outline )
+    {
+        JDefinedClass poolClass = this.getSupportClass( outline, POOL_CLASS_NAME );
+
+        if ( poolClass == null )
         {
-            for ( JMethod m : clazz.implClass.methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return JExpr.invoke( m );
-                }
-            }
+            poolClass = this.generatePoolClass( outline );
         }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? clazz._package().objectFactory().method( JMod.STATIC | mod, object, methodName )
-              : clazz.implClass.method( JMod.STATIC | mod, object, methodName ) );
+        return poolClass;
+    }
 
-        final JVar o = m.param( JMod.FINAL, object, "o" );
-        final Set<Class<?>> exceptions = new HashSet<Class<?>>();
+    private JDefinedClass generatePoolClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass poolClass = this.newSupportClass( outline, POOL_CLASS_NAME, ClassType.CLASS );
+        final JDefinedClass poolable = this.getPoolableClass( outline );
+        final JClass object = cm.ref( Object.class );
+        final JClass objectList = cm.ref( List.class ).narrow( object );
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+        final JClass threadLocal = cm.ref( ThreadLocal.class ).narrow( poolClass );
+        final String capacityProperty = poolClass.fullName() + ".capacity";
 
-        m.javadoc().append( "Creates and returns a deep copy of a given object." );
-        m.javadoc().addParam( o ).append( "The instance to copy or {@code null}." );
-        m.javadoc().addReturn().append( "A deep copy of {@code o} or {@code null} if {@code o} is {@code null}." );
-        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+        poolClass.javadoc().append( "Instances released for reuse by {@code clone()} methods.\n<p>Released instances "
+                                    + "are reset and kept in free lists per class and thread, so that the "
+                                    + "{@code clone()} methods invoked by the thread releasing an instance can reuse "
+                                    + "that instance instead of creating a new one. The number of instances kept per "
+                                    + "class and thread is bounded by the value of system property {@code "
+                                    + capacityProperty + "}, defaulting to " + POOL_CAPACITY + ". Released instances "
+                                    + "must not be used any longer.</p>" );
 
-        m.body().directStatement( "// " + getMessage( "title" ) );
+        final JFieldVar capacity = poolClass.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT, "CAPACITY", cm.ref( Integer.class ).
+            staticInvoke( "getInteger" ).arg( JExpr.lit( capacityProperty ) ).arg( JExpr.lit( POOL_CAPACITY ) ).
+            invoke( "intValue" ) );
 
-        final JBlock copyBlock = new JBlock( false, false );
-        final JConditional objectNotNull = copyBlock._if( o.ne( JExpr._null() ) );
+        capacity.javadoc().append( "Maximum number of instances kept per class and thread." );
 
-        final JConditional isPrimitive =
-            objectNotNull._then()._if( JExpr.invoke( JExpr.invoke( o, "getClass" ), "isPrimitive" ) );
+        final JFieldVar current = poolClass.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, threadLocal, "CURRENT",
+                                                   JExpr._new( threadLocal ) );
 
-        isPrimitive._then()._return( o );
+        final JFieldVar instances = poolClass.field(
+            JMod.PRIVATE | JMod.FINAL, cm.ref( Map.class ).narrow( type, objectList ), "instances",
+            JExpr._new( cm.ref( HashMap.class ).narrow( type, objectList ) ) );
 
-        final JConditional isArray =
-            objectNotNull._then()._if( JExpr.invoke( JExpr.invoke( o, "getClass" ), "isArray" ) );
+        instances.javadoc().append( "Free lists of released instances by class." );
 
-        isArray._then()._return( this.getCopyOfArrayInvocation( clazz ).arg( o ) );
+        final JFieldVar released = poolClass.field(
+            JMod.PRIVATE | JMod.FINAL, cm.ref( Map.class ).narrow( object, object ), "released",
+            JExpr._new( cm.ref( IdentityHashMap.class ).narrow( object, object ) ) );
 
-        objectNotNull._then().directStatement( "// Immutable types." );
+        released.javadoc().append( "Instances released by the current release operation." );
 
-        for ( String immutableType : this.immutableTypes )
-        {
-            final JClass immutable = clazz.parent().getCodeModel().ref( immutableType );
-            objectNotNull._then()._if( o._instanceof( immutable ) )._then()._return( o );
-        }
+        final JFieldVar pending = poolClass.field(
+            JMod.PRIVATE | JMod.FINAL, objectList, "pending",
+            JExpr._new( cm.ref( ArrayList.class ).narrow( object ) ).arg( JExpr.lit( 64 ) ) );
 
-        objectNotNull._then().directStatement( "// String based types." );
+        pending.javadoc().append( "Instances pending to be released by the current release operation." );
 
-        for ( String stringType : this.stringTypes )
-        {
-            final JClass string = clazz.parent().getCodeModel().ref( stringType );
-            final Class<?> c = this.getClass( stringType );
+        final JMethod ctor = poolClass.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + poolClass.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-            if ( c != null )
-            {
-                try
-                {
-                    exceptions.addAll( Arrays.asList( c.getConstructor( String.class ).getExceptionTypes() ) );
-                }
-                catch ( final NoSuchMethodException e )
-                {
-                    // Generated code won't compile.
-                }
-            }
+        final JMethod poll = poolClass.method( JMod.PUBLIC | JMod.STATIC, object, "poll" );
+        final JVar pollType = poll.param( JMod.FINAL, type, "type" );
+        poll.javadoc().append( "Takes a released instance of a given class from the pool of the current thread." );
+        poll.javadoc().addParam( pollType ).append( "The class of the instance to take." );
+        poll.javadoc().addReturn().append( "A released instance of {@code type} or {@code null}, if the pool of the "
+                                           + "current thread does not hold an instance of {@code type}." );
 
-            objectNotNull._then()._if( o._instanceof( string ) )._then()._return(
-                JExpr._new( string ).arg( o.invoke( "toString" ) ) );
+        poll.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar pollPool = poll.body().decl( JMod.FINAL, poolClass, "pool", current.invoke( "get" ) );
+        final JVar free = poll.body().decl( JMod.FINAL, objectList, "free", JOp.cond(
+            pollPool.ne( JExpr._null() ), pollPool.ref( instances ).invoke( "get" ).arg( pollType ), JExpr._null() ) );
 
-        }
+        final JVar polled = poll.body().decl( JMod.FINAL, object, "polled", JOp.cond(
+            free.ne( JExpr._null() ).cand( free.invoke( "isEmpty" ).not() ),
+            free.invoke( "remove" ).arg( free.invoke( "size" ).minus( JExpr.lit( 1 ) ) ), JExpr._null() ) );
 
-        objectNotNull._then().directStatement( "// Cloneable types." );
+        poll.body()._if( polled.ne( JExpr._null() ) )._then().add(
+            JExpr.invoke( JExpr.cast( poolable, polled ), "setPooled" ).arg( JExpr.FALSE ) );
 
-        for ( String cloneableType : this.cloneableTypes )
-        {
-            final JClass cloneable = clazz.parent().getCodeModel().ref( cloneableType );
-            final Class<?> c = this.getClass( cloneableType );
+        poll.body()._return( polled );
 
-            if ( c != null )
-            {
-                try
-                {
-                    exceptions.addAll( Arrays.asList( c.getMethod( "clone" ).getExceptionTypes() ) );
-                }
-                catch ( final NoSuchMethodException e )
-                {
-                    // Generated code won't compile.
-                }
-            }
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            objectNotNull._then()._if( o._instanceof( cloneable ) )._then()._return(
-                JExpr.invoke( JExpr.cast( cloneable, o ), ( "clone" ) ) );
+        final JMethod release = poolClass.method( JMod.PUBLIC | JMod.STATIC, Void.TYPE, "release" );
+        final JVar o = release.param( JMod.FINAL, object, "o" );
+        release.javadoc().append( "Releases a given instance and the instances it references to the pool of the "
+                                  + "current thread.\n<p>Each released instance is reset. Instances shared lazily, "
+                                  + ( this.freezable ? "frozen instances " : "" ) + "and instances referenced by "
+                                  + "{@code IDREF} properties are not released. Instances referenced more than once "
+                                  + "and instances already held by a free list are released once.</p>" );
 
-        }
+        release.javadoc().addParam( o ).append( "The instance to release or {@code null}." );
+        release.body().directStatement( "// " + getMessage( "title" ) );
 
-        final JConditional instanceOfDOMElement = objectNotNull._then()._if( o._instanceof( element ) );
-        instanceOfDOMElement._then()._return( JExpr.cast( element, JExpr.invoke(
-            JExpr.cast( element, o ), "cloneNode" ).arg( JExpr.TRUE ) ) );
+        final JVar releasePool = release.body().decl( poolClass, "pool", current.invoke( "get" ) );
+        final JConditional isNull = release.body()._if( releasePool.eq( JExpr._null() ) );
+        isNull._then().assign( releasePool, JExpr._new( poolClass ) );
+        isNull._then().add( current.invoke( "set" ).arg( releasePool ) );
+        release.body().add( releasePool.ref( pending ).invoke( "add" ).arg( o ) );
 
-        final JConditional instanceOfElement = objectNotNull._then()._if( o._instanceof( jaxbElement ) );
-        instanceOfElement._then()._return( this.getCopyOfJaxbElementInvocation( clazz ).
-            arg( JExpr.cast( jaxbElement, o ) ) );
+        final JTryBlock tryRelease = release.body()._try();
+        final JWhileLoop releasePending =
+            tryRelease.body()._while( releasePool.ref( pending ).invoke( "isEmpty" ).not() );
 
-        final JTryBlock tryCloneMethod = objectNotNull._then()._try();
-        tryCloneMethod.body()._return( JExpr.invoke( JExpr.invoke( JExpr.invoke( o, "getClass" ), "getMethod" ).
-            arg( "clone" ).arg( JExpr.cast( classArray, JExpr._null() ) ), "invoke" ).arg( o ).
-            arg( JExpr.cast( objectArray, JExpr._null() ) ) );
+        final JVar next = releasePending.body().decl( object, "next", releasePool.ref( pending ).invoke( "remove" ).
+            arg( releasePool.ref( pending ).invoke( "size" ).minus( JExpr.lit( 1 ) ) ) );
 
-        final JExpression assertionErrorMsg =
-            JExpr.lit( "Unexpected instance during copying object '" ).plus( o ).plus( JExpr.lit( "'." ) );
+        releasePending.body()._if( next._instanceof( cm.ref( JAXBElement.class ) ) )._then().assign(
+            next, JExpr.invoke( JExpr.cast( cm.ref( JAXBElement.class ), next ), "getValue" ) );
 
-        final JCatchBlock catchNoSuchMethod = tryCloneMethod._catch( noSuchMethod );
-        final JConditional instanceOfSerializable = catchNoSuchMethod.body()._if( o._instanceof( serializable ) );
-        instanceOfSerializable._then()._return( this.getCopyOfSerializableInvocation( clazz ).
-            arg( JExpr.cast( serializable, o ) ) );
+        JExpression releasable = next._instanceof( poolable );
 
-        catchNoSuchMethod.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        if ( this.freezable )
+        {
+            releasable = releasable.cand( JExpr.invoke( JExpr.cast( this.getFreezableClass( outline ), next ),
+                                                        "isFrozen" ).not() );
 
-        catchNoSuchMethod.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).
-            arg( catchNoSuchMethod.param( "e" ) ) ) );
+        }
 
-        final JCatchBlock catchIllegalAccess = tryCloneMethod._catch( illegalAccess );
-        catchIllegalAccess.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        // Instances released twice must not be handed out to two clones.
+        releasable = releasable.cand( JExpr.invoke( JExpr.cast( poolable, next ), "isPooled" ).not() );
 
-        catchIllegalAccess.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchIllegalAccess.param( "e" ) ) ) );
+        final JBlock releaseNext = releasePending.body()._if( releasable.cand(
+            releasePool.ref( released ).invoke( "put" ).arg( next ).arg( next ).eq( JExpr._null() ) ) )._then();
 
-        final JCatchBlock catchInvocationTarget = tryCloneMethod._catch( invocationTarget );
-        catchInvocationTarget.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        releaseNext.add( JExpr.invoke( JExpr.cast( poolable, next ), "releaseReferences" ).
+            arg( releasePool.ref( pending ) ) );
 
-        catchInvocationTarget.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchInvocationTarget.param( "e" ) ) ) );
+        releaseNext.add( JExpr.invoke( JExpr.cast( poolable, next ), "reset" ) );
 
-        final JCatchBlock catchSecurityException = tryCloneMethod._catch( securityException );
-        catchSecurityException.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        final JVar nextFree = releaseNext.decl( objectList, "free", releasePool.ref( instances ).invoke( "get" ).
+            arg( next.invoke( "getClass" ) ) );
 
-        catchSecurityException.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchSecurityException.param( "e" ) ) ) );
+        final JConditional noFreeList = releaseNext._if( nextFree.eq( JExpr._null() ) );
+        noFreeList._then().assign( nextFree, JExpr._new( cm.ref( ArrayList.class ).narrow( object ) ) );
+        noFreeList._then().add( releasePool.ref( instances ).invoke( "put" ).arg( next.invoke( "getClass" ) ).
+            arg( nextFree ) );
 
-        final JCatchBlock catchIllegalArgument = tryCloneMethod._catch( illegalArgument );
-        catchIllegalArgument.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        final JBlock keep = releaseNext._if( nextFree.invoke( "size" ).lt( capacity ) )._then();
+        keep.add( JExpr.invoke( JExpr.cast( poolable, next ), "setPooled" ).arg( JExpr.TRUE ) );
+        keep.add( nextFree.invoke( "add" ).arg( next ) );
 
-        catchIllegalArgument.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchIllegalArgument.param( "e" ) ) ) );
+        tryRelease._finally().add( releasePool.ref( pending ).invoke( "clear" ) );
+        tryRelease._finally().add( releasePool.ref( released ).invoke( "clear" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return poolClass;
+    }
 
-        final JCatchBlock catchInitializerError = tryCloneMethod._catch( initializerError );
-        catchInitializerError.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+    private void generatePooledFlag( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
 
-        catchInitializerError.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchInitializerError.param( "e" ) ) ) );
+        // Transient fields are neither serialized nor bound by JAXB.
+        final JFieldVar flag = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT, cm.BOOLEAN,
+                                                      this.getUnusedFieldName( clazz, "pooled" ) );
 
-        copyBlock._return( JExpr._null() );
+        flag.javadoc().append( "Flag indicating this instance is held by a free list of a pool." );
+        clazz.implClass._implements( this.getPoolableClass( clazz.parent() ) );
+        this.supportFields.add( flag );
 
-        if ( !exceptions.isEmpty() )
+        if ( clazz.implClass.getMethod( "isPooled", NO_ARGS ) == null )
         {
-            final JTryBlock tryCopy = m.body()._try();
-            tryCopy.body().add( copyBlock );
-
-            for ( Class<?> e : exceptions )
-            {
-                final JCatchBlock catchBlock = tryCopy._catch( clazz.parent().getCodeModel().ref( e ) );
-                catchBlock.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
-                    arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchBlock.param( "e" ) ) ) );
+            final JMethod isPooled = clazz.implClass.method( JMod.PUBLIC, cm.BOOLEAN, "isPooled" );
+            isPooled.javadoc().append( "Gets a flag indicating this instance is held by a free list of a pool." );
+            isPooled.javadoc().addReturn().append( "{@code true}, if this instance is held by a free list of a pool; "
+                                                   + "{@code false}, else." );
 
-            }
+            isPooled.body().directStatement( "// " + getMessage( "title" ) );
+            isPooled.body()._return( JExpr.refthis( flag.name() ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
         }
         else
         {
-            m.body().add( copyBlock );
+            this.log( Level.WARNING, "methodExists", "isPooled", clazz.implClass.binaryName() );
         }
 
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
-    }
-
-    private JInvocation getCopyOfElementInfoInvocation( final FieldOutline fieldOutline, final CElementInfo element )
-    {
-        final JType elementType = element.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
-        final JType[] signature =
+        if ( clazz.implClass.getMethod( "setPooled", new JType[]
+            {
+                cm.BOOLEAN
+            } ) == null )
         {
-            elementType
-        };
+            final JMethod setPooled = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "setPooled" );
+            final JVar pooled = setPooled.param( JMod.FINAL, cm.BOOLEAN, "pooled" );
+            setPooled.javadoc().append( "Sets the flag indicating this instance is held by a free list of a pool." );
+            setPooled.javadoc().addParam( pooled ).append( "{@code true}, if this instance is held by a free list of "
+                                                           + "a pool; {@code false}, else." );
 
-        final String methodName;
-        if ( element.hasClass() )
-        {
-            methodName = "copyOf" + element.shortName();
+            setPooled.body().directStatement( "// " + getMessage( "title" ) );
+            setPooled.body().assign( JExpr.refthis( flag.name() ), pooled );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
         }
         else
         {
-            methodName = "copyOf" + this.getMethodNamePart(
-                element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ) ) + "Element";
-
+            this.log( Level.WARNING, "methodExists", "setPooled", clazz.implClass.binaryName() );
         }
+    }
 
-        final int mod = this.getVisibilityModifier();
-        boolean needsToCatchException = false;
-
-        if ( mod != JMod.PRIVATE )
+    private JMethod getResetMethod( final ClassOutline clazz )
+    {
+        JMethod reset = clazz.implClass.getMethod( "reset", NO_ARGS );
+        if ( reset == null )
         {
-            for ( JMethod m : fieldOutline.parent()._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return fieldOutline.parent()._package().objectFactory().staticInvoke( m );
-                }
-            }
+            reset = this.generateResetMethod( clazz );
         }
         else
         {
-            for ( JMethod m : fieldOutline.parent().implClass.methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return JExpr.invoke( m );
-                }
-            }
+            this.log( Level.WARNING, "methodExists", "reset", clazz.implClass.binaryName() );
         }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? fieldOutline.parent()._package().objectFactory().method( JMod.STATIC | mod, elementType, methodName )
-              : fieldOutline.parent().implClass.method( JMod.STATIC | mod, elementType, methodName ) );
-
-        final JVar e = m.param( JMod.FINAL, elementType, "e" );
-
-        m.javadoc().append( "Creates and returns a deep copy of a given {@code " + elementType.binaryName()
-                            + "} instance." );
-
-        m.javadoc().addParam( e ).append( "The instance to copy or {@code null}." );
-        m.javadoc().addReturn().append( "A deep copy of {@code e} or {@code null} if {@code e} is {@code null}." );
-        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
-
-        final JBlock body = new JBlock( false, false );
-        body.directStatement( "// " + getMessage( "title" ) );
+        return reset;
+    }
 
-        final JConditional elementNotNull = body._if( e.ne( JExpr._null() ) );
+    private JMethod getReleaseReferencesMethod( final ClassOutline clazz )
+    {
+        JMethod releaseReferences = clazz.implClass.getMethod( "releaseReferences", new JType[]
+            {
+                clazz.parent().getCodeModel().ref( List.class ).narrow( Object.class )
+            } );
 
-        final JExpression newElement;
-        if ( element.hasClass() )
+        if ( releaseReferences == null )
         {
-            newElement = JExpr._new( elementType ).arg( this.getCopyExpression(
-                fieldOutline, element.getContentType(), elementNotNull._then(),
-                JExpr.cast( element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
-                            JExpr.invoke( e, "getValue" ) ), true ) );
-
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+            releaseReferences = this.generateReleaseReferencesMethod( clazz );
         }
         else
         {
-            newElement = JExpr._new( elementType ).
-                arg( JExpr.invoke( e, "getName" ) ).
-                arg( JExpr.invoke( e, "getDeclaredType" ) ).
-                arg( JExpr.invoke( e, "getScope" ) ).
-                arg( JExpr.invoke( e, "getValue" ) );
-
+            this.log( Level.WARNING, "methodExists", "releaseReferences", clazz.implClass.binaryName() );
         }
 
-        final JVar copy = elementNotNull._then().decl( JMod.FINAL, elementType, "copy", newElement );
-        elementNotNull._then().add( copy.invoke( "setNil" ).arg( e.invoke( "isNil" ) ) );
+        return releaseReferences;
+    }
 
-        if ( !element.hasClass() )
-        {
-            elementNotNull._then().add( copy.invoke( "setValue" ).arg( this.getCopyExpression(
-                fieldOutline, element.getContentType(), elementNotNull._then(),
-                JExpr.cast( element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
-                            copy.invoke( "getValue" ) ), true ) ) );
+    private JMethod getMaskedCopyMethod( final ClassOutline clazz )
+    {
+        JMethod copy = clazz.implClass.getMethod( "copy", new JType[]
+            {
+                this.getCopyMaskClass( clazz.parent() )
+            } );
 
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        if ( copy == null )
+        {
+            copy = this.generateMaskedCopyMethod( clazz );
         }
-
-        elementNotNull._then()._return( copy );
-        body._return( JExpr._null() );
-
-        if ( needsToCatchException )
+        else
         {
-            final JTryBlock tryCopy = m.body()._try();
-            tryCopy.body().add( body );
+            this.log( Level.WARNING, "methodExists", "copy", clazz.implClass.binaryName() );
+        }
 
-            final JCatchBlock catchException =
-                tryCopy._catch( fieldOutline.parent().parent().getCodeModel().ref( Exception.class ) );
+        return copy;
+    }
 
-            final JVar ex = catchException.param( "e" );
-            catchException.body()._throw( JExpr._new( fieldOutline.parent().parent().getCodeModel().
-                ref( AssertionError.class ) ).arg( ex ) );
+    private JMethod getMaskedCompleteCopyMethod( final ClassOutline clazz )
+    {
+        JMethod completeCopy = clazz.implClass.getMethod( "completeCopy", new JType[]
+            {
+                clazz.parent().getCodeModel().ref( Object.class ), this.getCopyMaskClass( clazz.parent() )
+            } );
 
+        if ( completeCopy == null )
+        {
+            completeCopy = this.generateMaskedCompleteCopyMethod( clazz );
         }
         else
         {
-            m.body().add( body );
+            this.log( Level.WARNING, "methodExists", "completeCopy", clazz.implClass.binaryName() );
         }
 
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE
-                 ? fieldOutline.parent()._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
-
+        return completeCopy;
     }
 
-    private JInvocation getCopyOfArrayInfoInvocation( final FieldOutline fieldOutline, final CArrayInfo array )
+    private JDefinedClass getDepthCopyableClass( final Outline outline )
     {
-        final JType arrayType =
-            ( array.getAdapterUse() != null && array.getAdapterUse().customType != null
-              ? array.getAdapterUse().customType.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION )
-              : array.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ) );
+        JDefinedClass depthCopyable = this.getSupportClass( outline, DEPTH_COPYABLE_CLASS_NAME );
 
-        final JType itemType = array.getItemType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
-        final JType[] signature =
+        if ( depthCopyable == null )
         {
-            arrayType
-        };
+            depthCopyable = this.newSupportClass( outline, DEPTH_COPYABLE_CLASS_NAME, ClassType.INTERFACE );
+            depthCopyable.javadoc().append( "Instances which can be copied up to a given depth." );
 
-        final String methodName = "copyOf" + fieldOutline.getPropertyInfo().getName( true );
-        final int mod = this.getVisibilityModifier();
-        boolean needsToCatchException = false;
+            final JMethod copy = depthCopyable.method( JMod.NONE, outline.getCodeModel().ref( Object.class ), "copy" );
+            final JVar depthParam = copy.param( JMod.FINAL, outline.getCodeModel().INT, "depth" );
+            copy.javadoc().append( "Creates and returns a copy of this instance copying schema derived instances up "
+                                   + "to a given depth." );
 
-        if ( mod != JMod.PRIVATE )
-        {
-            for ( JMethod m : fieldOutline.parent()._package().objectFactory().methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return fieldOutline.parent()._package().objectFactory().staticInvoke( m );
-                }
-            }
-        }
-        else
-        {
-            for ( JMethod m : fieldOutline.parent().implClass.methods() )
-            {
-                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-                {
-                    return JExpr.invoke( m );
-                }
-            }
+            copy.javadoc().addParam( depthParam ).append( "The depth to copy schema derived instances to." );
+            copy.javadoc().addReturn().append( "A copy of this instance copying schema derived instances up to "
+                                               + "{@code depth}." );
+
+            copy.javadoc().addThrows( IllegalArgumentException.class ).append( "if {@code depth} is negative." );
         }
 
-        final JMethod m =
-            ( mod != JMod.PRIVATE
-              ? fieldOutline.parent()._package().objectFactory().method( JMod.STATIC | mod, arrayType, methodName )
-              : fieldOutline.parent().implClass.method( JMod.STATIC | mod, arrayType, methodName ) );
+        return depthCopyable;
+    }
 
-        final JVar a = m.param( JMod.FINAL, arrayType, "array" );
+    private JMethod getDepthCopyOfObjectMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        JMethod copyOf = clazz.implClass.getMethod( "copyOf", new JType[]
+            {
+                cm.ref( Object.class ), cm.INT
+            } );
 
-        m.javadoc().append(
-            "Creates and returns a deep copy of a given {@code " + arrayType.binaryName() + "} instance." );
+        if ( copyOf == null )
+        {
+            copyOf = this.generateDepthCopyOfObjectMethod( clazz );
+        }
 
-        m.javadoc().addParam( a ).append( "The instance to copy or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
+        return copyOf;
+    }
 
-        final JBlock body = new JBlock( false, false );
-        body.directStatement( "// " + getMessage( "title" ) );
+    private JMethod generateDepthCopyOfObjectMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JClass object = cm.ref( Object.class );
+        final JClass jaxbElement = cm.ref( JAXBElement.class );
+        final JDefinedClass depthCopyable = this.getDepthCopyableClass( clazz.parent() );
+        final JMethod copyOf = clazz.implClass.method( JMod.PRIVATE | JMod.STATIC, object, "copyOf" );
+        final JVar o = copyOf.param( JMod.FINAL, object, "o" );
+        final JVar depthParam = copyOf.param( JMod.FINAL, cm.INT, "depth" );
+        copyOf.javadoc().append( "Creates and returns a copy of a given object copying schema derived instances up to "
+                                 + "a given depth." );
 
-        final JConditional arrayNotNull = body._if( a.ne( JExpr._null() ) );
-        final JVar copy = arrayNotNull._then().decl( arrayType, "copy", JExpr.newArray( itemType, a.ref( "length" ) ) );
-        final JForLoop forEachItem = arrayNotNull._then()._for();
-        final JVar i = forEachItem.init(
-            fieldOutline.parent().parent().getCodeModel().INT, "i", a.ref( "length" ).minus( JExpr.lit( 1 ) ) );
+        copyOf.javadoc().addParam( o ).append( "The object to copy or {@code null}." );
+        copyOf.javadoc().addParam( depthParam ).append( "The depth to copy schema derived instances to." );
+        copyOf.javadoc().addReturn().append( "A copy of {@code o} or {@code null} if {@code o} is {@code null}." );
+        copyOf.body().directStatement( "// " + getMessage( "title" ) );
 
-        forEachItem.test( i.gte( JExpr.lit( 0 ) ) );
-        forEachItem.update( i.decr() );
+        if ( this.freezable )
+        {
+            final JClass freezableClass = this.getFreezableClass( clazz.parent() );
+            copyOf.body().directStatement( "// Frozen instances." );
+            copyOf.body()._if( o._instanceof( freezableClass ).cand( JExpr.invoke(
+                JExpr.cast( freezableClass, o ), "isFrozen" ) ) )._then()._return( o );
 
-        final JExpression copyExpr = this.getCopyExpression(
-            fieldOutline, array.getItemType(), forEachItem.body(), a.component( i ), true );
+        }
 
-        needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        copyOf.body().directStatement( "// Schema derived instances." );
+        copyOf.body()._if( o._instanceof( depthCopyable ) )._then()._return(
+            JExpr.invoke( JExpr.cast( depthCopyable, o ), "copy" ).arg( depthParam ) );
 
-        forEachItem.body().assign( copy.component( i ), copyExpr );
-        arrayNotNull._then()._return( copy );
-        body._return( JExpr._null() );
+        copyOf.body().directStatement( "// Elements of schema derived instances." );
+        final JBlock isElement = copyOf.body()._if( o._instanceof( jaxbElement ).cand( JExpr.invoke(
+            JExpr.cast( jaxbElement, o ), "getValue" )._instanceof( depthCopyable ) ) )._then();
 
-        if ( needsToCatchException )
-        {
-            final JTryBlock tryCopy = m.body()._try();
-            tryCopy.body().add( body );
+        final JVar e = isElement.decl( JMod.FINAL, jaxbElement, "e", JExpr.cast( jaxbElement, o ) );
+        final JVar copy = isElement.decl( JMod.FINAL, jaxbElement, "copy", JExpr._new( jaxbElement ).
+            arg( e.invoke( "getName" ) ).arg( e.invoke( "getDeclaredType" ) ).arg( e.invoke( "getScope" ) ).
+            arg( JExpr.invoke( JExpr.cast( depthCopyable, e.invoke( "getValue" ) ), "copy" ).arg( depthParam ) ) );
 
-            final JCatchBlock catchException =
-                tryCopy._catch( fieldOutline.parent().parent().getCodeModel().ref( Exception.class ) );
+        isElement.add( copy.invoke( "setNil" ).arg( e.invoke( "isNil" ) ) );
+        isElement._return( copy );
 
-            final JVar ex = catchException.param( "e" );
-            catchException.body()._throw( JExpr._new( fieldOutline.parent().parent().getCodeModel().
-                ref( AssertionError.class ) ).arg( ex ) );
+        copyOf.body()._return( this.getCopyOfObjectInvocation( clazz ).arg( o ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyOf;
+    }
+
+    private JMethod getDepthCopyMethod( final ClassOutline clazz )
+    {
+        JMethod copy = clazz.implClass.getMethod( "copy", new JType[]
+            {
+                clazz.parent().getCodeModel().INT
+            } );
 
+        if ( copy == null )
+        {
+            copy = this.generateDepthCopyMethod( clazz );
         }
         else
         {
-            m.body().add( body );
+            this.log( Level.WARNING, "methodExists", "copy", clazz.implClass.binaryName() );
         }
 
-        this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return ( mod != JMod.PRIVATE
-                 ? fieldOutline.parent()._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
-
+        return copy;
     }
 
-    private JMethod getCopyOfPropertyMethod( final FieldOutline field )
+    private JMethod getDepthCompleteCopyMethod( final ClassOutline clazz )
     {
-        final String methodName = "copyOf" + field.getPropertyInfo().getName( true );
-        final JType[] signature = new JType[]
+        JMethod completeCopy = clazz.implClass.getMethod( "completeCopy", new JType[]
+            {
+                clazz.parent().getCodeModel().ref( Object.class ), clazz.parent().getCodeModel().INT
+            } );
+
+        if ( completeCopy == null )
         {
-            field.getRawType()
-        };
+            completeCopy = this.generateDepthCompleteCopyMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "completeCopy", clazz.implClass.binaryName() );
+        }
 
-        for ( JMethod m : field.parent().implClass.methods() )
+        return completeCopy;
+    }
+
+    private JMethod getShallowCopyMethod( final ClassOutline clazz )
+    {
+        JMethod shallowCopy = clazz.implClass.getMethod( "shallowCopy", NO_ARGS );
+        if ( shallowCopy == null )
         {
-            if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+            shallowCopy = this.generateShallowCopyMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "shallowCopy", clazz.implClass.binaryName() );
+        }
+
+        return shallowCopy;
+    }
+
+    private void generatePatchMethods( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+
+        if ( clazz.implClass.getMethod( "diff", new JType[]
             {
-                return m;
-            }
+                cm.ref( Object.class ), this.getPatchBuilderClass( clazz.parent() )
+            } ) == null )
+        {
+            this.generateDiffMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "diff", clazz.implClass.binaryName() );
         }
 
-        final JClass jaxbElement = field.parent().parent().getCodeModel().ref( JAXBElement.class );
-        final JClass assertionError = field.parent().parent().getCodeModel().ref( AssertionError.class );
-        final JMethod m = field.parent().implClass.method(
-            this.getVisibilityModifier() | JMod.STATIC, field.getRawType(), methodName );
+        if ( clazz.implClass.getMethod( "getPatchNode", new JType[]
+            {
+                cm.INT, cm.INT
+            } ) == null )
+        {
+            this.generateGetPatchNodeMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "getPatchNode", clazz.implClass.binaryName() );
+        }
 
-        final JVar source = m.param( JMod.FINAL, field.getRawType(), "source" );
-        m.javadoc().append( "Creates and returns a deep copy of property {@code "
-                            + field.getPropertyInfo().getName( true ) + "}." );
+        if ( clazz.implClass.getMethod( "applyPatch", new JType[]
+            {
+                cm.INT, cm.ref( Object.class )
+            } ) == null )
+        {
+            this.generateApplyPatchMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "applyPatch", clazz.implClass.binaryName() );
+        }
+    }
 
-        m.javadoc().addParam( source ).append( "The source to copy from or {@code null}." );
-        m.javadoc().addReturn().append(
-            "A deep copy of {@code source} or {@code null} if {@code source} is {@code null}." );
+    private JDefinedClass getPatchableClass( final Outline outline )
+    {
+        JDefinedClass patchable = this.getSupportClass( outline, PATCHABLE_CLASS_NAME );
 
-        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+        if ( patchable == null )
+        {
+            final JCodeModel cm = outline.getCodeModel();
+            final JClass object = cm.ref( Object.class );
+            patchable = this.newSupportClass( outline, PATCHABLE_CLASS_NAME, ClassType.INTERFACE );
+            patchable.javadoc().append( "Instances which can be compared to and patched with instances of the same "
+                                        + "class using a {@code " + PATCH_CLASS_NAME + "}." );
 
-        final JBlock body = new JBlock( false, false );
-        body.directStatement( "// " + getMessage( "title" ) );
+            final JMethod diff = patchable.method( JMod.NONE, Void.TYPE, "diff" );
+            final JVar other = diff.param( JMod.FINAL, object, "other" );
+            final JVar builder = diff.param( JMod.FINAL, this.getPatchBuilderClass( outline ), "builder" );
+            diff.javadoc().append( "Adds the properties of a given instance differing from the properties of this "
+                                   + "instance to a patch." );
 
-        final JConditional sourceNotNull = body._if( source.ne( JExpr._null() ) );
+            diff.javadoc().addParam( other ).append( "The instance to compare this instance to, of the same class as "
+                                                     + "this instance." );
 
-//        m.body()._if( source.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "source" ) );
-//        m.body()._if( target.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "target" ) );
+            diff.javadoc().addParam( builder ).append( "The builder of the patch to add differing properties to." );
 
-        final List<CClassInfo> referencedClassInfos =
-            new ArrayList<CClassInfo>( field.getPropertyInfo().ref().size() );
+            final JMethod getPatchNode = patchable.method( JMod.NONE, object, "getPatchNode" );
+            final JVar nodeProperty = getPatchNode.param( JMod.FINAL, cm.INT, "property" );
+            final JVar nodeElement = getPatchNode.param( JMod.FINAL, cm.INT, "element" );
+            getPatchNode.javadoc().append( "Gets an instance referenced by a property of this instance." );
+            getPatchNode.javadoc().addParam( nodeProperty ).append( "The index of the property." );
+            getPatchNode.javadoc().addParam( nodeElement ).append( "The index of the element of a list property or "
+                                                                   + "{@code -1}." );
 
-        final List<CElementInfo> referencedElementInfos =
-            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+            getPatchNode.javadoc().addReturn().append( "The instance referenced by the property." );
 
-        final List<CElementInfo> referencedElementInfosWithClass =
-            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+            final JMethod applyPatch = patchable.method( JMod.NONE, Void.TYPE, "applyPatch" );
+            final JVar applyProperty = applyPatch.param( JMod.FINAL, cm.INT, "property" );
+            final JVar applySource = applyPatch.param( JMod.FINAL, object, "source" );
+            applyPatch.javadoc().append( "Deeply copies a property of a given instance to this instance." );
+            applyPatch.javadoc().addParam( applyProperty ).append( "The index of the property to copy." );
+            applyPatch.javadoc().addParam( applySource ).append( "The instance to copy the property from, of the "
+                                                                 + "same class as this instance." );
 
-        final List<CTypeInfo> referencedTypeInfos =
-            new ArrayList<CTypeInfo>( field.getPropertyInfo().ref().size() );
+        }
 
-        final List<JType> referencedClassTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+        return patchable;
+    }
 
-        final List<JType> referencedContentTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+    private JDefinedClass getPatchClass( final Outline outline )
+    {
+        JDefinedClass patchClass = this.getSupportClass( outline, PATCH_CLASS_NAME );
 
-        final List<JType> referencedTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+        if ( patchClass == null )
+        {
+            // Generating the 'Patchable' interface generates the patch class declaring the builder it references.
+            this.getPatchableClass( outline );
+            patchClass = this.getSupportClass( outline, PATCH_CLASS_NAME );
+        }
 
-        for ( CTypeInfo type : field.getPropertyInfo().ref() )
+        if ( patchClass == null )
         {
-            if ( type instanceof CElementInfo )
-            {
-                final CElementInfo e = (CElementInfo) type;
-                if ( e.hasClass() )
-                {
-                    referencedElementInfosWithClass.add( e );
-                }
-                else
-                {
-                    final JType contentType =
-                        e.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            patchClass = this.generatePatchClass( outline );
+        }
 
-                    if ( !referencedContentTypes.contains( contentType ) )
-                    {
-                        referencedContentTypes.add( contentType );
-                        referencedElementInfos.add( e );
-                    }
-                }
-            }
-            else if ( type instanceof CClassInfo )
-            {
-                final CClassInfo c = (CClassInfo) type;
-                final JClass classType = c.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+        return patchClass;
+    }
 
-                if ( !referencedClassTypes.contains( classType ) )
-                {
-                    referencedClassTypes.add( classType );
-                    referencedClassInfos.add( c );
-                }
-            }
-            else
+    private JClass getPatchBuilderClass( final Outline outline )
+    {
+        for ( JClass nested : this.getPatchClass( outline ).listClasses() )
+        {
+            if ( nested.name().equals( "Builder" ) )
             {
-                final JType javaType = type.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-                if ( !referencedTypes.contains( javaType ) )
-                {
-                    referencedTypes.add( javaType );
-                    referencedTypeInfos.add( type );
-                }
+                return nested;
             }
         }
 
-        Collections.sort( referencedClassInfos, new CClassInfoComparator( field.parent().parent() ) );
-        Collections.sort( referencedElementInfos, new CElementInfoComparator( field.parent().parent(), false ) );
-        Collections.sort( referencedElementInfosWithClass, new CElementInfoComparator( field.parent().parent(), true ) );
-        Collections.sort( referencedTypeInfos, new CTypeInfoComparator( field.parent().parent() ) );
-        Collections.reverse( referencedClassInfos );
-        Collections.reverse( referencedElementInfos );
-        Collections.reverse( referencedElementInfosWithClass );
-        Collections.reverse( referencedTypeInfos );
+        throw new AssertionError( "Builder" );
+    }
 
-        boolean needsToCatchException = false;
+    private JDefinedClass generatePatchClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass patchClass = this.newSupportClass( outline, PATCH_CLASS_NAME, ClassType.CLASS );
+        final JDefinedClass patchable = this.getPatchableClass( outline );
+        final JClass object = cm.ref( Object.class );
 
-        if ( !( referencedElementInfos.isEmpty() && referencedElementInfosWithClass.isEmpty() ) )
-        {
-            final JBlock elementBlock = sourceNotNull._then()._if( source._instanceof( jaxbElement ) )._then();
-            if ( !referencedElementInfosWithClass.isEmpty() )
-            {
-                elementBlock.directStatement( "// Referenced elements with classes." );
-                for ( CElementInfo elementInfo : referencedElementInfosWithClass )
-                {
-                    final JType elementType = elementInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-                    final JConditional ifInstanceOf = elementBlock._if( source._instanceof( elementType ) );
-                    final JExpression copyExpr = this.getCopyExpression(
-                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( elementType, source ), false );
+        patchClass.javadoc().append( "Properties differing between two instances.\n<p>A patch records the path of "
+                                     + "each differing property together with a copy of the value of that property. "
+                                     + "The value is copied when the patch is created, so that the instances "
+                                     + "compared can be modified or discarded afterwards, and is copied again "
+                                     + "whenever the patch is applied. Properties referencing schema derived "
+                                     + "instances of the same class are compared recursively, lists of schema "
+                                     + "derived instances of the same size are compared element by element. "
+                                     + "{@code IDREF} properties are not compared. A patch is serializable if the "
+                                     + "schema derived classes are serializable.</p>" );
 
-                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        patchClass._implements( Serializable.class );
 
-                    if ( copyExpr == null )
-                    {
-                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                                  field.parent().implClass.binaryName() );
+        final JFieldVar serialVersionUID = patchClass.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.LONG,
+                                                             "serialVersionUID", JExpr.lit( 1L ) );
 
-                    }
-                    else
-                    {
-                        ifInstanceOf._then()._return( copyExpr );
-                    }
-                }
-            }
+        serialVersionUID.javadoc().append( "Serial version UID for backwards compatibility." );
 
-            if ( !referencedElementInfos.isEmpty() )
-            {
-                elementBlock.directStatement( "// Referenced elements without classes." );
-                for ( CElementInfo elementInfo : referencedElementInfos )
-                {
-                    final JType contentType =
-                        ( elementInfo.getAdapterUse() != null && elementInfo.getAdapterUse().customType != null
-                          ? elementInfo.getAdapterUse().customType.toType( field.parent().parent(),
-                                                                           Aspect.IMPLEMENTATION )
-                          : elementInfo.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+        final JFieldVar paths = patchClass.field( JMod.PRIVATE | JMod.FINAL, cm.ref( List.class ).narrow(
+            cm.INT.array() ), "paths", JExpr._new( cm.ref( ArrayList.class ).narrow( cm.INT.array() ) ) );
 
-                    final JConditional ifInstanceOf = elementBlock._if( JExpr.invoke( JExpr.cast(
-                        jaxbElement, source ), "getValue" )._instanceof( contentType ) );
+        paths.javadoc().append( "Paths of the differing properties as pairs of property and element indices, "
+                                + "followed by the index of the property to copy." );
 
-                    final JExpression copyExpr = this.getCopyExpression(
-                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( jaxbElement, source ), false );
+        final JFieldVar values = patchClass.field( JMod.PRIVATE | JMod.FINAL, cm.ref( List.class ).narrow(
+            patchable ), "values", JExpr._new( cm.ref( ArrayList.class ).narrow( patchable ) ) );
 
-                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        values.javadoc().append( "Instances holding copies of the values of the differing properties." );
 
-                    if ( copyExpr == null )
-                    {
-                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                                  field.parent().implClass.binaryName() );
+        final JMethod ctor = patchClass.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + patchClass.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-                    }
-                    else
-                    {
-                        ifInstanceOf._then()._return( copyExpr );
-                    }
-                }
-            }
-        }
+        final JDefinedClass builder;
 
-        for ( CClassInfo classInfo : referencedClassInfos )
+        try
         {
-            final JType javaType =
-                ( classInfo.getAdapterUse() != null && classInfo.getAdapterUse().customType != null
-                  ? classInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
-                  : classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+            builder = patchClass._class( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Builder" );
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
 
-            final JConditional ifInstanceOf = sourceNotNull._then()._if( source._instanceof( javaType ) );
+        builder.javadoc().append( "Collects the properties differing between two instances into a patch.\n<p>A "
+                                  + "builder is created by the {@code diff} method of the {@code " + patchClass.name()
+                                  + "} class only and is passed to the {@code diff} methods of the instances "
+                                  + "compared.</p>" );
 
-            final JExpression copyExpr =
-                this.getCopyExpression( field, classInfo, ifInstanceOf._then(), JExpr.cast( javaType, source ), false );
+        final JFieldVar builderPatch = builder.field( JMod.PRIVATE | JMod.FINAL, patchClass, "patch" );
+        builderPatch.javadoc().append( "The patch built." );
 
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        final JFieldVar path = builder.field( JMod.PRIVATE, cm.INT.array(), "path", JExpr.newArray(
+            cm.INT, JExpr.lit( 16 ) ) );
 
-            if ( copyExpr == null )
-            {
-                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                          field.parent().implClass.binaryName() );
+        path.javadoc().append( "Path of the instances currently compared." );
 
-            }
-            else
-            {
-                ifInstanceOf._then()._return( copyExpr );
-            }
-        }
+        final JFieldVar length = builder.field( JMod.PRIVATE, cm.INT, "length" );
+        length.javadoc().append( "Length of the path of the instances currently compared." );
 
-        for ( CTypeInfo typeInfo : referencedTypeInfos )
-        {
-            final JType javaType = typeInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-            final JConditional ifInstanceOf = sourceNotNull._then()._if( source._instanceof( javaType ) );
-            final JExpression copyExpr =
-                this.getCopyExpression( field, typeInfo, ifInstanceOf._then(), JExpr.cast( javaType, source ), false );
+        final JMethod builderCtor = builder.constructor( JMod.PRIVATE );
+        final JVar builderCtorPatch = builderCtor.param( JMod.FINAL, patchClass, "patch" );
+        builderCtor.javadoc().append( "Creates a new {@code " + builder.name() + "} instance." );
+        builderCtor.javadoc().addParam( builderCtorPatch ).append( "The patch to build." );
+        builderCtor.body().directStatement( "// " + getMessage( "title" ) );
+        builderCtor.body().invoke( "super" );
+        builderCtor.body().assign( JExpr._this().ref( builderPatch ), builderCtorPatch );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        final JMethod diff = patchClass.method( JMod.PUBLIC | JMod.STATIC, patchClass, "diff" );
+        final JVar source = diff.param( JMod.FINAL, patchable, "source" );
+        final JVar target = diff.param( JMod.FINAL, patchable, "target" );
+        diff.javadoc().append( "Creates a patch transforming an instance into an instance of the same class." );
+        diff.javadoc().addParam( source ).append( "The instance to transform." );
+        diff.javadoc().addParam( target ).append( "The instance to transform {@code source} into." );
+        diff.javadoc().addReturn().append( "A patch transforming {@code source} into {@code target}." );
+        diff.javadoc().addThrows( NullPointerException.class ).append(
+            "if {@code source} or {@code target} is {@code null}." );
+
+        diff.javadoc().addThrows( IllegalArgumentException.class ).append(
+            "if {@code source} and {@code target} are instances of different classes." );
+
+        diff.body().directStatement( "// " + getMessage( "title" ) );
+        diff.body()._if( source.eq( JExpr._null() ).cor( target.eq( JExpr._null() ) ) )._then()._throw(
+            JExpr._new( cm.ref( NullPointerException.class ) ).arg( "Cannot diff 'null' instances." ) );
+
+        diff.body()._if( source.invoke( "getClass" ).ne( target.invoke( "getClass" ) ) )._then()._throw(
+            JExpr._new( cm.ref( IllegalArgumentException.class ) ).arg( JExpr.lit( "Cannot diff '" ).plus(
+            source.invoke( "getClass" ).invoke( "getName" ) ).plus( JExpr.lit( "' and '" ) ).plus(
+            target.invoke( "getClass" ).invoke( "getName" ) ).plus( JExpr.lit( "'." ) ) ) );
+
+        final JVar patch = diff.body().decl( JMod.FINAL, patchClass, "patch", JExpr._new( patchClass ) );
+        diff.body().add( source.invoke( "diff" ).arg( target ).arg( JExpr._new( builder ).arg( patch ) ) );
+        diff.body()._return( patch );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            if ( copyExpr == null )
-            {
-                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                          field.parent().implClass.binaryName() );
+        final JMethod push = builder.method( JMod.PUBLIC, Void.TYPE, "push" );
+        final JVar pushProperty = push.param( JMod.FINAL, cm.INT, "property" );
+        final JVar pushElement = push.param( JMod.FINAL, cm.INT, "element" );
+        push.javadoc().append( "Appends an instance about to be compared to the current path." );
+        push.javadoc().addParam( pushProperty ).append( "The index of the property referencing the instance." );
+        push.javadoc().addParam( pushElement ).append( "The index of the element of a list property or {@code -1}." );
+        push.body().directStatement( "// " + getMessage( "title" ) );
 
-            }
-            else
-            {
-                ifInstanceOf._then()._return( copyExpr );
-            }
-        }
+        final JBlock grow = push.body()._if( JExpr._this().ref( length ).plus( JExpr.lit( 2 ) ).gt(
+            JExpr._this().ref( path ).ref( "length" ) ) )._then();
 
-        sourceNotNull._then().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
-        sourceNotNull._then()._throw( JExpr._new( assertionError ).arg( JExpr.lit( "Unexpected instance '" ).
-            plus( source ).plus( JExpr.lit( "' for property '" + field.getPropertyInfo().getName( true )
-                                            + "' of class '" + field.parent().implClass.binaryName() + "'." ) ) ) );
+        final JVar grown = grow.decl( JMod.FINAL, cm.INT.array(), "grown", JExpr.newArray(
+            cm.INT, JExpr._this().ref( path ).ref( "length" ).mul( JExpr.lit( 2 ) ) ) );
 
-        body._return( JExpr._null() );
+        grow.add( cm.ref( System.class ).staticInvoke( "arraycopy" ).arg( JExpr._this().ref( path ) ).
+            arg( JExpr.lit( 0 ) ).arg( grown ).arg( JExpr.lit( 0 ) ).arg( JExpr._this().ref( length ) ) );
 
-        if ( needsToCatchException )
-        {
-            final JTryBlock tryCopy = m.body()._try();
-            tryCopy.body().add( body );
+        grow.assign( JExpr._this().ref( path ), grown );
+        push.body().assign( JExpr._this().ref( path ).component( JExpr._this().ref( length ) ), pushProperty );
+        push.body().assign( JExpr._this().ref( path ).component( JExpr._this().ref( length ).plus(
+            JExpr.lit( 1 ) ) ), pushElement );
 
-            final JCatchBlock catchException =
-                tryCopy._catch( field.parent().parent().getCodeModel().ref( Exception.class ) );
+        push.body().assignPlus( JExpr._this().ref( length ), JExpr.lit( 2 ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            final JVar ex = catchException.param( "e" );
-            catchException.body()._throw( JExpr._new( field.parent().parent().getCodeModel().
-                ref( AssertionError.class ) ).arg( ex ) );
+        final JMethod pop = builder.method( JMod.PUBLIC, Void.TYPE, "pop" );
+        pop.javadoc().append( "Removes the instance compared last from the current path." );
+        pop.body().directStatement( "// " + getMessage( "title" ) );
+        pop.body().assign( JExpr._this().ref( length ), JExpr._this().ref( length ).minus( JExpr.lit( 2 ) ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        }
-        else
+        final JMethod add = builder.method( JMod.PUBLIC, Void.TYPE, "add" );
+        final JVar addProperty = add.param( JMod.FINAL, cm.INT, "property" );
+        final JVar addSource = add.param( JMod.FINAL, patchable, "source" );
+        add.javadoc().append( "Adds a differing property of the instance currently compared.\n<p>The value of the "
+                              + "property is copied to a new instance of the class of {@code source}.</p>" );
+
+        add.javadoc().addParam( addProperty ).append( "The index of the differing property." );
+        add.javadoc().addParam( addSource ).append( "The instance holding the value of the property." );
+        add.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar entry = add.body().decl( JMod.FINAL, cm.INT.array(), "entry", JExpr.newArray(
+            cm.INT, JExpr._this().ref( length ).plus( JExpr.lit( 1 ) ) ) );
+
+        add.body().add( cm.ref( System.class ).staticInvoke( "arraycopy" ).arg( JExpr._this().ref( path ) ).
+            arg( JExpr.lit( 0 ) ).arg( entry ).arg( JExpr.lit( 0 ) ).arg( JExpr._this().ref( length ) ) );
+
+        add.body().assign( entry.component( JExpr._this().ref( length ) ), addProperty );
+
+        final JVar value = add.body().decl( patchable, "value" );
+        final JTryBlock newValue = add.body()._try();
+        newValue.body().assign( value, JExpr.cast( patchable, addSource.invoke( "getClass" ).
+            invoke( "newInstance" ) ) );
+
+        for ( Class<?> c : new Class<?>[]
+            {
+                InstantiationException.class, IllegalAccessException.class
+            } )
         {
-            m.body().add( body );
+            final JCatchBlock catchBlock = newValue._catch( cm.ref( c ) );
+            catchBlock.body()._throw( JExpr.cast( cm.ref( AssertionError.class ), JExpr._new(
+                cm.ref( AssertionError.class ) ).arg( JExpr.lit( "Cannot create an instance of '" ).plus(
+                addSource.invoke( "getClass" ).invoke( "getName" ) ).plus( JExpr.lit( "'." ) ) ).
+                invoke( "initCause" ).arg( catchBlock.param( "e" ) ) ) );
+
         }
 
+        add.body().add( value.invoke( "applyPatch" ).arg( addProperty ).arg( addSource ) );
+        add.body().add( JExpr._this().ref( builderPatch ).ref( paths ).invoke( "add" ).arg( entry ) );
+        add.body().add( JExpr._this().ref( builderPatch ).ref( values ).invoke( "add" ).arg( value ) );
         this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return m;
-    }
 
-    private JMethod getCopyOfCollectionMethod( final FieldOutline field )
-    {
-        final String methodName;
-        final JType[] signature;
+        final JMethod size = patchClass.method( JMod.PUBLIC, cm.INT, "size" );
+        size.javadoc().append( "Gets the number of differing properties of this patch." );
+        size.javadoc().addReturn().append( "The number of differing properties of this patch." );
+        size.body().directStatement( "// " + getMessage( "title" ) );
+        size.body()._return( JExpr._this().ref( paths ).invoke( "size" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        if ( field.getRawType().isArray() )
-        {
-            methodName = "copyOf" + field.getPropertyInfo().getName( true );
-            signature = new JType[]
-            {
-                field.getRawType()
-            };
+        final JMethod applyTo = patchClass.method( JMod.PUBLIC, Void.TYPE, "applyTo" );
+        final JVar applyTarget = applyTo.param( JMod.FINAL, patchable, "target" );
+        applyTo.javadoc().append( "Applies this patch to a given instance.\n<p>The instance is expected to be equal "
+                                  + "to the source instance of the patch.</p>" );
 
-        }
-        else
+        applyTo.javadoc().addParam( applyTarget ).append( "The instance to apply this patch to." );
+        applyTo.javadoc().addThrows( NullPointerException.class ).append( "if {@code target} is {@code null}." );
+
+        if ( this.freezable )
         {
-            methodName = "copy" + field.getPropertyInfo().getName( true );
-            signature = new JType[]
-            {
-                field.getRawType(),
-                field.getRawType()
-            };
+            applyTo.javadoc().addThrows( UnsupportedOperationException.class ).append(
+                "if an instance to patch is frozen." );
 
         }
 
-        for ( JMethod m : field.parent().implClass.methods() )
-        {
-            if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
-            {
-                return m;
-            }
-        }
+        applyTo.body().directStatement( "// " + getMessage( "title" ) );
+        applyTo.body()._if( applyTarget.eq( JExpr._null() ) )._then()._throw(
+            JExpr._new( cm.ref( NullPointerException.class ) ).arg( "Cannot apply a patch to 'null'." ) );
 
-        final JClass object = field.parent().parent().getCodeModel().ref( Object.class );
-        final JClass array = field.parent().parent().getCodeModel().ref( Array.class );
-        final JClass jaxbElement = field.parent().parent().getCodeModel().ref( JAXBElement.class );
-        final JClass nullPointerException = field.parent().parent().getCodeModel().ref( NullPointerException.class );
-        final JClass assertionError = field.parent().parent().getCodeModel().ref( AssertionError.class );
+        final JForLoop forEachEntry = applyTo.body()._for();
+        final JVar i = forEachEntry.init( cm.INT, "i", JExpr.lit( 0 ) );
+        forEachEntry.test( i.lt( JExpr._this().ref( paths ).invoke( "size" ) ) );
+        forEachEntry.update( i.incr() );
 
-        final JMethod m;
-        if ( field.getRawType().isArray() )
+        final JVar applyEntry = forEachEntry.body().decl( JMod.FINAL, cm.INT.array(), "entry", JExpr._this().
+            ref( paths ).invoke( "get" ).arg( i ) );
+
+        final JVar node = forEachEntry.body().decl( patchable, "node", applyTarget );
+        final JForLoop forEachNode = forEachEntry.body()._for();
+        final JVar j = forEachNode.init( cm.INT, "j", JExpr.lit( 0 ) );
+        forEachNode.test( j.lt( applyEntry.ref( "length" ).minus( JExpr.lit( 1 ) ) ) );
+        forEachNode.update( j.assignPlus( JExpr.lit( 2 ) ) );
+        forEachNode.body().assign( node, JExpr.cast( patchable, node.invoke( "getPatchNode" ).arg(
+            applyEntry.component( j ) ).arg( applyEntry.component( j.plus( JExpr.lit( 1 ) ) ) ) ) );
+
+        if ( this.freezable )
         {
-            m = field.parent().implClass.method( this.getVisibilityModifier() | JMod.STATIC, field.getRawType(),
-                                                 methodName );
+            final JClass freezableClass = this.getFreezableClass( outline );
+            forEachEntry.body()._if( node._instanceof( freezableClass ).cand( JExpr.invoke( JExpr.cast(
+                freezableClass, node ), "isFrozen" ) ) )._then()._throw( JExpr._new( cm.ref(
+                UnsupportedOperationException.class ) ).arg( "Cannot patch a frozen instance." ) );
 
         }
-        else
+
+        forEachEntry.body().add( node.invoke( "applyPatch" ).arg( applyEntry.component(
+            applyEntry.ref( "length" ).minus( JExpr.lit( 1 ) ) ) ).arg( JExpr._this().ref( values ).invoke( "get" ).
+            arg( i ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return patchClass;
+    }
+
+    private JDefinedClass getCopyMaskClass( final Outline outline )
+    {
+        JDefinedClass copyMask = this.getSupportClass( outline, COPY_MASK_CLASS_NAME );
+
+        if ( copyMask == null )
         {
-            m = field.parent().implClass.method( this.getVisibilityModifier() | JMod.STATIC, Void.TYPE, methodName );
+            copyMask = this.generateCopyMaskClass( outline );
         }
 
-        final JVar source = m.param( JMod.FINAL, field.getRawType(), "source" );
-        final JVar target = field.getRawType().isArray() ? null : m.param( JMod.FINAL, field.getRawType(), "target" );
+        return copyMask;
+    }
 
-        m.body().directStatement( "// " + getMessage( "title" ) );
+    private JDefinedClass generateCopyMaskClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass copyMask = this.newSupportClass( outline, COPY_MASK_CLASS_NAME, ClassType.CLASS );
+        final JClass string = cm.ref( String.class );
+        final JClass stringList = cm.ref( List.class ).narrow( string );
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+
+        copyMask.javadoc().append( "Immutable tree of property paths selecting the properties copied by {@code copy} "
+                                   + "methods.\n<p>Paths are property names separated by {@code '/'}. A path ending "
+                                   + "at a property selects that property to be copied deeply, a path continuing "
+                                   + "below a property applies to the schema derived instances referenced by that "
+                                   + "property. Properties not selected are left {@code null} or shared by "
+                                   + "reference, depending on the policy of the mask. Lists are never shared, but "
+                                   + "copied to new lists holding the shared elements. Masks are compiled to a bit "
+                                   + "set per class when first applied to an instance of that class, so that "
+                                   + "testing a property does not compare property names.</p>" );
+
+        final JFieldVar shared = copyMask.field( JMod.PRIVATE | JMod.FINAL, cm.BOOLEAN, "shared" );
+        shared.javadoc().append( "Flag indicating properties not selected are shared by reference." );
+
+        final JFieldVar paths = copyMask.field( JMod.PRIVATE | JMod.FINAL, cm.ref( Map.class ).narrow(
+            string, copyMask ), "paths" );
+
+        paths.javadoc().append( "Masks of the selected properties by property name, {@code null} for properties "
+                                + "copied completely." );
+
+        final JFieldVar bits = copyMask.field( JMod.PRIVATE | JMod.FINAL, cm.LONG.array(), "bits" );
+        bits.javadoc().append( "Bits of the selected properties of a class, {@code null} for masks not compiled for "
+                               + "a class." );
+
+        final JFieldVar masks = copyMask.field( JMod.PRIVATE | JMod.FINAL, copyMask.array(), "masks" );
+        masks.javadoc().append( "Masks of the selected properties of a class by property index." );
+
+        final JFieldVar compiled = copyMask.field( JMod.PRIVATE | JMod.FINAL, cm.ref( ConcurrentMap.class ).narrow(
+            type, copyMask ), "compiled" );
+
+        compiled.javadoc().append( "Masks compiled for a class by class." );
+
+        final JMethod ctor = copyMask.constructor( JMod.PRIVATE );
+        final JVar ctorShared = ctor.param( JMod.FINAL, cm.BOOLEAN, "shared" );
+        final JVar ctorPaths = ctor.param( JMod.FINAL, paths.type(), "paths" );
+        final JVar ctorBits = ctor.param( JMod.FINAL, bits.type(), "bits" );
+        final JVar ctorMasks = ctor.param( JMod.FINAL, masks.type(), "masks" );
+        ctor.javadoc().append( "Creates a new {@code " + copyMask.name() + "} instance." );
+        ctor.javadoc().addParam( ctorShared ).append( "Flag indicating properties not selected are shared." );
+        ctor.javadoc().addParam( ctorPaths ).append( "Masks of the selected properties by property name." );
+        ctor.javadoc().addParam( ctorBits ).append( "Bits of the selected properties of a class or {@code null}." );
+        ctor.javadoc().addParam( ctorMasks ).append( "Masks of the selected properties of a class or {@code null}." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( shared ), ctorShared );
+        ctor.body().assign( JExpr._this().ref( paths ), ctorPaths );
+        ctor.body().assign( JExpr._this().ref( bits ), ctorBits );
+        ctor.body().assign( JExpr._this().ref( masks ), ctorMasks );
+        ctor.body().assign( JExpr._this().ref( compiled ), JOp.cond(
+            ctorBits.eq( JExpr._null() ), JExpr._new( cm.ref( ConcurrentHashMap.class ).narrow( type, copyMask ) ),
+            JExpr._null() ) );
 
-        m.javadoc().append( "Copies all values of property {@code " + field.getPropertyInfo().getName( true )
-                            + "} deeply." );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-        m.javadoc().addParam( source ).append( "The source to copy from." );
+        final JMethod compile = copyMask.method( JMod.PUBLIC | JMod.STATIC, copyMask, "compile" );
+        final JVar compileShared = compile.param( JMod.FINAL, cm.BOOLEAN, "shared" );
+        final JVar compilePaths = compile.varParam( string, "paths" );
+        compile.javadoc().append( "Compiles a mask from a given set of property paths." );
+        compile.javadoc().addParam( compileShared ).append( "{@code true}, to share the values of properties not "
+                                                            + "selected by reference; {@code false}, to leave "
+                                                            + "properties not selected {@code null}." );
 
-        if ( !field.getRawType().isArray() )
-        {
-            m.javadoc().addParam( target ).append( "The target to copy {@code source} to." );
-            m.javadoc().addThrows( nullPointerException ).append( "if {@code target} is {@code null}." );
-//            m.body()._if( target.eq( JExpr._null() ) )._then()._throw(
-//                JExpr._new( nullPointerException ).arg( "target" ) );
+        compile.javadoc().addParam( compilePaths ).append( "The paths of the properties to select." );
+        compile.javadoc().addReturn().append( "A mask selecting the properties denoted by {@code paths}." );
+        compile.javadoc().addThrows( NullPointerException.class ).append(
+            "if {@code paths} is {@code null} or contains {@code null} elements." );
 
-        }
-        else
-        {
-            m.javadoc().addReturn().append( "A deep copy of {@code source} or {@code null}." );
-        }
+        compile.javadoc().addThrows( IllegalArgumentException.class ).append(
+            "if {@code paths} contains empty property names." );
 
-        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+        compile.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar nested = compile.body().decl( JMod.FINAL, cm.ref( Map.class ).narrow( string, stringList ),
+                                                 "nested", JExpr._new( cm.ref( HashMap.class ).
+            narrow( string, stringList ) ) );
 
-        final JBlock body = new JBlock( false, false );
+        final JForEach forEachPath = compile.body().forEach( string, "path", compilePaths );
+        final JVar separator = forEachPath.body().decl( JMod.FINAL, cm.INT, "separator", forEachPath.var().
+            invoke( "indexOf" ).arg( JExpr.lit( '/' ) ) );
 
-//        m.body()._if( source.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "source" ) );
-//        m.body()._if( target.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "target" ) );
+        final JVar name = forEachPath.body().decl( JMod.FINAL, string, "name", JOp.cond(
+            separator.lt( JExpr.lit( 0 ) ), forEachPath.var(), forEachPath.var().invoke( "substring" ).
+            arg( JExpr.lit( 0 ) ).arg( separator ) ) );
 
-        final List<CClassInfo> referencedClassInfos =
-            new ArrayList<CClassInfo>( field.getPropertyInfo().ref().size() );
+        forEachPath.body()._if( name.invoke( "length" ).eq( JExpr.lit( 0 ) ) )._then()._throw(
+            JExpr._new( cm.ref( IllegalArgumentException.class ) ).arg(
+            JExpr.lit( "Invalid path '" ).plus( forEachPath.var() ).plus( JExpr.lit( "'." ) ) ) );
 
-        final List<CElementInfo> referencedElementInfos =
-            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+        final JVar nestedPaths = forEachPath.body().decl( stringList, "nestedPaths", nested.invoke( "get" ).
+            arg( name ) );
 
-        final List<CElementInfo> referencedElementInfosWithClass =
-            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+        // A path ending at a property selects the property completely, overriding any nested paths.
+        final JConditional complete = forEachPath.body()._if( separator.lt( JExpr.lit( 0 ) ) );
+        complete._then().add( nested.invoke( "put" ).arg( name ).arg( JExpr._null() ) );
 
-        final List<CTypeInfo> referencedTypeInfos =
-            new ArrayList<CTypeInfo>( field.getPropertyInfo().ref().size() );
+        final JBlock addNested = complete._else()._if( nestedPaths.ne( JExpr._null() ).cor(
+            nested.invoke( "containsKey" ).arg( name ).not() ) )._then();
 
-        final List<JType> referencedClassTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+        final JConditional noNestedPaths = addNested._if( nestedPaths.eq( JExpr._null() ) );
+        noNestedPaths._then().assign( nestedPaths, JExpr._new( cm.ref( ArrayList.class ).narrow( string ) ) );
+        noNestedPaths._then().add( nested.invoke( "put" ).arg( name ).arg( nestedPaths ) );
+        addNested.add( nestedPaths.invoke( "add" ).arg( forEachPath.var().invoke( "substring" ).
+            arg( separator.plus( JExpr.lit( 1 ) ) ) ) );
 
-        final List<JType> referencedContentTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+        final JVar compiledPaths = compile.body().decl( JMod.FINAL, paths.type(), "compiledPaths", JExpr._new(
+            cm.ref( HashMap.class ).narrow( string, copyMask ) ) );
 
-        final List<JType> referencedTypes =
-            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+        final JForEach forEachName = compile.body().forEach( string, "name", nested.invoke( "keySet" ) );
+        final JVar namePaths = forEachName.body().decl( JMod.FINAL, stringList, "namePaths", nested.invoke( "get" ).
+            arg( forEachName.var() ) );
 
-        for ( CTypeInfo type : field.getPropertyInfo().ref() )
-        {
-            if ( type instanceof CElementInfo )
-            {
-                final CElementInfo e = (CElementInfo) type;
-                if ( e.hasClass() )
-                {
-                    referencedElementInfosWithClass.add( e );
-                }
-                else
-                {
-                    final JType contentType =
-                        e.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+        forEachName.body().add( compiledPaths.invoke( "put" ).arg( forEachName.var() ).arg( JOp.cond(
+            namePaths.ne( JExpr._null() ), JExpr.invoke( compile ).arg( compileShared ).arg(
+            namePaths.invoke( "toArray" ).arg( JExpr.newArray( string, namePaths.invoke( "size" ) ) ) ),
+            JExpr._null() ) ) );
 
-                    if ( !referencedContentTypes.contains( contentType ) )
-                    {
-                        referencedContentTypes.add( contentType );
-                        referencedElementInfos.add( e );
-                    }
-                }
-            }
-            else if ( type instanceof CClassInfo )
-            {
-                final CClassInfo c = (CClassInfo) type;
-                final JClass classType = c.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+        compile.body()._return( JExpr._new( copyMask ).arg( compileShared ).arg(
+            cm.ref( Collections.class ).staticInvoke( "unmodifiableMap" ).arg( compiledPaths ) ).
+            arg( JExpr._null() ).arg( JExpr._null() ) );
 
-                if ( !referencedClassTypes.contains( classType ) )
-                {
-                    referencedClassTypes.add( classType );
-                    referencedClassInfos.add( c );
-                }
-            }
-            else
-            {
-                final JType javaType = type.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-                if ( !referencedTypes.contains( javaType ) )
-                {
-                    referencedTypes.add( javaType );
-                    referencedTypeInfos.add( type );
-                }
-            }
-        }
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        Collections.sort( referencedClassInfos, new CClassInfoComparator( field.parent().parent() ) );
-        Collections.sort( referencedElementInfos, new CElementInfoComparator( field.parent().parent(), false ) );
-        Collections.sort( referencedElementInfosWithClass, new CElementInfoComparator( field.parent().parent(), true ) );
-        Collections.sort( referencedTypeInfos, new CTypeInfoComparator( field.parent().parent() ) );
-        Collections.reverse( referencedClassInfos );
-        Collections.reverse( referencedElementInfos );
-        Collections.reverse( referencedElementInfosWithClass );
-        Collections.reverse( referencedTypeInfos );
+        final JMethod isShared = copyMask.method( JMod.PUBLIC, cm.BOOLEAN, "isShared" );
+        isShared.javadoc().append( "Gets a flag indicating properties not selected are shared by reference." );
+        isShared.javadoc().addReturn().append( "{@code true}, if properties not selected are shared by reference; "
+                                               + "{@code false}, if properties not selected are left {@code null}." );
 
-        boolean needsToCatchException = false;
+        isShared.body().directStatement( "// " + getMessage( "title" ) );
+        isShared.body()._return( JExpr._this().ref( shared ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        final JForLoop copyLoop;
-        final JVar it;
-        final JVar next;
-        final JVar copy;
-        final JConditional sourceNotEmpty;
+        final JMethod getClassMask = copyMask.method( JMod.PUBLIC, copyMask, "getClassMask" );
+        final JVar classType = getClassMask.param( JMod.FINAL, type, "type" );
+        final JVar properties = getClassMask.param( JMod.FINAL, string.array(), "properties" );
+        getClassMask.javadoc().append( "Gets this mask compiled for a given class.\n<p>The compiled mask is cached, "
+                                       + "so that the properties of a class are compiled once per mask.</p>" );
 
-        if ( field.getRawType().isArray() )
-        {
-            sourceNotEmpty = body._if( source.ne( JExpr._null() ).cand( source.ref( "length" ).gt( JExpr.lit( 0 ) ) ) );
-            copy = sourceNotEmpty._then().decl( JMod.FINAL, source.type(), "copy", JExpr.cast(
-                source.type(), array.staticInvoke( "newInstance" ).
-                arg( source.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( source.ref( "length" ) ) ) );
+        getClassMask.javadoc().addParam( classType ).append( "The class to get the compiled mask for." );
+        getClassMask.javadoc().addParam( properties ).append( "The names of the properties of {@code type} in "
+                                                              + "index order." );
 
-            copyLoop = sourceNotEmpty._then()._for();
-            it = copyLoop.init( field.parent().parent().getCodeModel().INT, "i",
-                                source.ref( "length" ).minus( JExpr.lit( 1 ) ) );
+        getClassMask.javadoc().addReturn().append( "This mask compiled for {@code type}." );
+        getClassMask.body().directStatement( "// " + getMessage( "title" ) );
 
-            copyLoop.test( it.gte( JExpr.lit( 0 ) ) );
-            copyLoop.update( it.decr() );
-            next = copyLoop.body().decl( JMod.FINAL, object, "next", source.component( it ) );
-        }
-        else
-        {
-            sourceNotEmpty = body._if( source.ne( JExpr._null() ).cand( JExpr.invoke( source, "isEmpty" ).not() ) );
-            copyLoop = sourceNotEmpty._then()._for();
-            it = copyLoop.init( JMod.FINAL, field.parent().parent().getCodeModel().ref( Iterator.class ).
-                narrow( field.parent().parent().getCodeModel().wildcard() ), "it", source.invoke( "iterator" ) );
+        final JVar classMask = getClassMask.body().decl( copyMask, "classMask", JExpr._this().ref( compiled ).
+            invoke( "get" ).arg( classType ) );
 
-            copyLoop.test( JExpr.invoke( it, "hasNext" ) );
-            next = copyLoop.body().decl( JMod.FINAL, object, "next", JExpr.invoke( it, "next" ) );
-            copy = null;
-        }
+        final JBlock compileClass = getClassMask.body()._if( classMask.eq( JExpr._null() ) )._then();
+        final JVar classBits = compileClass.decl( JMod.FINAL, bits.type(), "classBits", JExpr.newArray(
+            cm.LONG, properties.ref( "length" ).plus( JExpr.lit( 63 ) ).shrz( JExpr.lit( 6 ) ) ) );
 
-        if ( !( referencedElementInfos.isEmpty() && referencedElementInfosWithClass.isEmpty() ) )
-        {
-            final JBlock copyBlock = copyLoop.body()._if( next._instanceof( jaxbElement ) )._then();
-            if ( !referencedElementInfosWithClass.isEmpty() )
-            {
-                copyBlock.directStatement( "// Referenced elements with classes." );
-                for ( CElementInfo elementInfo : referencedElementInfosWithClass )
-                {
-                    final JType elementType = elementInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-                    final JConditional ifInstanceOf = copyBlock._if( next._instanceof( elementType ) );
-                    final JExpression copyExpr = this.getCopyExpression(
-                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( elementType, next ), false );
+        final JVar classMasks = compileClass.decl( JMod.FINAL, masks.type(), "classMasks", JExpr.newArray(
+            copyMask, properties.ref( "length" ) ) );
 
-                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        final JForLoop forEachProperty = compileClass._for();
+        final JVar i = forEachProperty.init( cm.INT, "i", JExpr.lit( 0 ) );
+        forEachProperty.test( i.lt( properties.ref( "length" ) ) );
+        forEachProperty.update( i.incr() );
 
-                    if ( copyExpr == null )
-                    {
-                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                                  field.parent().implClass.binaryName() );
+        final JBlock selected = forEachProperty.body()._if( JExpr._this().ref( paths ).invoke( "containsKey" ).
+            arg( properties.component( i ) ) )._then();
 
-                    }
-                    else
-                    {
-                        if ( field.getRawType().isArray() )
-                        {
-                            ifInstanceOf._then().assign( copy.component( it ), copyExpr );
-                        }
-                        else
-                        {
-                            ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
-                        }
+        selected.assign( classBits.component( i.shrz( JExpr.lit( 6 ) ) ), JOp.bor( classBits.component(
+            i.shrz( JExpr.lit( 6 ) ) ), JExpr.lit( 1L ).shl( i ) ) );
 
-                        ifInstanceOf._then()._continue();
-                    }
-                }
-            }
+        selected.assign( classMasks.component( i ), JExpr._this().ref( paths ).invoke( "get" ).
+            arg( properties.component( i ) ) );
 
-            if ( !referencedElementInfos.isEmpty() )
-            {
-                copyBlock.directStatement( "// Referenced elements without classes." );
-                for ( CElementInfo elementInfo : referencedElementInfos )
-                {
-                    final JType contentType =
-                        ( elementInfo.getAdapterUse() != null && elementInfo.getAdapterUse().customType != null
-                          ? elementInfo.getAdapterUse().customType.toType( field.parent().parent(),
-                                                                           Aspect.IMPLEMENTATION )
-                          : elementInfo.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+        compileClass.assign( classMask, JExpr._new( copyMask ).arg( JExpr._this().ref( shared ) ).
+            arg( JExpr._this().ref( paths ) ).arg( classBits ).arg( classMasks ) );
 
-                    final JConditional ifInstanceOf = copyBlock._if( JExpr.invoke( JExpr.cast(
-                        jaxbElement, next ), "getValue" )._instanceof( contentType ) );
+        final JVar existing = compileClass.decl( JMod.FINAL, copyMask, "existing", JExpr._this().ref( compiled ).
+            invoke( "putIfAbsent" ).arg( classType ).arg( classMask ) );
 
-                    final JExpression copyExpr = this.getCopyExpression(
-                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( jaxbElement, next ), false );
+        compileClass._if( existing.ne( JExpr._null() ) )._then().assign( classMask, existing );
 
-                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        getClassMask.body()._return( classMask );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-                    if ( copyExpr == null )
-                    {
-                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                                  field.parent().implClass.binaryName() );
+        final JMethod isCopied = copyMask.method( JMod.PUBLIC, cm.BOOLEAN, "isCopied" );
+        final JVar isCopiedIndex = isCopied.param( JMod.FINAL, cm.INT, "index" );
+        isCopied.javadoc().append( "Tests a property of the class this mask has been compiled for to be selected." );
+        isCopied.javadoc().addParam( isCopiedIndex ).append( "The index of the property to test." );
+        isCopied.javadoc().addReturn().append( "{@code true}, if the property at {@code index} is selected; "
+                                               + "{@code false}, if the property at {@code index} is not selected." );
 
-                    }
-                    else
-                    {
-                        if ( field.getRawType().isArray() )
-                        {
-                            ifInstanceOf._then().assign( copy.component( it ), copyExpr );
-                        }
-                        else
-                        {
-                            ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
-                        }
-                    }
+        isCopied.body().directStatement( "// " + getMessage( "title" ) );
+        isCopied.body()._return( JOp.band( JExpr._this().ref( bits ).component( isCopiedIndex.shrz(
+            JExpr.lit( 6 ) ) ), JExpr.lit( 1L ).shl( isCopiedIndex ) ).ne( JExpr.lit( 0L ) ) );
 
-                    ifInstanceOf._then()._continue();
-                }
-            }
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getMask = copyMask.method( JMod.PUBLIC, copyMask, "getMask" );
+        final JVar getMaskIndex = getMask.param( JMod.FINAL, cm.INT, "index" );
+        getMask.javadoc().append( "Gets the mask of a property of the class this mask has been compiled for." );
+        getMask.javadoc().addParam( getMaskIndex ).append( "The index of the property to get the mask of." );
+        getMask.javadoc().addReturn().append( "The mask of the property at {@code index} or {@code null}, if that "
+                                              + "property is to be copied completely." );
+
+        getMask.body().directStatement( "// " + getMessage( "title" ) );
+        getMask.body()._return( JExpr._this().ref( masks ).component( getMaskIndex ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyMask;
+    }
+
+    private JDefinedClass getCopyContextClass( final Outline outline )
+    {
+        JDefinedClass copyContext = this.getSupportClass( outline, COPY_CONTEXT_CLASS_NAME );
+
+        if ( copyContext == null )
+        {
+            copyContext = this.generateCopyContextClass( outline );
         }
 
-        for ( CClassInfo classInfo : referencedClassInfos )
+        return copyContext;
+    }
+
+    private JVar generateRegisteredCopyLookup( final Outline outline, final JBlock block, final JExpression source,
+                                               final JType type )
+    {
+        if ( !this.preserveIdentity )
         {
-            final JType javaType =
-                ( classInfo.getAdapterUse() != null && classInfo.getAdapterUse().customType != null
-                  ? classInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
-                  : classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+            return null;
+        }
 
-            final JConditional ifInstanceOf = copyLoop.body()._if( next._instanceof( javaType ) );
+        final JDefinedClass copyContextClass = this.getCopyContextClass( outline );
+        final JVar copyContext = block.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                             copyContextClass.staticInvoke( "current" ) );
 
-            final JExpression copyExpr = this.getCopyExpression(
-                field, classInfo, ifInstanceOf._then(), JExpr.cast( javaType, next ), false );
+        final JVar registeredCopy = block.decl( JMod.FINAL, outline.getCodeModel().ref( Object.class ),
+                                                "registeredCopy", JOp.cond( copyContext.ne( JExpr._null() ),
+                                                                            copyContext.invoke( "get" ).arg( source ),
+                                                                            JExpr._null() ) );
 
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        block._if( registeredCopy.ne( JExpr._null() ) )._then()._return( JExpr.cast( type, registeredCopy ) );
+        return copyContext;
+    }
 
-            if ( copyExpr == null )
-            {
-                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                          field.parent().implClass.binaryName() );
+    private void generateCopyRegistration( final JBlock block, final JVar copyContext, final JExpression source,
+                                           final JExpression copy )
+    {
+        if ( copyContext != null )
+        {
+            block._if( copyContext.ne( JExpr._null() ) )._then().add(
+                copyContext.invoke( "put" ).arg( source ).arg( copy ) );
 
-            }
-            else
-            {
-                if ( field.getRawType().isArray() )
-                {
-                    ifInstanceOf._then().assign( copy.component( it ), copyExpr );
-                }
-                else
-                {
-                    ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
-                }
-            }
+        }
+    }
 
-            ifInstanceOf._then()._continue();
+    private JDefinedClass getCloneMethodsClass( final Outline outline )
+    {
+        JDefinedClass cloneMethods = this.getSupportClass( outline, CLONE_METHODS_CLASS_NAME );
+
+        if ( cloneMethods == null )
+        {
+            cloneMethods = this.generateCloneMethodsClass( outline );
         }
 
-        for ( CTypeInfo typeInfo : referencedTypeInfos )
+        return cloneMethods;
+    }
+
+    private JDefinedClass generateCloneMethodsClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass cloneMethods = this.newSupportClass( outline, CLONE_METHODS_CLASS_NAME, ClassType.CLASS );
+        final JClass object = cm.ref( Object.class );
+        final JClass assertionError = cm.ref( AssertionError.class );
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+
+        cloneMethods.javadoc().append( "Cache of the public {@code clone()} methods of classes.\n<p>The public "
+                                       + "{@code clone()} method of a class is looked up once and cached for "
+                                       + "any subsequent invocations. Classes not declaring a public "
+                                       + "{@code clone()} method are cached as such.</p>" );
+
+        final JMethod ctor = cloneMethods.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + cloneMethods.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JFieldVar notCloneable = cloneMethods.field( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, object,
+                                                           "NOT_CLONEABLE", JExpr._new( object ) );
+
+        notCloneable.javadoc().append( "Value returned by {@code invokeClone} for objects of classes not declaring a "
+                                       + "public {@code clone()} method." );
+
+        final JMethod invokeClone = cloneMethods.method( JMod.PUBLIC | JMod.STATIC, object, "invokeClone" );
+        final JVar o = invokeClone.param( JMod.FINAL, object, "o" );
+        invokeClone.javadoc().append( "Invokes the public {@code clone()} method of a given object." );
+        invokeClone.javadoc().addParam( o ).append( "The object to invoke the public {@code clone()} method of." );
+        invokeClone.javadoc().addReturn().append(
+            "The object returned by the public {@code clone()} method of {@code o}, including {@code null}, or "
+            + "{@code NOT_CLONEABLE}, if the class of {@code o} does not declare a public {@code clone()} "
+            + "method." );
+
+        invokeClone.javadoc().addThrows( NullPointerException.class ).append( "if {@code o} is {@code null}." );
+        invokeClone.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JExpression assertionErrorMsg =
+            JExpr.lit( "Unexpected instance during copying object '" ).plus( o ).plus( JExpr.lit( "'." ) );
+
+        if ( this.isTargetSupported( TARGET_1_7 ) )
         {
-            final JType javaType = typeInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
-            final JConditional ifInstanceOf = copyLoop.body()._if( next._instanceof( javaType ) );
-            final JExpression copyExpr = this.getCopyExpression(
-                field, typeInfo, ifInstanceOf._then(), JExpr.cast( javaType, next ), false );
+            final JClass methodHandle = cm.ref( "java.lang.invoke.MethodHandle" );
+            final JClass methodHandles = cm.ref( "java.lang.invoke.MethodHandles" );
+            final JClass methodType = cm.ref( "java.lang.invoke.MethodType" );
+            final JClass classValue = cm.ref( "java.lang.ClassValue" ).narrow( methodHandle );
 
-            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+            final JFieldVar noCloneMethod = cloneMethods.field(
+                JMod.PRIVATE | JMod.STATIC | JMod.FINAL, methodHandle, "NO_CLONE_METHOD",
+                methodHandles.staticInvoke( "constant" ).arg( object.dotclass() ).arg( JExpr._null() ) );
 
-            if ( copyExpr == null )
-            {
-                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
-                          field.parent().implClass.binaryName() );
+            noCloneMethod.javadoc().append( "Value cached for classes not declaring a public {@code clone()} method." );
+
+            final JDefinedClass computeClass;
 
+            try
+            {
+                computeClass = cloneMethods._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "CloneMethodValue" );
+                computeClass._extends( classValue );
+                computeClass.javadoc().append( "Looks up the public {@code clone()} method of a class." );
             }
-            else
+            catch ( final JClassAlreadyExistsException e )
             {
-                if ( field.getRawType().isArray() )
-                {
-                    ifInstanceOf._then().assign( copy.component( it ), copyExpr );
-                }
-                else
-                {
-                    ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
-                }
+                throw new AssertionError( e );
             }
 
-            ifInstanceOf._then()._continue();
-        }
+            final JMethod computeValue = computeClass.method( JMod.PROTECTED, methodHandle, "computeValue" );
+            final JVar computeType = computeValue.param( JMod.FINAL, type, "type" );
+            computeValue.annotate( Override.class );
+            computeValue.body().directStatement( "// " + getMessage( "title" ) );
 
-        copyLoop.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
-        copyLoop.body()._throw( JExpr._new( assertionError ).arg( JExpr.lit( "Unexpected instance '" ).plus(
-            next ).plus( JExpr.lit( "' for property '" + field.getPropertyInfo().getName( true ) + "' of class '"
-                                    + field.parent().implClass.binaryName() + "'." ) ) ) );
+            final JTryBlock tryLookup = computeValue.body()._try();
+            tryLookup.body()._return( methodHandles.staticInvoke( "publicLookup" ).invoke( "unreflect" ).arg(
+                computeType.invoke( "getMethod" ).arg( "clone" ).arg( JExpr.cast(
+                cm.ref( Class[].class ), JExpr._null() ) ) ).invoke( "asType" ).arg(
+                methodType.staticInvoke( "methodType" ).arg( object.dotclass() ).arg( object.dotclass() ) ) );
 
-        if ( field.getRawType().isArray() )
-        {
-            sourceNotEmpty._then()._return( copy );
-            body._return( JExpr._null() );
-        }
+            tryLookup._catch( cm.ref( NoSuchMethodException.class ) ).body()._return( noCloneMethod );
 
-        if ( needsToCatchException )
-        {
-            final JTryBlock tryCopy = m.body()._try();
-            tryCopy.body().add( body );
+            final JCatchBlock catchIllegalAccess = tryLookup._catch( cm.ref( IllegalAccessException.class ) );
+            catchIllegalAccess.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+            catchIllegalAccess.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).arg(
+                JExpr.lit( "Unexpected class '" ).plus( computeType.invoke( "getName" ) ).plus(
+                JExpr.lit( "'." ) ) ).invoke( "initCause" ).arg( catchIllegalAccess.param( "e" ) ) ) );
 
-            final JCatchBlock catchException =
-                tryCopy._catch( field.parent().parent().getCodeModel().ref( Exception.class ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            final JVar ex = catchException.param( "e" );
-            catchException.body()._throw( JExpr._new( field.parent().parent().getCodeModel().
-                ref( AssertionError.class ) ).arg( ex ) );
+            final JFieldVar methods = cloneMethods.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, classValue,
+                                                          "CLONE_METHODS", JExpr._new( computeClass ) );
+
+            methods.javadoc().append( "Cache of the public {@code clone()} methods of classes." );
+
+            final JVar cloneMethod = invokeClone.body().decl(
+                JMod.FINAL, methodHandle, "cloneMethod", methods.invoke( "get" ).arg( o.invoke( "getClass" ) ) );
+
+            invokeClone.body()._if( cloneMethod.eq( noCloneMethod ) )._then()._return( notCloneable );
+
+            final JTryBlock tryInvoke = invokeClone.body()._try();
+            tryInvoke.body()._return( JExpr.cast( object, cloneMethod.invoke( "invokeExact" ).arg( o ) ) );
+
+            final JCatchBlock catchThrowable = tryInvoke._catch( cm.ref( Throwable.class ) );
+            catchThrowable.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+            catchThrowable.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).arg(
+                assertionErrorMsg ).invoke( "initCause" ).arg( catchThrowable.param( "e" ) ) ) );
 
         }
         else
         {
-            m.body().add( body );
+            final JClass method = cm.ref( Method.class );
+            final JClass softReference = cm.ref( SoftReference.class ).narrow( method );
+            final JDefinedClass classCache = this.getClassCacheClass( outline );
+
+            final JFieldVar noCloneMethod = cloneMethods.field(
+                JMod.PRIVATE | JMod.STATIC | JMod.FINAL, object, "NO_CLONE_METHOD", JExpr._new( object ) );
+
+            noCloneMethod.javadoc().append( "Value cached for classes not declaring a public {@code clone()} method." );
+
+            final JFieldVar methods = cloneMethods.field(
+                JMod.PRIVATE | JMod.STATIC | JMod.FINAL, classCache, "CLONE_METHODS", JExpr._new( classCache ) );
+
+            methods.javadoc().append( "Cache of the public {@code clone()} methods of classes. Methods are softly "
+                                      + "referenced to not prevent classes from being unloaded." );
+
+            final JMethod getCloneMethod = cloneMethods.method( JMod.PRIVATE | JMod.STATIC, method, "getCloneMethod" );
+            final JVar getType = getCloneMethod.param( JMod.FINAL, type, "type" );
+            getCloneMethod.javadoc().append( "Gets the public {@code clone()} method of a given class." );
+            getCloneMethod.javadoc().addParam( getType ).append( "The class to get the public {@code clone()} "
+                                                                 + "method of." );
+
+            getCloneMethod.javadoc().addReturn().append(
+                "The public {@code clone()} method of {@code type} or {@code null}, if {@code type} does not declare "
+                + "a public {@code clone()} method." );
+
+            getCloneMethod.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+            getCloneMethod.body().directStatement( "// " + getMessage( "title" ) );
+
+            final JVar cached = getCloneMethod.body().decl(
+                object, "cloneMethod", methods.invoke( "get" ).arg( getType ) );
+
+            getCloneMethod.body()._if( cached.eq( noCloneMethod ) )._then()._return( JExpr._null() );
+
+            final JVar m = getCloneMethod.body().decl( method, "m", JOp.cond(
+                cached.ne( JExpr._null() ), JExpr.invoke( JExpr.cast( softReference, cached ), "get" ),
+                JExpr._null() ) );
+
+            final JBlock lookup = getCloneMethod.body()._if( m.eq( JExpr._null() ) )._then();
+            final JTryBlock tryLookup = lookup._try();
+            tryLookup.body().assign( m, getType.invoke( "getMethod" ).arg( "clone" ).arg( JExpr.cast(
+                cm.ref( Class[].class ), JExpr._null() ) ) );
+
+            tryLookup.body().assign( cached, JExpr._new( softReference ).arg( m ) );
+            tryLookup._catch( cm.ref( NoSuchMethodException.class ) ).body().assign( cached, noCloneMethod );
+            lookup.add( methods.invoke( "put" ).arg( getType ).arg( cached ) );
+            getCloneMethod.body()._return( m );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+            final JVar cloneMethod = invokeClone.body().decl(
+                JMod.FINAL, method, "cloneMethod", JExpr.invoke( getCloneMethod ).arg( o.invoke( "getClass" ) ) );
+
+            invokeClone.body()._if( cloneMethod.eq( JExpr._null() ) )._then()._return( notCloneable );
+
+            final JTryBlock tryInvoke = invokeClone.body()._try();
+            tryInvoke.body()._return( cloneMethod.invoke( "invoke" ).arg( o ).arg(
+                JExpr.cast( cm.ref( Object[].class ), JExpr._null() ) ) );
+
+            for ( Class<?> e : new Class<?>[]
+                {
+                    IllegalAccessException.class, InvocationTargetException.class, SecurityException.class,
+                    IllegalArgumentException.class, ExceptionInInitializerError.class
+                } )
+            {
+                final JCatchBlock catchBlock = tryInvoke._catch( cm.ref( e ) );
+                catchBlock.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+                catchBlock.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).arg(
+                    assertionErrorMsg ).invoke( "initCause" ).arg( catchBlock.param( "e" ) ) ) );
+
+            }
         }
 
         this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return m;
+        return cloneMethods;
     }
 
-    private JExpression getCopyExpression( final FieldOutline fieldOutline, final CTypeInfo type,
-                                           final JBlock block, final JExpression sourceExpr,
-                                           final boolean sourceMaybeNull )
+    private JDefinedClass getCopyStrategiesClass( final Outline outline )
     {
-        JExpression expr = null;
-        this.tryCatchCopyExpression = false;
+        JDefinedClass copyStrategies = this.getSupportClass( outline, COPY_STRATEGIES_CLASS_NAME );
 
-        if ( type instanceof CBuiltinLeafInfo )
+        if ( copyStrategies == null )
         {
-            expr = this.getBuiltinCopyExpression(
-                fieldOutline, (CBuiltinLeafInfo) type, block, sourceExpr, sourceMaybeNull );
-
+            copyStrategies = this.generateCopyStrategiesClass( outline );
         }
-        else if ( type instanceof CWildcardTypeInfo )
+
+        return copyStrategies;
+    }
+
+    private JDefinedClass generateCopyStrategiesClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass copyStrategies =
+            this.newSupportClass( outline, COPY_STRATEGIES_CLASS_NAME, ClassType.CLASS );
+
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+
+        copyStrategies.javadoc().append( "Cache of the strategies used for copying instances of classes.\n<p>The "
+                                         + "strategy for copying instances of a class is determined once and cached "
+                                         + "for any subsequent copies of instances of that class.</p>" );
+
+        final String[][] constants =
         {
-            expr = this.getWildcardCopyExpression(
-                fieldOutline, (CWildcardTypeInfo) type, block, sourceExpr, sourceMaybeNull );
+            {
+                "IMMUTABLE", "Instances are immutable and need not be copied."
+            },
+            {
+                "ARRAY", "Instances are arrays."
+            },
+            {
+                "ELEMENT", "Instances are DOM elements."
+            },
+            {
+                "JAXB_ELEMENT", "Instances are {@code JAXBElement}s."
+            },
+            {
+                "REFLECTIVE", "Instances are copied by invoking their public {@code clone()} method or by "
+                              + "serialization."
+            }
+        };
 
-        }
-        else if ( type instanceof CClassInfo )
+        for ( int i = 0; i < constants.length; i++ )
         {
-            expr = this.getClassInfoCopyExpression(
-                fieldOutline, (CClassInfo) type, block, sourceExpr, sourceMaybeNull );
+            final JFieldVar constant = copyStrategies.field( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                             constants[i][0], JExpr.lit( i ) );
 
+            constant.javadoc().append( constants[i][1] );
         }
-        else if ( type instanceof CEnumLeafInfo )
+
+        final List<String> typeStrategies = this.getTypeCopyStrategyNames();
+
+        for ( int i = 0; i < typeStrategies.size(); i++ )
         {
-            expr = this.getEnumLeafInfoCopyExpression( fieldOutline, (CEnumLeafInfo) type, block, sourceExpr );
+            final boolean stringType = i < this.stringTypes.size();
+            final String typeName =
+                stringType ? this.stringTypes.get( i ) : this.cloneableTypes.get( i - this.stringTypes.size() );
+
+            final JFieldVar constant = copyStrategies.field( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                             typeStrategies.get( i ),
+                                                             JExpr.lit( FIRST_TYPE_COPY_STRATEGY + i ) );
+
+            constant.javadoc().append( "Instances are {@code " + typeName + "}s copied "
+                                       + ( stringType ? "using their string representation." : "by cloning." ) );
+
         }
-        else if ( type instanceof CArrayInfo )
+
+        final JMethod ctor = copyStrategies.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + copyStrategies.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod computeCopyStrategy =
+            copyStrategies.method( JMod.PRIVATE | JMod.STATIC, cm.INT, "computeCopyStrategy" );
+
+        final JVar computeType = computeCopyStrategy.param( JMod.FINAL, type, "type" );
+        computeCopyStrategy.javadoc().append( "Determines the strategy for copying instances of a given class." );
+        computeCopyStrategy.javadoc().addParam( computeType ).append(
+            "The class to determine the copy strategy of." );
+
+        computeCopyStrategy.javadoc().addReturn().append( "The strategy for copying instances of {@code type}." );
+        computeCopyStrategy.body().directStatement( "// " + getMessage( "title" ) );
+        computeCopyStrategy.body()._if( computeType.invoke( "isPrimitive" ) )._then()._return(
+            copyStrategies.staticRef( "IMMUTABLE" ) );
+
+        computeCopyStrategy.body()._if( computeType.invoke( "isArray" ) )._then()._return(
+            copyStrategies.staticRef( "ARRAY" ) );
+
+        computeCopyStrategy.body().directStatement( "// Immutable types." );
+
+        for ( String immutableType : this.immutableTypes )
         {
-            expr = this.getArrayCopyExpression( fieldOutline, (CArrayInfo) type, block, sourceExpr );
+            computeCopyStrategy.body()._if( cm.ref( immutableType ).dotclass().invoke( "isAssignableFrom" ).arg(
+                computeType ) )._then()._return( copyStrategies.staticRef( "IMMUTABLE" ) );
+
         }
-        else if ( type instanceof CElementInfo )
+
+        int strategy = 0;
+        computeCopyStrategy.body().directStatement( "// String based types." );
+
+        for ( String stringType : this.stringTypes )
         {
-            expr = this.getElementCopyExpression( fieldOutline, (CElementInfo) type, block, sourceExpr );
+            computeCopyStrategy.body()._if( cm.ref( stringType ).dotclass().invoke( "isAssignableFrom" ).arg(
+                computeType ) )._then()._return( copyStrategies.staticRef( typeStrategies.get( strategy++ ) ) );
+
         }
-        else if ( type instanceof CNonElement )
+
+        computeCopyStrategy.body().directStatement( "// Cloneable types." );
+
+        for ( String cloneableType : this.cloneableTypes )
         {
-            expr = this.getNonElementCopyExpression(
-                fieldOutline, (CNonElement) type, block, sourceExpr, sourceMaybeNull );
+            computeCopyStrategy.body()._if( cm.ref( cloneableType ).dotclass().invoke( "isAssignableFrom" ).arg(
+                computeType ) )._then()._return( copyStrategies.staticRef( typeStrategies.get( strategy++ ) ) );
 
         }
-        else if ( type instanceof CAdapterInfo )
+
+        computeCopyStrategy.body()._if( cm.ref( Element.class ).dotclass().invoke( "isAssignableFrom" ).arg(
+            computeType ) )._then()._return( copyStrategies.staticRef( "ELEMENT" ) );
+
+        computeCopyStrategy.body()._if( cm.ref( JAXBElement.class ).dotclass().invoke( "isAssignableFrom" ).arg(
+            computeType ) )._then()._return( copyStrategies.staticRef( "JAXB_ELEMENT" ) );
+
+        computeCopyStrategy.body()._return( copyStrategies.staticRef( "REFLECTIVE" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getCopyStrategy =
+            copyStrategies.method( JMod.PUBLIC | JMod.STATIC, cm.INT, "getCopyStrategy" );
+
+        final JVar getType = getCopyStrategy.param( JMod.FINAL, type, "type" );
+        getCopyStrategy.javadoc().append( "Gets the strategy for copying instances of a given class." );
+        getCopyStrategy.javadoc().addParam( getType ).append( "The class to get the copy strategy of." );
+        getCopyStrategy.javadoc().addReturn().append( "The strategy for copying instances of {@code type}." );
+
+        getCopyStrategy.javadoc().addThrows( NullPointerException.class ).append( "if {@code type} is {@code null}." );
+        getCopyStrategy.body().directStatement( "// " + getMessage( "title" ) );
+
+        this.generateClassCache( outline, copyStrategies, computeCopyStrategy, getCopyStrategy, getType,
+                                 "COPY_STRATEGIES", "CopyStrategyValue",
+                                 "Cache of the strategies for copying instances of classes." );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyStrategies;
+    }
+
+    private List<String> getTypeCopyStrategyNames()
+    {
+        final List<String> typeNames = new ArrayList<String>( this.stringTypes );
+        typeNames.addAll( this.cloneableTypes );
+
+        final Set<String> names = new HashSet<String>( Arrays.asList(
+            "IMMUTABLE", "ARRAY", "ELEMENT", "JAXB_ELEMENT", "REFLECTIVE" ) );
+
+        final List<String> strategyNames = new ArrayList<String>( typeNames.size() );
+
+        for ( String typeName : typeNames )
         {
-            expr = this.getAdapterInfoCopyExpression( fieldOutline, (CAdapterInfo) type, block, sourceExpr );
+            String name = toConstantName( typeName.substring( Math.max( typeName.lastIndexOf( '.' ),
+                                                                        typeName.lastIndexOf( '$' ) ) + 1 ) );
+
+            if ( names.contains( name ) )
+            {
+                name = toConstantName( typeName.replace( '$', '.' ) );
+            }
+
+            for ( int i = 2; names.contains( name ); i++ )
+            {
+                name = toConstantName( typeName.replace( '$', '.' ) ) + "_" + i;
+            }
+
+            names.add( name );
+            strategyNames.add( name );
         }
 
-        if ( expr != null )
+        return strategyNames;
+    }
+
+    private static String toConstantName( final String name )
+    {
+        final StringBuilder constant = new StringBuilder( name.length() + 8 );
+
+        for ( int i = 0; i < name.length(); i++ )
         {
-            this.expressionCount = this.expressionCount.add( BigInteger.ONE );
+            final char c = name.charAt( i );
+
+            if ( c == '.' )
+            {
+                constant.append( '_' );
+            }
+            else
+            {
+                if ( i > 0 && Character.isUpperCase( c )
+                     && ( Character.isLowerCase( name.charAt( i - 1 ) ) || Character.isDigit( name.charAt( i - 1 ) )
+                          || ( i + 1 < name.length() && Character.isLowerCase( name.charAt( i + 1 ) )
+                               && Character.isUpperCase( name.charAt( i - 1 ) ) ) ) )
+                {
+                    constant.append( '_' );
+                }
+
+                constant.append( Character.toUpperCase( c ) );
+            }
         }
 
-        return expr;
+        return constant.toString();
     }
 
-    private JExpression getBuiltinCopyExpression( final FieldOutline fieldOutline, final CBuiltinLeafInfo type,
-                                                  final JBlock block, final JExpression sourceExpr,
-                                                  final boolean sourceMaybeNull )
+    private void generateClassCache( final Outline outline, final JDefinedClass owner, final JMethod compute,
+                                     final JMethod get, final JVar type, final String fieldName,
+                                     final String valueClassName, final String javadoc )
     {
-        JExpression expr = null;
+        final JCodeModel cm = owner.owner();
+        final JClass integer = cm.ref( Integer.class );
+        final JClass classType = cm.ref( Class.class ).narrow( cm.wildcard() );
 
-        block.directStatement( "// CBuiltinLeafInfo: " + type.toType( fieldOutline.parent().parent(),
-                                                                      Aspect.IMPLEMENTATION ).binaryName() );
+        if ( this.isTargetSupported( TARGET_1_7 ) )
+        {
+            final JClass classValue = cm.ref( "java.lang.ClassValue" ).narrow( integer );
+            final JDefinedClass computeClass;
 
-        if ( type == CBuiltinLeafInfo.ANYTYPE )
+            try
+            {
+                computeClass = owner._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, valueClassName );
+                computeClass._extends( classValue );
+                computeClass.javadoc().append( compute.javadoc().get( 0 ) );
+            }
+            catch ( final JClassAlreadyExistsException e )
+            {
+                throw new AssertionError( e );
+            }
+
+            final JMethod computeValue = computeClass.method( JMod.PROTECTED, integer, "computeValue" );
+            final JVar valueType = computeValue.param( JMod.FINAL, classType, "type" );
+            computeValue.annotate( Override.class );
+            computeValue.body().directStatement( "// " + getMessage( "title" ) );
+            computeValue.body()._return( integer.staticInvoke( "valueOf" ).arg(
+                JExpr.invoke( compute ).arg( valueType ) ) );
+
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+            final JFieldVar cache = owner.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, classValue, fieldName,
+                                                 JExpr._new( computeClass ) );
+
+            cache.javadoc().append( javadoc );
+            get.body()._return( cache.invoke( "get" ).arg( type ).invoke( "intValue" ) );
+        }
+        else
         {
-            expr = this.getCopyOfObjectInvocation( fieldOutline.parent() ).arg( sourceExpr );
+            final JDefinedClass classCache = this.getClassCacheClass( outline );
+            final JFieldVar cache = owner.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, classCache, fieldName,
+                                                 JExpr._new( classCache ) );
+
+            cache.javadoc().append( javadoc );
+
+            final JVar cached = get.body().decl( integer, "cached", JExpr.cast( integer, cache.invoke( "get" ).
+                arg( type ) ) );
+            final JBlock computeBlock = get.body()._if( cached.eq( JExpr._null() ) )._then();
+            computeBlock.assign( cached, integer.staticInvoke( "valueOf" ).arg(
+                JExpr.invoke( compute ).arg( type ) ) );
+
+            computeBlock.add( cache.invoke( "put" ).arg( type ).arg( cached ) );
+            get.body()._return( cached.invoke( "intValue" ) );
         }
-        else if ( type == CBuiltinLeafInfo.BASE64_BYTE_ARRAY )
+    }
+
+    private JDefinedClass getClassCacheClass( final Outline outline )
+    {
+        JDefinedClass classCache = this.getSupportClass( outline, CLASS_CACHE_CLASS_NAME );
+
+        if ( classCache == null )
         {
-            final JClass byteArray = fieldOutline.parent().parent().getCodeModel().ref( byte[].class );
-            expr = this.getCopyOfPrimitiveArrayExpression( fieldOutline.parent(), byteArray, sourceExpr );
+            classCache = this.generateClassCacheClass( outline );
         }
-        else if ( type == CBuiltinLeafInfo.BIG_DECIMAL || type == CBuiltinLeafInfo.BIG_INTEGER
-                  || type == CBuiltinLeafInfo.STRING || type == CBuiltinLeafInfo.BOOLEAN || type == CBuiltinLeafInfo.INT
-                  || type == CBuiltinLeafInfo.LONG || type == CBuiltinLeafInfo.BYTE || type == CBuiltinLeafInfo.SHORT
-                  || type == CBuiltinLeafInfo.FLOAT || type == CBuiltinLeafInfo.DOUBLE )
+
+        return classCache;
+    }
+
+    private JDefinedClass generateClassCacheClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass classCache = this.newSupportClass( outline, CLASS_CACHE_CLASS_NAME, ClassType.CLASS );
+        final JClass object = cm.ref( Object.class );
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+        final JClass reference = cm.ref( WeakReference.class ).narrow( cm.wildcard() );
+        final JClass system = cm.ref( System.class );
+
+        classCache.javadoc().append( "Cache of values of classes.\n<p>Values are held in a table which is replaced "
+                                     + "whenever a value is added, so that reading a value neither locks nor "
+                                     + "modifies the table. Classes are weakly referenced to not prevent them from "
+                                     + "being unloaded, so that values must not strongly reference the class they "
+                                     + "are cached for.</p>" );
+
+        final JFieldVar table = classCache.field( JMod.PRIVATE | JMod.VOLATILE, object.array(), "table",
+                                                  JExpr.newArray( object, JExpr.lit( 32 ) ) );
+
+        table.javadoc().append( "Weak references to classes each followed by the value of that class, placed by "
+                                + "the identity hash code of the class." );
+
+        final JMethod ctor = classCache.constructor( JMod.PUBLIC );
+        ctor.javadoc().append( "Creates a new {@code " + classCache.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod insert = classCache.method( JMod.PRIVATE | JMod.STATIC, Void.TYPE, "insert" );
+        final JVar insertTable = insert.param( JMod.FINAL, object.array(), "table" );
+        final JVar insertKey = insert.param( JMod.FINAL, reference, "key" );
+        final JVar insertType = insert.param( JMod.FINAL, object, "type" );
+        final JVar insertValue = insert.param( JMod.FINAL, object, "value" );
+        insert.javadoc().append( "Inserts a class and its value into a table with at least one free slot." );
+        insert.javadoc().addParam( insertTable ).append( "The table to insert into." );
+        insert.javadoc().addParam( insertKey ).append( "The weak reference to {@code type}." );
+        insert.javadoc().addParam( insertType ).append( "The class to insert." );
+        insert.javadoc().addParam( insertValue ).append( "The value of {@code type}." );
+        insert.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar insertMask = insert.body().decl( JMod.FINAL, cm.INT, "mask", insertTable.ref( "length" ).
+            shr( JExpr.lit( 1 ) ).minus( JExpr.lit( 1 ) ) );
+
+        final JVar slot = insert.body().decl( cm.INT, "i", system.staticInvoke( "identityHashCode" ).
+            arg( insertType ).band( insertMask ) );
+
+        insert.body()._while( JOp.ne( insertTable.component( slot.shl( JExpr.lit( 1 ) ) ), JExpr._null() ) ).
+            body().assign( slot, slot.plus( JExpr.lit( 1 ) ).band( insertMask ) );
+
+        insert.body().assign( insertTable.component( slot.shl( JExpr.lit( 1 ) ) ), insertKey );
+        insert.body().assign( insertTable.component( slot.shl( JExpr.lit( 1 ) ).plus( JExpr.lit( 1 ) ) ),
+                              insertValue );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod get = classCache.method( JMod.PUBLIC, object, "get" );
+        final JVar getType = get.param( JMod.FINAL, type, "type" );
+        get.javadoc().append( "Gets the value of a given class." );
+        get.javadoc().addParam( getType ).append( "The class to get the value of." );
+        get.javadoc().addReturn().append( "The value of {@code type} or {@code null}, if no value has been added for "
+                                          + "{@code type}." );
+
+        get.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar getTable = get.body().decl( JMod.FINAL, object.array(), "t", JExpr._this().ref( table ) );
+        final JVar getMask = get.body().decl( JMod.FINAL, cm.INT, "mask", getTable.ref( "length" ).
+            shr( JExpr.lit( 1 ) ).minus( JExpr.lit( 1 ) ) );
+
+        final JForLoop probe = get.body()._for();
+        final JVar i = probe.init( cm.INT, "i", system.staticInvoke( "identityHashCode" ).arg( getType ).
+            band( getMask ) );
+
+        probe.test( JOp.ne( getTable.component( i.shl( JExpr.lit( 1 ) ) ), JExpr._null() ) );
+        probe.update( JExpr.assign( i, i.plus( JExpr.lit( 1 ) ).band( getMask ) ) );
+        probe.body()._if( JOp.eq( JExpr.invoke( JExpr.cast( reference, getTable.component( i.shl(
+            JExpr.lit( 1 ) ) ) ), "get" ), getType ) )._then()._return( getTable.component( i.shl( JExpr.lit( 1 ) ).plus( JExpr.lit( 1 ) ) ) );
+
+        get.body()._return( JExpr._null() );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod put = classCache.method( JMod.PUBLIC | JMod.SYNCHRONIZED, Void.TYPE, "put" );
+        final JVar putType = put.param( JMod.FINAL, type, "type" );
+        final JVar putValue = put.param( JMod.FINAL, object, "value" );
+        put.javadoc().append( "Adds the value of a given class.\n<p>The table is copied, dropping the classes "
+                              + "which have been unloaded, and the copy replaces the table.</p>" );
+
+        put.javadoc().addParam( putType ).append( "The class to add the value of." );
+        put.javadoc().addParam( putValue ).append( "The value of {@code type}." );
+        put.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar putTable = put.body().decl( JMod.FINAL, object.array(), "t", JExpr._this().ref( table ) );
+        final JVar size = put.body().decl( cm.INT, "size", JExpr.lit( 1 ) );
+        final JForLoop count = put.body()._for();
+        final JVar c = count.init( cm.INT, "i", JExpr.lit( 0 ) );
+        count.test( c.lt( putTable.ref( "length" ) ) );
+        count.update( c.assignPlus( JExpr.lit( 2 ) ) );
+        count.body()._if( JOp.ne( putTable.component( c ), JExpr._null() ).cand( JOp.ne( JExpr.invoke( JExpr.cast(
+            reference, putTable.component( c ) ), "get" ), JExpr._null() ) ) )._then().assignPlus(
+            size, JExpr.lit( 1 ) );
+
+        final JVar capacity = put.body().decl( cm.INT, "capacity", JExpr.lit( 16 ) );
+        put.body()._while( capacity.lt( size.shl( JExpr.lit( 1 ) ) ) ).body().assign(
+            capacity, capacity.shl( JExpr.lit( 1 ) ) );
+
+        final JVar copy = put.body().decl( JMod.FINAL, object.array(), "copy", JExpr.newArray(
+            object, capacity.shl( JExpr.lit( 1 ) ) ) );
+
+        final JForLoop copyLoop = put.body()._for();
+        final JVar k = copyLoop.init( cm.INT, "i", JExpr.lit( 0 ) );
+        copyLoop.test( k.lt( putTable.ref( "length" ) ) );
+        copyLoop.update( k.assignPlus( JExpr.lit( 2 ) ) );
+
+        final JBlock copyEntry = copyLoop.body()._if( JOp.ne( putTable.component( k ), JExpr._null() ) )._then();
+        final JVar key = copyEntry.decl( JMod.FINAL, object, "key", JExpr.invoke( JExpr.cast(
+            reference, putTable.component( k ) ), "get" ) );
+
+        copyEntry._if( key.ne( JExpr._null() ).cand( key.ne( putType ) ) )._then().invoke( insert ).arg( copy ).
+            arg( JExpr.cast( reference, putTable.component( k ) ) ).arg( key ).arg(
+            putTable.component( k.plus( JExpr.lit( 1 ) ) ) );
+
+        put.body().invoke( insert ).arg( copy ).arg( JExpr._new( cm.ref( WeakReference.class ).narrow( type ) ).
+            arg( putType ) ).arg( putType ).arg( putValue );
+
+        put.body().assign( JExpr._this().ref( table ), copy );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return classCache;
+    }
+
+    private JDefinedClass getCopierClass( final Outline outline )
+    {
+        JDefinedClass copierClass = this.getSupportClass( outline, COPIER_CLASS_NAME );
+
+        if ( copierClass == null )
+        {
+            copierClass = this.generateCopierClass( outline );
+        }
+
+        return copierClass;
+    }
+
+    private JDefinedClass generateCopierClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass copierClass = this.newSupportClass( outline, COPIER_CLASS_NAME, ClassType.CLASS );
+        final JClass integer = cm.ref( Integer.class );
+        final JClass type = cm.ref( Class.class ).narrow( cm.wildcard() );
+
+        copierClass.javadoc().append( "Type identifiers of schema derived classes.\n<p>Every schema derived class "
+                                      + "is assigned a dense type identifier used for dispatching copies. The type "
+                                      + "identifier of a class is determined once and cached for any subsequent "
+                                      + "copies of instances of that class.</p>" );
+
+        final JFieldVar noTypeId = copierClass.field( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, cm.INT, "NO_TYPE_ID",
+                                                      JExpr.lit( -1 ) );
+
+        noTypeId.javadoc().append( "Type identifier of classes not derived from a schema derived class." );
+
+        final JFieldVar schemaTypeIds = copierClass.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.ref( Map.class ).narrow( type, integer ), "TYPE_IDS",
+            JExpr._new( cm.ref( HashMap.class ).narrow( type, integer ) ).arg( JExpr.lit( this.typeIds.size() ) ) );
+
+        schemaTypeIds.javadoc().append( "Type identifiers of schema derived classes." );
+
+        for ( ClassOutline clazz : outline.getClasses() )
+        {
+            copierClass.init().add( schemaTypeIds.invoke( "put" ).arg( clazz.implClass.dotclass() ).arg(
+                integer.staticInvoke( "valueOf" ).arg( JExpr.lit( this.typeIds.get( clazz.target ) ) ) ) );
+
+        }
+
+        final JMethod ctor = copierClass.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + copierClass.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod computeTypeId = copierClass.method( JMod.PRIVATE | JMod.STATIC, cm.INT, "computeTypeId" );
+        final JVar computeType = computeTypeId.param( JMod.FINAL, type, "type" );
+        computeTypeId.javadoc().append( "Determines the type identifier of a given class." );
+        computeTypeId.javadoc().addParam( computeType ).append( "The class to determine the type identifier of." );
+        computeTypeId.javadoc().addReturn().append(
+            "The type identifier of the schema derived class {@code type} is or extends or {@code NO_TYPE_ID}." );
+
+        computeTypeId.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JForLoop superclasses = computeTypeId.body()._for();
+        final JVar c = superclasses.init( type, "c", computeType );
+        superclasses.test( c.ne( JExpr._null() ) );
+        superclasses.update( JExpr.assign( c, c.invoke( "getSuperclass" ) ) );
+
+        final JVar typeId = superclasses.body().decl( JMod.FINAL, integer, "typeId",
+                                                      schemaTypeIds.invoke( "get" ).arg( c ) );
+
+        superclasses.body()._if( typeId.ne( JExpr._null() ) )._then()._return( typeId.invoke( "intValue" ) );
+        computeTypeId.body()._return( noTypeId );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getTypeId = copierClass.method( JMod.PUBLIC | JMod.STATIC, cm.INT, "getTypeId" );
+        final JVar getType = getTypeId.param( JMod.FINAL, type, "type" );
+        getTypeId.javadoc().append( "Gets the type identifier of a given class." );
+        getTypeId.javadoc().addParam( getType ).append( "The class to get the type identifier of." );
+        getTypeId.javadoc().addReturn().append(
+            "The type identifier of the schema derived class {@code type} is or extends or {@code NO_TYPE_ID}." );
+
+        getTypeId.javadoc().addThrows( NullPointerException.class ).append( "if {@code type} is {@code null}." );
+        getTypeId.body().directStatement( "// " + getMessage( "title" ) );
+
+        this.generateClassCache( outline, copierClass, computeTypeId, getTypeId, getType, "TYPE_ID_CACHE",
+                                 "TypeIdValue", "Cache of the type identifiers of classes." );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copierClass;
+    }
+
+    private boolean isDispatchedByTypeId( final CClassInfo classInfo )
+    {
+        return this.copier && this.typeIds.containsKey( classInfo )
+               && ( classInfo.getAdapterUse() == null || classInfo.getAdapterUse().customType == null );
+
+    }
+
+    private JSwitch generateTypeIdSwitch( final Outline outline, final JBlock block, final JExpression source )
+    {
+        block.directStatement( "// Referenced classes." );
+        return block._switch( this.getCopierClass( outline ).staticInvoke( "getTypeId" ).arg(
+            source.invoke( "getClass" ) ) );
+
+    }
+
+    private JBlock getTypeIdCase( final Outline outline, final JSwitch typeIdSwitch, final CClassInfo classInfo,
+                                  final Set<CClassInfo> dispatchedClassInfos )
+    {
+        JCase typeIdCase = null;
+
+        for ( ClassOutline clazz : outline.getClasses() )
+        {
+            if ( !dispatchedClassInfos.contains( clazz.target ) )
+            {
+                for ( ClassOutline s = clazz; s != null; s = s.getSuperClass() )
+                {
+                    if ( s.target == classInfo )
+                    {
+                        dispatchedClassInfos.add( clazz.target );
+                        typeIdCase = typeIdSwitch._case( JExpr.lit( this.typeIds.get( clazz.target ) ) );
+                        break;
+                    }
+                }
+            }
+        }
+
+        return typeIdCase.body();
+    }
+
+    private JDefinedClass getTypeProfileClass( final Outline outline )
+    {
+        JDefinedClass typeProfile = this.getSupportClass( outline, TYPE_PROFILE_CLASS_NAME );
+
+        if ( typeProfile == null )
+        {
+            typeProfile = this.generateTypeProfileClass( outline );
+        }
+
+        return typeProfile;
+    }
+
+    private JDefinedClass generateTypeProfileClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass typeProfile = this.newSupportClass( outline, TYPE_PROFILE_CLASS_NAME, ClassType.CLASS );
+        final JClass string = cm.ref( String.class );
+        final JClass atomicLong = cm.ref( AtomicLong.class );
+        final JClass properties = cm.ref( Properties.class );
+
+        typeProfile.javadoc().append( "Counts of the types copied per property.\n<p>The counts are recorded by the "
+                                      + "copy methods of schema derived classes and can be stored in a profile file "
+                                      + "to pass to the {@code " + PROFILE_OPTION_NAME + "} option of the CC-XJC "
+                                      + "plugin for testing the most frequently copied types first.</p>" );
+
+        final JFieldVar counts = typeProfile.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.ref( ConcurrentMap.class ).narrow( string, atomicLong ),
+            "COUNTS", JExpr._new( cm.ref( ConcurrentHashMap.class ).narrow( string, atomicLong ) ) );
+
+        counts.javadoc().append( "Counts of the types copied per property." );
+
+        final JMethod ctor = typeProfile.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + typeProfile.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod record = typeProfile.method( JMod.PUBLIC | JMod.STATIC, cm.VOID, "record" );
+        final JVar key = record.param( JMod.FINAL, string, "key" );
+        record.javadoc().append( "Records a type copied for a property." );
+        record.javadoc().addParam( key ).append( "The key of the property and type copied." );
+        record.javadoc().addThrows( NullPointerException.class ).append( "if {@code key} is {@code null}." );
+        record.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar count = record.body().decl( atomicLong, "count", counts.invoke( "get" ).arg( key ) );
+        final JBlock newCount = record.body()._if( count.eq( JExpr._null() ) )._then();
+        final JVar initial = newCount.decl( JMod.FINAL, atomicLong, "initial", JExpr._new( atomicLong ) );
+        newCount.assign( count, counts.invoke( "putIfAbsent" ).arg( key ).arg( initial ) );
+        newCount._if( count.eq( JExpr._null() ) )._then().assign( count, initial );
+        record.body().add( count.invoke( "incrementAndGet" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getProfile = typeProfile.method( JMod.PUBLIC | JMod.STATIC, properties, "getProfile" );
+        getProfile.javadoc().append( "Gets the counts recorded so far." );
+        getProfile.javadoc().addReturn().append( "The counts recorded so far keyed by property and type." );
+        getProfile.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar profile = getProfile.body().decl( JMod.FINAL, properties, "profile", JExpr._new( properties ) );
+        final JForEach forEach = getProfile.body().forEach( string, "key", counts.invoke( "keySet" ) );
+        final JVar keyCount = forEach.body().decl( JMod.FINAL, atomicLong, "count", counts.invoke( "get" ).arg(
+            forEach.var() ) );
+
+        forEach.body()._if( keyCount.ne( JExpr._null() ) )._then().add( profile.invoke( "setProperty" ).arg(
+            forEach.var() ).arg( cm.ref( Long.class ).staticInvoke( "toString" ).arg( keyCount.invoke( "get" ) ) ) );
+
+        getProfile.body()._return( profile );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod store = typeProfile.method( JMod.PUBLIC | JMod.STATIC, cm.VOID, "store" );
+        final JVar file = store.param( JMod.FINAL, cm.ref( File.class ), "file" );
+        store._throws( IOException.class );
+        store.javadoc().append( "Stores the counts recorded so far to a profile file." );
+        store.javadoc().addParam( file ).append( "The file to store the counts to." );
+        store.javadoc().addThrows( NullPointerException.class ).append( "if {@code file} is {@code null}." );
+        store.javadoc().addThrows( IOException.class ).append( "if storing the counts fails." );
+        store.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar out = store.body().decl( JMod.FINAL, cm.ref( OutputStream.class ), "out",
+                                            JExpr._new( cm.ref( FileOutputStream.class ) ).arg( file ) );
+
+        final JTryBlock tryStore = store.body()._try();
+        tryStore.body().add( JExpr.invoke( getProfile ).invoke( "store" ).arg( out ).arg(
+            JExpr.lit( getMessage( "title" ) ) ) );
+
+        tryStore._finally().add( out.invoke( "close" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod reset = typeProfile.method( JMod.PUBLIC | JMod.STATIC, cm.VOID, "reset" );
+        reset.javadoc().append( "Discards the counts recorded so far." );
+        reset.body().directStatement( "// " + getMessage( "title" ) );
+        reset.body().add( counts.invoke( "clear" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        return typeProfile;
+    }
+
+    private void generateProfileRecord( final FieldOutline field, final JBlock block, final CTypeInfo type )
+    {
+        if ( this.profiling )
+        {
+            block.add( this.getTypeProfileClass( field.parent().parent() ).staticInvoke( "record" ).arg(
+                this.getProfileKey( field, type ) ) );
+
+        }
+    }
+
+    private JType getTestedType( final FieldOutline field, final CTypeInfo type )
+    {
+        if ( type instanceof CElementInfo )
+        {
+            final CElementInfo elementInfo = (CElementInfo) type;
+
+            if ( elementInfo.hasClass() )
+            {
+                return elementInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            }
+
+            return ( elementInfo.getAdapterUse() != null && elementInfo.getAdapterUse().customType != null
+                     ? elementInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
+                     : elementInfo.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+        }
+
+        if ( type instanceof CClassInfo )
+        {
+            final CClassInfo classInfo = (CClassInfo) type;
+
+            return ( classInfo.getAdapterUse() != null && classInfo.getAdapterUse().customType != null
+                     ? classInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
+                     : classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+        }
+
+        return type.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+    }
+
+    private String getProfileKey( final FieldOutline field, final CTypeInfo type )
+    {
+        final StringBuilder key = new StringBuilder( 256 ).append( field.parent().implClass.binaryName() ).
+            append( '/' ).append( field.getPropertyInfo().getName( true ) ).append( '/' );
+
+        if ( type instanceof CElementInfo && !( (CElementInfo) type ).hasClass() )
+        {
+            key.append( JAXBElement.class.getName() ).append( '/' );
+        }
+
+        return key.append( this.getTestedType( field, type ).binaryName() ).toString();
+    }
+
+    private <T extends CTypeInfo> void sortByProfile( final FieldOutline field, final List<T> types )
+    {
+        final List<T> unsorted = new ArrayList<T>( types );
+        types.clear();
+
+        while ( !unsorted.isEmpty() )
+        {
+            T next = null;
+            long nextCount = -1L;
+
+            for ( T type : unsorted )
+            {
+                if ( this.isTestableFirst( field, type, unsorted ) )
+                {
+                    final Long count = this.profile.get( this.getProfileKey( field, type ) );
+
+                    if ( ( count != null ? count.longValue() : 0L ) > nextCount )
+                    {
+                        next = type;
+                        nextCount = count != null ? count.longValue() : 0L;
+                    }
+                }
+            }
+
+            types.add( next );
+            unsorted.remove( next );
+        }
+    }
+
+    private boolean isTestableFirst( final FieldOutline field, final CTypeInfo type,
+                                     final List<? extends CTypeInfo> types )
+    {
+        final JType testedType = this.getTestedType( field, type );
+
+        if ( testedType instanceof JClass )
+        {
+            for ( CTypeInfo t : types )
+            {
+                final JType otherType = this.getTestedType( field, t );
+
+                if ( t != type && otherType instanceof JClass && !otherType.equals( testedType )
+                     && ( (JClass) testedType ).isAssignableFrom( (JClass) otherType ) )
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private JDefinedClass getCopyOptionsClass( final Outline outline )
+    {
+        JDefinedClass copyOptions = this.getSupportClass( outline, COPY_OPTIONS_CLASS_NAME );
+
+        if ( copyOptions == null )
+        {
+            copyOptions = this.generateCopyOptionsClass( outline );
+        }
+
+        return copyOptions;
+    }
+
+    private JDefinedClass generateCopyOptionsClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass copyOptions = this.newSupportClass( outline, COPY_OPTIONS_CLASS_NAME, ClassType.CLASS );
+        final JClass forkJoinPool = cm.ref( "java.util.concurrent.ForkJoinPool" );
+        final JClass forkJoinTask = cm.ref( "java.util.concurrent.ForkJoinTask" );
+        final JClass threadLocal = cm.ref( ThreadLocal.class ).narrow( copyOptions );
+
+        copyOptions.javadoc().append( "Options of parallel copy operations.\n<p>Copy constructors taking a {@code "
+                                      + copyOptions.name() + "} instance copy the properties of an instance "
+                                      + "referencing other objects concurrently and split lists of more than a "
+                                      + "threshold number of values into tasks executed by a fork/join pool. The "
+                                      + "options are kept per thread for the duration of such a copy operation, so "
+                                      + "that any instances copied during that operation are copied the same way. "
+                                      + "The result of a parallel copy operation is identical to the result of a "
+                                      + "sequential copy operation.</p>" );
+
+        final JFieldVar defaultThreshold = copyOptions.field( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                              "DEFAULT_THRESHOLD",
+                                                              JExpr.lit( DEFAULT_PARALLEL_THRESHOLD ) );
+
+        defaultThreshold.javadoc().append( "Default maximum number of values of a list copied by a single task." );
+
+        final JFieldVar current = copyOptions.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, threadLocal,
+                                                     "CURRENT", JExpr._new( threadLocal ) );
+
+        final JFieldVar pool = copyOptions.field( JMod.PRIVATE | JMod.FINAL, forkJoinPool, "pool" );
+        final JFieldVar threshold = copyOptions.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "threshold" );
+
+        final JMethod ctor = copyOptions.constructor( JMod.PRIVATE );
+        final JVar ctorPool = ctor.param( JMod.FINAL, forkJoinPool, "pool" );
+        final JVar ctorThreshold = ctor.param( JMod.FINAL, cm.INT, "threshold" );
+        ctor.javadoc().append( "Creates a new {@code " + copyOptions.name() + "} instance." );
+        ctor.javadoc().addParam( ctorPool ).append( "The pool executing the tasks of copy operations." );
+        ctor.javadoc().addParam( ctorThreshold ).append( "The maximum number of values of a list copied by a single "
+                                                         + "task." );
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( pool ), ctorPool );
+        ctor.body().assign( JExpr._this().ref( threshold ), ctorThreshold );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod parallelThreshold = copyOptions.method( JMod.PUBLIC | JMod.STATIC, copyOptions, "parallel" );
+        final JVar thresholdPool = parallelThreshold.param( JMod.FINAL, forkJoinPool, "pool" );
+        final JVar thresholdValue = parallelThreshold.param( JMod.FINAL, cm.INT, "threshold" );
+        parallelThreshold.javadoc().append( "Creates options of parallel copy operations." );
+        parallelThreshold.javadoc().addParam( thresholdPool ).append(
+            "The pool to execute the tasks of copy operations with." );
+
+        parallelThreshold.javadoc().addParam( thresholdValue ).append(
+            "The maximum number of values of a list to copy by a single task." );
+
+        parallelThreshold.javadoc().addReturn().append( "Options of parallel copy operations using {@code pool}." );
+        parallelThreshold.javadoc().addThrows( NullPointerException.class ).append( "if {@code pool} is {@code null}." );
+        parallelThreshold.javadoc().addThrows( IllegalArgumentException.class ).append(
+            "if {@code threshold} is less than {@code 1}." );
+
+        parallelThreshold.body().directStatement( "// " + getMessage( "title" ) );
+        parallelThreshold.body()._if( thresholdPool.eq( JExpr._null() ) )._then()._throw(
+            JExpr._new( cm.ref( NullPointerException.class ) ).arg( "pool" ) );
+
+        parallelThreshold.body()._if( thresholdValue.lt( JExpr.lit( 1 ) ) )._then()._throw(
+            JExpr._new( cm.ref( IllegalArgumentException.class ) ).arg(
+            cm.ref( Integer.class ).staticInvoke( "toString" ).arg( thresholdValue ) ) );
+
+        parallelThreshold.body()._return( JExpr._new( copyOptions ).arg( thresholdPool ).arg( thresholdValue ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod parallel = copyOptions.method( JMod.PUBLIC | JMod.STATIC, copyOptions, "parallel" );
+        final JVar parallelPool = parallel.param( JMod.FINAL, forkJoinPool, "pool" );
+        parallel.javadoc().append( "Creates options of parallel copy operations using the default threshold." );
+        parallel.javadoc().addParam( parallelPool ).append( "The pool to execute the tasks of copy operations with." );
+        parallel.javadoc().addReturn().append( "Options of parallel copy operations using {@code pool}." );
+        parallel.javadoc().addThrows( NullPointerException.class ).append( "if {@code pool} is {@code null}." );
+        parallel.body().directStatement( "// " + getMessage( "title" ) );
+        parallel.body()._return( JExpr.invoke( parallelThreshold ).arg( parallelPool ).arg( defaultThreshold ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getPool = copyOptions.method( JMod.PUBLIC, forkJoinPool, "getPool" );
+        getPool.javadoc().append( "Gets the pool executing the tasks of copy operations." );
+        getPool.javadoc().addReturn().append( "The pool executing the tasks of copy operations." );
+        getPool.body().directStatement( "// " + getMessage( "title" ) );
+        getPool.body()._return( pool );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getThreshold = copyOptions.method( JMod.PUBLIC, cm.INT, "getThreshold" );
+        getThreshold.javadoc().append( "Gets the maximum number of values of a list copied by a single task." );
+        getThreshold.javadoc().addReturn().append( "The maximum number of values of a list copied by a single task." );
+        getThreshold.body().directStatement( "// " + getMessage( "title" ) );
+        getThreshold.body()._return( threshold );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getCurrent = copyOptions.method( JMod.PUBLIC | JMod.STATIC, copyOptions, "current" );
+        getCurrent.javadoc().append( "Gets the options of the copy operation of the current thread." );
+        getCurrent.javadoc().addReturn().append(
+            "The options of the copy operation of the current thread or {@code null}, if the current thread is not "
+            + "performing a parallel copy operation." );
+
+        getCurrent.body().directStatement( "// " + getMessage( "title" ) );
+        getCurrent.body()._return( current.invoke( "get" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod enter = copyOptions.method( JMod.PUBLIC | JMod.STATIC, copyOptions, "enter" );
+        final JVar enterOptions = enter.param( JMod.FINAL, copyOptions, "copyOptions" );
+        enter.javadoc().append( "Enters a copy operation of the current thread using given options." );
+        enter.javadoc().addParam( enterOptions ).append( "The options of the copy operation to enter." );
+        enter.javadoc().addReturn().append(
+            "The options of the copy operation previously performed by the current thread or {@code null}." );
+
+        enter.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar previous = enter.body().decl( JMod.FINAL, copyOptions, "previous", current.invoke( "get" ) );
+        enter.body().add( current.invoke( "set" ).arg( enterOptions ) );
+        enter.body()._return( previous );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod leave = copyOptions.method( JMod.PUBLIC | JMod.STATIC, Void.TYPE, "leave" );
+        final JVar leavePrevious = leave.param( JMod.FINAL, copyOptions, "previous" );
+        leave.javadoc().append( "Leaves a copy operation of the current thread." );
+        leave.javadoc().addParam( leavePrevious ).append(
+            "The options returned when entering the copy operation to leave." );
+
+        leave.body().directStatement( "// " + getMessage( "title" ) );
+        final JConditional isNull = leave.body()._if( leavePrevious.eq( JExpr._null() ) );
+        isNull._then().add( current.invoke( "remove" ) );
+        isNull._else().add( current.invoke( "set" ).arg( leavePrevious ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod invoke = copyOptions.method( JMod.PUBLIC, Void.TYPE, "invoke" );
+        final JVar task = invoke.param( JMod.FINAL, forkJoinTask.narrow( cm.wildcard() ), "task" );
+        invoke.javadoc().append( "Performs a given task using the pool of these options and awaits its completion."
+                                 + "\n<p>Tasks invoked from a thread of that pool are performed directly by that "
+                                 + "thread.</p>" );
+
+        invoke.javadoc().addParam( task ).append( "The task to perform." );
+        invoke.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional inPool = invoke.body()._if( forkJoinTask.staticInvoke( "getPool" ).eq( pool ) );
+        inPool._then().add( task.invoke( "invoke" ) );
+        inPool._else().add( pool.invoke( "invoke" ).arg( task ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        return copyOptions;
+    }
+
+    private JDefinedClass generateCopyContextClass( final Outline outline )
+    {
+        final JDefinedClass copyContext = this.newSupportClass( outline, COPY_CONTEXT_CLASS_NAME, ClassType.CLASS );
+        final JClass object = outline.getCodeModel().ref( Object.class );
+        final JClass threadLocal = outline.getCodeModel().ref( ThreadLocal.class ).narrow( copyContext );
+        final JClass map = outline.getCodeModel().ref( Map.class ).narrow( object, object );
+        final JClass identityHashMap = outline.getCodeModel().ref( IdentityHashMap.class ).narrow( object, object );
+
+        copyContext.javadoc().append( "State of the copy operations of a thread.\n<p>A copy operation starts with the "
+                                      + "first copy constructor or {@code clone()} method invoked by a thread and ends "
+                                      + "when that invocation returns. During that operation, each copied instance is "
+                                      + "registered with its copy so that instances referenced more than once, "
+                                      + "including cyclic references, are copied exactly once. The map holding these "
+                                      + "instances is kept per thread and reused by subsequent operations.</p>" );
+
+        final JFieldVar current = copyContext.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, threadLocal,
+                                                     "CURRENT", JExpr._new( threadLocal ) );
+
+        final JFieldVar copies = copyContext.field( JMod.PRIVATE | JMod.FINAL, map, "copies",
+                                                    JExpr._new( identityHashMap ) );
+
+        final JFieldVar depth = copyContext.field( JMod.PRIVATE, outline.getCodeModel().INT, "depth" );
+
+        final JMethod ctor = copyContext.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Creates a new {@code " + copyContext.name() + "} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod getCurrent = copyContext.method( JMod.PUBLIC | JMod.STATIC, copyContext, "current" );
+        getCurrent.javadoc().append( "Gets the context of the copy operation of the current thread." );
+        getCurrent.javadoc().addReturn().append(
+            "The context of the copy operation of the current thread or {@code null}, if the current thread is not "
+            + "performing a copy operation." );
+
+        getCurrent.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar currentContext = getCurrent.body().decl( JMod.FINAL, copyContext, "copyContext",
+                                                            current.invoke( "get" ) );
+
+        getCurrent.body()._return( JOp.cond( currentContext.ne( JExpr._null() ).cand(
+            currentContext.ref( depth ).gt( JExpr.lit( 0 ) ) ), currentContext, JExpr._null() ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod enter = copyContext.method( JMod.PUBLIC | JMod.STATIC, copyContext, "enter" );
+        enter.javadoc().append( "Enters the copy operation of the current thread.\n<p>If the current thread is not "
+                                + "performing a copy operation, a new copy operation is started.</p>" );
+
+        enter.javadoc().addReturn().append( "The context of the copy operation of the current thread." );
+        enter.body().directStatement( "// " + getMessage( "title" ) );
+
+        JVar enterContext = enter.body().decl( copyContext, "copyContext", current.invoke( "get" ) );
+        JConditional isNull = enter.body()._if( enterContext.eq( JExpr._null() ) );
+        isNull._then().assign( enterContext, JExpr._new( copyContext ) );
+        isNull._then().add( current.invoke( "set" ).arg( enterContext ) );
+
+        enter.body()._if( enterContext.ref( depth ).eq( JExpr.lit( 0 ) ) )._then().add(
+            enterContext.ref( copies ).invoke( "clear" ) );
+
+        enter.body().assignPlus( enterContext.ref( depth ), JExpr.lit( 1 ) );
+        enter.body()._return( enterContext );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod enterCopy = copyContext.method( JMod.PUBLIC | JMod.STATIC, copyContext, "enter" );
+        final JVar source = enterCopy.param( JMod.FINAL, object, "source" );
+        final JVar target = enterCopy.param( JMod.FINAL, object, "target" );
+        enterCopy.javadoc().append( "Enters the copy operation of the current thread copying a given instance to a "
+                                    + "given target.\n<p>Copy constructors enter the copy operation once per "
+                                    + "class of a hierarchy. If the current thread is not performing a copy "
+                                    + "operation and the given target is not the copy currently registered for the "
+                                    + "given instance, a new copy operation is started.</p>" );
+
+        enterCopy.javadoc().addParam( source ).append( "The instance to copy." );
+        enterCopy.javadoc().addParam( target ).append( "The copy of {@code source}." );
+        enterCopy.javadoc().addReturn().append( "The context of the copy operation of the current thread." );
+        enterCopy.body().directStatement( "// " + getMessage( "title" ) );
+
+        enterContext = enterCopy.body().decl( copyContext, "copyContext", current.invoke( "get" ) );
+        isNull = enterCopy.body()._if( enterContext.eq( JExpr._null() ) );
+        isNull._then().assign( enterContext, JExpr._new( copyContext ) );
+        isNull._then().add( current.invoke( "set" ).arg( enterContext ) );
+
+        enterCopy.body()._if( enterContext.ref( depth ).eq( JExpr.lit( 0 ) ).cand(
+            enterContext.ref( copies ).invoke( "get" ).arg( source ).ne( target ) ) )._then().add(
+            enterContext.ref( copies ).invoke( "clear" ) );
+
+        enterCopy.body().assignPlus( enterContext.ref( depth ), JExpr.lit( 1 ) );
+        enterCopy.body().add( enterContext.ref( copies ).invoke( "put" ).arg( source ).arg( target ) );
+        enterCopy.body()._return( enterContext );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod leave = copyContext.method( JMod.PUBLIC, Void.TYPE, "leave" );
+        leave.javadoc().append( "Leaves the copy operation of the current thread.\n<p>When leaving the copy "
+                                + "operation started by the current thread, any registered copies are "
+                                + "released.</p>" );
+
+        leave.body().directStatement( "// " + getMessage( "title" ) );
+        leave.body().invoke( "leave" ).arg( JExpr.TRUE );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod leaveComplete = copyContext.method( JMod.PUBLIC, Void.TYPE, "leave" );
+        final JVar complete = leaveComplete.param( JMod.FINAL, outline.getCodeModel().BOOLEAN, "complete" );
+        leaveComplete.javadoc().append( "Leaves the copy operation of the current thread.\n<p>Copy constructors "
+                                        + "not completing the copy of an instance keep the registered copies when "
+                                        + "leaving the copy operation started by the current thread so that the "
+                                        + "copy constructor of the next class of the hierarchy can continue "
+                                        + "that operation.</p>" );
+
+        leaveComplete.javadoc().addParam( complete ).append(
+            "{@code true}, to release any registered copies when leaving the copy operation started by the current "
+            + "thread; {@code false}, to keep any registered copies." );
+
+        leaveComplete.body().directStatement( "// " + getMessage( "title" ) );
+        leaveComplete.body().assignPlus( depth, JExpr.lit( -1 ) );
+        leaveComplete.body()._if( depth.eq( JExpr.lit( 0 ) ).cand( complete ) )._then().add(
+            copies.invoke( "clear" ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod get = copyContext.method( JMod.PUBLIC, object, "get" );
+        final JVar getSource = get.param( JMod.FINAL, object, "source" );
+        get.javadoc().append( "Gets the copy registered for a given instance." );
+        get.javadoc().addParam( getSource ).append( "The instance to get the registered copy of." );
+        get.javadoc().addReturn().append(
+            "The copy registered for {@code source} or {@code null}, if no copy has been registered." );
+
+        get.body().directStatement( "// " + getMessage( "title" ) );
+        get.body()._return( copies.invoke( "get" ).arg( getSource ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod put = copyContext.method( JMod.PUBLIC, Void.TYPE, "put" );
+        final JVar putSource = put.param( JMod.FINAL, object, "source" );
+        final JVar putCopy = put.param( JMod.FINAL, object, "copy" );
+        put.javadoc().append( "Registers the copy of a given instance." );
+        put.javadoc().addParam( putSource ).append( "The copied instance." );
+        put.javadoc().addParam( putCopy ).append( "The copy of {@code source}." );
+        put.body().directStatement( "// " + getMessage( "title" ) );
+        put.body().add( copies.invoke( "put" ).arg( putSource ).arg( putCopy ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        return copyContext;
+    }
+
+    private JExpression getCopyCompleteExpression( final ClassOutline clazz )
+    {
+        // The copy constructor of a generated subclass continues the copy operation. Subclasses not generated by
+        // the plugin do not, so that the copy is complete unless 'this' is an instance of a generated subclass.
+        JExpression complete = null;
+
+        for ( ClassOutline c : clazz.parent().getClasses() )
+        {
+            if ( c.getSuperClass() == clazz )
+            {
+                final JExpression notContinued = JOp.not( JExpr._this()._instanceof( c.implClass ) );
+                complete = complete == null ? notContinued : complete.cand( notContinued );
+            }
+        }
+
+        return complete == null ? JExpr.TRUE : complete;
+    }
+
+    private JMethod getPropertyGetter( final FieldOutline f )
+    {
+        final JDefinedClass clazz = f.parent().implClass;
+        final String name = f.getPropertyInfo().getName( true );
+        JMethod getter = clazz.getMethod( "get" + name, NO_ARGS );
+
+        if ( getter == null )
+        {
+            getter = clazz.getMethod( "is" + name, NO_ARGS );
+        }
+
+        return getter;
+    }
+
+    private FieldOutline getFieldOutline( final ClassOutline clazz, final String fieldName )
+    {
+        for ( FieldOutline f : clazz.getDeclaredFields() )
+        {
+            if ( f.getPropertyInfo().getName( false ).equals( fieldName ) )
+            {
+                return f;
+            }
+        }
+
+        return null;
+    }
+
+    private JInvocation getCopyOfJaxbElementInvocation( final ClassOutline clazz )
+    {
+        final JClass jaxbElement = clazz.parent().getCodeModel().ref( JAXBElement.class );
+        final JType[] signature =
+        {
+            jaxbElement
+        };
+
+        final String methodName = "copyOf";
+        final int mod = this.getVisibilityModifier();
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, JAXBElement.class, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, JAXBElement.class, methodName ) );
+
+        final JVar element = m.param( JMod.FINAL, jaxbElement, "element" );
+
+        m.javadoc().append( "Creates and returns a deep copy of a given {@code JAXBElement} instance." );
+        m.javadoc().addParam( element ).append( "The instance to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code element} or {@code null} if {@code element} is {@code null}." );
+
+        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional isNotNull = m.body()._if( element.ne( JExpr._null() ) );
+        final JVar copyContext = this.generateRegisteredCopyLookup(
+            clazz.parent(), isNotNull._then(), element, jaxbElement );
+
+        // Without a copy context, the value is copied into the constructor.
+        final JExpression newElement = JExpr._new( jaxbElement ).
+            arg( this.getDedupExpression( clazz.parent(), JExpr.invoke( element, "getName" ) ) ).
+            arg( JExpr.invoke( element, "getDeclaredType" ) ).
+            arg( JExpr.invoke( element, "getScope" ) ).
+            arg( copyContext != null
+                 ? JExpr.invoke( element, "getValue" )
+                 : this.getCopyOfObjectInvocation( clazz ).arg( JExpr.invoke( element, "getValue" ) ) );
+
+        final JVar copy = isNotNull._then().decl( JMod.FINAL, jaxbElement, "copy", newElement );
+        this.generateCopyRegistration( isNotNull._then(), copyContext, element, copy );
+        isNotNull._then()._if( element.invoke( "isNil" ) )._then().add( copy.invoke( "setNil" ).arg( JExpr.TRUE ) );
+
+        if ( copyContext != null )
+        {
+            isNotNull._then().add( copy.invoke( "setValue" ).arg( this.getCopyOfObjectInvocation( clazz ).
+                arg( JExpr.invoke( copy, "getValue" ) ) ) );
+
+        }
+
+        isNotNull._then()._return( copy );
+        m.body()._return( JExpr._null() );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private JExpression getCopyOfPrimitiveArrayExpression( final ClassOutline classOutline, final JClass arrayType,
+                                                           final JExpression source )
+    {
+        if ( this.isTargetSupported( TARGET_1_6 ) )
+        {
+            final JClass arrays = classOutline.parent().getCodeModel().ref( Arrays.class );
+            return JOp.cond( source.eq( JExpr._null() ), JExpr._null(), arrays.staticInvoke( "copyOf" ).
+                arg( source ).arg( source.ref( "length" ) ) );
+
+        }
+
+        final JClass array = classOutline.parent().getCodeModel().ref( Array.class );
+        final JClass system = classOutline.parent().getCodeModel().ref( System.class );
+
+        final int mod = this.getVisibilityModifier();
+        final String methodName = "copyOf";
+        final JType[] signature = new JType[]
+        {
+            arrayType
+        };
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : classOutline._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return classOutline._package().objectFactory().staticInvoke( m ).arg( source );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : classOutline.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m ).arg( source );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? classOutline._package().objectFactory().method( JMod.STATIC | mod, arrayType, methodName )
+              : classOutline.implClass.method( JMod.STATIC | mod, arrayType, methodName ) );
+
+        final JVar arrayParam = m.param( JMod.FINAL, arrayType, "array" );
+
+        m.javadoc().append( "Creates and returns a deep copy of a given array." );
+        m.javadoc().addParam( arrayParam ).append( "The array to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional arrayNotNull = m.body()._if( arrayParam.ne( JExpr._null() ) );
+        final JVar copy = arrayNotNull._then().decl(
+            JMod.FINAL, arrayType, "copy", JExpr.cast( arrayType, array.staticInvoke( "newInstance" ).arg(
+            arrayParam.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( arrayParam.ref( "length" ) ) ) );
+
+        arrayNotNull._then().add( system.staticInvoke( "arraycopy" ).arg( arrayParam ).arg( JExpr.lit( 0 ) ).
+            arg( copy ).arg( JExpr.lit( 0 ) ).arg( arrayParam.ref( "length" ) ) );
+
+        arrayNotNull._then()._return( copy );
+
+        m.body()._return( JExpr._null() );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? classOutline._package().objectFactory().staticInvoke( m ).arg( source )
+                 : JExpr.invoke( m ).arg( source ) );
+
+    }
+
+    private JInvocation getCopyOfArrayInvocation( final ClassOutline clazz )
+    {
+        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+        final JClass array = clazz.parent().getCodeModel().ref( Array.class );
+        final JType[] signature =
+        {
+            object
+        };
+
+        final String methodName = "copyOfArray";
+        final int mod = this.getVisibilityModifier();
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, object, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, object, methodName ) );
+
+        final JVar arrayArg = m.param( JMod.FINAL, object, "array" );
+
+        m.javadoc().append( "Creates and returns a deep copy of a given array." );
+        m.javadoc().addParam( arrayArg ).append( "The array to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional arrayNotNull = m.body()._if( arrayArg.ne( JExpr._null() ) );
+
+        for ( Class<?> a : PRIMITIVE_ARRAY_TYPES )
+        {
+            final JClass primitiveArray = clazz.parent().getCodeModel().ref( a );
+            final JConditional isArrayOfPrimitive =
+                arrayNotNull._then()._if( arrayArg.invoke( "getClass" ).eq( primitiveArray.dotclass() ) );
+
+            isArrayOfPrimitive._then()._return( this.getCopyOfPrimitiveArrayExpression(
+                clazz, primitiveArray, JExpr.cast( primitiveArray, arrayArg ) ) );
+
+        }
+
+        final JVar len = arrayNotNull._then().decl(
+            JMod.FINAL, clazz.parent().getCodeModel().INT, "len", array.staticInvoke( "getLength" ).
+            arg( arrayArg ) );
+
+        final JVar copy = arrayNotNull._then().decl( JMod.FINAL, object, "copy", array.staticInvoke( "newInstance" ).
+            arg( arrayArg.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( len ) );
+
+        final JForLoop forEachRef = arrayNotNull._then()._for();
+        final JVar i = forEachRef.init( clazz.parent().getCodeModel().INT, "i", len.minus( JExpr.lit( 1 ) ) );
+        forEachRef.test( i.gte( JExpr.lit( 0 ) ) );
+        forEachRef.update( i.decr() );
+        forEachRef.body().add( array.staticInvoke( "set" ).arg( copy ).arg( i ).
+            arg( this.getCopyOfObjectInvocation( clazz ).arg( array.staticInvoke( "get" ).
+            arg( arrayArg ).arg( i ) ) ) );
+
+        arrayNotNull._then()._return( copy );
+        m.body()._return( JExpr._null() );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private JInvocation getCopyOfSerializableInvocation( final ClassOutline clazz )
+    {
+        final JClass serializable = clazz.parent().getCodeModel().ref( Serializable.class );
+        final JClass byteArrayOutputStream = clazz.parent().getCodeModel().ref( ByteArrayOutputStream.class );
+        final JClass byteArrayInputStream = clazz.parent().getCodeModel().ref( ByteArrayInputStream.class );
+        final JClass objectOutputStream = clazz.parent().getCodeModel().ref( ObjectOutputStream.class );
+        final JClass objectInputStream = clazz.parent().getCodeModel().ref( ObjectInputStream.class );
+        final JClass ioException = clazz.parent().getCodeModel().ref( IOException.class );
+        final JClass invalidClass = clazz.parent().getCodeModel().ref( InvalidClassException.class );
+        final JClass notSerializable = clazz.parent().getCodeModel().ref( NotSerializableException.class );
+        final JClass streamCorrupted = clazz.parent().getCodeModel().ref( StreamCorruptedException.class );
+        final JClass securityException = clazz.parent().getCodeModel().ref( SecurityException.class );
+        final JClass optionalData = clazz.parent().getCodeModel().ref( OptionalDataException.class );
+        final JClass classNotFound = clazz.parent().getCodeModel().ref( ClassNotFoundException.class );
+        final JClass assertionError = clazz.parent().getCodeModel().ref( AssertionError.class );
+        final JType[] signature =
+        {
+            serializable
+        };
+
+        final String methodName = "copyOf";
+        final int mod = this.getVisibilityModifier();
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, serializable, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, serializable, methodName ) );
+
+        final JVar s = m.param( JMod.FINAL, serializable, "serializable" );
+
+        m.javadoc().append( "Creates and returns a deep copy of a given {@code Serializable}." );
+        m.javadoc().addParam( s ).append( "The instance to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code serializable} or {@code null} if {@code serializable} is {@code null}." );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional sNotNull = m.body()._if( s.ne( JExpr._null() ) );
+        final JTryBlock tryClone = sNotNull._then()._try();
+
+        final JVar byteArrayOutput = tryClone.body().decl(
+            JMod.FINAL, byteArrayOutputStream, "byteArrayOutput", JExpr._new( byteArrayOutputStream ) );
+
+        final JVar objectOutput = tryClone.body().decl(
+            JMod.FINAL, objectOutputStream, "out", JExpr._new( objectOutputStream ).arg( byteArrayOutput ) );
+
+        tryClone.body().add( objectOutput.invoke( "writeObject" ).arg( s ) );
+        tryClone.body().add( objectOutput.invoke( "close" ) );
+
+        final JVar byteArrayInput = tryClone.body().decl(
+            JMod.FINAL, byteArrayInputStream, "byteArrayInput",
+            JExpr._new( byteArrayInputStream ).arg( byteArrayOutput.invoke( "toByteArray" ) ) );
+
+        final JVar objectInput = tryClone.body().decl(
+            JMod.FINAL, objectInputStream, "in", JExpr._new( objectInputStream ).arg( byteArrayInput ) );
+
+        final JVar copy = tryClone.body().decl(
+            JMod.FINAL, serializable, "copy", JExpr.cast( serializable, objectInput.invoke( "readObject" ) ) );
+
+        tryClone.body().invoke( objectInput, "close" );
+        tryClone.body()._return( copy );
+
+        final JExpression assertionErrorMsg =
+            JExpr.lit( "Unexpected instance during copying object '" ).plus( s ).plus( JExpr.lit( "'." ) );
+
+        final JCatchBlock catchSecurityException = tryClone._catch( securityException );
+        catchSecurityException.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchSecurityException.param( "e" ) ) ) );
+
+        final JCatchBlock catchClassNotFound = tryClone._catch( classNotFound );
+        catchClassNotFound.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchClassNotFound.param( "e" ) ) ) );
+
+        final JCatchBlock catchInvalidClass = tryClone._catch( invalidClass );
+        catchInvalidClass.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchInvalidClass.param( "e" ) ) ) );
+
+        final JCatchBlock catchNotSerializable = tryClone._catch( notSerializable );
+        catchNotSerializable.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchNotSerializable.param( "e" ) ) ) );
+
+        final JCatchBlock catchStreamCorrupted = tryClone._catch( streamCorrupted );
+        catchStreamCorrupted.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchStreamCorrupted.param( "e" ) ) ) );
+
+        final JCatchBlock catchOptionalData = tryClone._catch( optionalData );
+        catchOptionalData.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchOptionalData.param( "e" ) ) ) );
+
+        final JCatchBlock catchIOException = tryClone._catch( ioException );
+        catchIOException.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+            arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchIOException.param( "e" ) ) ) );
+
+        m.body()._return( JExpr._null() );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private JInvocation getCopyOfReferenceInvocation( final ClassOutline clazz )
+    {
+        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+        final String methodName = "copyOfReference";
+        final int mod = this.getVisibilityModifier();
+        final JType[] signature = new JType[]
+        {
+            object
+        };
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, object, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, object, methodName ) );
+
+        final JVar o = m.param( JMod.FINAL, object, "o" );
+        final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+
+        m.javadoc().append( "Creates and returns the copy of an object referenced by an {@code IDREF} property.\n"
+                            + "<p>If the referenced object has already been copied during the current copy "
+                            + "operation, the registered copy is returned instead of copying that object again.</p>" );
+
+        m.javadoc().addParam( o ).append( "The referenced instance to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "The copy of {@code o} or {@code null} if {@code o} is {@code null}." );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional objectNotNull = m.body()._if( o.ne( JExpr._null() ) );
+        final JVar copyContext = objectNotNull._then().decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                             copyContextClass.staticInvoke( "current" ) );
+
+        final JVar registeredCopy = objectNotNull._then().decl(
+            JMod.FINAL, object, "registeredCopy", JOp.cond( copyContext.ne( JExpr._null() ),
+                                                            copyContext.invoke( "get" ).arg( o ), JExpr._null() ) );
+
+        objectNotNull._then()._return( JOp.cond( registeredCopy.ne( JExpr._null() ), registeredCopy,
+                                                 this.getCopyOfObjectInvocation( clazz ).arg( o ) ) );
+
+        m.body()._return( JExpr._null() );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private JInvocation getCopyOfObjectInvocation( final ClassOutline clazz )
+    {
+        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+        final JClass element = clazz.parent().getCodeModel().ref( Element.class );
+        final JClass jaxbElement = clazz.parent().getCodeModel().ref( JAXBElement.class );
+        final JClass assertionError = clazz.parent().getCodeModel().ref( AssertionError.class );
+        final JClass serializable = clazz.parent().getCodeModel().ref( Serializable.class );
+
+        final String methodName = "copyOf";
+        final int mod = this.getVisibilityModifier();
+        final JType[] signature = new JType[]
+        {
+            object
+        };
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, object, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, object, methodName ) );
+
+        final JVar o = m.param( JMod.FINAL, object, "o" );
+        final Set<Class<?>> exceptions = new HashSet<Class<?>>();
+
+        m.javadoc().append( "Creates and returns a deep copy of a given object." );
+        m.javadoc().addParam( o ).append( "The instance to copy or {@code null}." );
+        m.javadoc().addReturn().append( "A deep copy of {@code o} or {@code null} if {@code o} is {@code null}." );
+        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JConditional objectNotNull = copyBlock._if( o.ne( JExpr._null() ) );
+
+        if ( this.freezable )
+        {
+            final JClass freezableClass = this.getFreezableClass( clazz.parent() );
+            objectNotNull._then().directStatement( "// Frozen instances." );
+            objectNotNull._then()._if( o._instanceof( freezableClass ).cand( JExpr.invoke(
+                JExpr.cast( freezableClass, o ), "isFrozen" ) ) )._then()._return( o );
+
+        }
+
+        final JDefinedClass copyStrategies = this.getCopyStrategiesClass( clazz.parent() );
+        final JSwitch copyStrategy = objectNotNull._then()._switch(
+            copyStrategies.staticInvoke( "getCopyStrategy" ).arg( o.invoke( "getClass" ) ) );
+
+        copyStrategy._case( copyStrategies.staticRef( "IMMUTABLE" ) ).body()._return( o );
+        copyStrategy._case( copyStrategies.staticRef( "ARRAY" ) ).body()._return(
+            this.getCopyOfArrayInvocation( clazz ).arg( o ) );
+
+        copyStrategy._case( copyStrategies.staticRef( "ELEMENT" ) ).body()._return(
+            this.getCopyOfElementExpression( clazz.parent(), JExpr.cast( element, o ), false ) );
+
+        copyStrategy._case( copyStrategies.staticRef( "JAXB_ELEMENT" ) ).body()._return(
+            this.getCopyOfJaxbElementInvocation( clazz ).arg( JExpr.cast( jaxbElement, o ) ) );
+
+        final List<String> typeStrategies = this.getTypeCopyStrategyNames();
+        int strategy = 0;
+
+        for ( String stringType : this.stringTypes )
+        {
+            final JClass string = clazz.parent().getCodeModel().ref( stringType );
+            final Class<?> c = this.getClass( stringType );
+
+            if ( c != null )
+            {
+                try
+                {
+                    exceptions.addAll( Arrays.asList( c.getConstructor( String.class ).getExceptionTypes() ) );
+                }
+                catch ( final NoSuchMethodException e )
+                {
+                    // Generated code won't compile.
+                }
+            }
+
+            copyStrategy._case( copyStrategies.staticRef( typeStrategies.get( strategy++ ) ) ).body()._return(
+                JExpr._new( string ).arg( o.invoke( "toString" ) ) );
+
+        }
+
+        for ( String cloneableType : this.cloneableTypes )
+        {
+            final JClass cloneable = clazz.parent().getCodeModel().ref( cloneableType );
+            final Class<?> c = this.getClass( cloneableType );
+
+            if ( c != null )
+            {
+                try
+                {
+                    exceptions.addAll( Arrays.asList( c.getMethod( "clone" ).getExceptionTypes() ) );
+                }
+                catch ( final NoSuchMethodException e )
+                {
+                    // Generated code won't compile.
+                }
+            }
+
+            copyStrategy._case( copyStrategies.staticRef( typeStrategies.get( strategy++ ) ) ).body()._return(
+                JExpr.invoke( JExpr.cast( cloneable, o ), ( "clone" ) ) );
+
+        }
+
+        final JExpression assertionErrorMsg =
+            JExpr.lit( "Unexpected instance during copying object '" ).plus( o ).plus( JExpr.lit( "'." ) );
+
+        final JBlock reflective = copyStrategy._default().body();
+        final JDefinedClass cloneMethods = this.getCloneMethodsClass( clazz.parent() );
+        final JVar clone = reflective.decl( JMod.FINAL, object, "clone", cloneMethods.staticInvoke(
+            "invokeClone" ).arg( o ) );
+
+        reflective._if( clone.ne( cloneMethods.staticRef( "NOT_CLONEABLE" ) ) )._then()._return( clone );
+
+        final JConditional instanceOfSerializable = reflective._if( o._instanceof( serializable ) );
+        instanceOfSerializable._then()._return( this.getCopyOfSerializableInvocation( clazz ).
+            arg( JExpr.cast( serializable, o ) ) );
+
+        reflective.directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        reflective._throw( JExpr._new( assertionError ).arg( assertionErrorMsg ) );
+
+        copyBlock._return( JExpr._null() );
+
+        if ( !exceptions.isEmpty() )
+        {
+            final JTryBlock tryCopy = m.body()._try();
+            tryCopy.body().add( copyBlock );
+
+            for ( Class<?> e : exceptions )
+            {
+                final JCatchBlock catchBlock = tryCopy._catch( clazz.parent().getCodeModel().ref( e ) );
+                catchBlock.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).
+                    arg( assertionErrorMsg ).invoke( "initCause" ).arg( catchBlock.param( "e" ) ) ) );
+
+            }
+        }
+        else
+        {
+            m.body().add( copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private JInvocation getCopyOfElementInfoInvocation( final FieldOutline fieldOutline, final CElementInfo element )
+    {
+        final JType elementType = element.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
+        final JType[] signature =
+        {
+            elementType
+        };
+
+        final String methodName;
+        if ( element.hasClass() )
+        {
+            methodName = "copyOf" + element.shortName();
+        }
+        else
+        {
+            methodName = "copyOf" + this.getMethodNamePart(
+                element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ) ) + "Element";
+
+        }
+
+        final int mod = this.getVisibilityModifier();
+        boolean needsToCatchException = false;
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : fieldOutline.parent()._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return fieldOutline.parent()._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : fieldOutline.parent().implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? fieldOutline.parent()._package().objectFactory().method( JMod.STATIC | mod, elementType, methodName )
+              : fieldOutline.parent().implClass.method( JMod.STATIC | mod, elementType, methodName ) );
+
+        final JVar e = m.param( JMod.FINAL, elementType, "e" );
+
+        m.javadoc().append( "Creates and returns a deep copy of a given {@code " + elementType.binaryName()
+                            + "} instance." );
+
+        m.javadoc().addParam( e ).append( "The instance to copy or {@code null}." );
+        m.javadoc().addReturn().append( "A deep copy of {@code e} or {@code null} if {@code e} is {@code null}." );
+        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+
+        final JBlock body = new JBlock( false, false );
+        body.directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional elementNotNull = body._if( e.ne( JExpr._null() ) );
+        final JVar copyContext = this.generateRegisteredCopyLookup(
+            fieldOutline.parent().parent(), elementNotNull._then(), e, elementType );
+
+        final JExpression newElement;
+        if ( element.hasClass() && copyContext != null )
+        {
+            newElement = JExpr._new( elementType ).arg( JExpr.cast(
+                element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
+                JExpr.invoke( e, "getValue" ) ) );
+
+        }
+        else if ( element.hasClass() )
+        {
+            newElement = JExpr._new( elementType ).arg( this.getCopyExpression(
+                fieldOutline, element.getContentType(), elementNotNull._then(),
+                JExpr.cast( element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
+                            JExpr.invoke( e, "getValue" ) ), true ) );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        }
+        else if ( copyContext != null )
+        {
+            newElement = JExpr._new( elementType ).
+                arg( this.getDedupExpression( fieldOutline.parent().parent(), JExpr.invoke( e, "getName" ) ) ).
+                arg( JExpr.invoke( e, "getDeclaredType" ) ).
+                arg( JExpr.invoke( e, "getScope" ) ).
+                arg( JExpr.invoke( e, "getValue" ) );
+
+        }
+        else
+        {
+            // The value is copied into the constructor. Values of immutable content types are shared.
+            newElement = JExpr._new( elementType ).
+                arg( this.getDedupExpression( fieldOutline.parent().parent(), JExpr.invoke( e, "getName" ) ) ).
+                arg( JExpr.invoke( e, "getDeclaredType" ) ).
+                arg( JExpr.invoke( e, "getScope" ) ).
+                arg( this.getCopyExpression(
+                fieldOutline, element.getContentType(), elementNotNull._then(),
+                JExpr.cast( element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
+                            JExpr.invoke( e, "getValue" ) ), true ) );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        }
+
+        final JVar copy = elementNotNull._then().decl( JMod.FINAL, elementType, "copy", newElement );
+        this.generateCopyRegistration( elementNotNull._then(), copyContext, e, copy );
+        elementNotNull._then()._if( e.invoke( "isNil" ) )._then().add( copy.invoke( "setNil" ).arg( JExpr.TRUE ) );
+
+        if ( copyContext != null )
+        {
+            elementNotNull._then().add( copy.invoke( "setValue" ).arg( this.getCopyExpression(
+                fieldOutline, element.getContentType(), elementNotNull._then(),
+                JExpr.cast( element.getContentType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ),
+                            copy.invoke( "getValue" ) ), true ) ) );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+        }
+
+        if ( this.copyAttachments && element.getContentType() == CBuiltinLeafInfo.DATA_HANDLER )
+        {
+            this.generateDataHandlerReseat( fieldOutline.parent().parent(), elementNotNull._then(),
+                                            JExpr.invoke( e, "getValue" ), JExpr.invoke( copy, "getValue" ) ).
+                add( e.invoke( "setValue" ).arg( this.getAttachmentsClass( fieldOutline.parent().parent() ).
+                staticInvoke( "copyOfDataHandler" ).arg( JExpr.invoke( copy, "getValue" ) ) ) );
+
+        }
+
+        elementNotNull._then()._return( copy );
+        body._return( JExpr._null() );
+
+        if ( needsToCatchException )
+        {
+            final JTryBlock tryCopy = m.body()._try();
+            tryCopy.body().add( body );
+
+            final JCatchBlock catchException =
+                tryCopy._catch( fieldOutline.parent().parent().getCodeModel().ref( Exception.class ) );
+
+            final JVar ex = catchException.param( "e" );
+            catchException.body()._throw( JExpr._new( fieldOutline.parent().parent().getCodeModel().
+                ref( AssertionError.class ) ).arg( ex ) );
+
+        }
+        else
+        {
+            m.body().add( body );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE
+                 ? fieldOutline.parent()._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+
+    }
+
+    private JInvocation getCopyOfArrayInfoInvocation( final FieldOutline fieldOutline, final CArrayInfo array )
+    {
+        final JType arrayType =
+            ( array.getAdapterUse() != null && array.getAdapterUse().customType != null
+              ? array.getAdapterUse().customType.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION )
+              : array.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+        final JType itemType = array.getItemType().toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
+        final JType[] signature =
+        {
+            arrayType
+        };
+
+        final String methodName = "copyOf" + fieldOutline.getPropertyInfo().getName( true );
+        final int mod = this.getVisibilityModifier();
+        boolean needsToCatchException = false;
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : fieldOutline.parent()._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return fieldOutline.parent()._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : fieldOutline.parent().implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? fieldOutline.parent()._package().objectFactory().method( JMod.STATIC | mod, arrayType, methodName )
+              : fieldOutline.parent().implClass.method( JMod.STATIC | mod, arrayType, methodName ) );
+
+        final JVar a = m.param( JMod.FINAL, arrayType, "array" );
+
+        m.javadoc().append(
+            "Creates and returns a deep copy of a given {@code " + arrayType.binaryName() + "} instance." );
+
+        m.javadoc().addParam( a ).append( "The instance to copy or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code array} or {@code null} if {@code array} is {@code null}." );
+
+        final JBlock body = new JBlock( false, false );
+        body.directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional arrayNotNull = body._if( a.ne( JExpr._null() ) );
+        final JVar copy = arrayNotNull._then().decl( arrayType, "copy", JExpr.newArray( itemType, a.ref( "length" ) ) );
+        final JForLoop forEachItem = arrayNotNull._then()._for();
+        final JVar i = forEachItem.init(
+            fieldOutline.parent().parent().getCodeModel().INT, "i", a.ref( "length" ).minus( JExpr.lit( 1 ) ) );
+
+        forEachItem.test( i.gte( JExpr.lit( 0 ) ) );
+        forEachItem.update( i.decr() );
+
+        final JExpression copyExpr = this.getCopyExpression(
+            fieldOutline, array.getItemType(), forEachItem.body(), a.component( i ), true );
+
+        needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+        forEachItem.body().assign( copy.component( i ), copyExpr );
+        arrayNotNull._then()._return( copy );
+        body._return( JExpr._null() );
+
+        if ( needsToCatchException )
+        {
+            final JTryBlock tryCopy = m.body()._try();
+            tryCopy.body().add( body );
+
+            final JCatchBlock catchException =
+                tryCopy._catch( fieldOutline.parent().parent().getCodeModel().ref( Exception.class ) );
+
+            final JVar ex = catchException.param( "e" );
+            catchException.body()._throw( JExpr._new( fieldOutline.parent().parent().getCodeModel().
+                ref( AssertionError.class ) ).arg( ex ) );
+
+        }
+        else
+        {
+            m.body().add( body );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE
+                 ? fieldOutline.parent()._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+
+    }
+
+    private JMethod getCopyOfPropertyMethod( final FieldOutline field )
+    {
+        final String methodName = "copyOf" + field.getPropertyInfo().getName( true );
+        final JType[] signature = new JType[]
+        {
+            field.getRawType()
+        };
+
+        for ( JMethod m : field.parent().implClass.methods() )
+        {
+            if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+            {
+                return m;
+            }
+        }
+
+        final JClass jaxbElement = field.parent().parent().getCodeModel().ref( JAXBElement.class );
+        final JClass assertionError = field.parent().parent().getCodeModel().ref( AssertionError.class );
+        final JMethod m = field.parent().implClass.method(
+            this.getVisibilityModifier() | JMod.STATIC, field.getRawType(), methodName );
+
+        final JVar source = m.param( JMod.FINAL, field.getRawType(), "source" );
+        m.javadoc().append( "Creates and returns a deep copy of property {@code "
+                            + field.getPropertyInfo().getName( true ) + "}." );
+
+        m.javadoc().addParam( source ).append( "The source to copy from or {@code null}." );
+        m.javadoc().addReturn().append(
+            "A deep copy of {@code source} or {@code null} if {@code source} is {@code null}." );
+
+        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+
+        final JBlock body = new JBlock( false, false );
+        body.directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional sourceNotNull = body._if( source.ne( JExpr._null() ) );
+
+//        m.body()._if( source.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "source" ) );
+//        m.body()._if( target.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "target" ) );
+
+        final List<CClassInfo> referencedClassInfos =
+            new ArrayList<CClassInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CElementInfo> referencedElementInfos =
+            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CElementInfo> referencedElementInfosWithClass =
+            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CTypeInfo> referencedTypeInfos =
+            new ArrayList<CTypeInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedClassTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedContentTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        for ( CTypeInfo type : field.getPropertyInfo().ref() )
+        {
+            if ( type instanceof CElementInfo )
+            {
+                final CElementInfo e = (CElementInfo) type;
+                if ( e.hasClass() )
+                {
+                    referencedElementInfosWithClass.add( e );
+                }
+                else
+                {
+                    final JType contentType =
+                        e.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+
+                    if ( !referencedContentTypes.contains( contentType ) )
+                    {
+                        referencedContentTypes.add( contentType );
+                        referencedElementInfos.add( e );
+                    }
+                }
+            }
+            else if ( type instanceof CClassInfo )
+            {
+                final CClassInfo c = (CClassInfo) type;
+                final JClass classType = c.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+
+                if ( !referencedClassTypes.contains( classType ) )
+                {
+                    referencedClassTypes.add( classType );
+                    referencedClassInfos.add( c );
+                }
+            }
+            else
+            {
+                final JType javaType = type.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+                if ( !referencedTypes.contains( javaType ) )
+                {
+                    referencedTypes.add( javaType );
+                    referencedTypeInfos.add( type );
+                }
+            }
+        }
+
+        Collections.sort( referencedClassInfos, new CClassInfoComparator( field.parent().parent() ) );
+        Collections.sort( referencedElementInfos, new CElementInfoComparator( field.parent().parent(), false ) );
+        Collections.sort( referencedElementInfosWithClass, new CElementInfoComparator( field.parent().parent(), true ) );
+        Collections.sort( referencedTypeInfos, new CTypeInfoComparator( field.parent().parent() ) );
+        Collections.reverse( referencedClassInfos );
+        Collections.reverse( referencedElementInfos );
+        Collections.reverse( referencedElementInfosWithClass );
+        Collections.reverse( referencedTypeInfos );
+
+        if ( !this.profile.isEmpty() )
+        {
+            this.sortByProfile( field, referencedClassInfos );
+            this.sortByProfile( field, referencedElementInfos );
+            this.sortByProfile( field, referencedElementInfosWithClass );
+            this.sortByProfile( field, referencedTypeInfos );
+        }
+
+        boolean needsToCatchException = false;
+
+        if ( !( referencedElementInfos.isEmpty() && referencedElementInfosWithClass.isEmpty() ) )
+        {
+            final JBlock elementBlock = sourceNotNull._then()._if( source._instanceof( jaxbElement ) )._then();
+            if ( !referencedElementInfosWithClass.isEmpty() )
+            {
+                elementBlock.directStatement( "// Referenced elements with classes." );
+                for ( CElementInfo elementInfo : referencedElementInfosWithClass )
+                {
+                    final JType elementType = elementInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+                    final JConditional ifInstanceOf = elementBlock._if( source._instanceof( elementType ) );
+                    this.generateProfileRecord( field, ifInstanceOf._then(), elementInfo );
+                    final JExpression copyExpr = this.getCopyExpression(
+                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( elementType, source ), false );
+
+                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+                    if ( copyExpr == null )
+                    {
+                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                                  field.parent().implClass.binaryName() );
+
+                    }
+                    else
+                    {
+                        ifInstanceOf._then()._return( copyExpr );
+                    }
+                }
+            }
+
+            if ( !referencedElementInfos.isEmpty() )
+            {
+                elementBlock.directStatement( "// Referenced elements without classes." );
+                for ( CElementInfo elementInfo : referencedElementInfos )
+                {
+                    final JType contentType =
+                        ( elementInfo.getAdapterUse() != null && elementInfo.getAdapterUse().customType != null
+                          ? elementInfo.getAdapterUse().customType.toType( field.parent().parent(),
+                                                                           Aspect.IMPLEMENTATION )
+                          : elementInfo.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+                    final JConditional ifInstanceOf = elementBlock._if( JExpr.invoke( JExpr.cast(
+                        jaxbElement, source ), "getValue" )._instanceof( contentType ) );
+
+                    this.generateProfileRecord( field, ifInstanceOf._then(), elementInfo );
+                    final JExpression copyExpr = this.getCopyExpression(
+                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( jaxbElement, source ), false );
+
+                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+                    if ( copyExpr == null )
+                    {
+                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                                  field.parent().implClass.binaryName() );
+
+                    }
+                    else
+                    {
+                        ifInstanceOf._then()._return( copyExpr );
+                    }
+                }
+            }
+        }
+
+        final Set<CClassInfo> dispatchedClassInfos = new HashSet<CClassInfo>();
+        JSwitch typeIdSwitch = null;
+
+        for ( CClassInfo classInfo : referencedClassInfos )
+        {
+            final JType javaType =
+                ( classInfo.getAdapterUse() != null && classInfo.getAdapterUse().customType != null
+                  ? classInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
+                  : classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+            final boolean dispatched = this.isDispatchedByTypeId( classInfo );
+            final JBlock copyBlock;
+
+            if ( dispatched )
+            {
+                if ( typeIdSwitch == null )
+                {
+                    typeIdSwitch = this.generateTypeIdSwitch( field.parent().parent(), sourceNotNull._then(), source );
+                }
+
+                copyBlock = this.getTypeIdCase( field.parent().parent(), typeIdSwitch, classInfo,
+                                                dispatchedClassInfos );
+
+            }
+            else
+            {
+                copyBlock = sourceNotNull._then()._if( source._instanceof( javaType ) )._then();
+            }
+
+            this.generateProfileRecord( field, copyBlock, classInfo );
+            final JExpression copyExpr =
+                this.getCopyExpression( field, classInfo, copyBlock, JExpr.cast( javaType, source ), false );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+            if ( copyExpr == null )
+            {
+                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                          field.parent().implClass.binaryName() );
+
+                if ( dispatched )
+                {
+                    copyBlock._break();
+                }
+            }
+            else
+            {
+                copyBlock._return( copyExpr );
+            }
+        }
+
+        for ( CTypeInfo typeInfo : referencedTypeInfos )
+        {
+            final JType javaType = typeInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            final JConditional ifInstanceOf = sourceNotNull._then()._if( source._instanceof( javaType ) );
+            this.generateProfileRecord( field, ifInstanceOf._then(), typeInfo );
+            final JExpression copyExpr =
+                this.getCopyExpression( field, typeInfo, ifInstanceOf._then(), JExpr.cast( javaType, source ), false );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+            if ( copyExpr == null )
+            {
+                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                          field.parent().implClass.binaryName() );
+
+            }
+            else
+            {
+                ifInstanceOf._then()._return( copyExpr );
+            }
+        }
+
+        sourceNotNull._then().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        sourceNotNull._then()._throw( JExpr._new( assertionError ).arg( JExpr.lit( "Unexpected instance '" ).
+            plus( source ).plus( JExpr.lit( "' for property '" + field.getPropertyInfo().getName( true )
+                                            + "' of class '" + field.parent().implClass.binaryName() + "'." ) ) ) );
+
+        body._return( JExpr._null() );
+
+        if ( needsToCatchException )
+        {
+            final JTryBlock tryCopy = m.body()._try();
+            tryCopy.body().add( body );
+
+            final JCatchBlock catchException =
+                tryCopy._catch( field.parent().parent().getCodeModel().ref( Exception.class ) );
+
+            final JVar ex = catchException.param( "e" );
+            catchException.body()._throw( JExpr._new( field.parent().parent().getCodeModel().
+                ref( AssertionError.class ) ).arg( ex ) );
+
+        }
+        else
+        {
+            m.body().add( body );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return m;
+    }
+
+    private JMethod getCopyOfCollectionMethod( final FieldOutline field )
+    {
+        final String methodName;
+        final JType[] signature;
+
+        if ( field.getRawType().isArray() )
+        {
+            methodName = "copyOf" + field.getPropertyInfo().getName( true );
+            signature = new JType[]
+            {
+                field.getRawType()
+            };
+
+        }
+        else
+        {
+            methodName = "copy" + field.getPropertyInfo().getName( true );
+            signature = new JType[]
+            {
+                field.getRawType(),
+                field.getRawType()
+            };
+
+        }
+
+        for ( JMethod m : field.parent().implClass.methods() )
+        {
+            if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+            {
+                return m;
+            }
+        }
+
+        final JClass object = field.parent().parent().getCodeModel().ref( Object.class );
+        final JClass array = field.parent().parent().getCodeModel().ref( Array.class );
+        final JClass jaxbElement = field.parent().parent().getCodeModel().ref( JAXBElement.class );
+        final JClass nullPointerException = field.parent().parent().getCodeModel().ref( NullPointerException.class );
+        final JClass assertionError = field.parent().parent().getCodeModel().ref( AssertionError.class );
+
+        final JMethod m;
+        if ( field.getRawType().isArray() )
+        {
+            m = field.parent().implClass.method( this.getVisibilityModifier() | JMod.STATIC, field.getRawType(),
+                                                 methodName );
+
+        }
+        else
+        {
+            m = field.parent().implClass.method( this.getVisibilityModifier() | JMod.STATIC, Void.TYPE, methodName );
+        }
+
+        final JVar source = m.param( JMod.FINAL, field.getRawType(), "source" );
+        final JVar target = field.getRawType().isArray() ? null : m.param( JMod.FINAL, field.getRawType(), "target" );
+
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        m.javadoc().append( "Copies all values of property {@code " + field.getPropertyInfo().getName( true )
+                            + "} deeply." );
+
+        m.javadoc().addParam( source ).append( "The source to copy from." );
+
+        if ( !field.getRawType().isArray() )
+        {
+            m.javadoc().addParam( target ).append( "The target to copy {@code source} to." );
+            m.javadoc().addThrows( nullPointerException ).append( "if {@code target} is {@code null}." );
+//            m.body()._if( target.eq( JExpr._null() ) )._then()._throw(
+//                JExpr._new( nullPointerException ).arg( "target" ) );
+
+        }
+        else
+        {
+            m.javadoc().addReturn().append( "A deep copy of {@code source} or {@code null}." );
+        }
+
+        m.annotate( SuppressWarnings.class ).param( "value", "unchecked" );
+
+        final JBlock body = new JBlock( false, false );
+
+//        m.body()._if( source.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "source" ) );
+//        m.body()._if( target.eq( JExpr._null() ) )._then()._throw( JExpr._new( nullPointerException ).arg( "target" ) );
+
+        final List<CClassInfo> referencedClassInfos =
+            new ArrayList<CClassInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CElementInfo> referencedElementInfos =
+            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CElementInfo> referencedElementInfosWithClass =
+            new ArrayList<CElementInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<CTypeInfo> referencedTypeInfos =
+            new ArrayList<CTypeInfo>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedClassTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedContentTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        final List<JType> referencedTypes =
+            new ArrayList<JType>( field.getPropertyInfo().ref().size() );
+
+        for ( CTypeInfo type : field.getPropertyInfo().ref() )
+        {
+            if ( type instanceof CElementInfo )
+            {
+                final CElementInfo e = (CElementInfo) type;
+                if ( e.hasClass() )
+                {
+                    referencedElementInfosWithClass.add( e );
+                }
+                else
+                {
+                    final JType contentType =
+                        e.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+
+                    if ( !referencedContentTypes.contains( contentType ) )
+                    {
+                        referencedContentTypes.add( contentType );
+                        referencedElementInfos.add( e );
+                    }
+                }
+            }
+            else if ( type instanceof CClassInfo )
+            {
+                final CClassInfo c = (CClassInfo) type;
+                final JClass classType = c.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+
+                if ( !referencedClassTypes.contains( classType ) )
+                {
+                    referencedClassTypes.add( classType );
+                    referencedClassInfos.add( c );
+                }
+            }
+            else
+            {
+                final JType javaType = type.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+                if ( !referencedTypes.contains( javaType ) )
+                {
+                    referencedTypes.add( javaType );
+                    referencedTypeInfos.add( type );
+                }
+            }
+        }
+
+        Collections.sort( referencedClassInfos, new CClassInfoComparator( field.parent().parent() ) );
+        Collections.sort( referencedElementInfos, new CElementInfoComparator( field.parent().parent(), false ) );
+        Collections.sort( referencedElementInfosWithClass, new CElementInfoComparator( field.parent().parent(), true ) );
+        Collections.sort( referencedTypeInfos, new CTypeInfoComparator( field.parent().parent() ) );
+        Collections.reverse( referencedClassInfos );
+        Collections.reverse( referencedElementInfos );
+        Collections.reverse( referencedElementInfosWithClass );
+        Collections.reverse( referencedTypeInfos );
+
+        if ( !this.profile.isEmpty() )
+        {
+            this.sortByProfile( field, referencedClassInfos );
+            this.sortByProfile( field, referencedElementInfos );
+            this.sortByProfile( field, referencedElementInfosWithClass );
+            this.sortByProfile( field, referencedTypeInfos );
+        }
+
+        boolean needsToCatchException = false;
+
+        final JForLoop copyLoop;
+        final JVar it;
+        final JVar next;
+        final JVar copy;
+        final JConditional sourceNotEmpty;
+
+        final List<CClassInfo> homogeneousClassInfos = new ArrayList<CClassInfo>( referencedClassInfos.size() );
+
+        if ( referencedClassInfos.size() + referencedElementInfos.size() + referencedElementInfosWithClass.size()
+             + referencedTypeInfos.size() > 1 )
+        {
+            for ( CClassInfo classInfo : referencedClassInfos )
+            {
+                if ( !classInfo.isAbstract()
+                     && ( classInfo.getAdapterUse() == null || classInfo.getAdapterUse().customType == null ) )
+                {
+                    homogeneousClassInfos.add( classInfo );
+                }
+            }
+        }
+
+        JVar homogeneous = null;
+
+        if ( field.getRawType().isArray() )
+        {
+            sourceNotEmpty = body._if( source.ne( JExpr._null() ).cand( source.ref( "length" ).gt( JExpr.lit( 0 ) ) ) );
+            copy = sourceNotEmpty._then().decl( JMod.FINAL, source.type(), "copy", JExpr.cast(
+                source.type(), array.staticInvoke( "newInstance" ).
+                arg( source.invoke( "getClass" ).invoke( "getComponentType" ) ).arg( source.ref( "length" ) ) ) );
+
+            if ( !homogeneousClassInfos.isEmpty() )
+            {
+                sourceNotEmpty._then().directStatement( "// Homogeneous collections." );
+                homogeneous = sourceNotEmpty._then().decl( field.parent().parent().getCodeModel().INT,
+                                                           "homogeneous", JExpr.lit( 0 ) );
+
+                needsToCatchException = this.generateHomogeneousCopy(
+                    field, sourceNotEmpty._then(), source.component( JExpr.lit( 0 ) ), homogeneousClassInfos,
+                    homogeneous, source, copy ) || needsToCatchException;
+
+            }
+
+            copyLoop = sourceNotEmpty._then()._for();
+            it = copyLoop.init( field.parent().parent().getCodeModel().INT, "i",
+                                source.ref( "length" ).minus( JExpr.lit( 1 ) ) );
+
+            copyLoop.test( it.gte( homogeneous != null ? homogeneous : JExpr.lit( 0 ) ) );
+            copyLoop.update( it.decr() );
+            next = copyLoop.body().decl( JMod.FINAL, object, "next", source.component( it ) );
+        }
+        else
+        {
+            sourceNotEmpty = body._if( source.ne( JExpr._null() ).cand( JExpr.invoke( source, "isEmpty" ).not() ) );
+
+            if ( this.parallel && this.referencesObjects( field ) )
+            {
+                this.generateParallelCopy( field, m, sourceNotEmpty._then(), source, target );
+            }
+
+            if ( !homogeneousClassInfos.isEmpty() )
+            {
+                sourceNotEmpty._then().directStatement( "// Homogeneous collections." );
+                homogeneous = sourceNotEmpty._then().decl( field.parent().parent().getCodeModel().INT,
+                                                           "homogeneous", JExpr.lit( 0 ) );
+
+                needsToCatchException = this.generateHomogeneousCopy(
+                    field, sourceNotEmpty._then(), source.invoke( "get" ).arg( JExpr.lit( 0 ) ),
+                    homogeneousClassInfos, homogeneous, source, target ) || needsToCatchException;
+
+            }
+
+            copyLoop = sourceNotEmpty._then()._for();
+            it = copyLoop.init( JMod.FINAL, field.parent().parent().getCodeModel().ref( Iterator.class ).
+                narrow( field.parent().parent().getCodeModel().wildcard() ), "it",
+                                homogeneous != null
+                                ? source.invoke( "listIterator" ).arg( homogeneous )
+                                : source.invoke( "iterator" ) );
+
+            copyLoop.test( JExpr.invoke( it, "hasNext" ) );
+            next = copyLoop.body().decl( JMod.FINAL, object, "next", JExpr.invoke( it, "next" ) );
+            copy = null;
+        }
+
+        if ( !( referencedElementInfos.isEmpty() && referencedElementInfosWithClass.isEmpty() ) )
+        {
+            final JBlock copyBlock = copyLoop.body()._if( next._instanceof( jaxbElement ) )._then();
+            if ( !referencedElementInfosWithClass.isEmpty() )
+            {
+                copyBlock.directStatement( "// Referenced elements with classes." );
+                for ( CElementInfo elementInfo : referencedElementInfosWithClass )
+                {
+                    final JType elementType = elementInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+                    final JConditional ifInstanceOf = copyBlock._if( next._instanceof( elementType ) );
+                    this.generateProfileRecord( field, ifInstanceOf._then(), elementInfo );
+                    final JExpression copyExpr = this.getCopyExpression(
+                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( elementType, next ), false );
+
+                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+                    if ( copyExpr == null )
+                    {
+                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                                  field.parent().implClass.binaryName() );
+
+                    }
+                    else
+                    {
+                        if ( field.getRawType().isArray() )
+                        {
+                            ifInstanceOf._then().assign( copy.component( it ), copyExpr );
+                        }
+                        else
+                        {
+                            ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
+                        }
+
+                        ifInstanceOf._then()._continue();
+                    }
+                }
+            }
+
+            if ( !referencedElementInfos.isEmpty() )
+            {
+                copyBlock.directStatement( "// Referenced elements without classes." );
+                for ( CElementInfo elementInfo : referencedElementInfos )
+                {
+                    final JType contentType =
+                        ( elementInfo.getAdapterUse() != null && elementInfo.getAdapterUse().customType != null
+                          ? elementInfo.getAdapterUse().customType.toType( field.parent().parent(),
+                                                                           Aspect.IMPLEMENTATION )
+                          : elementInfo.getContentType().toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+                    final JConditional ifInstanceOf = copyBlock._if( JExpr.invoke( JExpr.cast(
+                        jaxbElement, next ), "getValue" )._instanceof( contentType ) );
+
+                    this.generateProfileRecord( field, ifInstanceOf._then(), elementInfo );
+                    final JExpression copyExpr = this.getCopyExpression(
+                        field, elementInfo, ifInstanceOf._then(), JExpr.cast( jaxbElement, next ), false );
+
+                    needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+                    if ( copyExpr == null )
+                    {
+                        this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                                  field.parent().implClass.binaryName() );
+
+                    }
+                    else
+                    {
+                        if ( field.getRawType().isArray() )
+                        {
+                            ifInstanceOf._then().assign( copy.component( it ), copyExpr );
+                        }
+                        else
+                        {
+                            ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
+                        }
+                    }
+
+                    ifInstanceOf._then()._continue();
+                }
+            }
+        }
+
+        final Set<CClassInfo> dispatchedClassInfos = new HashSet<CClassInfo>();
+        JSwitch typeIdSwitch = null;
+
+        for ( CClassInfo classInfo : referencedClassInfos )
+        {
+            final JType javaType =
+                ( classInfo.getAdapterUse() != null && classInfo.getAdapterUse().customType != null
+                  ? classInfo.getAdapterUse().customType.toType( field.parent().parent(), Aspect.IMPLEMENTATION )
+                  : classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION ) );
+
+            final JBlock copyBlock;
+
+            if ( this.isDispatchedByTypeId( classInfo ) )
+            {
+                if ( typeIdSwitch == null )
+                {
+                    typeIdSwitch = this.generateTypeIdSwitch( field.parent().parent(), copyLoop.body(), next );
+                }
+
+                copyBlock = this.getTypeIdCase( field.parent().parent(), typeIdSwitch, classInfo,
+                                                dispatchedClassInfos );
+
+            }
+            else
+            {
+                copyBlock = copyLoop.body()._if( next._instanceof( javaType ) )._then();
+            }
+
+            this.generateProfileRecord( field, copyBlock, classInfo );
+            final JExpression copyExpr = this.getCopyExpression(
+                field, classInfo, copyBlock, JExpr.cast( javaType, next ), false );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+            if ( copyExpr == null )
+            {
+                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                          field.parent().implClass.binaryName() );
+
+            }
+            else
+            {
+                if ( field.getRawType().isArray() )
+                {
+                    copyBlock.assign( copy.component( it ), copyExpr );
+                }
+                else
+                {
+                    copyBlock.invoke( target, "add" ).arg( copyExpr );
+                }
+            }
+
+            copyBlock._continue();
+        }
+
+        for ( CTypeInfo typeInfo : referencedTypeInfos )
+        {
+            final JType javaType = typeInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            final JConditional ifInstanceOf = copyLoop.body()._if( next._instanceof( javaType ) );
+            this.generateProfileRecord( field, ifInstanceOf._then(), typeInfo );
+            final JExpression copyExpr = this.getCopyExpression(
+                field, typeInfo, ifInstanceOf._then(), JExpr.cast( javaType, next ), false );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+            if ( copyExpr == null )
+            {
+                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                          field.parent().implClass.binaryName() );
+
+            }
+            else
+            {
+                if ( field.getRawType().isArray() )
+                {
+                    ifInstanceOf._then().assign( copy.component( it ), copyExpr );
+                }
+                else
+                {
+                    ifInstanceOf._then().invoke( target, "add" ).arg( copyExpr );
+                }
+            }
+
+            ifInstanceOf._then()._continue();
+        }
+
+        copyLoop.body().directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        copyLoop.body()._throw( JExpr._new( assertionError ).arg( JExpr.lit( "Unexpected instance '" ).plus(
+            next ).plus( JExpr.lit( "' for property '" + field.getPropertyInfo().getName( true ) + "' of class '"
+                                    + field.parent().implClass.binaryName() + "'." ) ) ) );
+
+        if ( field.getRawType().isArray() )
+        {
+            sourceNotEmpty._then()._return( copy );
+            body._return( JExpr._null() );
+        }
+
+        if ( needsToCatchException )
+        {
+            final JTryBlock tryCopy = m.body()._try();
+            tryCopy.body().add( body );
+
+            final JCatchBlock catchException =
+                tryCopy._catch( field.parent().parent().getCodeModel().ref( Exception.class ) );
+
+            final JVar ex = catchException.param( "e" );
+            catchException.body()._throw( JExpr._new( field.parent().parent().getCodeModel().
+                ref( AssertionError.class ) ).arg( ex ) );
+
+        }
+        else
+        {
+            m.body().add( body );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return m;
+    }
+
+    private boolean generateHomogeneousCopy( final FieldOutline field, final JBlock block,
+                                             final JExpression firstExpr, final List<CClassInfo> classInfos,
+                                             final JVar homogeneous, final JVar source, final JVar target )
+    {
+        final JCodeModel cm = field.parent().parent().getCodeModel();
+        final JClass object = cm.ref( Object.class );
+        boolean needsToCatchException = false;
+
+        final JVar first = block.decl( JMod.FINAL, object, "first", firstExpr );
+        final JVar homogeneousClass = block.decl( JMod.FINAL, cm.ref( Class.class ).narrow( cm.wildcard() ),
+                                                  "homogeneousClass", JOp.cond( first.ne( JExpr._null() ),
+                                                                                first.invoke( "getClass" ),
+                                                                                JExpr._null() ) );
+
+        // Select the copy of the class of the first element once, so that a single loop copies the prefix.
+        final JVar homogeneousType = block.decl( cm.INT, "homogeneousType", JExpr.lit( -1 ) );
+        JBlock selectBlock = block;
+
+        for ( int i = 0, s0 = classInfos.size(); i < s0; i++ )
+        {
+            final JClass javaType = classInfos.get( i ).toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            final JConditional selectClass = selectBlock._if( homogeneousClass.eq( javaType.dotclass() ) );
+            selectClass._then().assign( homogeneousType, JExpr.lit( i ) );
+
+            if ( i + 1 < s0 )
+            {
+                selectBlock = selectClass._else();
+            }
+        }
+
+        final JForLoop homogeneousLoop = block._if( homogeneousType.gte( JExpr.lit( 0 ) ) )._then()._for();
+        final JVar next;
+
+        if ( field.getRawType().isArray() )
+        {
+            homogeneousLoop.test( homogeneous.lt( source.ref( "length" ) ) );
+            homogeneousLoop.update( homogeneous.incr() );
+            next = homogeneousLoop.body().decl( JMod.FINAL, object, "next", source.component( homogeneous ) );
+        }
+        else
+        {
+            final JVar it = homogeneousLoop.init( JMod.FINAL, cm.ref( Iterator.class ).narrow( cm.wildcard() ),
+                                                  "it", source.invoke( "iterator" ) );
+
+            homogeneousLoop.test( it.invoke( "hasNext" ) );
+            homogeneousLoop.update( homogeneous.incr() );
+            next = homogeneousLoop.body().decl( JMod.FINAL, object, "next", it.invoke( "next" ) );
+        }
+
+        homogeneousLoop.body()._if( next.eq( JExpr._null() ).cor( next.invoke( "getClass" ).ne(
+            homogeneousClass ) ) )._then()._break();
+
+        final JSwitch typeSwitch = classInfos.size() > 1 ? homogeneousLoop.body()._switch( homogeneousType ) : null;
+
+        for ( int i = 0, s0 = classInfos.size(); i < s0; i++ )
+        {
+            final CClassInfo classInfo = classInfos.get( i );
+            final JClass javaType = classInfo.toType( field.parent().parent(), Aspect.IMPLEMENTATION );
+            final JBlock copyBlock;
+
+            if ( typeSwitch != null )
+            {
+                final JCase typeCase = typeSwitch._case( JExpr.lit( i ) );
+                copyBlock = typeCase.body();
+            }
+            else
+            {
+                copyBlock = homogeneousLoop.body();
+            }
+
+            this.generateProfileRecord( field, copyBlock, classInfo );
+            final JExpression copyExpr = this.getCopyExpression(
+                field, classInfo, copyBlock, JExpr.cast( javaType, next ), false );
+
+            needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+
+            if ( copyExpr == null )
+            {
+                this.log( Level.SEVERE, "cannotCopyProperty", field.getPropertyInfo().getName( true ),
+                          field.parent().implClass.binaryName() );
+
+            }
+            else if ( field.getRawType().isArray() )
+            {
+                copyBlock.assign( target.component( homogeneous ), copyExpr );
+            }
+            else
+            {
+                copyBlock.invoke( target, "add" ).arg( copyExpr );
+            }
+
+            if ( typeSwitch != null )
+            {
+                copyBlock._break();
+            }
+        }
+
+        return needsToCatchException;
+    }
+
+    private void generateParallelCopy( final FieldOutline field, final JMethod copyMethod, final JBlock block,
+                                       final JVar source, final JVar target )
+    {
+        final JCodeModel cm = field.parent().parent().getCodeModel();
+        final JDefinedClass copyOptionsClass = this.getCopyOptionsClass( field.parent().parent() );
+        final JDefinedClass copyTask = this.generateCopyOfCollectionTaskClass( field, copyMethod );
+
+        block.directStatement( "// Parallel copy." );
+        final JVar copyOptions = block.decl( JMod.FINAL, copyOptionsClass, "copyOptions",
+                                             copyOptionsClass.staticInvoke( "current" ) );
+
+        final JBlock parallelBlock = block._if( copyOptions.ne( JExpr._null() ).cand(
+            source.invoke( "size" ).gt( copyOptions.invoke( "getThreshold" ) ) ) )._then();
+
+        final JVar copies = parallelBlock.decl( JMod.FINAL, cm.ref( Object.class ).array(), "copies",
+                                                JExpr.newArray( cm.ref( Object.class ), source.invoke( "size" ) ) );
+
+        parallelBlock.add( copyOptions.invoke( "invoke" ).arg( JExpr._new( copyTask ).arg( source ).arg( copies ).
+            arg( JExpr.lit( 0 ) ).arg( copies.ref( "length" ) ).arg( copyOptions ) ) );
+
+        parallelBlock.add( target.invoke( "addAll" ).arg( JExpr.cast(
+            cm.ref( List.class ), cm.ref( Arrays.class ).staticInvoke( "asList" ).arg( copies ) ) ) );
+
+        parallelBlock._return();
+    }
+
+    private JDefinedClass generateCopyOfCollectionTaskClass( final FieldOutline field, final JMethod copyMethod )
+    {
+        final JCodeModel cm = field.parent().parent().getCodeModel();
+        final JDefinedClass copyOptionsClass = this.getCopyOptionsClass( field.parent().parent() );
+        final JClass objectArray = cm.ref( Object.class ).array();
+        final JDefinedClass copyTask;
+
+        try
+        {
+            copyTask = field.parent().implClass._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                                        "Copy" + field.getPropertyInfo().getName( true ) + "Task" );
+
+            copyTask._extends( cm.ref( "java.util.concurrent.RecursiveAction" ) );
+            copyTask.javadoc().append( "Task copying a range of the values of property {@code "
+                                       + field.getPropertyInfo().getName( true ) + "} deeply." );
+
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        final JFieldVar source = copyTask.field( JMod.PRIVATE | JMod.FINAL, field.getRawType(), "source" );
+        final JFieldVar copies = copyTask.field( JMod.PRIVATE | JMod.FINAL, objectArray, "copies" );
+        final JFieldVar from = copyTask.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "from" );
+        final JFieldVar to = copyTask.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "to" );
+        final JFieldVar copyOptions = copyTask.field( JMod.PRIVATE | JMod.FINAL, copyOptionsClass, "copyOptions" );
+
+        final JMethod ctor = copyTask.constructor( JMod.NONE );
+        ctor.javadoc().append( "Creates a new {@code " + copyTask.name() + "} instance." );
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, source.type(), "source" ) ).append(
+            "The values to copy." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, objectArray, "copies" ) ).append(
+            "The array receiving the copies of {@code source}." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, cm.INT, "from" ) ).append(
+            "The index of the first value to copy." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, cm.INT, "to" ) ).append(
+            "The index following the last value to copy." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, copyOptionsClass, "copyOptions" ) ).append(
+            "The options of the copy operation." );
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+
+        for ( JVar param : ctor.listParams() )
+        {
+            ctor.body().assign( JExpr._this().ref( param.name() ), param );
+        }
+
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod compute = copyTask.method( JMod.PROTECTED, Void.TYPE, "compute" );
+        compute.annotate( Override.class );
+        compute.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional split = compute.body()._if( to.minus( from ).gt(
+            copyOptions.invoke( "getThreshold" ) ) );
+
+        final JVar middle = split._then().decl( JMod.FINAL, cm.INT, "middle", JOp.shrz( from.plus( to ),
+                                                                                       JExpr.lit( 1 ) ) );
+
+        split._then().invoke( "invokeAll" ).
+            arg( JExpr._new( copyTask ).arg( source ).arg( copies ).arg( from ).arg( middle ).arg( copyOptions ) ).
+            arg( JExpr._new( copyTask ).arg( source ).arg( copies ).arg( middle ).arg( to ).arg( copyOptions ) );
+
+        final JVar previous = split._else().decl( JMod.FINAL, copyOptionsClass, "previous",
+                                                  copyOptionsClass.staticInvoke( "enter" ).arg( copyOptions ) );
+
+        final JTryBlock tryCopy = split._else()._try();
+        final JVar copy = tryCopy.body().decl( JMod.FINAL, field.getRawType(), "copy", JExpr._new(
+            cm.ref( ArrayList.class ).narrow( ( (JClass) field.getRawType() ).getTypeParameters() ) ).
+            arg( to.minus( from ) ) );
+
+        tryCopy.body().invoke( copyMethod ).arg( source.invoke( "subList" ).arg( from ).arg( to ) ).arg( copy );
+        tryCopy.body().add( cm.ref( System.class ).staticInvoke( "arraycopy" ).arg( copy.invoke( "toArray" ) ).
+            arg( JExpr.lit( 0 ) ).arg( copies ).arg( from ).arg( copy.invoke( "size" ) ) );
+
+        tryCopy._finally().add( copyOptionsClass.staticInvoke( "leave" ).arg( previous ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyTask;
+    }
+
+    private List<FieldOutline> getConcurrentlyCopiedFields( final ClassOutline clazz )
+    {
+        final List<FieldOutline> fields = new ArrayList<FieldOutline>( clazz.getDeclaredFields().length );
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.getPropertyGetter( field ) != null && this.referencesObjects( field ) )
+            {
+                fields.add( field );
+            }
+        }
+
+        return fields.size() > 1 ? fields : Collections.<FieldOutline>emptyList();
+    }
+
+    private boolean referencesObjects( final FieldOutline field )
+    {
+        for ( CTypeInfo type : field.getPropertyInfo().ref() )
+        {
+            if ( type instanceof CClassInfo || type instanceof CElementInfo )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private JDefinedClass generateCopyPropertiesTaskClass( final ClassOutline clazz,
+                                                           final List<FieldOutline> fields )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass copyOptionsClass = this.getCopyOptionsClass( clazz.parent() );
+        final JDefinedClass copyTask;
+
+        try
+        {
+            copyTask = clazz.implClass._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+                                               COPY_PROPERTIES_TASK_CLASS_NAME );
+
+            copyTask._extends( cm.ref( "java.util.concurrent.RecursiveAction" ) );
+            copyTask.javadoc().append( "Task copying a range of the properties of a {@code "
+                                       + clazz.implClass.name() + "} instance deeply." );
+
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        final JFieldVar target = copyTask.field( JMod.PRIVATE | JMod.FINAL, clazz.implClass, "target" );
+        final JFieldVar source = copyTask.field( JMod.PRIVATE | JMod.FINAL, clazz.implClass, "source" );
+        final JFieldVar from = copyTask.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "from" );
+        final JFieldVar to = copyTask.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "to" );
+        final JFieldVar copyOptions = copyTask.field( JMod.PRIVATE | JMod.FINAL, copyOptionsClass, "copyOptions" );
+
+        final JMethod ctor = copyTask.constructor( JMod.NONE );
+        ctor.javadoc().append( "Creates a new {@code " + copyTask.name() + "} instance." );
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, clazz.implClass, "target" ) ).append(
+            "The instance to copy the properties to." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, clazz.implClass, "source" ) ).append(
+            "The instance to copy the properties of." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, cm.INT, "from" ) ).append(
+            "The index of the first property to copy." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, cm.INT, "to" ) ).append(
+            "The index following the last property to copy." );
+
+        ctor.javadoc().addParam( ctor.param( JMod.FINAL, copyOptionsClass, "copyOptions" ) ).append(
+            "The options of the copy operation." );
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+
+        for ( JVar param : ctor.listParams() )
+        {
+            ctor.body().assign( JExpr._this().ref( param.name() ), param );
+        }
+
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod compute = copyTask.method( JMod.PROTECTED, Void.TYPE, "compute" );
+        compute.annotate( Override.class );
+        compute.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional split = compute.body()._if( to.minus( from ).gt( JExpr.lit( 1 ) ) );
+        final JVar middle = split._then().decl( JMod.FINAL, cm.INT, "middle", JOp.shrz( from.plus( to ),
+                                                                                       JExpr.lit( 1 ) ) );
+
+        split._then().invoke( "invokeAll" ).
+            arg( JExpr._new( copyTask ).arg( target ).arg( source ).arg( from ).arg( middle ).arg( copyOptions ) ).
+            arg( JExpr._new( copyTask ).arg( target ).arg( source ).arg( middle ).arg( to ).arg( copyOptions ) );
+
+        final JVar previous = split._else().decl( JMod.FINAL, copyOptionsClass, "previous",
+                                                  copyOptionsClass.staticInvoke( "enter" ).arg( copyOptions ) );
+
+        final JTryBlock tryCopy = split._else()._try();
+        final JSwitch propertySwitch = tryCopy.body()._switch( from );
+
+        for ( int i = 0; i < fields.size(); i++ )
+        {
+            final JBlock caseBlock = propertySwitch._case( JExpr.lit( i ) ).body();
+            this.generateCopyOfProperty( fields.get( i ), JExpr._this().ref( target ), JExpr._this().ref( source ),
+                                         caseBlock, false );
+
+            caseBlock._break();
+        }
+
+        final JBlock defaultBlock = propertySwitch._default().body();
+        defaultBlock.directStatement( "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        defaultBlock._throw( JExpr._new( cm.ref( AssertionError.class ) ).arg( from ) );
+        tryCopy._finally().add( copyOptionsClass.staticInvoke( "leave" ).arg( previous ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyTask;
+    }
+
+    private JExpression getCopyExpression( final FieldOutline fieldOutline, final CTypeInfo type,
+                                           final JBlock block, final JExpression sourceExpr,
+                                           final boolean sourceMaybeNull )
+    {
+        JExpression expr = null;
+        this.tryCatchCopyExpression = false;
+
+        if ( fieldOutline.getPropertyInfo().id() == ID.IDREF && !( type instanceof CElementInfo ) )
+        {
+            expr = this.getReferenceCopyExpression( fieldOutline, type, block, sourceExpr );
+        }
+        else if ( type instanceof CBuiltinLeafInfo )
+        {
+            expr = this.getBuiltinCopyExpression(
+                fieldOutline, (CBuiltinLeafInfo) type, block, sourceExpr, sourceMaybeNull );
+
+        }
+        else if ( type instanceof CWildcardTypeInfo )
+        {
+            expr = this.getWildcardCopyExpression(
+                fieldOutline, (CWildcardTypeInfo) type, block, sourceExpr, sourceMaybeNull );
+
+        }
+        else if ( type instanceof CClassInfo )
+        {
+            expr = this.getClassInfoCopyExpression(
+                fieldOutline, (CClassInfo) type, block, sourceExpr, sourceMaybeNull );
+
+        }
+        else if ( type instanceof CEnumLeafInfo )
+        {
+            expr = this.getEnumLeafInfoCopyExpression( fieldOutline, (CEnumLeafInfo) type, block, sourceExpr );
+        }
+        else if ( type instanceof CArrayInfo )
+        {
+            expr = this.getArrayCopyExpression( fieldOutline, (CArrayInfo) type, block, sourceExpr );
+        }
+        else if ( type instanceof CElementInfo )
+        {
+            expr = this.getElementCopyExpression( fieldOutline, (CElementInfo) type, block, sourceExpr );
+        }
+        else if ( type instanceof CNonElement )
+        {
+            expr = this.getNonElementCopyExpression(
+                fieldOutline, (CNonElement) type, block, sourceExpr, sourceMaybeNull );
+
+        }
+        else if ( type instanceof CAdapterInfo )
+        {
+            expr = this.getAdapterInfoCopyExpression( fieldOutline, (CAdapterInfo) type, block, sourceExpr );
+        }
+
+        if ( expr != null )
+        {
+            this.expressionCount = this.expressionCount.add( BigInteger.ONE );
+        }
+
+        return expr;
+    }
+
+    private JExpression getReferenceCopyExpression( final FieldOutline fieldOutline, final CTypeInfo type,
+                                                    final JBlock block, final JExpression sourceExpr )
+    {
+        final JType javaType = type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
+        final JExpression expr = this.getCopyOfReferenceInvocation( fieldOutline.parent() ).arg( sourceExpr );
+
+        block.directStatement( "// IDREF: " + javaType.binaryName() );
+        return javaType.binaryName().equals( "java.lang.Object" ) ? expr : JExpr.cast( javaType, expr );
+    }
+
+    private JExpression getBuiltinCopyExpression( final FieldOutline fieldOutline, final CBuiltinLeafInfo type,
+                                                  final JBlock block, final JExpression sourceExpr,
+                                                  final boolean sourceMaybeNull )
+    {
+        JExpression expr = null;
+
+        block.directStatement( "// CBuiltinLeafInfo: " + type.toType( fieldOutline.parent().parent(),
+                                                                      Aspect.IMPLEMENTATION ).binaryName() );
+
+        if ( type == CBuiltinLeafInfo.ANYTYPE )
+        {
+            expr = this.getCopyOfObjectInvocation( fieldOutline.parent() ).arg( sourceExpr );
+        }
+        else if ( type == CBuiltinLeafInfo.BASE64_BYTE_ARRAY )
+        {
+            final JClass byteArray = fieldOutline.parent().parent().getCodeModel().ref( byte[].class );
+            expr = this.getCopyOfPrimitiveArrayExpression( fieldOutline.parent(), byteArray, sourceExpr );
+        }
+        else if ( type == CBuiltinLeafInfo.BIG_DECIMAL || type == CBuiltinLeafInfo.BIG_INTEGER
+                  || type == CBuiltinLeafInfo.STRING || type == CBuiltinLeafInfo.BOOLEAN || type == CBuiltinLeafInfo.INT
+                  || type == CBuiltinLeafInfo.LONG || type == CBuiltinLeafInfo.BYTE || type == CBuiltinLeafInfo.SHORT
+                  || type == CBuiltinLeafInfo.FLOAT || type == CBuiltinLeafInfo.DOUBLE )
+        {
+            expr = type == CBuiltinLeafInfo.STRING
+                   ? this.getDedupExpression( fieldOutline.parent().parent(), sourceExpr ) : sourceExpr;
+
+        }
+        else if ( type == CBuiltinLeafInfo.QNAME )
+        {
+            expr = this.getDedupExpression( fieldOutline.parent().parent(), sourceExpr );
+        }
+        else if ( type == CBuiltinLeafInfo.CALENDAR
+                  && this.immutableTypes.contains( XMLGregorianCalendar.class.getName() ) )
+        {
+            expr = sourceExpr;
+        }
+        else if ( type == CBuiltinLeafInfo.CALENDAR )
+        {
+            final JClass xmlCal = fieldOutline.parent().parent().getCodeModel().ref( XMLGregorianCalendar.class );
+            if ( sourceMaybeNull )
+            {
+                expr = JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(),
+                                 JExpr.cast( xmlCal, sourceExpr.invoke( "clone" ) ) );
+
+            }
+            else
+            {
+                expr = JExpr.cast( xmlCal, sourceExpr.invoke( "clone" ) );
+            }
+        }
+        else if ( type == CBuiltinLeafInfo.DURATION )
+        {
+            expr = sourceExpr;
+        }
+        else if ( this.copyAttachments && type == CBuiltinLeafInfo.DATA_HANDLER )
+        {
+            expr = this.getAttachmentsClass( fieldOutline.parent().parent() ).staticInvoke( "copyOfDataHandler" ).
+                arg( sourceExpr );
+
+        }
+        else if ( this.copyAttachments && type == CBuiltinLeafInfo.IMAGE )
+        {
+            expr = this.getAttachmentsClass( fieldOutline.parent().parent() ).staticInvoke( "copyOfImage" ).
+                arg( sourceExpr );
+
+        }
+        else if ( this.copyAttachments && type == CBuiltinLeafInfo.XML_SOURCE )
+        {
+            expr = this.getAttachmentsClass( fieldOutline.parent().parent() ).staticInvoke( "copyOfSource" ).
+                arg( sourceExpr );
+
+        }
+        else if ( type == CBuiltinLeafInfo.DATA_HANDLER || type == CBuiltinLeafInfo.IMAGE
+                  || type == CBuiltinLeafInfo.XML_SOURCE )
+        {
+            this.log( Level.WARNING, "cannotCopyType",
+                      type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).fullName(),
+                      fieldOutline.getPropertyInfo().getName( true ), fieldOutline.parent().implClass.fullName() );
+
+            expr = sourceExpr;
+        }
+
+        return expr;
+    }
+
+    private JExpression getWildcardCopyExpression( final FieldOutline fieldOutline, final CWildcardTypeInfo type,
+                                                   final JBlock block, final JExpression sourceExpr,
+                                                   final boolean sourceMaybeNull )
+    {
+        block.directStatement( "// CWildcardTypeInfo: " + type.toType( fieldOutline.parent().parent(),
+                                                                       Aspect.IMPLEMENTATION ).binaryName() );
+
+        return this.getCopyOfElementExpression( fieldOutline.parent().parent(), sourceExpr, sourceMaybeNull );
+    }
+
+    private JExpression getClassInfoCopyExpression( final FieldOutline fieldOutline, final CClassInfo type,
+                                                    final JBlock block, final JExpression sourceExpr,
+                                                    final boolean sourceMaybeNull )
+    {
+        block.directStatement(
+            "// CClassInfo: " + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+
+        final JExpression cloneExpr = this.iterative
+                                      ? JExpr.cast( type.toType( fieldOutline.parent().parent(),
+                                                                 Aspect.IMPLEMENTATION ),
+                                                    this.getCopyQueueClass( fieldOutline.parent().parent() ).
+                                          staticInvoke( "copyOf" ).arg( sourceExpr ) )
+                                      : sourceExpr.invoke( "clone" );
+
+        final JExpression copyExpr = this.freezable
+                                     ? JOp.cond( sourceExpr.invoke( "isFrozen" ), sourceExpr, cloneExpr )
+                                     : cloneExpr;
+
+        if ( sourceMaybeNull )
+        {
+            return JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(), copyExpr );
+        }
+        else
+        {
+            return copyExpr;
+        }
+    }
+
+    private JExpression getNonElementCopyExpression( final FieldOutline fieldOutline, final CNonElement type,
+                                                     final JBlock block, final JExpression sourceExpr,
+                                                     final boolean sourceMaybeNull )
+    {
+        final JType jType = type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
+        block.directStatement( "// CNonElement: " + jType.binaryName() );
+
+        block.directStatement( "// " + WARNING_PREFIX + ": " + "The '" + jType.binaryName() + "'" );
+        block.directStatement( "// " + WARNING_PREFIX + ": type was not part of the compilation unit." );
+
+        block.directStatement( "// " + WARNING_PREFIX + ": "
+                               + "The CC-XJC plugin assumes that type to declare a 'public Object clone()' method." );
+
+        block.directStatement( "// " + WARNING_PREFIX + ": "
+                               + "If this warning is part of an 'if instanceof' block, the order of 'if instanceof'" );
+
+        block.directStatement( "// " + WARNING_PREFIX + ": "
+                               + "statements may be wrong and must be verified." );
+
+        this.log( Level.WARNING, "nonElementWarning",
+                  fieldOutline.parent().implClass.fullName(), fieldOutline.getPropertyInfo().getName( true ),
+                  jType.binaryName(), WARNING_PREFIX );
+
+        this.tryCatchCopyExpression = true;
+
+        if ( sourceMaybeNull )
+        {
+            return JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(),
+                             JExpr.cast( jType, sourceExpr.invoke( "clone" ) ) );
+
+        }
+        else
+        {
+            return JExpr.cast( jType, sourceExpr.invoke( "clone" ) );
+        }
+    }
+
+    private JExpression getArrayCopyExpression( final FieldOutline fieldOutline, final CArrayInfo type,
+                                                final JBlock block, final JExpression sourceExpr )
+    {
+        block.directStatement( "// CArrayInfo: " + type.fullName() );
+        return this.getCopyOfArrayInfoInvocation( fieldOutline, type ).arg( sourceExpr );
+    }
+
+    private JExpression getElementCopyExpression( final FieldOutline fieldOutline, final CElementInfo type,
+                                                  final JBlock block, final JExpression sourceExpr )
+    {
+        block.directStatement( "// CElementInfo: "
+                               + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+
+        return this.getCopyOfElementInfoInvocation( fieldOutline, type ).arg( sourceExpr );
+    }
+
+    private JExpression getEnumLeafInfoCopyExpression( final FieldOutline fieldOutline, final CEnumLeafInfo type,
+                                                       final JBlock block, final JExpression sourceExpr )
+    {
+        block.directStatement(
+            "// CEnumLeafInfo: " + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+
+        return sourceExpr;
+    }
+
+    private JExpression getAdapterInfoCopyExpression( final FieldOutline fieldOutline, final CAdapterInfo type,
+                                                      final JBlock block, final JExpression source )
+    {
+        block.directStatement( "// CAdapterInfo: "
+                               + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+
+        final JType jType = type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
+        return JExpr.cast( jType, this.getCopyOfObjectInvocation( fieldOutline.parent() ).arg( source ) );
+    }
+
+    private JMethod generateStandardConstructor( final ClassOutline clazz )
+    {
+        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name() + "} instance." );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+        return ctor;
+    }
+
+    private JMethod generateCopyConstructor( final ClassOutline clazz )
+    {
+        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
+        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
+        final JVar o = ctor.param( JMod.FINAL, paramClass, "o" );
+        final boolean superTypeParam = !clazz.implClass.equals( paramClass );
+
+        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name()
+                            + "} instance by deeply copying a given {@code " + paramClass.name() + "} instance.\n" );
+
+        if ( !this.nullable )
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy." );
+            ctor.javadoc().addThrows( NullPointerException.class ).append( "if {@code o} is {@code null}." );
+        }
+        else
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy or {@code null}." );
+        }
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( this.needsWarningOnReferencedSupertypes( clazz ) )
+        {
+            ctor.body().directStatement(
+                "// " + WARNING_PREFIX + ": A super-class of this class was not part of the compilation unit." );
+
+            ctor.body().directStatement( "// " + WARNING_PREFIX
+                                         + ": The plugin assumes this super-class to directly extend class "
+                                         + "'java.lang.Object'." );
+
+            ctor.body().directStatement( "// " + WARNING_PREFIX
+                                         + ": The type of the constructor arguments (type of o) in the hierarchy "
+                                         + "this constructor is part" );
+
+            ctor.body().directStatement( "// " + WARNING_PREFIX + ": of may be wrong and must be verified." );
+        }
+
+        if ( ( clazz.getSuperClass() != null && !this.copyTo )
+             || ( clazz.getSuperClass() == null && clazz.implClass._extends() != null
+                  && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) ) )
+        {
+            ctor.body().invoke( "super" ).arg( o );
+        }
+        else
+        {
+            ctor.body().invoke( "super" );
+        }
+
+        if ( !this.nullable )
+        {
+            ctor.body()._if( o.eq( JExpr._null() ) )._then()._throw(
+                JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+                arg( "Cannot create a copy of '" + clazz.implClass.name() + "' from 'null'." ) );
+
+        }
+
+        if ( this.copyTo )
+        {
+            // The 'copyTo' method of the class of 'o' copies the properties of all classes of the hierarchy.
+            final JClass rootClass = this.getHierarchyRoot( clazz ).implClass;
+
+            if ( this.hierarchical && !rootClass.equals( paramClass ) )
+            {
+                ctor.body()._if( o._instanceof( rootClass ) )._then().add(
+                    JExpr.invoke( JExpr.cast( rootClass, o ), "copyTo" ).arg( JExpr._this() ) );
+
+            }
+            else if ( this.nullable )
+            {
+                ctor.body()._if( o.ne( JExpr._null() ) )._then().add( o.invoke( "copyTo" ).arg( JExpr._this() ) );
+            }
+            else
+            {
+                ctor.body().add( o.invoke( "copyTo" ).arg( JExpr._this() ) );
+            }
+        }
+        else
+        {
+            this.generateCopyConstructorBody( clazz, ctor.body(), o, superTypeParam, false, null );
+        }
+
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+        return ctor;
+    }
+
+    private void generateCopyConstructorBody( final ClassOutline clazz, final JBlock body, final JVar o,
+                                              final boolean superTypeParam, final boolean lazy,
+                                              final JVar copyOptions )
+    {
+        this.contextExceptions.clear();
+
+        boolean hasFields = false;
+        if ( !clazz.implClass.fields().isEmpty() )
+        {
+            final JBlock copyBlock = new JBlock( false, false );
+            final JExpression source = superTypeParam ? JExpr.cast( clazz.implClass, o ) : o;
+            final List<FieldOutline> concurrentFields = copyOptions != null
+                                                        ? this.getConcurrentlyCopiedFields( clazz )
+                                                        : Collections.<FieldOutline>emptyList();
+
+            for ( FieldOutline field : clazz.getDeclaredFields() )
+            {
+                hasFields = true;
+
+                if ( lazy && this.lazyFlags.containsKey( field ) )
+                {
+                    this.generateLazySharingOfProperty( field, source, copyBlock );
+                }
+                else if ( !concurrentFields.contains( field ) )
+                {
+                    this.generateCopyOfProperty( field, JExpr._this(), source, copyBlock, false );
+                }
+            }
+
+            if ( !concurrentFields.isEmpty() )
+            {
+                copyBlock.directStatement( "// Properties copied concurrently." );
+                copyBlock.add( copyOptions.invoke( "invoke" ).arg(
+                    JExpr._new( this.generateCopyPropertiesTaskClass( clazz, concurrentFields ) ).
+                    arg( JExpr._this() ).arg( source ).arg( JExpr.lit( 0 ) ).
+                    arg( JExpr.lit( concurrentFields.size() ) ).arg( copyOptions ) ) );
+
+            }
+
+            for ( JFieldVar field : clazz.implClass.fields().values() )
+            {
+                if ( ( field.mods().getValue() & JMod.STATIC ) == JMod.STATIC
+                     || this.supportFields.contains( field ) )
+                {
+                    continue;
+                }
+
+                hasFields = true;
+                final FieldOutline fieldOutline = this.getFieldOutline( clazz, field.name() );
+                if ( fieldOutline == null )
+                {
+                    if ( field.type().isPrimitive() )
+                    {
+                        copyBlock.directStatement( "// Unknown primitive field '" + field.name() + "'." );
+                        copyBlock.assign( JExpr.refthis( field.name() ), source.ref( field ) );
+                        this.log( Level.WARNING, "fieldWithoutProperties", field.name(), clazz.implClass.name() );
+                    }
+                    else
+                    {
+                        if ( field.name().equals( "otherAttributes" ) && clazz.target.declaresAttributeWildcard() )
+                        {
+                            copyBlock.directStatement( "// Other attributes." );
+                            copyBlock.add(
+                                JExpr.refthis( field.name() ).invoke( "putAll" ).arg( source.ref( field ) ) );
+
+                        }
+                        else
+                        {
+                            copyBlock.directStatement( "// Unknown reference field '" + field.name() + "'." );
+                            copyBlock.assign( JExpr.refthis( field.name() ), JExpr.cast(
+                                field.type(), this.getCopyOfObjectInvocation( clazz ).arg( source.ref( field ) ) ) );
+
+                            this.log( Level.WARNING, "fieldWithoutProperties", field.name(), clazz.implClass.name() );
+                        }
+                    }
+                }
+            }
+
+            if ( hasFields )
+            {
+                JBlock effective = body;
+
+                if ( !this.contextExceptions.isEmpty() )
+                {
+                    final JTryBlock tryCopy = body._try();
+                    effective = tryCopy.body();
+
+                    if ( this.contextExceptions.contains( Exception.class ) )
+                    {
+                        this.contextExceptions.retainAll( Arrays.asList( new Class<?>[]
+                            {
+                                Exception.class
+                            } ) );
+
+                    }
+
+                    for ( Class<?> e : this.contextExceptions )
+                    {
+                        final JCatchBlock catchBlock = tryCopy._catch( clazz.parent().getCodeModel().ref( e ) );
+                        catchBlock.body().directStatement(
+                            "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+
+                        catchBlock.body()._throw( JExpr._new( clazz.parent().getCodeModel().
+                            ref( AssertionError.class ) ).arg( catchBlock.param( "e" ) ) );
+
+                    }
+                }
+
+                JBlock contextBlock = copyBlock;
+
+                if ( this.needsCopyContext( clazz ) )
+                {
+                    final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+                    contextBlock = new JBlock( false, false );
+
+                    final JVar copyContext = contextBlock.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                                copyContextClass.staticInvoke( "enter" ).arg( o ).
+                        arg( JExpr._this() ) );
+
+                    final JTryBlock tryCopy = contextBlock._try();
+                    tryCopy.body().add( copyBlock );
+                    tryCopy._finally().add( copyContext.invoke( "leave" ).arg(
+                        this.getCopyCompleteExpression( clazz ) ) );
+
+                }
+
+                if ( this.compactDom && this.reachesDom( clazz ) )
+                {
+                    final JBlock domBlock = new JBlock( false, false );
+                    this.generateDomCopyOperation( clazz, domBlock ).add( contextBlock );
+                    contextBlock = domBlock;
+                }
+
+                if ( superTypeParam )
+                {
+                    effective._if( o._instanceof( clazz.implClass ) )._then().add( contextBlock );
+                }
+                else if ( this.nullable )
+                {
+                    effective._if( o.ne( JExpr._null() ) )._then().add( contextBlock );
+                }
+                else
+                {
+                    effective.add( contextBlock );
+                }
+            }
+        }
+    }
+
+    private JMethod generateLazyCopyConstructor( final ClassOutline clazz )
+    {
+        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
+        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
+        final JVar o = ctor.param( JMod.FINAL, paramClass, "o" );
+        final JVar lazyCopy = ctor.param( JMod.FINAL, clazz.parent().getCodeModel().BOOLEAN, "lazy" );
+        final boolean superTypeParam = !clazz.implClass.equals( paramClass );
+
+        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name()
+                            + "} instance by copying a given {@code " + paramClass.name() + "} instance.\n"
+                            + "<p>A lazy copy shares the values of the properties of {@code o} with {@code o}. "
+                            + "Each value is deeply copied when first accessed through a getter or setter of the "
+                            + "copy. Creating a lazy copy does not modify {@code o}. Values not yet copied are "
+                            + "shared with {@code o}, so that {@code o} must not be modified as long as the copy "
+                            + "shares values with it.</p>\n" );
+
+        if ( !this.nullable )
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy." );
+        }
+        else
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy or {@code null}." );
+        }
+
+        ctor.javadoc().addParam( lazyCopy ).add(
+            "{@code true}, to create a lazy copy of {@code o}; {@code false}, to create a deep copy of {@code o}." );
+
+        if ( !this.nullable )
+        {
+            ctor.javadoc().addThrows( NullPointerException.class ).append( "if {@code o} is {@code null}." );
+        }
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            ctor.body().invoke( "super" ).arg( o ).arg( lazyCopy );
+        }
+        else if ( clazz.implClass._extends() != null
+                  && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
+        {
+            ctor.body().invoke( "super" ).arg( o );
+        }
+        else
+        {
+            ctor.body().invoke( "super" );
+        }
+
+        if ( !this.nullable )
+        {
+            ctor.body()._if( o.eq( JExpr._null() ) )._then()._throw(
+                JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+                arg( "Cannot create a copy of '" + clazz.implClass.name() + "' from 'null'." ) );
+
+        }
+
+        final JConditional isLazy = ctor.body()._if( lazyCopy );
+        this.generateCopyConstructorBody( clazz, isLazy._then(), o, superTypeParam, true, null );
+        this.generateCopyConstructorBody( clazz, isLazy._else(), o, superTypeParam, false, null );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+        return ctor;
+    }
+
+    private void generateLazyFlags( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.isLazyProperty( field ) )
+            {
+                String name = "lazy" + field.getPropertyInfo().getName( true );
+
+                while ( clazz.implClass.fields().containsKey( name ) )
+                {
+                    name = "_" + name;
+                }
+
+                final JFieldVar flag = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT,
+                                                              clazz.parent().getCodeModel().BOOLEAN, name );
+
+                flag.javadoc().append( "Flag indicating the value of property {@code "
+                                       + field.getPropertyInfo().getName( false )
+                                       + "} is shared with another instance and needs to be copied before "
+                                       + "being accessed." );
+
+                this.lazyFlags.put( field, flag );
+                this.supportFields.add( flag );
+            }
+        }
+    }
+
+    private boolean isLazyProperty( final FieldOutline field )
+    {
+        if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive()
+             || this.packedCalendars.contains( field ) )
+        {
+            return false;
+        }
+
+        if ( !field.getPropertyInfo().isCollection() && field.getPropertyInfo().ref().size() == 1
+             && field.getPropertyInfo().getAdapter() == null )
+        {
+            final CTypeInfo type = field.getPropertyInfo().ref().iterator().next();
+            return !( type instanceof CEnumLeafInfo
+                      || this.immutableTypes.contains( field.getRawType().binaryName() ) );
+
+        }
+
+        return true;
+    }
+
+    private void generateLazyAccessors( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+
+            if ( flag != null )
+            {
+                final String name = field.getPropertyInfo().getName( true );
+
+                for ( JMethod m : clazz.implClass.methods() )
+                {
+                    if ( m.name().equals( "set" + name ) && m.listParams().length == 1 )
+                    {
+                        final int pos = m.body().pos( 0 );
+                        m.body().assign( JExpr._this().ref( flag ), JExpr.FALSE );
+                        m.body().pos( pos + 1 );
+                    }
+                    else if ( m.name().equals( "get" + name ) || m.name().equals( "is" + name )
+                              || m.name().equals( "set" + name ) )
+                    {
+                        final int pos = m.body().pos( 0 );
+                        final JBlock copyBlock = m.body()._if( JExpr._this().ref( flag ) )._then();
+                        m.body().pos( pos + 1 );
+
+                        copyBlock.assign( JExpr._this().ref( flag ), JExpr.FALSE );
+                        this.generateLazyCopyOfProperty( field, copyBlock );
+                    }
+                }
+            }
+        }
+    }
+
+    private void generateLazySharingOfProperty( final FieldOutline field, final JExpression sourceExpr,
+                                                final JBlock block )
+    {
+        final JFieldVar flag = this.lazyFlags.get( field );
+        final String fieldName = field.getPropertyInfo().getName( false );
+
+        block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' shared lazily." );
+        block.assign( JExpr._this().ref( fieldName ), JExpr.ref( sourceExpr, fieldName ) );
+        block.assign( JExpr._this().ref( flag ), JExpr.TRUE );
+    }
+
+    private void generateLazyCopyOfProperty( final FieldOutline field, final JBlock block )
+    {
+        if ( field.getPropertyInfo().isCollection() && !field.getRawType().isArray() )
+        {
+            final String fieldName = field.getPropertyInfo().getName( false );
+            final JFieldVar fieldVar = field.parent().implClass.fields().get( fieldName );
+
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection." );
+            final JConditional fieldNotNull = block._if( JExpr._this().ref( fieldName ).ne( JExpr._null() ) );
+            final JVar shared = fieldNotNull._then().decl( JMod.FINAL, fieldVar.type(), "shared",
+                                                           JExpr._this().ref( fieldName ) );
+
+            fieldNotNull._then().assign( JExpr._this().ref( fieldName ), JExpr._null() );
+            fieldNotNull._then().invoke( this.getCopyOfCollectionMethod( field ) ).arg( shared ).
+                arg( JExpr.invoke( JExpr._this(), this.getPropertyGetter( field ) ) );
+
+        }
+        else
+        {
+            this.generateCopyOfProperty( field, JExpr._this(), JExpr._this(), block, false );
+        }
+    }
+
+    private void generateSharedFlags( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.isCopyOnWriteProperty( field ) )
+            {
+                String name = "shared" + field.getPropertyInfo().getName( true );
+
+                while ( clazz.implClass.fields().containsKey( name ) )
+                {
+                    name = "_" + name;
+                }
+
+                final JFieldVar flag = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT,
+                                                              clazz.parent().getCodeModel().BOOLEAN, name );
+
+                flag.javadoc().append( "Flag indicating the value of property {@code "
+                                       + field.getPropertyInfo().getName( false )
+                                       + "} is shared with another instance and needs to be copied before being "
+                                       + "written." );
+
+                this.sharedFlags.put( field, flag );
+                this.supportFields.add( flag );
+            }
+        }
+    }
+
+    private boolean isCopyOnWriteProperty( final FieldOutline field )
+    {
+        return this.getPropertyGetter( field ) != null && !field.getPropertyInfo().isCollection()
+               && field.getPropertyInfo().ref().size() == 1 && field.getPropertyInfo().getAdapter() == null
+               && field.getPropertyInfo().ref().iterator().next() == CBuiltinLeafInfo.BASE64_BYTE_ARRAY
+               && field.getRawType().isArray();
+
+    }
+
+    private void generateCopyOnWriteSharingOfProperty( final FieldOutline field, final JExpression targetExpr,
+                                                       final JExpression sourceExpr, final JBlock block )
+    {
+        final JFieldVar flag = this.sharedFlags.get( field );
+        final String fieldName = field.getPropertyInfo().getName( false );
+
+        block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' shared until written." );
+        block.assign( targetExpr.ref( fieldName ), JExpr.ref( sourceExpr, fieldName ) );
+
+        final JBlock isShared = block._if( JExpr.ref( sourceExpr, fieldName ).ne( JExpr._null() ) )._then();
+        isShared.assign( targetExpr.ref( flag.name() ), JExpr.TRUE );
+
+        if ( this.freezable )
+        {
+            isShared._if( JExpr.invoke( sourceExpr, "isFrozen" ).not() )._then().assign(
+                JExpr.ref( sourceExpr, flag.name() ), JExpr.TRUE );
+
+        }
+        else
+        {
+            isShared.assign( JExpr.ref( sourceExpr, flag.name() ), JExpr.TRUE );
+        }
+    }
+
+    private void generateCopyOnWriteAccessors( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.sharedFlags.get( field );
+
+            if ( flag != null )
+            {
+                final String name = field.getPropertyInfo().getName( true );
+
+                for ( JMethod m : clazz.implClass.methods() )
+                {
+                    if ( m.name().equals( "set" + name ) && m.listParams().length == 1 )
+                    {
+                        m.body().assign( JExpr._this().ref( flag ), JExpr.FALSE );
+                    }
+                }
+
+                if ( clazz.implClass.getMethod( "get" + name + "ForWrite", NO_ARGS ) == null )
+                {
+                    this.generateGetForWriteMethod( field );
+                }
+                else
+                {
+                    this.log( Level.WARNING, "methodExists", "get" + name + "ForWrite",
+                              clazz.implClass.binaryName() );
+
+                }
+            }
+        }
+    }
+
+    private JMethod generateGetForWriteMethod( final FieldOutline field )
+    {
+        final JCodeModel cm = field.parent().parent().getCodeModel();
+        final JDefinedClass implClass = field.parent().implClass;
+        final JFieldVar flag = this.sharedFlags.get( field );
+        final JFieldVar fieldVar = implClass.fields().get( field.getPropertyInfo().getName( false ) );
+        final JMethod getForWrite = implClass.method(
+            JMod.PUBLIC, field.getRawType(), "get" + field.getPropertyInfo().getName( true ) + "ForWrite" );
+
+        getForWrite.javadoc().append( "Gets the value of the " + field.getPropertyInfo().getName( false )
+                                      + " property for modifying it in place.\n<p>Copies of this object share the "
+                                      + "value of the property with this object until one of them is written. This "
+                                      + "method replaces a shared value with a copy of that value first, so that "
+                                      + "modifying the array returned does not modify the value of any other "
+                                      + "instance. The array returned by the getter of the property must not be "
+                                      + "modified.</p>" );
+
+        getForWrite.javadoc().addReturn().append( "The value of the " + field.getPropertyInfo().getName( false )
+                                                  + " property, not shared with any other instance, or "
+                                                  + "{@code null}." );
+
+        if ( this.freezable )
+        {
+            getForWrite.javadoc().addThrows( UnsupportedOperationException.class ).append(
+                "if this instance is frozen." );
+
+        }
+
+        getForWrite.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( this.freezable )
+        {
+            getForWrite.body()._if( JExpr.invoke( "isFrozen" ) )._then()._throw( JExpr._new(
+                cm.ref( UnsupportedOperationException.class ) ).arg(
+                "Cannot modify property '" + field.getPropertyInfo().getName( false ) + "' of a frozen '"
+                + implClass.name() + "' instance." ) );
+
+        }
+
+        final JVar value = getForWrite.body().decl( JMod.FINAL, field.getRawType(), "value", JExpr.invoke(
+            this.getPropertyGetter( field ) ) );
+
+        final JBlock isShared = getForWrite.body()._if( JExpr.refthis( flag.name() ) )._then();
+        isShared.assign( JExpr._this().ref( fieldVar ), this.getCopyOfPrimitiveArrayExpression(
+            field.parent(), cm.ref( byte[].class ), value ) );
+
+        isShared.assign( JExpr._this().ref( flag ), JExpr.FALSE );
+
+        if ( this.snapshot )
+        {
+            getForWrite.body().invoke( "markDirty" );
+        }
+
+        getForWrite.body()._return( JExpr._this().ref( fieldVar ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return getForWrite;
+    }
+
+    private JMethod generateParallelCopyConstructor( final ClassOutline clazz )
+    {
+        final JDefinedClass copyOptionsClass = this.getCopyOptionsClass( clazz.parent() );
+        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
+        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
+        final JVar o = ctor.param( JMod.FINAL, paramClass, "o" );
+        final JVar copyOptions = ctor.param( JMod.FINAL, copyOptionsClass, "copyOptions" );
+        final boolean superTypeParam = !clazz.implClass.equals( paramClass );
+
+        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name()
+                            + "} instance by deeply copying a given {@code " + paramClass.name()
+                            + "} instance in parallel.\n<p>The copy is identical to the copy created by the copy "
+                            + "constructor taking a single argument.</p>\n" );
+
+        if ( !this.nullable )
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy." );
+        }
+        else
+        {
+            ctor.javadoc().addParam( o ).add( "The instance to copy or {@code null}." );
+        }
+
+        ctor.javadoc().addParam( copyOptions ).add( "The options of the copy operation." );
+
+        if ( !this.nullable )
+        {
+            ctor.javadoc().addThrows( NullPointerException.class ).append(
+                "if {@code o} or {@code copyOptions} is {@code null}." );
+
+        }
+        else
+        {
+            ctor.javadoc().addThrows( NullPointerException.class ).append( "if {@code copyOptions} is {@code null}." );
+        }
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            ctor.body().invoke( "super" ).arg( o ).arg( copyOptions );
+        }
+        else if ( clazz.implClass._extends() != null
+                  && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
+        {
+            ctor.body().invoke( "super" ).arg( o );
+        }
+        else
+        {
+            ctor.body().invoke( "super" );
+        }
+
+        if ( !this.nullable )
+        {
+            ctor.body()._if( o.eq( JExpr._null() ) )._then()._throw(
+                JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+                arg( "Cannot create a copy of '" + clazz.implClass.name() + "' from 'null'." ) );
+
+        }
+
+        ctor.body()._if( copyOptions.eq( JExpr._null() ) )._then()._throw(
+            JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).arg( "copyOptions" ) );
+
+        final JBlock copyBlock = new JBlock( false, false );
+        this.generateCopyConstructorBody( clazz, copyBlock, o, superTypeParam, false, copyOptions );
+
+        if ( !copyBlock.getContents().isEmpty() )
+        {
+            final JVar previous = ctor.body().decl( JMod.FINAL, copyOptionsClass, "previous",
+                                                    copyOptionsClass.staticInvoke( "enter" ).arg( copyOptions ) );
+
+            final JTryBlock tryCopy = ctor.body()._try();
+            tryCopy.body().add( copyBlock );
+            tryCopy._finally().add( copyOptionsClass.staticInvoke( "leave" ).arg( previous ) );
+        }
+
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+        return ctor;
+    }
+
+    private JMethod getCloneShallowMethod( final ClassOutline clazz )
+    {
+        JMethod cloneShallow = clazz.implClass.getMethod( "cloneShallow", NO_ARGS );
+        if ( cloneShallow == null )
+        {
+            cloneShallow = this.generateCloneShallowMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "cloneShallow", clazz.implClass.binaryName() );
+        }
+
+        return cloneShallow;
+    }
+
+    private JMethod getCompleteCopyMethod( final ClassOutline clazz )
+    {
+        JMethod completeCopy = clazz.implClass.getMethod( "completeCopy", new JType[]
+            {
+                clazz.parent().getCodeModel().ref( Object.class )
+            } );
+
+        if ( completeCopy == null )
+        {
+            completeCopy = this.generateCompleteCopyMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "completeCopy", clazz.implClass.binaryName() );
+        }
+
+        return completeCopy;
+    }
+
+    private String getBatchMethodNamePart( final ClassOutline clazz )
+    {
+        final String packageName = clazz.implClass._package().name();
+        final String className = packageName.length() > 0
+                                 ? clazz.implClass.fullName().substring( packageName.length() + 1 )
+                                 : clazz.implClass.fullName();
+
+        return className.replace( ".", "" );
+    }
+
+    private JExpression getBatchCopyExpression( final ClassOutline clazz, final JExpression o )
+    {
+        final JExpression cloneExpr = this.freezable
+                                      ? JOp.cond( o.invoke( "isFrozen" ), o, o.invoke( "clone" ) )
+                                      : o.invoke( "clone" );
+
+        return JOp.cond( o.eq( JExpr._null() ), JExpr._null(), cloneExpr );
+    }
+
+    private void generateBatchCopyMethods( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass objectFactory = clazz._package().objectFactory();
+        final String namePart = this.getBatchMethodNamePart( clazz );
+        final String copyAllName = "copyAll" + namePart;
+        final JClass collection = cm.ref( Collection.class ).narrow( clazz.implClass.wildcard() );
+
+        if ( objectFactory.getMethod( copyAllName, new JType[]
+            {
+                collection
+            } ) != null )
+        {
+            this.log( Level.WARNING, "methodExists", copyAllName, objectFactory.binaryName() );
+        }
+        else
+        {
+            final JMethod copyAll = objectFactory.method( JMod.PUBLIC | JMod.STATIC,
+                                                          cm.ref( List.class ).narrow( clazz.implClass ),
+                                                          copyAllName );
+
+            final JVar c = copyAll.param( JMod.FINAL, collection, "c" );
+            copyAll.javadoc().append( "Creates and returns deep copies of a given collection of {@code "
+                                      + clazz.implClass.name() + "} instances." );
+
+            if ( this.needsCopyContext( clazz ) )
+            {
+                copyAll.javadoc().append( "\n<p>The instances are copied by a single copy operation, so that any "
+                                          + "instances referenced by more than one of the given instances are "
+                                          + "copied the same way as when copying a single instance referencing "
+                                          + "them.</p>" );
+
+            }
+
+            copyAll.javadoc().addParam( c ).append( "The instances to copy." );
+            copyAll.javadoc().addReturn().append(
+                "A list holding deep copies of the instances of {@code c} in iteration order." );
+
+            copyAll.javadoc().addThrows( NullPointerException.class ).append( "if {@code c} is {@code null}." );
+            copyAll.body().directStatement( "// " + getMessage( "title" ) );
+
+            final JVar copies = copyAll.body().decl(
+                JMod.FINAL, cm.ref( List.class ).narrow( clazz.implClass ), "copies",
+                JExpr._new( cm.ref( ArrayList.class ).narrow( clazz.implClass ) ).arg( c.invoke( "size" ) ) );
+
+            JBlock copyBlock = copyAll.body();
+
+            if ( this.needsCopyContext( clazz ) )
+            {
+                final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+                final JVar copyContext = copyBlock.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                         copyContextClass.staticInvoke( "enter" ) );
+
+                final JTryBlock tryCopy = copyBlock._try();
+                tryCopy._finally().add( copyContext.invoke( "leave" ) );
+                copyBlock = tryCopy.body();
+            }
+
+            final JForEach copyEach = copyBlock.forEach( clazz.implClass, "o", c );
+            copyEach.body().add( copies.invoke( "add" ).arg(
+                this.getBatchCopyExpression( clazz, copyEach.var() ) ) );
+
+            copyAll.body()._return( copies );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+        }
+
+        if ( this.isTargetSupported( TARGET_1_8 ) )
+        {
+            final String copyStreamName = "copy" + namePart + "Stream";
+            final JClass stream = cm.ref( "java.util.stream.Stream" );
+
+            if ( objectFactory.getMethod( copyStreamName, new JType[]
+                {
+                    stream.narrow( clazz.implClass.wildcard() )
+                } ) != null )
+            {
+                this.log( Level.WARNING, "methodExists", copyStreamName, objectFactory.binaryName() );
+            }
+            else
+            {
+                final JMethod copyStream = objectFactory.method( JMod.PUBLIC | JMod.STATIC,
+                                                                 stream.narrow( clazz.implClass ), copyStreamName );
+
+                final JVar s = copyStream.param( JMod.FINAL, stream.narrow( clazz.implClass.wildcard() ), "s" );
+                copyStream.javadoc().append( "Creates a stream of deep copies of the {@code "
+                                             + clazz.implClass.name() + "} instances of a given stream.\n<p>The "
+                                             + "returned stream is parallel if the given stream is parallel. "
+                                             + "Instances are copied lazily when consumed. The instances traversed "
+                                             + "in bulk by a single thread are copied by a single copy "
+                                             + "operation.</p>" );
+
+                copyStream.javadoc().addParam( s ).append( "The stream of instances to copy." );
+                copyStream.javadoc().addReturn().append(
+                    "A stream of deep copies of the instances of {@code s} in encounter order." );
+
+                copyStream.javadoc().addThrows( NullPointerException.class ).append(
+                    "if {@code s} is {@code null}." );
+
+                copyStream.body().directStatement( "// " + getMessage( "title" ) );
+                copyStream.body()._return( cm.ref( "java.util.stream.StreamSupport" ).staticInvoke( "stream" ).arg(
+                    JExpr._new( this.generateCopySpliteratorClass( clazz, namePart ) ).arg(
+                    s.invoke( "spliterator" ) ) ).arg( s.invoke( "isParallel" ) ) );
+
+                this.methodCount = this.methodCount.add( BigInteger.ONE );
+            }
+        }
+    }
+
+    private JDefinedClass generateCopySpliteratorClass( final ClassOutline clazz, final String namePart )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JClass spliterator = cm.ref( "java.util.Spliterator" );
+        final JClass consumer = cm.ref( "java.util.function.Consumer" );
+        final JClass action = consumer.narrow( new SuperWildcard( clazz.implClass ) );
+        final JDefinedClass copySpliterator;
+
+        try
+        {
+            copySpliterator = clazz._package().objectFactory()._class(
+                JMod.PRIVATE | JMod.STATIC | JMod.FINAL, namePart + "CopySpliterator" );
+
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        copySpliterator._implements( spliterator.narrow( clazz.implClass ) );
+        copySpliterator._implements( consumer.narrow( clazz.implClass ) );
+        copySpliterator.javadoc().append( "{@code Spliterator} of deep copies of the {@code "
+                                          + clazz.implClass.name() + "} instances of another {@code Spliterator}." );
+
+        final JFieldVar source = copySpliterator.field(
+            JMod.PRIVATE | JMod.FINAL, spliterator.narrow( clazz.implClass.wildcard() ), "spliterator" );
+
+        source.javadoc().append( "The {@code Spliterator} of the instances to copy." );
+
+        final JFieldVar current = copySpliterator.field( JMod.PRIVATE, clazz.implClass, "current" );
+        current.javadoc().append( "The instance advanced to last." );
+
+        final JMethod ctor = copySpliterator.constructor( JMod.NONE );
+        final JVar ctorSource = ctor.param( JMod.FINAL, spliterator.narrow( clazz.implClass.wildcard() ),
+                                            "spliterator" );
+
+        ctor.javadoc().append( "Creates a new {@code " + copySpliterator.name() + "} instance." );
+        ctor.javadoc().addParam( ctorSource ).append( "The {@code Spliterator} of the instances to copy." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( source ), ctorSource );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod accept = copySpliterator.method( JMod.PUBLIC, Void.TYPE, "accept" );
+        final JVar o = accept.param( JMod.FINAL, clazz.implClass, "o" );
+        accept.javadoc().append( "Receives the instance advanced to." );
+        accept.javadoc().addParam( o ).append( "The instance advanced to." );
+        accept.body().directStatement( "// " + getMessage( "title" ) );
+        accept.body().assign( JExpr._this().ref( current ), o );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod tryAdvance = copySpliterator.method( JMod.PUBLIC, cm.BOOLEAN, "tryAdvance" );
+        final JVar tryAdvanceAction = tryAdvance.param( JMod.FINAL, action, "action" );
+        tryAdvance.javadoc().append( "Copies the next instance and passes the copy to a given action." );
+        tryAdvance.javadoc().addParam( tryAdvanceAction ).append( "The action to pass the copy to." );
+        tryAdvance.javadoc().addReturn().append(
+            "{@code false}, if no instances remain to be copied; {@code true}, else." );
+
+        tryAdvance.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional advanced = tryAdvance.body()._if( source.invoke( "tryAdvance" ).arg( JExpr._this() ) );
+        final JVar next = advanced._then().decl( JMod.FINAL, clazz.implClass, "next", current );
+        advanced._then().assign( current, JExpr._null() );
+        advanced._then().add( tryAdvanceAction.invoke( "accept" ).arg(
+            this.getBatchCopyExpression( clazz, next ) ) );
+
+        advanced._then()._return( JExpr.TRUE );
+        tryAdvance.body()._return( JExpr.FALSE );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod forEachRemaining = copySpliterator.method( JMod.PUBLIC, Void.TYPE, "forEachRemaining" );
+        final JVar forEachAction = forEachRemaining.param( JMod.FINAL, action, "action" );
+        forEachRemaining.javadoc().append( "Copies the remaining instances and passes the copies to a given action." );
+        forEachRemaining.javadoc().addParam( forEachAction ).append( "The action to pass the copies to." );
+        forEachRemaining.body().directStatement( "// " + getMessage( "title" ) );
+
+        JBlock forEachBlock = forEachRemaining.body();
+
+        if ( this.needsCopyContext( clazz ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+            final JVar copyContext = forEachBlock.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                        copyContextClass.staticInvoke( "enter" ) );
+
+            final JTryBlock tryCopy = forEachBlock._try();
+            tryCopy._finally().add( copyContext.invoke( "leave" ) );
+            forEachBlock = tryCopy.body();
+        }
+
+        forEachBlock._while( JExpr.invoke( tryAdvance ).arg( forEachAction ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod trySplit = copySpliterator.method( JMod.PUBLIC, spliterator.narrow( clazz.implClass ),
+                                                         "trySplit" );
+
+        trySplit.javadoc().append( "Splits off a {@code Spliterator} copying some of the instances." );
+        trySplit.javadoc().addReturn().append(
+            "A {@code Spliterator} copying some of the instances or {@code null}, if the instances cannot be "
+            + "split." );
+
+        trySplit.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar split = trySplit.body().decl( JMod.FINAL, spliterator.narrow( clazz.implClass.wildcard() ),
+                                                 "split", source.invoke( "trySplit" ) );
+
+        trySplit.body()._return( JOp.cond( split.ne( JExpr._null() ), JExpr._new( copySpliterator ).arg( split ),
+                                           JExpr._null() ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod estimateSize = copySpliterator.method( JMod.PUBLIC, cm.LONG, "estimateSize" );
+        estimateSize.javadoc().append( "Estimates the number of instances remaining to be copied." );
+        estimateSize.javadoc().addReturn().append( "The estimated number of instances remaining to be copied." );
+        estimateSize.body().directStatement( "// " + getMessage( "title" ) );
+        estimateSize.body()._return( source.invoke( "estimateSize" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod characteristics = copySpliterator.method( JMod.PUBLIC, cm.INT, "characteristics" );
+        characteristics.javadoc().append( "Gets the characteristics of this {@code Spliterator}.\n<p>Copies are "
+                                          + "not sorted by a comparator of the copied instances.</p>" );
+
+        characteristics.javadoc().addReturn().append(
+            "The characteristics of the {@code Spliterator} of the instances to copy without {@code SORTED}." );
+
+        characteristics.body().directStatement( "// " + getMessage( "title" ) );
+        characteristics.body()._return( source.invoke( "characteristics" ).band(
+            spliterator.staticRef( "SORTED" ).complement() ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copySpliterator;
+    }
+
+    private JDefinedClass getFreezableClass( final Outline outline )
+    {
+        JDefinedClass freezableClass = this.getSupportClass( outline, FREEZABLE_CLASS_NAME );
+
+        if ( freezableClass == null )
+        {
+            freezableClass = this.newSupportClass( outline, FREEZABLE_CLASS_NAME, ClassType.INTERFACE );
+            freezableClass.javadoc().append(
+                "Instances which can be made unmodifiable.\n<p>Freezing an instance freezes any instances it "
+                + "references. Frozen instances reject any modification made through their setters and live list "
+                + "views and are shared by reference instead of being copied by copy constructors and "
+                + "{@code clone()} methods.</p>" );
+
+            final JMethod freeze = freezableClass.method( JMod.NONE, Void.TYPE, "freeze" );
+            freeze.javadoc().append( "Freezes this instance and any instances referenced by this instance." );
+
+            final JMethod isFrozen = freezableClass.method( JMod.NONE, outline.getCodeModel().BOOLEAN, "isFrozen" );
+            isFrozen.javadoc().append( "Gets a flag indicating this instance is frozen." );
+            isFrozen.javadoc().addReturn().append(
+                "{@code true}, if this instance is frozen; {@code false}, if this instance can be modified." );
+
+        }
+
+        return freezableClass;
+    }
+
+    private void generateFrozenFlag( final ClassOutline clazz )
+    {
+        if ( clazz.getSuperClass() == null )
+        {
+            String name = "frozen";
+
+            while ( clazz.implClass.fields().containsKey( name ) )
+            {
+                name = "_" + name;
+            }
+
+            final JFieldVar flag = clazz.implClass.field( JMod.PRIVATE, clazz.parent().getCodeModel().BOOLEAN, name );
+            flag.annotate( XmlTransient.class );
+            flag.javadoc().append( "Flag indicating this instance is frozen." );
+            clazz.implClass._implements( this.getFreezableClass( clazz.parent() ) );
+
+            this.frozenFlags.put( clazz, flag );
+            this.supportFields.add( flag );
+        }
+    }
+
+    private JMethod getFreezeMethod( final ClassOutline clazz )
+    {
+        JMethod freeze = clazz.implClass.getMethod( "freeze", NO_ARGS );
+        if ( freeze == null )
+        {
+            freeze = this.generateFreezeMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "freeze", clazz.implClass.binaryName() );
+        }
+
+        return freeze;
+    }
+
+    private JMethod generateFreezeMethod( final ClassOutline clazz )
+    {
+        final JFieldVar frozen = this.frozenFlags.get( clazz );
+        final JMethod freeze = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "freeze" );
+        freeze.javadoc().append( "Freezes this instance and any instances referenced by this instance." );
+        freeze.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JBlock freezeBlock;
+
+        if ( frozen != null )
+        {
+            freezeBlock = freeze.body()._if( JExpr._this().ref( frozen ).not() )._then();
+            freezeBlock.assign( JExpr._this().ref( frozen ), JExpr.TRUE );
+
+            final JMethod isFrozen =
+                clazz.implClass.method( JMod.PUBLIC, clazz.parent().getCodeModel().BOOLEAN, "isFrozen" );
+
+            isFrozen.javadoc().append( "Gets a flag indicating this instance is frozen." );
+            isFrozen.javadoc().addReturn().append(
+                "{@code true}, if this instance is frozen; {@code false}, if this instance can be modified." );
+
+            isFrozen.body().directStatement( "// " + getMessage( "title" ) );
+            isFrozen.body()._return( JExpr._this().ref( frozen ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+        }
+        else if ( this.hasFrozenProperties( clazz ) )
+        {
+            freeze.annotate( Override.class );
+            final JVar wasFrozen = freeze.body().decl( JMod.FINAL, clazz.parent().getCodeModel().BOOLEAN,
+                                                       "wasFrozen", JExpr.invoke( "isFrozen" ) );
+
+            freeze.body().invoke( JExpr._super(), "freeze" );
+            freezeBlock = freeze.body()._if( wasFrozen.not() )._then();
+        }
+        else
+        {
+            freeze.annotate( Override.class );
+            freeze.body().invoke( JExpr._super(), "freeze" );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return freeze;
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( !this.isFrozenProperty( field ) )
+            {
+                continue;
+            }
+
+            final JMethod getter = this.getPropertyGetter( field );
+            final String fieldName = field.getPropertyInfo().getName( false );
+
+            if ( field.getPropertyInfo().isCollection() )
+            {
+                final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+                freezeBlock.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection." );
+
+                if ( field.getRawType().isArray() )
+                {
+                    final JForEach items =
+                        freezeBlock.forEach( object, "item", JExpr.cast( clazz.parent().getCodeModel().
+                        ref( Object[].class ), JExpr.invoke( getter ) ) );
+
+                    items.body().add( this.getFreezeInvocation( clazz ).arg( items.var() ) );
+                }
+                else
+                {
+                    final JVar items = freezeBlock.decl( JMod.FINAL, field.getRawType(), fieldName + "Items",
+                                                         JExpr.invoke( getter ) );
+
+                    final JForEach item = freezeBlock.forEach( object, "item", items );
+                    item.body().add( this.getFreezeInvocation( clazz ).arg( item.var() ) );
+                    freezeBlock.assign( JExpr._this().ref( fieldName ), clazz.parent().getCodeModel().ref(
+                        Collections.class ).staticInvoke( "unmodifiableList" ).arg( items ) );
+
+                }
+            }
+            else if ( this.isLazyProperty( field ) )
+            {
+                freezeBlock.add( this.getFreezeInvocation( clazz ).arg( JExpr.invoke( getter ) ) );
+            }
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return freeze;
+    }
+
+    private boolean hasFrozenProperties( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.isFrozenProperty( field ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isFrozenProperty( final FieldOutline field )
+    {
+        if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive()
+             || ( field.getRawType().isArray() && field.getRawType().elementType().isPrimitive() ) )
+        {
+            return false;
+        }
+
+        return field.getPropertyInfo().isCollection() || this.isLazyProperty( field );
+    }
+
+    private JInvocation getFreezeInvocation( final ClassOutline clazz )
+    {
+        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+        final JClass jaxbElement = clazz.parent().getCodeModel().ref( JAXBElement.class );
+        final String methodName = "freeze";
+        final int mod = this.getVisibilityModifier();
+        final JType[] signature = new JType[]
+        {
+            object
+        };
+
+        if ( mod != JMod.PRIVATE )
+        {
+            for ( JMethod m : clazz._package().objectFactory().methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return clazz._package().objectFactory().staticInvoke( m );
+                }
+            }
+        }
+        else
+        {
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( methodName ) && m.hasSignature( signature ) )
+                {
+                    return JExpr.invoke( m );
+                }
+            }
+        }
+
+        final JMethod m =
+            ( mod != JMod.PRIVATE
+              ? clazz._package().objectFactory().method( JMod.STATIC | mod, Void.TYPE, methodName )
+              : clazz.implClass.method( JMod.STATIC | mod, Void.TYPE, methodName ) );
+
+        final JVar o = m.param( JMod.FINAL, object, "o" );
+        final JClass freezableClass = this.getFreezableClass( clazz.parent() );
+
+        m.javadoc().append( "Freezes a given object." );
+        m.javadoc().addParam( o ).append( "The instance to freeze or {@code null}." );
+        m.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JConditional isFreezable = m.body()._if( o._instanceof( freezableClass ) );
+        isFreezable._then().add( JExpr.invoke( JExpr.cast( freezableClass, o ), "freeze" ) );
+        isFreezable._else()._if( o._instanceof( jaxbElement ) )._then().add(
+            ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) ).arg(
+            JExpr.invoke( JExpr.cast( jaxbElement, o ), "getValue" ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return ( mod != JMod.PRIVATE ? clazz._package().objectFactory().staticInvoke( m ) : JExpr.invoke( m ) );
+    }
+
+    private void generateFrozenAccessors( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final String name = field.getPropertyInfo().getName( true );
+
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( "set" + name ) )
+                {
+                    final int pos = m.body().pos( 0 );
+                    m.body()._if( JExpr.invoke( "isFrozen" ) )._then()._throw( JExpr._new(
+                        clazz.parent().getCodeModel().ref( UnsupportedOperationException.class ) ).arg(
+                        "Cannot modify property '" + field.getPropertyInfo().getName( false )
+                        + "' of a frozen '" + clazz.implClass.name() + "' instance." ) );
+
+                    m.body().pos( pos + 1 );
+                }
+            }
+        }
+    }
+
+    private void warnOnReferencedSupertypes( final ClassOutline clazz )
+    {
+        if ( clazz.getSuperClass() == null && clazz.implClass._extends() != null
+             && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
+        {
+            this.log( Level.WARNING, "referencedSupertypeWarning", clazz.implClass.fullName(),
+                      clazz.implClass._extends().binaryName(), WARNING_PREFIX );
+
+        }
+
+        if ( clazz.getSuperClass() != null )
+        {
+            this.warnOnReferencedSupertypes( clazz.getSuperClass() );
+        }
+    }
+
+    private boolean needsWarningOnReferencedSupertypes( final ClassOutline clazz )
+    {
+        if ( clazz.getSuperClass() == null && ( clazz.implClass._extends() != null && !clazz.implClass._extends().
+            binaryName().equals( "java.lang.Object" ) ) )
+        {
+            return true;
+        }
+
+        if ( clazz.getSuperClass() != null )
+        {
+            return this.needsWarningOnReferencedSupertypes( clazz.getSuperClass() );
+        }
+
+        return false;
+    }
+
+    private JClass getSupertype( final JClass clazz )
+    {
+        if ( clazz._extends() != null && !clazz._extends().binaryName().equals( "java.lang.Object" ) )
+        {
+            return this.getSupertype( clazz._extends() );
+        }
+
+        return clazz;
+    }
+
+    private JMethod generateCloneMethod( final ClassOutline clazz )
+    {
+        final JMethod cloneMethod = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "clone" );
+        cloneMethod.annotate( Override.class );
+        clazz.implClass._implements( clazz.parent().getCodeModel().ref( Cloneable.class ) );
+        cloneMethod.javadoc().append( "Creates and returns a deep copy of this object.\n" );
+        cloneMethod.javadoc().addReturn().append( "A deep copy of this object." );
+        this.contextExceptions.clear();
+
+        if ( this.copyTo && clazz.getSuperClass() != null )
+        {
+            // The 'clone' method of the root class of the hierarchy copies the properties of all classes.
+            cloneMethod.body().directStatement( "// " + getMessage( "title" ) );
+            cloneMethod.body()._return( JExpr.cast( clazz.implClass, JExpr._super().invoke( "clone" ) ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return cloneMethod;
+        }
+
+        if ( this.extendsObject( clazz ) )
+        {
+            // Cannot check the super classes 'clone' method throwing a 'CloneNotSupportedException'.
+            this.contextExceptions.add( CloneNotSupportedException.class );
+        }
+
+        JBlock body = cloneMethod.body();
+        JVar copyContext = null;
+
+        if ( this.needsCopyContext( clazz ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+            copyContext = body.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                     copyContextClass.staticInvoke( "enter" ) );
+
+            final JTryBlock tryCopy = body._try();
+            tryCopy._finally().add( copyContext.invoke( "leave" ) );
+            body = tryCopy.body();
+        }
+
+        body = this.generateDomCopyOperation( clazz, body );
+
+        final JBlock copyBlock = new JBlock( false, false );
+        copyBlock.directStatement( "// " + getMessage( "title" ) );
+
+        if ( copyContext != null && this.needsCopyRegistration( clazz ) )
+        {
+            final JVar registeredCopy = copyBlock.decl( JMod.FINAL, clazz.parent().getCodeModel().ref( Object.class ),
+                                                        "registeredCopy",
+                                                        copyContext.invoke( "get" ).arg( JExpr._this() ) );
+
+            copyBlock._if( registeredCopy.ne( JExpr._null() ) )._then()._return(
+                JExpr.cast( clazz.implClass, registeredCopy ) );
+
+        }
+
+        JExpression shallowCopy = JExpr._super().invoke( "clone" );
+
+        if ( this.pool )
+        {
+            final JVar pooled = copyBlock.decl( JMod.FINAL, clazz.parent().getCodeModel().ref( Object.class ),
+                                                "pooled", this.getPoolClass( clazz.parent() ).staticInvoke( "poll" ).
+                arg( JExpr.invoke( "getClass" ) ) );
+
+            shallowCopy = JOp.cond( pooled.ne( JExpr._null() ), pooled, shallowCopy );
+        }
+
+        final JVar clone = copyBlock.decl( JMod.FINAL, clazz.implClass, "clone",
+                                           JExpr.cast( clazz.implClass, shallowCopy ) );
+
+        if ( copyContext != null && this.needsCopyRegistration( clazz ) && !this.copyTo )
+        {
+            copyBlock.add( copyContext.invoke( "put" ).arg( JExpr._this() ).arg( clone ) );
+        }
+
+        if ( this.frozenFlags.containsKey( clazz ) )
+        {
+            copyBlock.assign( clone.ref( this.frozenFlags.get( clazz ) ), JExpr.FALSE );
+        }
+
+        this.generateTrackingReset( clazz, copyBlock, clone );
+
+        if ( this.copyTo )
+        {
+            copyBlock.add( JExpr._this().invoke( "copyTo" ).arg( clone ) );
+            copyBlock._return( clone );
+            this.addCopyBlock( clazz, body, copyBlock );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return cloneMethod;
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+
+            if ( flag != null )
+            {
+                copyBlock.assign( clone.ref( flag ), JExpr.FALSE );
+            }
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            this.generateCopyOfProperty( field, clone, JExpr._this(), copyBlock, true );
+        }
+
+        this.generateCopyOfUnknownFields( clazz, clone, copyBlock, false );
+        copyBlock._return( clone );
+        this.addCopyBlock( clazz, body, copyBlock );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return cloneMethod;
+    }
+
+    private ClassOutline getHierarchyRoot( final ClassOutline clazz )
+    {
+        ClassOutline root = clazz;
+
+        while ( root.getSuperClass() != null )
+        {
+            root = root.getSuperClass();
+        }
+
+        return root;
+    }
+
+    private JMethod generateCopyToMethod( final ClassOutline clazz )
+    {
+        final JClass rootClass = this.getHierarchyRoot( clazz ).implClass;
+        final JMethod copyToMethod = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "copyTo" );
+        final JVar target = copyToMethod.param( JMod.FINAL, rootClass, "target" );
+
+        copyToMethod.javadoc().append( "Deeply copies this object to a given {@code " + rootClass.name()
+                                       + "} instance.\n<p>Lists and schema derived instances of the given instance "
+                                       + "are reused where the classes of the instances match. Properties of classes "
+                                       + "the given instance is not an instance of are not copied. Copy constructors "
+                                       + "and {@code clone()} methods copy properties using this method.</p>" );
+
+        copyToMethod.javadoc().addParam( target ).append( "The instance to copy this object to." );
+        copyToMethod.javadoc().addThrows( NullPointerException.class ).append( "if {@code target} is {@code null}." );
+
+        if ( this.freezable )
+        {
+            copyToMethod.javadoc().addThrows( UnsupportedOperationException.class ).append(
+                "if {@code target} is frozen." );
+
+        }
+
+        copyToMethod.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            copyToMethod.annotate( Override.class );
+        }
+        else
+        {
+            copyToMethod.body()._if( target.eq( JExpr._null() ) )._then()._throw(
+                JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+                arg( "Cannot copy '" + clazz.implClass.name() + "' to 'null'." ) );
+
+            if ( this.frozenFlags.containsKey( clazz ) )
+            {
+                copyToMethod.body()._if( target.ref( this.frozenFlags.get( clazz ) ) )._then()._throw(
+                    JExpr._new( clazz.parent().getCodeModel().ref( UnsupportedOperationException.class ) ).
+                    arg( "Cannot modify a frozen '" + clazz.implClass.name() + "' instance." ) );
+
+            }
+        }
+
+        JBlock body = copyToMethod.body();
+        JVar copyContext = null;
+
+        if ( this.needsCopyContext( clazz ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+            copyContext = body.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                     copyContextClass.staticInvoke( "enter" ).arg( JExpr._this() ).arg( target ) );
+
+            final JTryBlock tryCopy = body._try();
+            tryCopy._finally().add( copyContext.invoke( "leave" ) );
+            body = tryCopy.body();
+        }
+
+        body = this.generateDomCopyOperation( clazz, body );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            body.add( JExpr._super().invoke( copyToMethod ).arg( target ) );
+        }
+
+        boolean hasFields = clazz.getDeclaredFields().length > 0;
+
+        for ( JFieldVar field : clazz.implClass.fields().values() )
+        {
+            hasFields = hasFields || ( ( field.mods().getValue() & JMod.STATIC ) != JMod.STATIC
+                                       && !this.supportFields.contains( field ) );
+
+        }
+
+        if ( !hasFields )
+        {
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return copyToMethod;
+        }
+
+        final JBlock copyBlock;
+        final JExpression copy;
+
+        if ( clazz.getSuperClass() != null )
+        {
+            copyBlock = body._if( target._instanceof( clazz.implClass ).cand( target.ne( JExpr._this() ) ) )._then();
+            copy = copyBlock.decl( JMod.FINAL, clazz.implClass, "copy", JExpr.cast( clazz.implClass, target ) );
+        }
+        else
+        {
+            copyBlock = body._if( target.ne( JExpr._this() ) )._then();
+            copy = target;
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            this.generateCopyToProperty( field, copy, copyContext, copyBlock );
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+
+            if ( flag != null )
+            {
+                copyBlock.assign( copy.ref( flag ), JExpr.FALSE );
+            }
+        }
+
+        this.generateCopyOfUnknownFields( clazz, copy, copyBlock, true );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyToMethod;
+    }
+
+    private void generateCopyToProperty( final FieldOutline field, final JExpression targetExpr,
+                                         final JVar copyContext, final JBlock block )
+    {
+        final JMethod getter = this.getPropertyGetter( field );
+        final JFieldVar flag = this.lazyFlags.get( field );
+        final String fieldName = field.getPropertyInfo().getName( false );
+        final JFieldRef source = JExpr.refthis( fieldName );
+        final JFieldRef target = targetExpr.ref( fieldName );
+
+        if ( getter != null && field.getPropertyInfo().isCollection() && field.getRawType().isArray() )
+        {
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' array." );
+            block.assign( target, JOp.cond( source.eq( JExpr._null() ), JExpr._null(), JExpr.invoke(
+                this.getCopyOfCollectionMethod( field ) ).arg( JExpr.invoke( getter ) ) ) );
+
+        }
+        else if ( getter != null && field.getPropertyInfo().isCollection() )
+        {
+            // Lists shared with this object or lazily shared with another object cannot be cleared.
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection." );
+            final JConditional shared = block._if( flag != null
+                                                   ? targetExpr.ref( flag ).cor( target.eq( source ) )
+                                                   : target.eq( source ) );
+
+            shared._then().assign( target, JExpr._null() );
+            shared._else()._if( target.ne( JExpr._null() ) )._then().add( target.invoke( "clear" ) );
+            block._if( source.ne( JExpr._null() ) )._then().invoke( this.getCopyOfCollectionMethod( field ) ).
+                arg( JExpr.invoke( getter ) ).arg( targetExpr.invoke( getter ) );
+
+        }
+        else if ( getter != null && this.isReusableProperty( field ) )
+        {
+            JExpression reusable = source.ne( JExpr._null() ).cand( target.ne( JExpr._null() ) ).
+                cand( target.ne( source ) ).cand( target.invoke( "getClass" ).eq( source.invoke( "getClass" ) ) );
+
+            if ( flag != null )
+            {
+                reusable = targetExpr.ref( flag ).not().cand( reusable );
+            }
+
+            if ( this.freezable )
+            {
+                reusable = reusable.cand( source.invoke( "isFrozen" ).not() ).
+                    cand( target.invoke( "isFrozen" ).not() );
+
+            }
+
+            if ( copyContext != null )
+            {
+                reusable = reusable.cand( copyContext.invoke( "get" ).arg( source ).eq( JExpr._null() ) );
+            }
+
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' reused if possible." );
+            final JConditional isReusable = block._if( reusable );
+            isReusable._then().add( source.invoke( "copyTo" ).arg( target ) );
+            this.generateCopyOfProperty( field, targetExpr, JExpr._this(), isReusable._else(), true );
+        }
+        else
+        {
+            this.generateCopyOfProperty( field, targetExpr, JExpr._this(), block, true );
+        }
+    }
+
+    private boolean isReusableProperty( final FieldOutline field )
+    {
+        if ( this.iterative || field.getPropertyInfo().isCollection() || field.getPropertyInfo().ref().size() != 1
+             || field.getPropertyInfo().getAdapter() != null || field.getPropertyInfo().id() == ID.IDREF
+             || field.parent().parent().getModel().strategy != ImplStructureStrategy.BEAN_ONLY )
+        {
+            return false;
+        }
+
+        final CTypeInfo type = field.getPropertyInfo().ref().iterator().next();
+        return type instanceof CClassInfo && field.parent().parent().getClazz( (CClassInfo) type ) != null;
+    }
+
+    private JMethod generateResetMethod( final ClassOutline clazz )
+    {
+        final JMethod reset = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "reset" );
+        reset.javadoc().append( "Resets this instance to the state of a newly created instance.\n<p>Lists are "
+                                + "cleared instead of being replaced, so that their capacity is kept when this "
+                                + "instance is reused.</p>" );
+
+        if ( this.freezable )
+        {
+            reset.javadoc().addThrows( UnsupportedOperationException.class ).append( "if this instance is frozen." );
+        }
+
+        reset.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            reset.annotate( Override.class );
+            reset.body().add( JExpr._super().invoke( reset ) );
+        }
+        else if ( this.frozenFlags.containsKey( clazz ) )
+        {
+            reset.body()._if( JExpr.refthis( this.frozenFlags.get( clazz ).name() ) )._then()._throw(
+                JExpr._new( clazz.parent().getCodeModel().ref( UnsupportedOperationException.class ) ).
+                arg( "Cannot reset a frozen '" + clazz.implClass.name() + "' instance." ) );
+
+        }
+
+        for ( JFieldVar field : clazz.implClass.fields().values() )
+        {
+            if ( ( field.mods().getValue() & JMod.STATIC ) == JMod.STATIC || this.supportFields.contains( field ) )
+            {
+                continue;
+            }
+
+            final FieldOutline fieldOutline = this.getFieldOutline( clazz, field.name() );
+            final JFieldVar flag = fieldOutline != null ? this.lazyFlags.get( fieldOutline ) : null;
+
+            if ( field.type().isPrimitive() )
+            {
+                reset.body().assign( JExpr.refthis( field.name() ), field.type().equals(
+                    clazz.parent().getCodeModel().BOOLEAN ) ? JExpr.FALSE : JExpr.lit( 0 ) );
+
+            }
+            else if ( fieldOutline != null && fieldOutline.getPropertyInfo().isCollection()
+                      && !fieldOutline.getRawType().isArray() )
+            {
+                reset.body().directStatement( "// '" + fieldOutline.getPropertyInfo().getName( true )
+                                              + "' collection." );
+
+                final JBlock clearBlock;
+
+                if ( flag != null )
+                {
+                    // Lists shared lazily with another instance cannot be cleared.
+                    final JConditional shared = reset.body()._if( JExpr.refthis( flag.name() ) );
+                    shared._then().assign( JExpr.refthis( field.name() ), JExpr._null() );
+                    clearBlock = shared._else();
+                }
+                else
+                {
+                    clearBlock = reset.body();
+                }
+
+                clearBlock._if( JExpr.refthis( field.name() ).ne( JExpr._null() ) )._then().add(
+                    JExpr.refthis( field.name() ).invoke( "clear" ) );
+
+            }
+            else if ( fieldOutline == null && field.name().equals( "otherAttributes" )
+                      && clazz.target.declaresAttributeWildcard() )
+            {
+                reset.body().add( JExpr.refthis( field.name() ).invoke( "clear" ) );
+            }
+            else
+            {
+                reset.body().assign( JExpr.refthis( field.name() ), JExpr._null() );
+            }
+
+            if ( flag != null )
+            {
+                reset.body().assign( JExpr.refthis( flag.name() ), JExpr.FALSE );
+            }
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return reset;
+    }
+
+    private JMethod generateReleaseReferencesMethod( final ClassOutline clazz )
+    {
+        final JMethod releaseReferences = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "releaseReferences" );
+        final JVar instances = releaseReferences.param(
+            JMod.FINAL, clazz.parent().getCodeModel().ref( List.class ).narrow( Object.class ), "instances" );
+
+        releaseReferences.javadoc().append( "Adds the instances referenced by this instance to a given list of "
+                                            + "instances to release.\n<p>Instances shared lazily and instances "
+                                            + "referenced by {@code IDREF} properties are not added.</p>" );
+
+        releaseReferences.javadoc().addParam( instances ).append(
+            "The list to add the instances referenced by this instance to." );
+
+        releaseReferences.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            releaseReferences.annotate( Override.class );
+            releaseReferences.body().add( JExpr._super().invoke( releaseReferences ).arg( instances ) );
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( !this.referencesClassInfo( field ) )
+            {
+                continue;
+            }
+
+            final JFieldVar flag = this.lazyFlags.get( field );
+            final JExpression value = JExpr.refthis( field.getPropertyInfo().getName( false ) );
+            JExpression releasable = value.ne( JExpr._null() );
+
+            if ( flag != null )
+            {
+                releasable = JExpr.refthis( flag.name() ).not().cand( releasable );
+            }
+
+            releaseReferences.body()._if( releasable )._then().add(
+                instances.invoke( field.getPropertyInfo().isCollection() ? "addAll" : "add" ).arg( value ) );
+
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return releaseReferences;
+    }
+
+    private boolean referencesClassInfo( final FieldOutline field )
+    {
+        if ( field.getPropertyInfo().id() == ID.IDREF || field.getRawType().isArray() )
+        {
+            return false;
+        }
+
+        for ( CTypeInfo type : field.getPropertyInfo().ref() )
+        {
+            if ( type instanceof CClassInfo
+                 || ( type instanceof CElementInfo && ( (CElementInfo) type ).getContentType() instanceof CClassInfo ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private JMethod generateMaskedCopyMethod( final ClassOutline clazz )
+    {
+        final JDefinedClass copyMaskClass = this.getCopyMaskClass( clazz.parent() );
+        final JMethod copyMethod = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "copy" );
+        final JVar mask = copyMethod.param( JMod.FINAL, copyMaskClass, "mask" );
+        copyMethod.javadoc().append( "Creates and returns a copy of this object copying the properties selected by a "
+                                     + "given mask.\n<p>Selected properties are copied deeply, applying the paths "
+                                     + "nested below a property to the schema derived instances referenced by that "
+                                     + "property. Properties not selected are left {@code null} or shared with this "
+                                     + "object by reference, depending on the policy of the mask. Lists shared with "
+                                     + "this object are copied to new lists holding the elements of this object. "
+                                     + "Primitive properties are always copied.</p>" );
+
+        copyMethod.javadoc().addParam( mask ).append( "The mask selecting the properties to copy." );
+        copyMethod.javadoc().addReturn().append( "A copy of this object copying the properties selected by "
+                                                 + "{@code mask}." );
+
+        copyMethod.javadoc().addThrows( NullPointerException.class ).append( "if {@code mask} is {@code null}." );
+        copyMethod.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            // The 'copy' method of the root class of the hierarchy creates the copy.
+            copyMethod.annotate( Override.class );
+            copyMethod.body()._return( JExpr.cast( clazz.implClass, JExpr._super().invoke( copyMethod ).arg( mask ) ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return copyMethod;
+        }
+
+        copyMethod.body()._if( mask.eq( JExpr._null() ) )._then()._throw(
+            JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+            arg( "Cannot copy '" + clazz.implClass.name() + "' using a 'null' mask." ) );
+
+        this.generateCompletedShallowCopy( clazz, copyMethod.body(), "completeCopy", mask );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyMethod;
+    }
+
+    private void generateCompletedShallowCopy( final ClassOutline clazz, final JBlock block,
+                                               final String completeMethodName, final JVar completeCopyArgument )
+    {
+        this.contextExceptions.clear();
+
+        if ( this.extendsObject( clazz ) )
+        {
+            this.contextExceptions.add( CloneNotSupportedException.class );
+        }
+
+        JBlock body = block;
+        JVar copyContext = null;
+
+        if ( this.needsCopyContext( clazz ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+            copyContext = body.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                     copyContextClass.staticInvoke( "enter" ) );
+
+            final JTryBlock tryCopy = body._try();
+            tryCopy._finally().add( copyContext.invoke( "leave" ) );
+            body = tryCopy.body();
+        }
+
+        body = this.generateDomCopyOperation( clazz, body );
+
+        final JBlock copyBlock = new JBlock( false, false );
+
+        if ( copyContext != null && this.needsCopyRegistration( clazz ) )
+        {
+            final JVar registeredCopy = copyBlock.decl( JMod.FINAL, clazz.parent().getCodeModel().ref( Object.class ),
+                                                        "registeredCopy",
+                                                        copyContext.invoke( "get" ).arg( JExpr._this() ) );
+
+            copyBlock._if( registeredCopy.ne( JExpr._null() ) )._then()._return(
+                JExpr.cast( clazz.implClass, registeredCopy ) );
+
+        }
+
+        // The shallow copy shares the values of all properties until completed.
+        final JVar copy = copyBlock.decl( JMod.FINAL, clazz.implClass, "copy",
+                                          JExpr.cast( clazz.implClass, JExpr._super().invoke( "clone" ) ) );
+
+        if ( copyContext != null && this.needsCopyRegistration( clazz ) )
+        {
+            copyBlock.add( copyContext.invoke( "put" ).arg( JExpr._this() ).arg( copy ) );
+        }
+
+        if ( this.frozenFlags.containsKey( clazz ) )
+        {
+            copyBlock.assign( copy.ref( this.frozenFlags.get( clazz ) ), JExpr.FALSE );
+        }
+
+        this.generateTrackingReset( clazz, copyBlock, copy );
+
+        copyBlock.add( JExpr._this().invoke( completeMethodName ).arg( copy ).arg( completeCopyArgument ) );
+        copyBlock._return( copy );
+        this.addCopyBlock( clazz, body, copyBlock );
+    }
+
+    private JMethod generateMaskedCompleteCopyMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass copyMaskClass = this.getCopyMaskClass( clazz.parent() );
+        final JMethod completeCopy = clazz.implClass.method( JMod.PROTECTED, Void.TYPE, "completeCopy" );
+        final JVar copy = completeCopy.param( JMod.FINAL, cm.ref( Object.class ), "copy" );
+        final JVar mask = completeCopy.param( JMod.FINAL, copyMaskClass, "mask" );
+        completeCopy.javadoc().append( "Completes a shallow copy of this object copying the properties selected by a "
+                                       + "given mask." );
+
+        completeCopy.javadoc().addParam( copy ).append( "The shallow copy of this object to complete." );
+        completeCopy.javadoc().addParam( mask ).append( "The mask selecting the properties to copy." );
+        completeCopy.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            completeCopy.annotate( Override.class );
+            completeCopy.body().add( JExpr._super().invoke( completeCopy ).arg( copy ).arg( mask ) );
+        }
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar target = copyBlock.decl( JMod.FINAL, clazz.implClass, "target", JExpr.cast( clazz.implClass, copy ) );
+        final FieldOutline[] fields = clazz.getDeclaredFields();
+        JVar classMask = null;
+
+        for ( int i = 0; i < fields.length; i++ )
+        {
+            final FieldOutline field = fields[i];
+            final JFieldVar flag = this.lazyFlags.get( field );
+            final String fieldName = field.getPropertyInfo().getName( false );
+
+            if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive() )
+            {
+                continue;
+            }
+
+            if ( classMask == null )
+            {
+                String propertiesName = "COPY_MASK_PROPERTIES";
+
+                while ( clazz.implClass.fields().containsKey( propertiesName ) )
+                {
+                    propertiesName = "_" + propertiesName;
+                }
+
+                final JFieldVar properties = clazz.implClass.field(
+                    JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.ref( String.class ).array(), propertiesName );
+
+                properties.javadoc().append( "Names of the properties declared by this class in the order of their "
+                                             + "{@code " + copyMaskClass.name() + "} index." );
+
+                final JArray names = JExpr.newArray( cm.ref( String.class ) );
+
+                for ( FieldOutline f : fields )
+                {
+                    names.add( JExpr.lit( f.getPropertyInfo().getName( false ) ) );
+                }
+
+                properties.init( names );
+                this.supportFields.add( properties );
+                classMask = copyBlock.decl( JMod.FINAL, copyMaskClass, "classMask", mask.invoke( "getClassMask" ).
+                    arg( JExpr.dotclass( clazz.implClass ) ).arg( properties ) );
+
+            }
+
+            final JConditional isCopied = copyBlock._if( classMask.invoke( "isCopied" ).arg( JExpr.lit( i ) ) );
+
+            if ( flag != null )
+            {
+                isCopied._then().assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            if ( this.isNestedCopyProperty( field ) )
+            {
+                final JVar propertyMask = isCopied._then().decl( JMod.FINAL, copyMaskClass, fieldName + "Mask",
+                                                                 classMask.invoke( "getMask" ).arg( JExpr.lit( i ) ) );
+
+                final JConditional isComplete = isCopied._then()._if( propertyMask.eq( JExpr._null() ) );
+                this.generateCopyOfProperty( field, target, JExpr._this(), isComplete._then(), true );
+                this.generateNestedCopyOfProperty( field, target, propertyMask, isComplete._else(), "masked" );
+            }
+            else
+            {
+                this.generateCopyOfProperty( field, target, JExpr._this(), isCopied._then(), true );
+            }
+
+            final JConditional notShared = isCopied._else()._if( classMask.invoke( "isShared" ).not() );
+            notShared._then().assign( target.ref( fieldName ), JExpr._null() );
+
+            if ( flag != null )
+            {
+                notShared._then().assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            if ( field.getPropertyInfo().isCollection() )
+            {
+                // Shared collections are copied to new lists holding the elements of this object.
+                this.generateCopyOfSharedElements( field, target, notShared._else() );
+            }
+        }
+
+        this.generateCopyOfUnknownFields( clazz, target, copyBlock, false );
+
+        if ( copyBlock.getContents().size() > 1 )
+        {
+            this.addCopyBlock( clazz, completeCopy.body(), copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return completeCopy;
+    }
+
+    private JMethod generateDepthCopyMethod( final ClassOutline clazz )
+    {
+        final JMethod copyMethod = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "copy" );
+        final JVar depthParam = copyMethod.param( JMod.FINAL, clazz.parent().getCodeModel().INT, "depth" );
+        copyMethod.javadoc().append( "Creates and returns a copy of this object copying schema derived instances up to "
+                                     + "a given depth.\n<p>A depth of {@code 0} creates a shallow copy sharing the "
+                                     + "values of all properties with this object, with new lists holding the "
+                                     + "elements of the lists of this object. A depth greater than {@code 0} copies "
+                                     + "properties like the {@code clone()} method, copying the schema derived "
+                                     + "instances referenced by this object using a depth decremented by one.</p>" );
+
+        copyMethod.javadoc().addParam( depthParam ).append( "The depth to copy schema derived instances to." );
+        copyMethod.javadoc().addReturn().append( "A copy of this object copying schema derived instances up to "
+                                                 + "{@code depth}." );
+
+        copyMethod.javadoc().addThrows( IllegalArgumentException.class ).append( "if {@code depth} is negative." );
+        copyMethod.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            // The 'copy' method of the root class of the hierarchy creates the copy.
+            copyMethod.annotate( Override.class );
+            copyMethod.body()._return( JExpr.cast( clazz.implClass, JExpr._super().invoke( copyMethod ).
+                arg( depthParam ) ) );
+
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return copyMethod;
+        }
+
+        copyMethod.body()._if( depthParam.lt( JExpr.lit( 0 ) ) )._then()._throw(
+            JExpr._new( clazz.parent().getCodeModel().ref( IllegalArgumentException.class ) ).arg(
+            JExpr.lit( "Illegal depth '" ).plus( depthParam ).plus( JExpr.lit( "'." ) ) ) );
+
+        this.generateCompletedShallowCopy( clazz, copyMethod.body(), "completeCopy", depthParam );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return copyMethod;
+    }
+
+    private JMethod generateDepthCompleteCopyMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod completeCopy = clazz.implClass.method( JMod.PROTECTED, Void.TYPE, "completeCopy" );
+        final JVar copy = completeCopy.param( JMod.FINAL, cm.ref( Object.class ), "copy" );
+        final JVar depthParam = completeCopy.param( JMod.FINAL, cm.INT, "depth" );
+        completeCopy.javadoc().append( "Completes a shallow copy of this object copying schema derived instances up "
+                                       + "to a given depth." );
+
+        completeCopy.javadoc().addParam( copy ).append( "The shallow copy of this object to complete." );
+        completeCopy.javadoc().addParam( depthParam ).append( "The depth to copy schema derived instances to." );
+        completeCopy.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            completeCopy.annotate( Override.class );
+            completeCopy.body().add( JExpr._super().invoke( completeCopy ).arg( copy ).arg( depthParam ) );
+        }
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar target = copyBlock.decl( JMod.FINAL, clazz.implClass, "target", JExpr.cast( clazz.implClass, copy ) );
+        JConditional isCopied = null;
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+
+            if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive() )
+            {
+                continue;
+            }
+
+            if ( isCopied == null )
+            {
+                isCopied = copyBlock._if( depthParam.gt( JExpr.lit( 0 ) ) );
+            }
+
+            if ( flag != null )
+            {
+                isCopied._then().assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            if ( this.isNestedCopyProperty( field ) )
+            {
+                this.generateNestedCopyOfProperty( field, target, depthParam.minus( JExpr.lit( 1 ) ),
+                                                   isCopied._then(), "copied to depth - 1" );
+
+            }
+            else if ( this.isDepthCopyProperty( field ) )
+            {
+                this.generateDepthCopyOfProperty( field, target, depthParam.minus( JExpr.lit( 1 ) ),
+                                                  isCopied._then() );
+
+            }
+            else
+            {
+                this.generateCopyOfProperty( field, target, JExpr._this(), isCopied._then(), true );
+            }
+
+            if ( field.getPropertyInfo().isCollection() )
+            {
+                // At the depth limit, collections are copied to new lists holding the elements of this object.
+                this.generateCopyOfSharedElements( field, target, isCopied._else() );
+            }
+        }
+
+        this.generateCopyOfUnknownFields( clazz, target, copyBlock, false );
+
+        if ( copyBlock.getContents().size() > 1 )
+        {
+            this.addCopyBlock( clazz, completeCopy.body(), copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return completeCopy;
+    }
+
+    private void generateCopyOfSharedElements( final FieldOutline field, final JVar target, final JBlock block )
+    {
+        final JFieldVar flag = this.lazyFlags.get( field );
+        final String fieldName = field.getPropertyInfo().getName( false );
+        final JFieldRef source = JExpr.refthis( fieldName );
+
+        if ( field.getRawType().isArray() )
+        {
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' array shared elements." );
+            block.assign( target.ref( fieldName ), JOp.cond(
+                source.eq( JExpr._null() ), JExpr._null(), source.invoke( "clone" ) ) );
+
+        }
+        else
+        {
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection shared "
+                                   + "elements." );
+
+            block.assign( target.ref( fieldName ), JExpr._null() );
+
+            if ( flag != null )
+            {
+                block.assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            block._if( source.ne( JExpr._null() ) )._then().add(
+                target.invoke( this.getPropertyGetter( field ) ).invoke( "addAll" ).arg( source ) );
+
+        }
+    }
+
+    private boolean isDepthCopyProperty( final FieldOutline field )
+    {
+        if ( ( field.getPropertyInfo().isCollection() && field.getRawType().isArray() )
+             || field.getPropertyInfo().getAdapter() != null || field.getPropertyInfo().id() == ID.IDREF
+             || field.parent().parent().getModel().strategy != ImplStructureStrategy.BEAN_ONLY )
+        {
+            return false;
+        }
+
+        for ( CTypeInfo ref : field.getPropertyInfo().ref() )
+        {
+            final CTypeInfo type = ref instanceof CElementInfo ? ( (CElementInfo) ref ).getContentType() : ref;
+
+            if ( type instanceof CClassInfo && field.parent().parent().getClazz( (CClassInfo) type ) != null )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void generateDepthCopyOfProperty( final FieldOutline field, final JExpression targetExpr,
+                                              final JExpression depthArgument, final JBlock block )
+    {
+        final String fieldName = field.getPropertyInfo().getName( false );
+        final JFieldRef source = JExpr.refthis( fieldName );
+        final JFieldRef target = targetExpr.ref( fieldName );
+        final JMethod copyOf = this.getDepthCopyOfObjectMethod( field.parent() );
+
+        if ( field.getPropertyInfo().isCollection() )
+        {
+            final JCodeModel cm = field.parent().parent().getCodeModel();
+            final JClass elementType = ( (JClass) field.getRawType() ).getTypeParameters().get( 0 );
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection copied to "
+                                   + "depth - 1." );
+
+            block.assign( target, JExpr._null() );
+
+            final JBlock sourceNotNull = block._if( source.ne( JExpr._null() ) )._then();
+            final JVar copies = sourceNotNull.decl( JMod.FINAL, field.getRawType(), "copies",
+                                                    targetExpr.invoke( this.getPropertyGetter( field ) ) );
+
+            final JForEach forEachElement = sourceNotNull.forEach( cm.ref( Object.class ), "element", source );
+            final JExpression copy = JExpr.invoke( copyOf ).arg( forEachElement.var() ).arg( depthArgument );
+            forEachElement.body().add( copies.invoke( "add" ).arg(
+                elementType.equals( cm.ref( Object.class ) ) ? copy : JExpr.cast( elementType, copy ) ) );
+
+        }
+        else
+        {
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' property copied to "
+                                   + "depth - 1." );
+
+            block.assign( target, JExpr.cast( field.getRawType(), JExpr.invoke( copyOf ).arg( source ).
+                arg( depthArgument ) ) );
+
+        }
+    }
+
+    private JMethod generateShallowCopyMethod( final ClassOutline clazz )
+    {
+        final JMethod shallowCopy = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "shallowCopy" );
+        shallowCopy.javadoc().append( "Creates and returns a shallow copy of this object.\n<p>The copy shares the "
+                                      + "values of all properties with this object. Lists are copied to new lists "
+                                      + "holding the elements of the lists of this object.</p>" );
+
+        shallowCopy.javadoc().addReturn().append( "A shallow copy of this object." );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            shallowCopy.annotate( Override.class );
+        }
+
+        shallowCopy.body().directStatement( "// " + getMessage( "title" ) );
+        shallowCopy.body()._return( JExpr._this().invoke( "copy" ).arg( JExpr.lit( 0 ) ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return shallowCopy;
+    }
+
+    private int getPatchPropertyCount( final ClassOutline clazz )
+    {
+        return clazz.getDeclaredFields().length + ( this.getPatchWildcardField( clazz ) != null ? 1 : 0 );
+    }
+
+    private int getPatchPropertyOffset( final ClassOutline clazz )
+    {
+        int offset = 0;
+
+        for ( ClassOutline s = clazz.getSuperClass(); s != null; s = s.getSuperClass() )
+        {
+            offset += this.getPatchPropertyCount( s );
+        }
+
+        return offset;
+    }
+
+    private JFieldVar getPatchWildcardField( final ClassOutline clazz )
+    {
+        return clazz.target.declaresAttributeWildcard() ? clazz.implClass.fields().get( "otherAttributes" ) : null;
+    }
+
+    private boolean isPatchProperty( final FieldOutline field )
+    {
+        return this.getPropertyGetter( field ) != null && field.getPropertyInfo().id() != ID.IDREF;
+    }
+
+    private JMethod generateDiffMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod diff = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "diff" );
+        final JVar other = diff.param( JMod.FINAL, cm.ref( Object.class ), "other" );
+        final JVar patch = diff.param( JMod.FINAL, this.getPatchBuilderClass( clazz.parent() ), "builder" );
+        diff.javadoc().append( "Adds the properties of a given instance differing from the properties of this "
+                               + "instance to a patch." );
+
+        diff.javadoc().addParam( other ).append( "The instance to compare this instance to, of the same class as "
+                                                 + "this instance." );
+
+        diff.javadoc().addParam( patch ).append( "The builder of the patch to add differing properties to." );
+        diff.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            diff.annotate( Override.class );
+            diff.body().add( JExpr._super().invoke( diff ).arg( other ).arg( patch ) );
+        }
+
+        final FieldOutline[] fields = clazz.getDeclaredFields();
+        final int offset = this.getPatchPropertyOffset( clazz );
+        JVar o = null;
+
+        for ( int i = 0; i < fields.length; i++ )
+        {
+            final FieldOutline field = fields[i];
+
+            if ( !this.isPatchProperty( field ) )
+            {
+                continue;
+            }
+
+            if ( o == null )
+            {
+                o = diff.body().decl( JMod.FINAL, clazz.implClass, "o", JExpr.cast( clazz.implClass, other ) );
+            }
+
+            final String fieldName = field.getPropertyInfo().getName( false );
+            final JFieldRef value = JExpr.refthis( fieldName );
+            final JFieldRef otherValue = o.ref( fieldName );
+            final JExpression index = JExpr.lit( offset + i );
+            final JInvocation add = patch.invoke( "add" ).arg( index ).arg( o );
+
+            if ( field.getRawType().isPrimitive() )
+            {
+                diff.body()._if( value.ne( otherValue ) )._then().add( add );
+            }
+            else if ( this.isNestedCopyProperty( field ) && !field.getPropertyInfo().isCollection() )
+            {
+                diff.body().directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' compared "
+                                             + "recursively." );
+
+                final JConditional sameClass = diff.body()._if( value.ne( JExpr._null() ).cand(
+                    otherValue.ne( JExpr._null() ) ).cand( value.invoke( "getClass" ).eq(
+                    otherValue.invoke( "getClass" ) ) ) );
+
+                sameClass._then().add( patch.invoke( "push" ).arg( index ).arg( JExpr.lit( -1 ) ) );
+                sameClass._then().add( value.invoke( "diff" ).arg( otherValue ).arg( patch ) );
+                sameClass._then().add( patch.invoke( "pop" ) );
+                sameClass._else()._if( value.ne( otherValue ) )._then().add( add );
+            }
+            else if ( this.isNestedCopyProperty( field ) )
+            {
+                diff.body().directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' compared "
+                                             + "element by element." );
+
+                final JClass elementType = field.parent().parent().getClazz(
+                    (CClassInfo) field.getPropertyInfo().ref().iterator().next() ).implClass;
+
+                final JVar size = diff.body().decl( JMod.FINAL, cm.INT, fieldName + "Size", JOp.cond(
+                    value.eq( JExpr._null() ), JExpr.lit( 0 ), value.invoke( "size" ) ) );
+
+                final JConditional sameSize = diff.body()._if( size.ne( JOp.cond(
+                    otherValue.eq( JExpr._null() ), JExpr.lit( 0 ), otherValue.invoke( "size" ) ) ) );
+
+                sameSize._then().add( add );
+
+                final JForLoop forEachElement = sameSize._else()._for();
+                final JVar k = forEachElement.init( cm.INT, "i", JExpr.lit( 0 ) );
+                forEachElement.test( k.lt( size ) );
+                forEachElement.update( k.incr() );
+
+                final JVar element = forEachElement.body().decl( JMod.FINAL, elementType, "element",
+                                                                 value.invoke( "get" ).arg( k ) );
+
+                final JVar otherElement = forEachElement.body().decl( JMod.FINAL, elementType, "otherElement",
+                                                                      otherValue.invoke( "get" ).arg( k ) );
+
+                final JConditional sameClass = forEachElement.body()._if( element.ne( JExpr._null() ).cand(
+                    otherElement.ne( JExpr._null() ) ).cand( element.invoke( "getClass" ).eq(
+                    otherElement.invoke( "getClass" ) ) ) );
+
+                sameClass._then().add( patch.invoke( "push" ).arg( index ).arg( k ) );
+                sameClass._then().add( element.invoke( "diff" ).arg( otherElement ).arg( patch ) );
+                sameClass._then().add( patch.invoke( "pop" ) );
+
+                final JBlock differs = sameClass._else()._if( element.ne( otherElement ) )._then();
+                differs.add( add );
+                differs._break();
+            }
+            else if ( field.getRawType().isArray() )
+            {
+                diff.body()._if( cm.ref( Arrays.class ).staticInvoke( "equals" ).arg( value ).arg( otherValue ).
+                    not() )._then().add( add );
+
+            }
+            else
+            {
+                diff.body()._if( JOp.cond( value.eq( JExpr._null() ), otherValue.ne( JExpr._null() ),
+                                           value.invoke( "equals" ).arg( otherValue ).not() ) )._then().add( add );
+
+            }
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+
+        if ( wildcard != null )
+        {
+            if ( o == null )
+            {
+                o = diff.body().decl( JMod.FINAL, clazz.implClass, "o", JExpr.cast( clazz.implClass, other ) );
+            }
+
+            diff.body()._if( JExpr.refthis( wildcard.name() ).invoke( "equals" ).arg( o.ref( wildcard ) ).not() ).
+                _then().add( patch.invoke( "add" ).arg( JExpr.lit( offset + fields.length ) ).arg( o ) );
+
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return diff;
+    }
+
+    private JMethod generateGetPatchNodeMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod getPatchNode = clazz.implClass.method( JMod.PUBLIC, cm.ref( Object.class ), "getPatchNode" );
+        final JVar property = getPatchNode.param( JMod.FINAL, cm.INT, "property" );
+        final JVar element = getPatchNode.param( JMod.FINAL, cm.INT, "element" );
+        getPatchNode.javadoc().append( "Gets an instance referenced by a property of this instance." );
+        getPatchNode.javadoc().addParam( property ).append( "The index of the property." );
+        getPatchNode.javadoc().addParam( element ).append( "The index of the element of a list property or "
+                                                           + "{@code -1}." );
+
+        getPatchNode.javadoc().addReturn().append( "The instance referenced by the property." );
+        getPatchNode.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            getPatchNode.annotate( Override.class );
+        }
+
+        final FieldOutline[] fields = clazz.getDeclaredFields();
+        final int offset = this.getPatchPropertyOffset( clazz );
+        final JSwitch switchProperty = getPatchNode.body()._switch( property );
+
+        for ( int i = 0; i < fields.length; i++ )
+        {
+            if ( this.isPatchProperty( fields[i] ) && this.isNestedCopyProperty( fields[i] ) )
+            {
+                // Getters copy values shared lazily before they are patched.
+                final JInvocation value = JExpr._this().invoke( this.getPropertyGetter( fields[i] ) );
+                switchProperty._case( JExpr.lit( offset + i ) ).body()._return(
+                    fields[i].getPropertyInfo().isCollection() ? value.invoke( "get" ).arg( element ) : value );
+
+            }
+        }
+
+        if ( clazz.getSuperClass() != null )
+        {
+            switchProperty._default().body()._return( JExpr._super().invoke( getPatchNode ).arg( property ).
+                arg( element ) );
+
+        }
+        else
+        {
+            switchProperty._default().body()._throw( JExpr._new( cm.ref( IllegalArgumentException.class ) ).arg(
+                JExpr.lit( "Illegal property '" ).plus( property ).plus( JExpr.lit( "'." ) ) ) );
+
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return getPatchNode;
+    }
+
+    private JMethod generateApplyPatchMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod applyPatch = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "applyPatch" );
+        final JVar property = applyPatch.param( JMod.FINAL, cm.INT, "property" );
+        final JVar source = applyPatch.param( JMod.FINAL, cm.ref( Object.class ), "source" );
+        applyPatch.javadoc().append( "Deeply copies a property of a given instance to this instance." );
+        applyPatch.javadoc().addParam( property ).append( "The index of the property to copy." );
+        applyPatch.javadoc().addParam( source ).append( "The instance to copy the property from, of the same class "
+                                                        + "as this instance." );
+
+        applyPatch.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            applyPatch.annotate( Override.class );
+        }
+
+        final FieldOutline[] fields = clazz.getDeclaredFields();
+        final int offset = this.getPatchPropertyOffset( clazz );
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar s = copyBlock.decl( JMod.FINAL, clazz.implClass, "s", JExpr.cast( clazz.implClass, source ) );
+        final JSwitch switchProperty = copyBlock._switch( property );
+
+        for ( int i = 0; i < fields.length; i++ )
+        {
+            if ( this.isPatchProperty( fields[i] ) )
+            {
+                final JBlock caseBlock = switchProperty._case( JExpr.lit( offset + i ) ).body();
+                final JFieldVar flag = this.lazyFlags.get( fields[i] );
+
+                if ( flag != null )
+                {
+                    caseBlock.assign( JExpr.refthis( flag.name() ), JExpr.FALSE );
+                }
+
+                if ( fields[i].getPropertyInfo().isCollection() )
+                {
+                    caseBlock.assign( JExpr.refthis( fields[i].getPropertyInfo().getName( false ) ), JExpr._null() );
+                }
+
+                this.generateCopyOfProperty( fields[i], JExpr._this(), s, caseBlock, true );
+                caseBlock._break();
+            }
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+
+        if ( wildcard != null )
+        {
+            final JBlock caseBlock = switchProperty._case( JExpr.lit( offset + fields.length ) ).body();
+            caseBlock.directStatement( "// Other attributes." );
+            caseBlock.add( JExpr.refthis( wildcard.name() ).invoke( "clear" ) );
+            caseBlock.add( JExpr.refthis( wildcard.name() ).invoke( "putAll" ).arg( s.ref( wildcard ) ) );
+            caseBlock._break();
+        }
+
+        if ( clazz.getSuperClass() != null )
+        {
+            switchProperty._default().body().add( JExpr._super().invoke( applyPatch ).arg( property ).arg( source ) );
+        }
+        else
+        {
+            switchProperty._default().body()._throw( JExpr._new( cm.ref( IllegalArgumentException.class ) ).arg(
+                JExpr.lit( "Illegal property '" ).plus( property ).plus( JExpr.lit( "'." ) ) ) );
+
+        }
+
+        this.addCopyBlock( clazz, applyPatch.body(), copyBlock );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return applyPatch;
+    }
+
+    private void generateTrackingFields( final ClassOutline clazz )
+    {
+        if ( clazz.getSuperClass() == null )
+        {
+            final JCodeModel cm = clazz.parent().getCodeModel();
+            final JDefinedClass trackable = this.getTrackableClass( clazz.parent() );
+
+            // Transient fields are neither serialized nor bound by JAXB.
+
+            final JFieldVar dirty = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT, cm.BOOLEAN,
+                                                           this.getUnusedFieldName( clazz, "dirty" ), JExpr.TRUE );
+
+            dirty.javadoc().append( "Flag indicating this instance has been modified since its last snapshot." );
+
+            final JFieldVar parent = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT, trackable,
+                                                            this.getUnusedFieldName( clazz, "trackingParent" ) );
+
+            parent.javadoc().append( "The instance referencing this instance or {@code null}." );
+
+            final JFieldVar last = clazz.implClass.field( JMod.PRIVATE | JMod.TRANSIENT, clazz.implClass,
+                                                          this.getUnusedFieldName( clazz, "snapshot" ) );
+
+            last.javadoc().append( "The last snapshot of this instance or {@code null}." );
+            clazz.implClass._implements( trackable );
+
+            this.dirtyFlags.put( clazz, dirty );
+            this.trackingParents.put( clazz, parent );
+            this.snapshots.put( clazz, last );
+            this.supportFields.add( dirty );
+            this.supportFields.add( parent );
+            this.supportFields.add( last );
+        }
+    }
+
+    private String getUnusedFieldName( final ClassOutline clazz, final String name )
+    {
+        String unused = name;
+
+        while ( clazz.implClass.fields().containsKey( unused ) )
+        {
+            unused = "_" + unused;
+        }
+
+        return unused;
+    }
+
+    private void generateTrackingReset( final ClassOutline clazz, final JBlock block, final JExpression copy )
+    {
+        if ( this.dirtyFlags.containsKey( clazz ) )
+        {
+            // Copies are tracked independently from the instance they have been copied from.
+            block.assign( copy.ref( this.dirtyFlags.get( clazz ) ), JExpr.TRUE );
+            block.assign( copy.ref( this.trackingParents.get( clazz ) ), JExpr._null() );
+            block.assign( copy.ref( this.snapshots.get( clazz ) ), JExpr._null() );
+        }
+    }
+
+    private JDefinedClass getTrackableClass( final Outline outline )
+    {
+        JDefinedClass trackable = this.getSupportClass( outline, TRACKABLE_CLASS_NAME );
+
+        if ( trackable == null )
+        {
+            trackable = this.newSupportClass( outline, TRACKABLE_CLASS_NAME, ClassType.INTERFACE );
+            trackable.javadoc().append( "Instances tracking modifications to create snapshots sharing unmodified "
+                                        + "instances with a previous snapshot." );
+
+            final JMethod markDirty = trackable.method( JMod.NONE, Void.TYPE, "markDirty" );
+            markDirty.javadoc().append( "Marks this instance and the instances referencing it as modified." );
+
+            final JMethod setTrackingParent = trackable.method( JMod.NONE, Void.TYPE, "setTrackingParent" );
+            final JVar parent = setTrackingParent.param( JMod.FINAL, trackable, "parent" );
+            setTrackingParent.javadoc().append( "Sets the instance referencing this instance." );
+            setTrackingParent.javadoc().addParam( parent ).append( "The instance referencing this instance or "
+                                                                   + "{@code null}." );
+
+            final JMethod takeSnapshot = trackable.method( JMod.NONE, Object.class, "takeSnapshot" );
+            final JVar incremental = takeSnapshot.param( JMod.FINAL, outline.getCodeModel().BOOLEAN, "incremental" );
+            takeSnapshot.javadoc().append( "Creates a snapshot of this instance." );
+            takeSnapshot.javadoc().addParam( incremental ).append( "{@code true}, to share the last snapshots of "
+                                                                   + "instances not modified since; {@code false}, "
+                                                                   + "to copy all instances." );
+
+            takeSnapshot.javadoc().addReturn().append( "A snapshot of this instance." );
+        }
+
+        return trackable;
+    }
+
+    private JDefinedClass getTrackedListClass( final Outline outline )
+    {
+        JDefinedClass trackedList = this.getSupportClass( outline, TRACKED_LIST_CLASS_NAME );
+
+        if ( trackedList == null )
+        {
+            trackedList = this.generateTrackedListClass( outline );
+        }
+
+        return trackedList;
+    }
+
+    private JDefinedClass generateTrackedListClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass trackedList = this.newSupportClass( outline, TRACKED_LIST_CLASS_NAME, ClassType.CLASS );
+        final JDefinedClass trackable = this.getTrackableClass( outline );
+        final JTypeVar e = trackedList.generify( "E" );
+        trackedList._extends( cm.ref( AbstractList.class ).narrow( e ) );
+        trackedList._implements( Serializable.class );
+        trackedList.javadoc().append( "List marking the instance owning it as modified whenever the list is "
+                                      + "modified.\n<p>Elements added to a list holding the children of its owner "
+                                      + "are tracked as referenced by that owner.</p>" );
+
+        final JFieldVar serialVersionUID = trackedList.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.LONG,
+                                                              "serialVersionUID", JExpr.lit( 1L ) );
+
+        serialVersionUID.javadoc().append( "Serial version UID for backwards compatibility." );
+
+        final JFieldVar owner = trackedList.field( JMod.PRIVATE | JMod.FINAL, trackable, "owner" );
+        owner.javadoc().append( "The instance owning the list." );
+
+        final JFieldVar elements = trackedList.field( JMod.PRIVATE | JMod.FINAL, cm.ref( List.class ).narrow( e ),
+                                                      "elements" );
+
+        elements.javadoc().append( "The elements of the list." );
+
+        final JFieldVar children = trackedList.field( JMod.PRIVATE | JMod.FINAL, cm.BOOLEAN, "children" );
+        children.javadoc().append( "Flag indicating the elements of the list are children of its owner." );
+
+        final JMethod ctor = trackedList.constructor( JMod.PUBLIC );
+        final JVar ctorOwner = ctor.param( JMod.FINAL, trackable, "owner" );
+        final JVar ctorElements = ctor.param( JMod.FINAL, cm.ref( List.class ).narrow( e ), "elements" );
+        final JVar ctorChildren = ctor.param( JMod.FINAL, cm.BOOLEAN, "children" );
+        ctor.javadoc().append( "Creates a new {@code " + trackedList.name() + "} instance." );
+        ctor.javadoc().addParam( ctorOwner ).append( "The instance owning the list." );
+        ctor.javadoc().addParam( ctorElements ).append( "The list to hold the elements of the list or {@code null}." );
+        ctor.javadoc().addParam( ctorChildren ).append( "{@code true}, if the elements of the list are children of "
+                                                        + "{@code owner}; {@code false}, if not." );
+
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( owner ), ctorOwner );
+        ctor.body().assign( JExpr._this().ref( elements ), JOp.cond(
+            ctorElements.ne( JExpr._null() ), ctorElements, JExpr._new( cm.ref( ArrayList.class ).narrow( e ) ) ) );
+
+        ctor.body().assign( JExpr._this().ref( children ), ctorChildren );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod track = trackedList.method( JMod.PRIVATE, Void.TYPE, "track" );
+        final JVar trackElement = track.param( JMod.FINAL, Object.class, "element" );
+        track.javadoc().append( "Tracks an element added to the list." );
+        track.javadoc().addParam( trackElement ).append( "The element added to the list." );
+        track.body().directStatement( "// " + getMessage( "title" ) );
+        track.body()._if( JExpr.refthis( children.name() ).cand( trackElement._instanceof( trackable ) ) )._then().
+            add( JExpr.invoke( JExpr.cast( trackable, trackElement ), "setTrackingParent" ).arg( JExpr.refthis(
+            owner.name() ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        // Elements of lists unmarshalled or frozen before being tracked are tracked when wrapped.
+        final JForEach trackElements = ctor.body()._if( ctorChildren )._then().forEach(
+            e, "element", JExpr.refthis( elements.name() ) );
+
+        trackElements.body().invoke( track ).arg( trackElements.var() );
+
+        final JMethod get = trackedList.method( JMod.PUBLIC, e, "get" );
+        get.annotate( Override.class );
+        final JVar getIndex = get.param( JMod.FINAL, cm.INT, "index" );
+        get.body().directStatement( "// " + getMessage( "title" ) );
+        get.body()._return( JExpr.refthis( elements.name() ).invoke( "get" ).arg( getIndex ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod size = trackedList.method( JMod.PUBLIC, cm.INT, "size" );
+        size.annotate( Override.class );
+        size.body().directStatement( "// " + getMessage( "title" ) );
+        size.body()._return( JExpr.refthis( elements.name() ).invoke( "size" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod set = trackedList.method( JMod.PUBLIC, e, "set" );
+        set.annotate( Override.class );
+        final JVar setIndex = set.param( JMod.FINAL, cm.INT, "index" );
+        final JVar setElement = set.param( JMod.FINAL, e, "element" );
+        set.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar previous = set.body().decl( JMod.FINAL, e, "previous", JExpr.refthis( elements.name() ).
+            invoke( "set" ).arg( setIndex ).arg( setElement ) );
+
+        set.body().invoke( track ).arg( setElement );
+        set.body().add( JExpr.refthis( owner.name() ).invoke( "markDirty" ) );
+        set.body()._return( previous );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod add = trackedList.method( JMod.PUBLIC, Void.TYPE, "add" );
+        add.annotate( Override.class );
+        final JVar addIndex = add.param( JMod.FINAL, cm.INT, "index" );
+        final JVar addElement = add.param( JMod.FINAL, e, "element" );
+        add.body().directStatement( "// " + getMessage( "title" ) );
+        add.body().add( JExpr.refthis( elements.name() ).invoke( "add" ).arg( addIndex ).arg( addElement ) );
+        add.body().assignPlus( JExpr.refthis( "modCount" ), JExpr.lit( 1 ) );
+        add.body().invoke( track ).arg( addElement );
+        add.body().add( JExpr.refthis( owner.name() ).invoke( "markDirty" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod remove = trackedList.method( JMod.PUBLIC, e, "remove" );
+        remove.annotate( Override.class );
+        final JVar removeIndex = remove.param( JMod.FINAL, cm.INT, "index" );
+        remove.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar removed = remove.body().decl( JMod.FINAL, e, "removed", JExpr.refthis( elements.name() ).
+            invoke( "remove" ).arg( removeIndex ) );
+
+        remove.body().assignPlus( JExpr.refthis( "modCount" ), JExpr.lit( 1 ) );
+        remove.body().add( JExpr.refthis( owner.name() ).invoke( "markDirty" ) );
+        remove.body()._return( removed );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        return trackedList;
+    }
+
+    private void generateSnapshotMethods( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        ClassOutline root = clazz;
+
+        while ( root.getSuperClass() != null )
+        {
+            root = root.getSuperClass();
+        }
+
+        if ( clazz.getSuperClass() == null )
+        {
+            if ( clazz.implClass.getMethod( "markDirty", NO_ARGS ) == null )
+            {
+                this.generateMarkDirtyMethod( clazz );
+            }
+            else
+            {
+                this.log( Level.WARNING, "methodExists", "markDirty", clazz.implClass.binaryName() );
+            }
+
+            if ( clazz.implClass.getMethod( "setTrackingParent", new JType[]
+                {
+                    this.getTrackableClass( clazz.parent() )
+                } ) == null )
+            {
+                this.generateSetTrackingParentMethod( clazz );
+            }
+            else
+            {
+                this.log( Level.WARNING, "methodExists", "setTrackingParent", clazz.implClass.binaryName() );
+            }
+
+            if ( clazz.implClass.getMethod( "takeSnapshot", new JType[]
+                {
+                    cm.BOOLEAN
+                } ) == null )
+            {
+                this.generateTakeSnapshotMethod( clazz );
+            }
+            else
+            {
+                this.log( Level.WARNING, "methodExists", "takeSnapshot", clazz.implClass.binaryName() );
+            }
+        }
+
+        if ( clazz.implClass.getMethod( "snapshot", new JType[]
+            {
+                root.implClass
+            } ) == null )
+        {
+            this.generateSnapshotMethod( clazz, root );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "snapshot", clazz.implClass.binaryName() );
+        }
+
+        if ( clazz.implClass.getMethod( "completeSnapshot", new JType[]
+            {
+                cm.ref( Object.class ), cm.BOOLEAN
+            } ) == null )
+        {
+            this.generateCompleteSnapshotMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "completeSnapshot", clazz.implClass.binaryName() );
+        }
+
+        if ( clazz.implClass.getMethod( "afterUnmarshal", new JType[]
+            {
+                cm.ref( Unmarshaller.class ), cm.ref( Object.class )
+            } ) == null )
+        {
+            this.generateAfterUnmarshalMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "afterUnmarshal", clazz.implClass.binaryName() );
+        }
+    }
+
+    private JMethod generateMarkDirtyMethod( final ClassOutline clazz )
+    {
+        final JMethod markDirty = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "markDirty" );
+        final JFieldRef dirty = JExpr.refthis( this.dirtyFlags.get( clazz ).name() );
+        final JFieldRef parent = JExpr.refthis( this.trackingParents.get( clazz ).name() );
+        markDirty.javadoc().append( "Marks this object and the objects referencing it as modified since their last "
+                                    + "snapshot." );
+
+        markDirty.body().directStatement( "// " + getMessage( "title" ) );
+
+        // Instances referencing a modified instance have already been marked.
+        final JBlock markBlock = markDirty.body()._if( dirty.not() )._then();
+        markBlock.assign( dirty, JExpr.TRUE );
+        markBlock._if( parent.ne( JExpr._null() ) )._then().add( parent.invoke( "markDirty" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return markDirty;
+    }
+
+    private JMethod generateSetTrackingParentMethod( final ClassOutline clazz )
+    {
+        final JMethod setTrackingParent = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "setTrackingParent" );
+        final JVar parent = setTrackingParent.param( JMod.FINAL, this.getTrackableClass( clazz.parent() ), "parent" );
+        setTrackingParent.javadoc().append( "Sets the object referencing this object." );
+        setTrackingParent.javadoc().addParam( parent ).append( "The object referencing this object or "
+                                                               + "{@code null}." );
+
+        setTrackingParent.body().directStatement( "// " + getMessage( "title" ) );
+        setTrackingParent.body().assign( JExpr.refthis( this.trackingParents.get( clazz ).name() ), parent );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return setTrackingParent;
+    }
+
+    private JMethod generateTakeSnapshotMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JFieldRef dirty = JExpr.refthis( this.dirtyFlags.get( clazz ).name() );
+        final JFieldRef last = JExpr.refthis( this.snapshots.get( clazz ).name() );
+
+        final JMethod newSnapshot = clazz.implClass.method( JMod.PRIVATE, clazz.implClass, "newSnapshot" );
+        final JVar newIncremental = newSnapshot.param( JMod.FINAL, cm.BOOLEAN, "incremental" );
+        newSnapshot.javadoc().append( "Creates and returns a new snapshot of this object." );
+        newSnapshot.javadoc().addParam( newIncremental ).append( "{@code true}, to share the last snapshots of "
+                                                                 + "instances not modified since; {@code false}, "
+                                                                 + "to copy all instances." );
+
+        newSnapshot.javadoc().addReturn().append( "A new snapshot of this object." );
+        newSnapshot.body().directStatement( "// " + getMessage( "title" ) );
+        this.generateCompletedShallowCopy( clazz, newSnapshot.body(), "completeSnapshot", newIncremental );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod takeSnapshot = clazz.implClass.method( JMod.PUBLIC, Object.class, "takeSnapshot" );
+        final JVar incremental = takeSnapshot.param( JMod.FINAL, cm.BOOLEAN, "incremental" );
+        takeSnapshot.javadoc().append( "Creates and returns a snapshot of this object." );
+        takeSnapshot.javadoc().addParam( incremental ).append( "{@code true}, to return the last snapshot of this "
+                                                               + "object if this object has not been modified "
+                                                               + "since; {@code false}, to create a new snapshot." );
+
+        takeSnapshot.javadoc().addReturn().append( "A snapshot of this object." );
+        takeSnapshot.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JBlock snapshotBlock = takeSnapshot.body()._if( incremental.not().cor( dirty ).cor(
+            last.eq( JExpr._null() ) ) )._then();
+
+        snapshotBlock.assign( last, JExpr.invoke( newSnapshot ).arg( incremental ) );
+        // Only frozen instances can be shared safely.
+        snapshotBlock.add( last.invoke( "freeze" ) );
+        snapshotBlock.assign( dirty, JExpr.FALSE );
+        takeSnapshot.body()._return( last );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return takeSnapshot;
+    }
+
+    private JMethod generateSnapshotMethod( final ClassOutline clazz, final ClassOutline root )
+    {
+        final JMethod snapshotMethod = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "snapshot" );
+        final JVar previous = snapshotMethod.param( JMod.FINAL, root.implClass, "previous" );
+        snapshotMethod.javadoc().append( "Creates and returns a snapshot of this object.\n<p>A snapshot is a deep copy "
+                                         + "of this object. Given the last snapshot of this object, schema derived "
+                                         + "instances not modified since are shared with that snapshot instead of "
+                                         + "being copied again, so that the cost of a snapshot depends on the number "
+                                         + "of instances modified rather than on the number of instances referenced. "
+                                         + "Modifications are tracked by the setters and the lists of this class. "
+                                         + "Modifications of mutable property values, of instances referenced more "
+                                         + "than once or wrapped in {@code JAXBElement}s and of instances referenced "
+                                         + "by {@code IDREF} properties are not tracked. Snapshots are "
+                                         + "frozen.</p>" );
+
+        snapshotMethod.javadoc().addParam( previous ).append( "The last snapshot of this object or {@code null}." );
+        snapshotMethod.javadoc().addReturn().append( "A snapshot of this object." );
+        snapshotMethod.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            // The 'snapshot' method of the root class of the hierarchy creates the snapshot.
+            snapshotMethod.annotate( Override.class );
+            snapshotMethod.body()._return( JExpr.cast( clazz.implClass, JExpr._super().invoke( snapshotMethod ).
+                arg( previous ) ) );
+
+        }
+        else
+        {
+            snapshotMethod.body()._return( JExpr.cast( clazz.implClass, JExpr._this().invoke( "takeSnapshot" ).arg(
+                previous.ne( JExpr._null() ).cand( previous.eq( JExpr.refthis(
+                this.snapshots.get( clazz ).name() ) ) ) ) ) );
+
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return snapshotMethod;
+    }
+
+    private JMethod generateCompleteSnapshotMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod completeSnapshot = clazz.implClass.method( JMod.PROTECTED, Void.TYPE, "completeSnapshot" );
+        final JVar copy = completeSnapshot.param( JMod.FINAL, cm.ref( Object.class ), "copy" );
+        final JVar incremental = completeSnapshot.param( JMod.FINAL, cm.BOOLEAN, "incremental" );
+        completeSnapshot.javadoc().append( "Completes a shallow copy of this object taking snapshots of the schema "
+                                           + "derived instances referenced by this object." );
+
+        completeSnapshot.javadoc().addParam( copy ).append( "The shallow copy of this object to complete." );
+        completeSnapshot.javadoc().addParam( incremental ).append( "{@code true}, to share the last snapshots of "
+                                                                   + "instances not modified since; {@code false}, "
+                                                                   + "to copy all instances." );
+
+        completeSnapshot.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            completeSnapshot.annotate( Override.class );
+            completeSnapshot.body().add( JExpr._super().invoke( completeSnapshot ).arg( copy ).arg( incremental ) );
+        }
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar target = copyBlock.decl( JMod.FINAL, clazz.implClass, "target", JExpr.cast( clazz.implClass, copy ) );
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+            final String fieldName = field.getPropertyInfo().getName( false );
+            final JFieldRef source = JExpr.refthis( fieldName );
+
+            if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive() )
+            {
+                continue;
+            }
+
+            if ( flag != null )
+            {
+                copyBlock.assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            if ( this.isNestedCopyProperty( field ) )
+            {
+                final JClass type = clazz.parent().getClazz(
+                    (CClassInfo) field.getPropertyInfo().ref().iterator().next() ).implClass;
+
+                if ( field.getPropertyInfo().isCollection() )
+                {
+                    copyBlock.directStatement( "// '" + field.getPropertyInfo().getName( true )
+                                               + "' collection snapshots." );
+
+                    copyBlock.assign( target.ref( fieldName ), JExpr._null() );
+
+                    final JBlock sourceNotNull = copyBlock._if( source.ne( JExpr._null() ) )._then();
+                    final JVar snapshotList = sourceNotNull.decl(
+                        JMod.FINAL, cm.ref( ArrayList.class ).narrow( type ), "snapshots",
+                        JExpr._new( cm.ref( ArrayList.class ).narrow( type ) ).arg( source.invoke( "size" ) ) );
+
+                    final JForEach forEachElement = sourceNotNull.forEach( type, "element", source );
+                    final JConditional elementNotNull =
+                        forEachElement.body()._if( forEachElement.var().ne( JExpr._null() ) );
+
+                    elementNotNull._then().add( forEachElement.var().invoke( "setTrackingParent" ).
+                        arg( JExpr._this() ) );
+
+                    elementNotNull._then().add( snapshotList.invoke( "add" ).arg( JExpr.cast(
+                        type, forEachElement.var().invoke( "takeSnapshot" ).arg( incremental ) ) ) );
+
+                    elementNotNull._else().add( snapshotList.invoke( "add" ).arg( JExpr._null() ) );
+
+                    sourceNotNull.assign( target.ref( fieldName ), snapshotList );
+                }
+                else
+                {
+                    copyBlock.directStatement( "// '" + field.getPropertyInfo().getName( true )
+                                               + "' property snapshot." );
+
+                    final JBlock sourceNotNull = copyBlock._if( source.ne( JExpr._null() ) )._then();
+                    sourceNotNull.add( source.invoke( "setTrackingParent" ).arg( JExpr._this() ) );
+                    sourceNotNull.assign( target.ref( fieldName ), JExpr.cast(
+                        type, source.invoke( "takeSnapshot" ).arg( incremental ) ) );
+
+                }
+            }
+            else
+            {
+                this.generateSetTrackingParent( field, copyBlock, source );
+                this.generateCopyOfProperty( field, target, JExpr._this(), copyBlock, true );
+            }
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+
+        if ( wildcard != null )
+        {
+            // The shallow copy shares the map of other attributes with this object.
+            copyBlock.assign( target.ref( wildcard ), JExpr._new( cm.ref( HashMap.class ).narrow(
+                cm.ref( QName.class ), cm.ref( String.class ) ) ) );
+
+        }
+
+        this.generateCopyOfUnknownFields( clazz, target, copyBlock, false );
+
+        if ( copyBlock.getContents().size() > 1 )
+        {
+            this.addCopyBlock( clazz, completeSnapshot.body(), copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return completeSnapshot;
+    }
+
+    private void generateSetTrackingParent( final FieldOutline field, final JBlock block, final JExpression value )
+    {
+        if ( field.getPropertyInfo().id() == ID.IDREF )
+        {
+            return;
+        }
+
+        if ( this.isNestedCopyProperty( field ) )
+        {
+            block._if( value.ne( JExpr._null() ) )._then().add( value.invoke( "setTrackingParent" ).
+                arg( JExpr._this() ) );
+
+        }
+        else if ( !field.getPropertyInfo().isCollection() && "java.lang.Object".equals(
+            field.getRawType().fullName() ) )
+        {
+            final JDefinedClass trackable = this.getTrackableClass( field.parent().parent() );
+            block._if( value._instanceof( trackable ) )._then().add( JExpr.invoke(
+                JExpr.cast( trackable, value ), "setTrackingParent" ).arg( JExpr._this() ) );
+
+        }
+    }
+
+    private void generateTrackingAccessors( final ClassOutline clazz )
+    {
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final String name = field.getPropertyInfo().getName( true );
+            final JFieldRef fieldRef = JExpr.refthis( field.getPropertyInfo().getName( false ) );
+
+            for ( JMethod m : clazz.implClass.methods() )
+            {
+                if ( m.name().equals( "set" + name ) )
+                {
+                    if ( m.listParams().length == 1 && !field.getPropertyInfo().isCollection() )
+                    {
+                        this.generateSetTrackingParent( field, m.body(), m.listParams()[0] );
+                    }
+
+                    m.body().add( JExpr._this().invoke( "markDirty" ) );
+                }
+            }
+
+            final JMethod getter = this.getPropertyGetter( field );
+
+            if ( this.isTrackedListProperty( field ) && getter != null
+                 && getter.body().getContents().size() > 1 && getter.body().getContents().get(
+                getter.body().getContents().size() - 2 ) instanceof JConditional )
+            {
+                // Lists are wrapped when initialized lazily by the statement preceding the return statement, so
+                // that getters do not write lists not being 'null'.
+                final JConditional initialization = (JConditional) getter.body().getContents().get(
+                    getter.body().getContents().size() - 2 );
+
+                initialization._then().assign( fieldRef, this.getNewTrackedList( field, fieldRef ) );
+            }
+        }
+    }
+
+    private boolean isTrackedListProperty( final FieldOutline field )
+    {
+        return field.getPropertyInfo().isCollection() && !field.getRawType().isArray()
+               && !( (JClass) field.getRawType() ).getTypeParameters().isEmpty();
+
+    }
+
+    private JExpression getNewTrackedList( final FieldOutline field, final JExpression list )
+    {
+        final JClass elementType = ( (JClass) field.getRawType() ).getTypeParameters().get( 0 );
+        return JExpr._new( this.getTrackedListClass( field.parent().parent() ).narrow( elementType ) ).
+            arg( JExpr._this() ).arg( list ).arg( JExpr.lit( field.getPropertyInfo().id() != ID.IDREF ) );
+
+    }
+
+    private JMethod generateAfterUnmarshalMethod( final ClassOutline clazz )
+    {
+        final JMethod afterUnmarshal = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "afterUnmarshal" );
+        final JVar unmarshaller = afterUnmarshal.param( JMod.FINAL, Unmarshaller.class, "unmarshaller" );
+        final JVar parent = afterUnmarshal.param( JMod.FINAL, Object.class, "parent" );
+        afterUnmarshal.javadoc().append( "Wraps the lists unmarshalled into this object to track their "
+                                         + "modifications.\n<p>This method is called by JAXB after all properties "
+                                         + "of this object have been unmarshalled.</p>" );
+
+        afterUnmarshal.javadoc().addParam( unmarshaller ).append( "The unmarshaller having unmarshalled this "
+                                                                  + "object." );
+
+        afterUnmarshal.javadoc().addParam( parent ).append( "The object referencing this object or {@code null}." );
+        afterUnmarshal.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            afterUnmarshal.annotate( Override.class );
+            afterUnmarshal.body().add( JExpr._super().invoke( afterUnmarshal ).arg( unmarshaller ).arg( parent ) );
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.isTrackedListProperty( field ) )
+            {
+                // JAXB unmarshals lists into the fields directly.
+                final JFieldRef fieldRef = JExpr.refthis( field.getPropertyInfo().getName( false ) );
+                afterUnmarshal.body()._if( fieldRef.ne( JExpr._null() ).cand( fieldRef._instanceof(
+                    this.getTrackedListClass( clazz.parent() ) ).not() ) )._then().assign(
+                    fieldRef, this.getNewTrackedList( field, fieldRef ) );
+
+            }
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return afterUnmarshal;
+    }
+
+    private JDefinedClass getInternableClass( final Outline outline )
+    {
+        JDefinedClass internable = this.getSupportClass( outline, INTERNABLE_CLASS_NAME );
+
+        if ( internable == null )
+        {
+            internable = this.newSupportClass( outline, INTERNABLE_CLASS_NAME, ClassType.INTERFACE );
+            internable.javadoc().append( "Instances which can be interned in an {@code " + INTERN_TABLE_CLASS_NAME
+                                         + "}." );
+
+            final JMethod internHashCode = internable.method( JMod.NONE, outline.getCodeModel().INT,
+                                                              "internHashCode" );
+
+            internHashCode.javadoc().append( "Computes a hash code of the properties of this instance, hashing the "
+                                             + "schema derived instances referenced by this instance by identity." );
+
+            internHashCode.javadoc().addReturn().append( "A hash code of the properties of this instance." );
+
+            final JMethod internEquals = internable.method( JMod.NONE, outline.getCodeModel().BOOLEAN,
+                                                            "internEquals" );
+
+            final JVar other = internEquals.param( JMod.FINAL, Object.class, "other" );
+            internEquals.javadoc().append( "Compares the properties of this instance to the properties of another "
+                                           + "instance, comparing the schema derived instances referenced by these "
+                                           + "instances by identity." );
+
+            internEquals.javadoc().addParam( other ).append( "The instance to compare this instance to." );
+            internEquals.javadoc().addReturn().append( "{@code true}, if {@code other} is an instance of the class of "
+                                                       + "this instance with equal properties; {@code false}, if "
+                                                       + "not." );
+
+        }
+
+        return internable;
+    }
+
+    private JDefinedClass getInternTableClass( final Outline outline )
+    {
+        JDefinedClass internTable = this.getSupportClass( outline, INTERN_TABLE_CLASS_NAME );
+
+        if ( internTable == null )
+        {
+            internTable = this.generateInternTableClass( outline );
+        }
+
+        return internTable;
+    }
+
+    private JDefinedClass generateInternTableClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass internTable = this.newSupportClass( outline, INTERN_TABLE_CLASS_NAME, ClassType.CLASS );
+        final JDefinedClass internable = this.getInternableClass( outline );
+        final JClass object = cm.ref( Object.class );
+        final JClass list = cm.ref( List.class ).narrow( cm.wildcard() );
+        internTable.javadoc().append( "Bounded table of canonical instances.\n<p>Instances with equal properties are "
+                                      + "interned to the first of these instances added to the table. Once the "
+                                      + "capacity of the table has been reached, instances not already in the table "
+                                      + "are not added. Tables can be shared between threads.</p>" );
+
+        final JDefinedClass keyClass;
+
+        try
+        {
+            keyClass = internTable._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "Key" );
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        keyClass.javadoc().append( "Key of an instance in the table." );
+
+        final JFieldVar keyInstance = keyClass.field( JMod.PRIVATE | JMod.FINAL, internable, "instance" );
+        keyInstance.javadoc().append( "The instance of the key." );
+
+        final JFieldVar keyHash = keyClass.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "hash" );
+        keyHash.javadoc().append( "The hash code of the properties of the instance of the key." );
+
+        final JMethod keyCtor = keyClass.constructor( JMod.NONE );
+        final JVar keyCtorInstance = keyCtor.param( JMod.FINAL, internable, "instance" );
+        keyCtor.javadoc().append( "Creates a new {@code Key} instance." );
+        keyCtor.javadoc().addParam( keyCtorInstance ).append( "The instance of the key." );
+        keyCtor.body().directStatement( "// " + getMessage( "title" ) );
+        keyCtor.body().invoke( "super" );
+        keyCtor.body().assign( JExpr._this().ref( keyInstance ), keyCtorInstance );
+        keyCtor.body().assign( JExpr._this().ref( keyHash ), keyCtorInstance.invoke( "internHashCode" ) );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod keyHashCode = keyClass.method( JMod.PUBLIC, cm.INT, "hashCode" );
+        keyHashCode.annotate( Override.class );
+        keyHashCode.body().directStatement( "// " + getMessage( "title" ) );
+        keyHashCode.body()._return( JExpr.refthis( keyHash.name() ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod keyEquals = keyClass.method( JMod.PUBLIC, cm.BOOLEAN, "equals" );
+        keyEquals.annotate( Override.class );
+        final JVar keyOther = keyEquals.param( JMod.FINAL, object, "o" );
+        keyEquals.body().directStatement( "// " + getMessage( "title" ) );
+        keyEquals.body()._if( keyOther._instanceof( keyClass ).not() )._then()._return( JExpr.FALSE );
+        final JVar otherKey = keyEquals.body().decl( JMod.FINAL, keyClass, "other", JExpr.cast( keyClass, keyOther ) );
+        keyEquals.body()._return( JExpr.refthis( keyHash.name() ).eq( otherKey.ref( keyHash ) ).cand(
+            JExpr.refthis( keyInstance.name() ).invoke( "internEquals" ).arg( otherKey.ref( keyInstance ) ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JFieldVar instances = internTable.field( JMod.PRIVATE | JMod.FINAL, cm.ref( ConcurrentMap.class ).
+            narrow( keyClass, object ), "instances", JExpr._new( cm.ref( ConcurrentHashMap.class ).
+            narrow( keyClass, object ) ) );
+
+        instances.javadoc().append( "Canonical instances by key." );
+
+        final JFieldVar size = internTable.field( JMod.PRIVATE | JMod.FINAL, AtomicInteger.class, "size",
+                                                  JExpr._new( cm.ref( AtomicInteger.class ) ) );
+
+        size.javadoc().append( "Number of instances in the table." );
+
+        final JFieldVar capacity = internTable.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "capacity" );
+        capacity.javadoc().append( "Maximum number of instances in the table." );
+
+        final JMethod ctor = internTable.constructor( JMod.PUBLIC );
+        final JVar ctorCapacity = ctor.param( JMod.FINAL, cm.INT, "capacity" );
+        ctor.javadoc().append( "Creates a new {@code " + internTable.name() + "} instance." );
+        ctor.javadoc().addParam( ctorCapacity ).append( "The maximum number of instances in the table." );
+        ctor.javadoc().addThrows( IllegalArgumentException.class ).append( "if {@code capacity} is negative." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body()._if( ctorCapacity.lt( JExpr.lit( 0 ) ) )._then()._throw( JExpr._new(
+            cm.ref( IllegalArgumentException.class ) ).arg( JExpr.lit( "Illegal capacity '" ).plus( ctorCapacity ).
+            plus( JExpr.lit( "'." ) ) ) );
+
+        ctor.body().assign( JExpr._this().ref( capacity ), ctorCapacity );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod intern = internTable.method( JMod.PUBLIC, object, "intern" );
+        final JVar instance = intern.param( JMod.FINAL, internable, "instance" );
+        intern.javadoc().append( "Gets the canonical instance of a given instance." );
+        intern.javadoc().addParam( instance ).append( "The instance to intern." );
+        intern.javadoc().addReturn().append( "The instance of the table with properties equal to the properties of "
+                                             + "{@code instance} or {@code instance}." );
+
+        intern.javadoc().addThrows( NullPointerException.class ).append( "if {@code instance} is {@code null}." );
+        intern.body().directStatement( "// " + getMessage( "title" ) );
+        intern.body()._if( instance.eq( JExpr._null() ) )._then()._throw( JExpr._new(
+            cm.ref( NullPointerException.class ) ).arg( "Cannot intern a 'null' instance." ) );
+
+        final JVar key = intern.body().decl( JMod.FINAL, keyClass, "key", JExpr._new( keyClass ).arg( instance ) );
+        final JVar canonical = intern.body().decl( JMod.FINAL, object, "canonical", JExpr.refthis(
+            instances.name() ).invoke( "get" ).arg( key ) );
+
+        intern.body()._if( canonical.ne( JExpr._null() ) )._then()._return( canonical );
+        intern.body()._if( JExpr.refthis( size.name() ).invoke( "get" ).gte( JExpr.refthis( capacity.name() ) ) ).
+            _then()._return( instance );
+
+        final JVar previous = intern.body().decl( JMod.FINAL, object, "previous", JExpr.refthis(
+            instances.name() ).invoke( "putIfAbsent" ).arg( key ).arg( instance ) );
+
+        intern.body()._if( previous.ne( JExpr._null() ) )._then()._return( previous );
+        intern.body().add( JExpr.refthis( size.name() ).invoke( "incrementAndGet" ) );
+        intern.body()._return( instance );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod sizeMethod = internTable.method( JMod.PUBLIC, cm.INT, "size" );
+        sizeMethod.javadoc().append( "Gets the number of instances in the table." );
+        sizeMethod.javadoc().addReturn().append( "The number of instances in the table." );
+        sizeMethod.body().directStatement( "// " + getMessage( "title" ) );
+        sizeMethod.body()._return( JExpr.refthis( size.name() ).invoke( "get" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod equal = internTable.method( JMod.PUBLIC | JMod.STATIC, cm.BOOLEAN, "equal" );
+        final JVar equalA = equal.param( JMod.FINAL, object, "a" );
+        final JVar equalB = equal.param( JMod.FINAL, object, "b" );
+        equal.javadoc().append( "Tests two objects for equality.\n<p>Calendars and durations are equal if their "
+                                + "lexical representations are equal, so that values denoting the same instant "
+                                + "or length of time using different fields are not interned to each other. Lists "
+                                + "are compared element by element.</p>" );
+
+        equal.javadoc().addParam( equalA ).append( "The first object or {@code null}." );
+        equal.javadoc().addParam( equalB ).append( "The second object or {@code null}." );
+        equal.javadoc().addReturn().append( "{@code true}, if {@code a} and {@code b} are both {@code null} or "
+                                            + "equal; {@code false}, if not." );
+
+        equal.body().directStatement( "// " + getMessage( "title" ) );
+        equal.body()._if( equalA.eq( JExpr._null() ).cor( equalB.eq( JExpr._null() ) ) )._then().
+            _return( equalA.eq( equalB ) );
+
+        final JBlock equalLists = equal.body()._if( equalA._instanceof( list.erasure() ).cand(
+            equalB._instanceof( list.erasure() ) ) )._then();
+
+        final JVar listA = equalLists.decl( JMod.FINAL, list, "listA", JExpr.cast( list, equalA ) );
+        final JVar listB = equalLists.decl( JMod.FINAL, list, "listB", JExpr.cast( list, equalB ) );
+        equalLists._if( listA.invoke( "size" ).ne( listB.invoke( "size" ) ) )._then()._return( JExpr.FALSE );
+
+        final JForLoop equalLoop = equalLists._for();
+        final JVar e = equalLoop.init( cm.INT, "i", JExpr.lit( 0 ) );
+        equalLoop.test( e.lt( listA.invoke( "size" ) ) );
+        equalLoop.update( e.incr() );
+        equalLoop.body()._if( JExpr.invoke( equal ).arg( listA.invoke( "get" ).arg( e ) ).arg(
+            listB.invoke( "get" ).arg( e ) ).not() )._then()._return( JExpr.FALSE );
+
+        equalLists._return( JExpr.TRUE );
+
+        equal.body()._if( equalA._instanceof( cm.ref( XMLGregorianCalendar.class ) ).cor(
+            equalA._instanceof( cm.ref( Duration.class ) ) ) )._then()._return(
+            equalA.invoke( "getClass" ).eq( equalB.invoke( "getClass" ) ).cand(
+            equalA.invoke( "toString" ).invoke( "equals" ).arg( equalB.invoke( "toString" ) ) ) );
+
+        equal.body()._return( equalA.invoke( "equals" ).arg( equalB ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod hashMethod = internTable.method( JMod.PUBLIC | JMod.STATIC, cm.INT, "hash" );
+        final JVar hashObject = hashMethod.param( JMod.FINAL, object, "o" );
+        hashMethod.javadoc().append( "Computes a hash code of an object consistent with method {@code equal}." );
+        hashMethod.javadoc().addParam( hashObject ).append( "The object to compute a hash code of or {@code null}." );
+        hashMethod.javadoc().addReturn().append( "A hash code of {@code o}." );
+        hashMethod.body().directStatement( "// " + getMessage( "title" ) );
+        hashMethod.body()._if( hashObject.eq( JExpr._null() ) )._then()._return( JExpr.lit( 0 ) );
+
+        final JBlock listHashBlock = hashMethod.body()._if( hashObject._instanceof( list.erasure() ) )._then();
+        final JVar listHash = listHashBlock.decl( cm.INT, "hash", JExpr.lit( 1 ) );
+        final JForEach listLoop = listHashBlock.forEach( object, "element", JExpr.cast( list, hashObject ) );
+        listLoop.body().assign( listHash, JExpr.lit( 31 ).mul( listHash ).plus(
+            JExpr.invoke( hashMethod ).arg( listLoop.var() ) ) );
+
+        listHashBlock._return( listHash );
+
+        hashMethod.body()._if( hashObject._instanceof( cm.ref( XMLGregorianCalendar.class ) ).cor(
+            hashObject._instanceof( cm.ref( Duration.class ) ) ) )._then()._return(
+            hashObject.invoke( "toString" ).invoke( "hashCode" ) );
+
+        hashMethod.body()._return( hashObject.invoke( "hashCode" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod identical = internTable.method( JMod.PUBLIC | JMod.STATIC, cm.BOOLEAN, "identical" );
+        final JVar identicalA = identical.param( JMod.FINAL, list, "a" );
+        final JVar identicalB = identical.param( JMod.FINAL, list, "b" );
+        identical.javadoc().append( "Tests two lists for holding identical elements." );
+        identical.javadoc().addParam( identicalA ).append( "The first list or {@code null}." );
+        identical.javadoc().addParam( identicalB ).append( "The second list or {@code null}." );
+        identical.javadoc().addReturn().append( "{@code true}, if {@code a} and {@code b} are both {@code null} or "
+                                                + "hold identical elements in the same order; {@code false}, if "
+                                                + "not." );
+
+        identical.body().directStatement( "// " + getMessage( "title" ) );
+        identical.body()._if( identicalA.eq( JExpr._null() ).cor( identicalB.eq( JExpr._null() ) ) )._then().
+            _return( identicalA.eq( identicalB ) );
+
+        identical.body()._if( identicalA.invoke( "size" ).ne( identicalB.invoke( "size" ) ) )._then().
+            _return( JExpr.FALSE );
+
+        final JForLoop identicalLoop = identical.body()._for();
+        final JVar i = identicalLoop.init( cm.INT, "i", JExpr.lit( 0 ) );
+        identicalLoop.test( i.lt( identicalA.invoke( "size" ) ) );
+        identicalLoop.update( i.incr() );
+        identicalLoop.body()._if( identicalA.invoke( "get" ).arg( i ).ne( identicalB.invoke( "get" ).arg( i ) ) ).
+            _then()._return( JExpr.FALSE );
+
+        identical.body()._return( JExpr.TRUE );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod identityHashCode = internTable.method( JMod.PUBLIC | JMod.STATIC, cm.INT, "identityHashCode" );
+        final JVar hashList = identityHashCode.param( JMod.FINAL, list, "list" );
+        identityHashCode.javadoc().append( "Computes a hash code of the identities of the elements of a list." );
+        identityHashCode.javadoc().addParam( hashList ).append( "The list to compute a hash code of or "
+                                                                + "{@code null}." );
+
+        identityHashCode.javadoc().addReturn().append( "A hash code of the identities of the elements of "
+                                                       + "{@code list}." );
+
+        identityHashCode.body().directStatement( "// " + getMessage( "title" ) );
+        identityHashCode.body()._if( hashList.eq( JExpr._null() ) )._then()._return( JExpr.lit( 0 ) );
+        final JVar hash = identityHashCode.body().decl( cm.INT, "hash", JExpr.lit( 1 ) );
+        final JForEach hashLoop = identityHashCode.body().forEach( object, "element", hashList );
+        hashLoop.body().assign( hash, JExpr.lit( 31 ).mul( hash ).plus( cm.ref( System.class ).staticInvoke(
+            "identityHashCode" ).arg( hashLoop.var() ) ) );
+
+        identityHashCode.body()._return( hash );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return internTable;
+    }
+
+    private void generateInternMethods( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass internTable = this.getInternTableClass( clazz.parent() );
+
+        if ( clazz.implClass.getMethod( "internedCopy", new JType[]
+            {
+                internTable
+            } ) == null )
+        {
+            this.generateInternedCopyMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "internedCopy", clazz.implClass.binaryName() );
+        }
+
+        if ( clazz.implClass.getMethod( "completeInternedCopy", new JType[]
+            {
+                cm.ref( Object.class ), internTable
+            } ) == null )
+        {
+            this.generateCompleteInternedCopyMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "completeInternedCopy", clazz.implClass.binaryName() );
+        }
+
+        if ( clazz.implClass.getMethod( "internHashCode", NO_ARGS ) == null )
+        {
+            this.generateInternHashCodeMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "internHashCode", clazz.implClass.binaryName() );
+        }
+
+        if ( clazz.implClass.getMethod( "internEquals", new JType[]
+            {
+                cm.ref( Object.class )
+            } ) == null )
+        {
+            this.generateInternEqualsMethod( clazz );
+        }
+        else
+        {
+            this.log( Level.WARNING, "methodExists", "internEquals", clazz.implClass.binaryName() );
+        }
+    }
+
+    private JMethod generateInternedCopyMethod( final ClassOutline clazz )
+    {
+        final JDefinedClass internTable = this.getInternTableClass( clazz.parent() );
+        final JMethod internedCopy = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "internedCopy" );
+        final JVar table = internedCopy.param( JMod.FINAL, internTable, "table" );
+        internedCopy.javadoc().append( "Creates and returns a frozen deep copy of this object sharing equal "
+                                       + "instances.\n<p>The copy is created bottom-up, interning each copied schema "
+                                       + "derived instance in a given table after having interned the schema derived "
+                                       + "instances it references, so that the copy references one instance per "
+                                       + "distinct value. Properties referencing schema derived instances of more "
+                                       + "than one class are copied deeply without being interned.</p>" );
+
+        internedCopy.javadoc().addParam( table ).append( "The table to intern copied instances in." );
+        internedCopy.javadoc().addReturn().append( "A frozen deep copy of this object." );
+        internedCopy.javadoc().addThrows( NullPointerException.class ).append( "if {@code table} is {@code null}." );
+        internedCopy.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            // The 'internedCopy' method of the root class of the hierarchy creates the copy.
+            internedCopy.annotate( Override.class );
+            internedCopy.body()._return( JExpr.cast( clazz.implClass, JExpr._super().invoke( internedCopy ).
+                arg( table ) ) );
+
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+            return internedCopy;
+        }
+
+        final JMethod newInternedCopy = clazz.implClass.method( JMod.PRIVATE, clazz.implClass, "newInternedCopy" );
+        final JVar newTable = newInternedCopy.param( JMod.FINAL, internTable, "table" );
+        newInternedCopy.javadoc().append( "Creates and returns a deep copy of this object referencing interned "
+                                          + "instances." );
+
+        newInternedCopy.javadoc().addParam( newTable ).append( "The table to intern copied instances in." );
+        newInternedCopy.javadoc().addReturn().append( "A deep copy of this object referencing interned instances." );
+        newInternedCopy.body().directStatement( "// " + getMessage( "title" ) );
+        this.generateCompletedShallowCopy( clazz, newInternedCopy.body(), "completeInternedCopy", newTable );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        internedCopy.body()._if( table.eq( JExpr._null() ) )._then()._throw(
+            JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
+            arg( "Cannot copy '" + clazz.implClass.name() + "' using a 'null' table." ) );
+
+        final JVar copy = internedCopy.body().decl( JMod.FINAL, clazz.implClass, "copy",
+                                                    JExpr.invoke( newInternedCopy ).arg( table ) );
+
+        // Only frozen instances can be shared safely.
+        internedCopy.body().add( copy.invoke( "freeze" ) );
+        internedCopy.body()._return( JExpr.cast( clazz.implClass, table.invoke( "intern" ).arg( copy ) ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return internedCopy;
+    }
+
+    private JMethod generateCompleteInternedCopyMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JMethod completeInternedCopy =
+            clazz.implClass.method( JMod.PROTECTED, Void.TYPE, "completeInternedCopy" );
+
+        final JVar copy = completeInternedCopy.param( JMod.FINAL, cm.ref( Object.class ), "copy" );
+        final JVar table = completeInternedCopy.param( JMod.FINAL, this.getInternTableClass( clazz.parent() ),
+                                                       "table" );
+
+        completeInternedCopy.javadoc().append( "Completes a shallow copy of this object referencing interned copies "
+                                               + "of the schema derived instances referenced by this object." );
+
+        completeInternedCopy.javadoc().addParam( copy ).append( "The shallow copy of this object to complete." );
+        completeInternedCopy.javadoc().addParam( table ).append( "The table to intern copied instances in." );
+        completeInternedCopy.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            completeInternedCopy.annotate( Override.class );
+            completeInternedCopy.body().add( JExpr._super().invoke( completeInternedCopy ).arg( copy ).arg( table ) );
+        }
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar target = copyBlock.decl( JMod.FINAL, clazz.implClass, "target", JExpr.cast( clazz.implClass, copy ) );
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+            final String fieldName = field.getPropertyInfo().getName( false );
+            final JFieldRef source = JExpr.refthis( fieldName );
+
+            if ( this.getPropertyGetter( field ) == null || field.getRawType().isPrimitive() )
+            {
+                continue;
+            }
+
+            if ( flag != null )
+            {
+                copyBlock.assign( target.ref( flag ), JExpr.FALSE );
+            }
+
+            if ( this.isNestedCopyProperty( field ) )
+            {
+                final JClass type = clazz.parent().getClazz(
+                    (CClassInfo) field.getPropertyInfo().ref().iterator().next() ).implClass;
+
+                if ( field.getPropertyInfo().isCollection() )
+                {
+                    copyBlock.directStatement( "// '" + field.getPropertyInfo().getName( true )
+                                               + "' collection interned." );
+
+                    copyBlock.assign( target.ref( fieldName ), JExpr._null() );
+
+                    final JBlock sourceNotNull = copyBlock._if( source.ne( JExpr._null() ) )._then();
+                    final JVar copies = sourceNotNull.decl( JMod.FINAL, field.getRawType(), "copies",
+                                                            target.invoke( this.getPropertyGetter( field ) ) );
+
+                    final JForEach forEachElement = sourceNotNull.forEach( type, "element", source );
+                    forEachElement.body().add( copies.invoke( "add" ).arg( JOp.cond(
+                        forEachElement.var().eq( JExpr._null() ), JExpr._null(),
+                        forEachElement.var().invoke( "internedCopy" ).arg( table ) ) ) );
+
+                }
+                else
+                {
+                    copyBlock.directStatement( "// '" + field.getPropertyInfo().getName( true )
+                                               + "' property interned." );
+
+                    copyBlock.assign( target.ref( fieldName ), JOp.cond(
+                        source.eq( JExpr._null() ), JExpr._null(), source.invoke( "internedCopy" ).arg( table ) ) );
+
+                }
+            }
+            else
+            {
+                this.generateCopyOfProperty( field, target, JExpr._this(), copyBlock, true );
+            }
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+
+        if ( wildcard != null )
+        {
+            // The shallow copy shares the map of other attributes with this object.
+            copyBlock.assign( target.ref( wildcard ), JExpr._new( cm.ref( HashMap.class ).narrow(
+                cm.ref( QName.class ), cm.ref( String.class ) ) ) );
+
+        }
+
+        this.generateCopyOfUnknownFields( clazz, target, copyBlock, false );
+
+        if ( copyBlock.getContents().size() > 1 )
+        {
+            this.addCopyBlock( clazz, completeInternedCopy.body(), copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return completeInternedCopy;
+    }
+
+    private JMethod generateInternHashCodeMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass internTable = this.getInternTableClass( clazz.parent() );
+        final JMethod internHashCode = clazz.implClass.method( JMod.PUBLIC, cm.INT, "internHashCode" );
+        internHashCode.javadoc().append( "Computes a hash code of the properties of this object, hashing the schema "
+                                         + "derived instances referenced by this object by identity." );
+
+        internHashCode.javadoc().addReturn().append( "A hash code of the properties of this object." );
+        internHashCode.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JVar hash;
+
+        if ( clazz.getSuperClass() != null )
+        {
+            internHashCode.annotate( Override.class );
+            hash = internHashCode.body().decl( cm.INT, "hash", JExpr._super().invoke( internHashCode ) );
+        }
+        else
+        {
+            hash = internHashCode.body().decl( cm.INT, "hash", JExpr.lit( 17 ) );
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.getPropertyGetter( field ) == null )
+            {
+                continue;
+            }
+
+            final JFieldRef value = JExpr.refthis( field.getPropertyInfo().getName( false ) );
+            final JExpression valueHash;
+
+            if ( field.getRawType().isPrimitive() )
+            {
+                valueHash = field.getRawType().boxify().staticInvoke( "valueOf" ).arg( value ).invoke( "hashCode" );
+            }
+            else if ( this.isNestedCopyProperty( field ) )
+            {
+                valueHash = field.getPropertyInfo().isCollection()
+                            ? internTable.staticInvoke( "identityHashCode" ).arg( value )
+                            : cm.ref( System.class ).staticInvoke( "identityHashCode" ).arg( value );
+
+            }
+            else if ( field.getRawType().isArray() )
+            {
+                valueHash = cm.ref( Arrays.class ).staticInvoke( "hashCode" ).arg( value );
+            }
+            else
+            {
+                valueHash = internTable.staticInvoke( "hash" ).arg( value );
+            }
+
+            internHashCode.body().assign( hash, JExpr.lit( 31 ).mul( hash ).plus( valueHash ) );
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+
+        if ( wildcard != null )
+        {
+            internHashCode.body().assign( hash, JExpr.lit( 31 ).mul( hash ).plus( JExpr.refthis( wildcard.name() ).
+                invoke( "hashCode" ) ) );
+
+        }
+
+        internHashCode.body()._return( hash );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return internHashCode;
+    }
+
+    private JMethod generateInternEqualsMethod( final ClassOutline clazz )
+    {
+        final JCodeModel cm = clazz.parent().getCodeModel();
+        final JDefinedClass internTable = this.getInternTableClass( clazz.parent() );
+        final JMethod internEquals = clazz.implClass.method( JMod.PUBLIC, cm.BOOLEAN, "internEquals" );
+        final JVar other = internEquals.param( JMod.FINAL, Object.class, "other" );
+        internEquals.javadoc().append( "Compares the properties of this object to the properties of another object, "
+                                       + "comparing the schema derived instances referenced by these objects by "
+                                       + "identity." );
+
+        internEquals.javadoc().addParam( other ).append( "The object to compare this object to." );
+        internEquals.javadoc().addReturn().append( "{@code true}, if {@code other} is an instance of the class of this "
+                                                   + "object with equal properties; {@code false}, if not." );
+
+        internEquals.body().directStatement( "// " + getMessage( "title" ) );
+
+        if ( clazz.getSuperClass() != null )
+        {
+            internEquals.annotate( Override.class );
+            internEquals.body()._if( JExpr._super().invoke( internEquals ).arg( other ).not() )._then().
+                _return( JExpr.FALSE );
+
+        }
+        else
+        {
+            internEquals.body()._if( JExpr._this().eq( other ) )._then()._return( JExpr.TRUE );
+            internEquals.body()._if( other.eq( JExpr._null() ).cor( JExpr._this().invoke( "getClass" ).ne(
+                other.invoke( "getClass" ) ) ) )._then()._return( JExpr.FALSE );
+
+        }
+
+        final JFieldVar wildcard = this.getPatchWildcardField( clazz );
+        JVar that = null;
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.getPropertyGetter( field ) == null )
+            {
+                continue;
+            }
+
+            if ( that == null )
+            {
+                that = internEquals.body().decl( JMod.FINAL, clazz.implClass, "that",
+                                                 JExpr.cast( clazz.implClass, other ) );
+
+            }
+
+            final String fieldName = field.getPropertyInfo().getName( false );
+            final JFieldRef value = JExpr.refthis( fieldName );
+            final JFieldRef otherValue = that.ref( fieldName );
+            final JExpression differs;
+
+            if ( field.getRawType().isPrimitive()
+                 || ( this.isNestedCopyProperty( field ) && !field.getPropertyInfo().isCollection() ) )
+            {
+                differs = value.ne( otherValue );
+            }
+            else if ( this.isNestedCopyProperty( field ) )
+            {
+                differs = internTable.staticInvoke( "identical" ).arg( value ).arg( otherValue ).not();
+            }
+            else if ( field.getRawType().isArray() )
+            {
+                differs = cm.ref( Arrays.class ).staticInvoke( "equals" ).arg( value ).arg( otherValue ).not();
+            }
+            else
+            {
+                differs = internTable.staticInvoke( "equal" ).arg( value ).arg( otherValue ).not();
+            }
+
+            internEquals.body()._if( differs )._then()._return( JExpr.FALSE );
+        }
+
+        if ( wildcard != null )
+        {
+            if ( that == null )
+            {
+                that = internEquals.body().decl( JMod.FINAL, clazz.implClass, "that",
+                                                 JExpr.cast( clazz.implClass, other ) );
+
+            }
+
+            internEquals.body()._if( JExpr.refthis( wildcard.name() ).invoke( "equals" ).arg(
+                that.ref( wildcard ) ).not() )._then()._return( JExpr.FALSE );
+
+        }
+
+        internEquals.body()._return( JExpr.TRUE );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return internEquals;
+    }
+
+    private JExpression getDedupExpression( final Outline outline, final JExpression sourceExpr )
+    {
+        return this.dedup
+               ? this.getDedupTableClass( outline ).staticInvoke( "dedup" ).arg( sourceExpr ) : sourceExpr;
+
+    }
+
+    private JDefinedClass getDedupTableClass( final Outline outline )
+    {
+        JDefinedClass dedupTable = this.getSupportClass( outline, DEDUP_TABLE_CLASS_NAME );
+
+        if ( dedupTable == null )
+        {
+            dedupTable = this.generateDedupTableClass( outline );
+        }
+
+        return dedupTable;
+    }
+
+    private JDefinedClass generateDedupTableClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass dedupTable = this.newSupportClass( outline, DEDUP_TABLE_CLASS_NAME, ClassType.CLASS );
+        final JClass object = cm.ref( Object.class );
+        final JClass reference = cm.ref( WeakReference.class ).narrow( object );
+        final String capacityProperty = dedupTable.fullName() + ".capacity";
+
+        dedupTable.javadoc().append( "Table of canonical {@code String} and {@code QName} instances shared by "
+                                     + "copies.\n<p>Equal values copied are replaced with the first of these values "
+                                     + "added to the table. Values are weakly referenced so that unused values can "
+                                     + "be garbage collected. The number of values in the table is bounded by the "
+                                     + "value of system property {@code " + capacityProperty + "}, defaulting to "
+                                     + DEDUP_CAPACITY + ". Once that capacity has been reached, values not already "
+                                     + "in the table are not added. The table is split into " + DEDUP_SEGMENTS
+                                     + " segments locked independently of each other.</p>" );
+
+        final JFieldVar capacity = dedupTable.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT, "CAPACITY", cm.ref( Integer.class ).
+            staticInvoke( "getInteger" ).arg( JExpr.lit( capacityProperty ) ).arg( JExpr.lit( DEDUP_CAPACITY ) ).
+            invoke( "intValue" ) );
+
+        capacity.javadoc().append( "Maximum number of values in the table." );
+
+        final JDefinedClass segmentClass;
+
+        try
+        {
+            segmentClass = dedupTable._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "Segment" );
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        segmentClass.javadoc().append( "Segment of the table." );
+
+        final JFieldVar values = segmentClass.field(
+            JMod.PRIVATE | JMod.FINAL, cm.ref( Map.class ).narrow( object, reference ), "values",
+            JExpr._new( cm.ref( WeakHashMap.class ).narrow( object, reference ) ) );
+
+        values.javadoc().append( "Canonical values by value." );
+
+        // Counted while holding the lock of the segment instead of contending for shared counters.
+        final JFieldVar lookups = segmentClass.field( JMod.PRIVATE, cm.LONG, "lookups" );
+        lookups.javadoc().append( "Number of values looked up in the segment." );
+
+        final JFieldVar hits = segmentClass.field( JMod.PRIVATE, cm.LONG, "hits" );
+        hits.javadoc().append( "Number of values looked up in the segment replaced with a canonical value." );
+
+        final JMethod segmentIntern = segmentClass.method( JMod.SYNCHRONIZED, object, "intern" );
+        final JVar segmentValue = segmentIntern.param( JMod.FINAL, object, "value" );
+        segmentIntern.javadoc().append( "Gets the canonical value of a given value." );
+        segmentIntern.javadoc().addParam( segmentValue ).append( "The value to get the canonical value of." );
+        segmentIntern.javadoc().addReturn().append( "The value of the segment equal to {@code value} or "
+                                                    + "{@code value}." );
+
+        segmentIntern.body().directStatement( "// " + getMessage( "title" ) );
+        segmentIntern.body().assignPlus( JExpr.refthis( lookups.name() ), JExpr.lit( 1 ) );
+        final JVar segmentReference = segmentIntern.body().decl( JMod.FINAL, reference, "reference", JExpr.refthis(
+            values.name() ).invoke( "get" ).arg( segmentValue ) );
+
+        final JVar canonical = segmentIntern.body().decl( JMod.FINAL, object, "canonical", JOp.cond(
+            segmentReference.ne( JExpr._null() ), segmentReference.invoke( "get" ), JExpr._null() ) );
+
+        final JBlock hit = segmentIntern.body()._if( canonical.ne( JExpr._null() ) )._then();
+        hit.assignPlus( JExpr.refthis( hits.name() ), JExpr.lit( 1 ) );
+        hit._return( canonical );
+
+        segmentIntern.body()._if( JExpr.refthis( values.name() ).invoke( "size" ).lt(
+            capacity.div( JExpr.lit( DEDUP_SEGMENTS ) ) ) )._then().add( JExpr.refthis( values.name() ).
+            invoke( "put" ).arg( segmentValue ).arg( JExpr._new( reference ).arg( segmentValue ) ) );
+
+        segmentIntern.body()._return( segmentValue );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod segmentSize = segmentClass.method( JMod.SYNCHRONIZED, cm.INT, "size" );
+        segmentSize.javadoc().append( "Gets the number of values in the segment." );
+        segmentSize.javadoc().addReturn().append( "The number of values in the segment." );
+        segmentSize.body().directStatement( "// " + getMessage( "title" ) );
+        segmentSize.body()._return( JExpr.refthis( values.name() ).invoke( "size" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod segmentLookupCount = segmentClass.method( JMod.SYNCHRONIZED, cm.LONG, "getLookupCount" );
+        segmentLookupCount.javadoc().append( "Gets the number of values looked up in the segment." );
+        segmentLookupCount.javadoc().addReturn().append( "The number of values looked up in the segment." );
+        segmentLookupCount.body().directStatement( "// " + getMessage( "title" ) );
+        segmentLookupCount.body()._return( JExpr.refthis( lookups.name() ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod segmentHitCount = segmentClass.method( JMod.SYNCHRONIZED, cm.LONG, "getHitCount" );
+        segmentHitCount.javadoc().append( "Gets the number of values looked up in the segment replaced with a "
+                                          + "canonical value." );
+
+        segmentHitCount.javadoc().addReturn().append( "The number of values looked up in the segment replaced with "
+                                                      + "a canonical value." );
+
+        segmentHitCount.body().directStatement( "// " + getMessage( "title" ) );
+        segmentHitCount.body()._return( JExpr.refthis( hits.name() ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JFieldVar segments = dedupTable.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, segmentClass.array(),
+                                                     "SEGMENTS", JExpr.newArray( segmentClass, DEDUP_SEGMENTS ) );
+
+        segments.javadoc().append( "Segments of the table." );
+
+        final JForLoop initLoop = dedupTable.init()._for();
+        final JVar initIndex = initLoop.init( cm.INT, "i", JExpr.lit( 0 ) );
+        initLoop.test( initIndex.lt( segments.ref( "length" ) ) );
+        initLoop.update( initIndex.incr() );
+        initLoop.body().assign( segments.component( initIndex ), JExpr._new( segmentClass ) );
+
+        final JMethod ctor = dedupTable.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Prevents instantiation." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod intern = dedupTable.method( JMod.PRIVATE | JMod.STATIC, object, "intern" );
+        final JVar value = intern.param( JMod.FINAL, object, "value" );
+        intern.javadoc().append( "Gets the canonical value of a given value." );
+        intern.javadoc().addParam( value ).append( "The value to get the canonical value of." );
+        intern.javadoc().addReturn().append( "The value of the table equal to {@code value} or {@code value}." );
+        intern.body().directStatement( "// " + getMessage( "title" ) );
+        intern.body()._return( JExpr.invoke( segments.component( JOp.band( value.invoke( "hashCode" ), JExpr.lit(
+            0x7fffffff ) ).mod( segments.ref( "length" ) ) ), segmentIntern ).arg( value ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod dedupString = dedupTable.method( JMod.PUBLIC | JMod.STATIC, String.class, "dedup" );
+        final JVar string = dedupString.param( JMod.FINAL, String.class, "value" );
+        dedupString.javadoc().append( "Gets the canonical instance of a given {@code String}." );
+        dedupString.javadoc().addParam( string ).append( "The {@code String} to get the canonical instance of or "
+                                                         + "{@code null}." );
+
+        dedupString.javadoc().addReturn().append( "The {@code String} of the table equal to {@code value}, "
+                                                  + "{@code value} or {@code null} if {@code value} is "
+                                                  + "{@code null}." );
+
+        dedupString.body().directStatement( "// " + getMessage( "title" ) );
+        dedupString.body()._return( JOp.cond( string.eq( JExpr._null() ), JExpr._null(), JExpr.cast(
+            cm.ref( String.class ), JExpr.invoke( intern ).arg( string ) ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JClass qName = cm.ref( QName.class );
+        final JMethod dedupQName = dedupTable.method( JMod.PUBLIC | JMod.STATIC, qName, "dedup" );
+        final JVar name = dedupQName.param( JMod.FINAL, qName, "value" );
+        dedupQName.javadoc().append( "Gets the canonical instance of a given {@code QName}.\n<p>As prefixes are not "
+                                     + "considered when testing {@code QName}s for equality, the canonical instance "
+                                     + "is returned only if its prefix equals the prefix of the given "
+                                     + "{@code QName}.</p>" );
+
+        dedupQName.javadoc().addParam( name ).append( "The {@code QName} to get the canonical instance of or "
+                                                      + "{@code null}." );
+
+        dedupQName.javadoc().addReturn().append( "The {@code QName} of the table equal to {@code value}, "
+                                                 + "{@code value} or {@code null} if {@code value} is "
+                                                 + "{@code null}." );
+
+        dedupQName.body().directStatement( "// " + getMessage( "title" ) );
+        dedupQName.body()._if( name.eq( JExpr._null() ) )._then()._return( JExpr._null() );
+        final JVar canonicalName = dedupQName.body().decl( JMod.FINAL, qName, "canonical", JExpr.cast(
+            qName, JExpr.invoke( intern ).arg( name ) ) );
+
+        dedupQName.body()._return( JOp.cond( JExpr.invoke( canonicalName, "getPrefix" ).invoke( "equals" ).arg(
+            JExpr.invoke( name, "getPrefix" ) ), canonicalName, name ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod size = dedupTable.method( JMod.PUBLIC | JMod.STATIC, cm.INT, "size" );
+        size.javadoc().append( "Gets the number of values in the table." );
+        size.javadoc().addReturn().append( "The number of values in the table." );
+        size.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar sizeCount = size.body().decl( cm.INT, "size", JExpr.lit( 0 ) );
+        final JForEach sizeLoop = size.body().forEach( segmentClass, "segment", segments );
+        sizeLoop.body().assignPlus( sizeCount, sizeLoop.var().invoke( segmentSize ) );
+        size.body()._return( sizeCount );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getLookupCount = dedupTable.method( JMod.PUBLIC | JMod.STATIC, cm.LONG, "getLookupCount" );
+        getLookupCount.javadoc().append( "Gets the number of values looked up in the table." );
+        getLookupCount.javadoc().addReturn().append( "The number of values looked up in the table." );
+        getLookupCount.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar lookupCount = getLookupCount.body().decl( cm.LONG, "count", JExpr.lit( 0L ) );
+        final JForEach lookupLoop = getLookupCount.body().forEach( segmentClass, "segment", segments );
+        lookupLoop.body().assignPlus( lookupCount, lookupLoop.var().invoke( segmentLookupCount ) );
+        getLookupCount.body()._return( lookupCount );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getHitCount = dedupTable.method( JMod.PUBLIC | JMod.STATIC, cm.LONG, "getHitCount" );
+        getHitCount.javadoc().append( "Gets the number of values looked up in the table replaced with a canonical "
+                                      + "value." );
+
+        getHitCount.javadoc().addReturn().append( "The number of values looked up in the table replaced with a "
+                                                  + "canonical value." );
+
+        getHitCount.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar hitCount = getHitCount.body().decl( cm.LONG, "count", JExpr.lit( 0L ) );
+        final JForEach hitLoop = getHitCount.body().forEach( segmentClass, "segment", segments );
+        hitLoop.body().assignPlus( hitCount, hitLoop.var().invoke( segmentHitCount ) );
+        getHitCount.body()._return( hitCount );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getHitRate = dedupTable.method( JMod.PUBLIC | JMod.STATIC, cm.DOUBLE, "getHitRate" );
+        getHitRate.javadoc().append( "Gets the ratio of the number of values replaced with a canonical value to the "
+                                     + "number of values looked up in the table." );
+
+        getHitRate.javadoc().addReturn().append( "The hit rate of the table or {@code 0}, if no values have been "
+                                                 + "looked up." );
+
+        getHitRate.body().directStatement( "// " + getMessage( "title" ) );
+        // Hits are counted before lookups, so that hits counted concurrently never exceed lookups.
+        final JVar rateHits = getHitRate.body().decl( JMod.FINAL, cm.LONG, "hits", JExpr.invoke( getHitCount ) );
+        final JVar rateLookups = getHitRate.body().decl( JMod.FINAL, cm.LONG, "lookups",
+                                                         JExpr.invoke( getLookupCount ) );
+
+        getHitRate.body()._return( JOp.cond( rateLookups.eq( JExpr.lit( 0L ) ), JExpr.lit( 0.0D ), JOp.div(
+            JExpr.cast( cm.DOUBLE, rateHits ), rateLookups ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return dedupTable;
+    }
+
+    private JDefinedClass getAttachmentsClass( final Outline outline )
+    {
+        JDefinedClass attachments = this.getSupportClass( outline, ATTACHMENTS_CLASS_NAME );
+
+        if ( attachments == null )
+        {
+            attachments = this.generateAttachmentsClass( outline );
+        }
+
+        return attachments;
+    }
+
+    private JBlock generateDataHandlerReseat( final Outline outline, final JBlock block, final JExpression source,
+                                              final JExpression copy )
+    {
+        block.directStatement( "// Source re-reads the content buffered by the copy." );
+        return block._if( copy.ne( JExpr._null() ).cand( this.getAttachmentsClass( outline ).
+            staticInvoke( "isBuffered" ).arg( source ).not() ) )._then();
+
+    }
+
+    private JDefinedClass generateAttachmentsClass( final Outline outline )
+    {
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass attachments = this.newSupportClass( outline, ATTACHMENTS_CLASS_NAME, ClassType.CLASS );
+        final JClass ioException = cm.ref( IOException.class );
+        final JClass ioFailure = this.isTargetSupported( TARGET_1_8 )
+                                 ? cm.ref( "java.io.UncheckedIOException" ) : cm.ref( RuntimeException.class );
+
+        final JClass inputStream = cm.ref( InputStream.class );
+        final String thresholdProperty = attachments.fullName() + ".threshold";
+
+        attachments.javadoc().append( "Deep copies of attachments.\n<p>The content of attachments is buffered up to "
+                                      + "the number of bytes given by the value of system property {@code "
+                                      + thresholdProperty + "}, defaulting to " + ATTACHMENTS_THRESHOLD + ", on the "
+                                      + "heap. Larger content is spilled to a temporary file read back through a "
+                                      + "memory mapped channel. Copies are independent of the instances they have "
+                                      + "been copied from and can be read any number of times.</p>" );
+
+        final JFieldVar threshold = attachments.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT, "THRESHOLD", cm.ref( Integer.class ).
+            staticInvoke( "getInteger" ).arg( JExpr.lit( thresholdProperty ) ).
+            arg( JExpr.lit( ATTACHMENTS_THRESHOLD ) ).invoke( "intValue" ) );
+
+        threshold.javadoc().append( "Maximum number of bytes of content buffered on the heap." );
+
+        final JDefinedClass mappedInputStream = this.generateMappedInputStreamClass( attachments );
+        final JDefinedClass bufferClass = this.generateAttachmentBufferClass( attachments, threshold,
+                                                                              mappedInputStream );
+
+        final JDefinedClass dataSourceClass = this.generateBufferDataSourceClass( attachments, bufferClass );
+
+        final JMethod ctor = attachments.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Prevents instantiation." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod read = attachments.method( JMod.PRIVATE | JMod.STATIC, bufferClass, "read" );
+        final JVar in = read.param( JMod.FINAL, inputStream, "in" );
+        read._throws( ioException );
+        read.javadoc().append( "Reads and closes a stream." );
+        read.javadoc().addParam( in ).append( "The stream to read." );
+        read.javadoc().addReturn().append( "A buffer holding the bytes read from {@code in}." );
+        read.javadoc().addThrows( IOException.class ).append( "if reading fails." );
+        read.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar readBuffer = read.body().decl( JMod.FINAL, bufferClass, "buffer", JExpr._new( bufferClass ) );
+        final JVar readComplete = read.body().decl( cm.BOOLEAN, "complete", JExpr.FALSE );
+        final JTryBlock tryComplete = read.body()._try();
+        final JTryBlock tryRead = tryComplete.body()._try();
+        final JVar bytes = tryRead.body().decl( JMod.FINAL, cm.BYTE.array(), "bytes", JExpr.newArray(
+            cm.BYTE, 8192 ) );
+
+        final JForLoop readLoop = tryRead.body()._for();
+        final JVar n = readLoop.init( cm.INT, "n", in.invoke( "read" ).arg( bytes ) );
+        readLoop.test( n.ne( JExpr.lit( -1 ) ) );
+        readLoop.update( JExpr.assign( n, in.invoke( "read" ).arg( bytes ) ) );
+        readLoop.body().invoke( readBuffer, "write" ).arg( bytes ).arg( JExpr.lit( 0 ) ).arg( n );
+        tryRead._finally().invoke( in, "close" );
+        tryComplete.body().invoke( readBuffer, "close" );
+        tryComplete.body().assign( readComplete, JExpr.TRUE );
+        tryComplete._finally()._if( readComplete.not() )._then().invoke( readBuffer, "discard" );
+        read.body()._return( readBuffer );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod readChars = attachments.method( JMod.PRIVATE | JMod.STATIC, bufferClass, "read" );
+        final JVar reader = readChars.param( JMod.FINAL, Reader.class, "reader" );
+        readChars._throws( ioException );
+        readChars.javadoc().append( "Reads and closes a reader." );
+        readChars.javadoc().addParam( reader ).append( "The reader to read." );
+        readChars.javadoc().addReturn().append( "A buffer holding the characters read from {@code reader} encoded "
+                                                + "in UTF-8." );
+
+        readChars.javadoc().addThrows( IOException.class ).append( "if reading fails." );
+        readChars.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar charsBuffer = readChars.body().decl( JMod.FINAL, bufferClass, "buffer",
+                                                        JExpr._new( bufferClass ) );
+
+        final JVar charsComplete = readChars.body().decl( cm.BOOLEAN, "complete", JExpr.FALSE );
+        final JTryBlock tryCharsComplete = readChars.body()._try();
+        final JVar writer = tryCharsComplete.body().decl( JMod.FINAL, cm.ref( Writer.class ), "writer", JExpr._new(
+            cm.ref( OutputStreamWriter.class ) ).arg( charsBuffer ).arg( "UTF-8" ) );
+
+        final JTryBlock tryReadChars = tryCharsComplete.body()._try();
+        final JVar chars = tryReadChars.body().decl( JMod.FINAL, cm.CHAR.array(), "chars", JExpr.newArray(
+            cm.CHAR, 8192 ) );
+
+        final JForLoop readCharsLoop = tryReadChars.body()._for();
+        final JVar c = readCharsLoop.init( cm.INT, "n", reader.invoke( "read" ).arg( chars ) );
+        readCharsLoop.test( c.ne( JExpr.lit( -1 ) ) );
+        readCharsLoop.update( JExpr.assign( c, reader.invoke( "read" ).arg( chars ) ) );
+        readCharsLoop.body().invoke( writer, "write" ).arg( chars ).arg( JExpr.lit( 0 ) ).arg( c );
+        tryReadChars._finally().invoke( reader, "close" );
+        tryCharsComplete.body().invoke( writer, "close" );
+        tryCharsComplete.body().assign( charsComplete, JExpr.TRUE );
+        tryCharsComplete._finally()._if( charsComplete.not() )._then().invoke( charsBuffer, "discard" );
+        readChars.body()._return( charsBuffer );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod openReader = attachments.method( JMod.PRIVATE | JMod.STATIC, Reader.class, "openReader" );
+        final JVar readerBuffer = openReader.param( JMod.FINAL, bufferClass, "buffer" );
+        openReader._throws( ioException );
+        openReader.javadoc().append( "Opens a reader reading the characters of a buffer." );
+        openReader.javadoc().addParam( readerBuffer ).append( "The buffer holding characters encoded in UTF-8." );
+        openReader.javadoc().addReturn().append( "A new reader reading the characters of {@code buffer}." );
+        openReader.javadoc().addThrows( IOException.class ).append( "if opening the buffer fails." );
+        openReader.body().directStatement( "// " + getMessage( "title" ) );
+        openReader.body()._return( JExpr._new( cm.ref( InputStreamReader.class ) ).arg(
+            readerBuffer.invoke( "open" ) ).arg( "UTF-8" ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        // DataHandler
+        final JClass dataHandler = cm.ref( DataHandler.class );
+        final JMethod isBuffered = attachments.method( JMod.PUBLIC | JMod.STATIC, cm.BOOLEAN, "isBuffered" );
+        final JVar bufferedHandler = isBuffered.param( JMod.FINAL, dataHandler, "dataHandler" );
+        isBuffered.javadoc().append( "Tests a given {@code DataHandler} instance to read content buffered by a "
+                                     + "copy." );
+
+        isBuffered.javadoc().addParam( bufferedHandler ).append( "The instance to test or {@code null}." );
+        isBuffered.javadoc().addReturn().append( "{@code true}, if {@code dataHandler} reads content buffered by a "
+                                                 + "copy; {@code false}, if not." );
+
+        isBuffered.body().directStatement( "// " + getMessage( "title" ) );
+        isBuffered.body()._return( bufferedHandler.ne( JExpr._null() ).cand( bufferedHandler.invoke(
+            "getDataSource" )._instanceof( dataSourceClass ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod copyOfDataHandler = attachments.method( JMod.PUBLIC | JMod.STATIC, dataHandler,
+                                                              "copyOfDataHandler" );
+
+        final JVar handler = copyOfDataHandler.param( JMod.FINAL, dataHandler, "dataHandler" );
+        copyOfDataHandler.javadoc().append( "Creates and returns a deep copy of a given {@code DataHandler} "
+                                            + "instance.\n<p>The content of the instance is read once. The copy "
+                                            + "holds that content and can be read any number of times. Content "
+                                            + "already buffered by a copy is shared without being read. As the "
+                                            + "content of an instance may be readable only once, generated copy "
+                                            + "methods replace the instance copied with an instance reading the "
+                                            + "content buffered by the copy.</p>" );
+
+        copyOfDataHandler.javadoc().addParam( handler ).append( "The instance to copy or {@code null}." );
+        copyOfDataHandler.javadoc().addReturn().append( "A deep copy of {@code dataHandler} or {@code null} if "
+                                                        + "{@code dataHandler} is {@code null}." );
+
+        copyOfDataHandler.javadoc().addThrows( ioFailure ).append( "if reading the content of {@code dataHandler} "
+                                                                   + "fails." );
+
+        copyOfDataHandler.body().directStatement( "// " + getMessage( "title" ) );
+        copyOfDataHandler.body()._if( handler.eq( JExpr._null() ) )._then()._return( JExpr._null() );
+        copyOfDataHandler.body()._if( JExpr.invoke( isBuffered ).arg( handler ) )._then()._return( JExpr._new(
+            dataHandler ).arg( handler.invoke( "getDataSource" ) ) );
+
+        final JTryBlock tryCopyHandler = copyOfDataHandler.body()._try();
+        tryCopyHandler.body()._return( JExpr._new( dataHandler ).arg( JExpr._new( dataSourceClass ).arg(
+            JExpr.invoke( read ).arg( handler.invoke( "getInputStream" ) ) ).arg(
+            handler.invoke( "getContentType" ) ).arg( handler.invoke( "getName" ) ) ) );
+
+        final JCatchBlock catchHandler = tryCopyHandler._catch( ioException );
+        catchHandler.body()._throw( JExpr._new( ioFailure ).arg( JExpr.lit( "I/O error copying '" ).plus(
+            handler ).plus( JExpr.lit( "'." ) ) ).arg( catchHandler.param( "e" ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        // Image
+        final JClass image = cm.ref( Image.class );
+        final JClass bufferedImage = cm.ref( BufferedImage.class );
+        final JMethod copyOfImage = attachments.method( JMod.PUBLIC | JMod.STATIC, image, "copyOfImage" );
+        final JVar imageParam = copyOfImage.param( JMod.FINAL, image, "image" );
+        copyOfImage.javadoc().append( "Creates and returns a deep copy of a given {@code Image} instance.\n<p>Images "
+                                      + "not yet loaded cannot be copied and are returned unchanged.</p>" );
+
+        copyOfImage.javadoc().addParam( imageParam ).append( "The instance to copy or {@code null}." );
+        copyOfImage.javadoc().addReturn().append( "A deep copy of {@code image} or {@code null} if {@code image} "
+                                                  + "is {@code null}." );
+
+        copyOfImage.body().directStatement( "// " + getMessage( "title" ) );
+        copyOfImage.body()._if( imageParam.eq( JExpr._null() ) )._then()._return( JExpr._null() );
+        final JBlock isBufferedImage = copyOfImage.body()._if( imageParam._instanceof( bufferedImage ) )._then();
+        final JVar source = isBufferedImage.decl( JMod.FINAL, bufferedImage, "bufferedImage", JExpr.cast(
+            bufferedImage, imageParam ) );
+
+        isBufferedImage._return( JExpr._new( bufferedImage ).arg( source.invoke( "getColorModel" ) ).arg(
+            source.invoke( "copyData" ).arg( JExpr._null() ) ).arg( source.invoke( "isAlphaPremultiplied" ) ).arg(
+            JExpr._null() ) );
+
+        final JVar width = copyOfImage.body().decl( JMod.FINAL, cm.INT, "width", imageParam.invoke(
+            "getWidth" ).arg( JExpr._null() ) );
+
+        final JVar height = copyOfImage.body().decl( JMod.FINAL, cm.INT, "height", imageParam.invoke(
+            "getHeight" ).arg( JExpr._null() ) );
+
+        copyOfImage.body()._if( width.lte( JExpr.lit( 0 ) ).cor( height.lte( JExpr.lit( 0 ) ) ) )._then().
+            _return( imageParam );
+
+        final JVar imageCopy = copyOfImage.body().decl( JMod.FINAL, bufferedImage, "copy", JExpr._new(
+            bufferedImage ).arg( width ).arg( height ).arg( bufferedImage.staticRef( "TYPE_INT_ARGB" ) ) );
+
+        final JVar graphics = copyOfImage.body().decl( JMod.FINAL, cm.ref( Graphics2D.class ), "graphics",
+                                                       imageCopy.invoke( "createGraphics" ) );
+
+        final JTryBlock tryDraw = copyOfImage.body()._try();
+        tryDraw.body().invoke( graphics, "drawImage" ).arg( imageParam ).arg( JExpr.lit( 0 ) ).arg(
+            JExpr.lit( 0 ) ).arg( JExpr._null() );
+
+        tryDraw._finally().invoke( graphics, "dispose" );
+        copyOfImage.body()._return( imageCopy );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        // Source
+        final JClass sourceClass = cm.ref( Source.class );
+        final JClass domSource = cm.ref( DOMSource.class );
+        final JClass streamSource = cm.ref( StreamSource.class );
+        final JClass saxSource = cm.ref( SAXSource.class );
+        final JClass inputSource = cm.ref( InputSource.class );
+        final JMethod copyOfSource = attachments.method( JMod.PUBLIC | JMod.STATIC, sourceClass, "copyOfSource" );
+        final JVar src = copyOfSource.param( JMod.FINAL, sourceClass, "source" );
+        copyOfSource.javadoc().append( "Creates and returns a deep copy of a given {@code Source} instance.\n<p>The "
+                                       + "nodes of {@code DOMSource}s are cloned deeply. The streams and readers of "
+                                       + "{@code StreamSource}s and {@code SAXSource}s are read once and replaced "
+                                       + "with streams and readers reading the content read, so that both the "
+                                       + "instance and the copy can be read. Any other instances, including "
+                                       + "instances referencing their content by system identifier only, are "
+                                       + "re-readable and returned unchanged.</p>" );
+
+        copyOfSource.javadoc().addParam( src ).append( "The instance to copy or {@code null}." );
+        copyOfSource.javadoc().addReturn().append( "A deep copy of {@code source} or {@code null} if "
+                                                   + "{@code source} is {@code null}." );
+
+        copyOfSource.javadoc().addThrows( ioFailure ).append( "if reading the content of {@code source} fails." );
+
+        copyOfSource.body().directStatement( "// " + getMessage( "title" ) );
+        copyOfSource.body()._if( src.eq( JExpr._null() ) )._then()._return( JExpr._null() );
+        final JTryBlock tryCopySource = copyOfSource.body()._try();
+
+        final JBlock isDomSource = tryCopySource.body()._if( src._instanceof( domSource ) )._then();
+        final JVar node = isDomSource.decl( JMod.FINAL, cm.ref( Node.class ), "node", JExpr.invoke(
+            JExpr.cast( domSource, src ), "getNode" ) );
+
+        isDomSource._return( JExpr._new( domSource ).arg( JOp.cond( node.eq( JExpr._null() ), JExpr._null(),
+                                                                   node.invoke( "cloneNode" ).arg( JExpr.TRUE ) ) ).
+            arg( src.invoke( "getSystemId" ) ) );
+
+        final JBlock isStreamSource = tryCopySource.body()._if( src._instanceof( streamSource ) )._then();
+        final JVar stream = isStreamSource.decl( JMod.FINAL, streamSource, "streamSource", JExpr.cast(
+            streamSource, src ) );
+
+        final JVar streamCopy = isStreamSource.decl( JMod.FINAL, streamSource, "copy", JExpr._new(
+            streamSource ).arg( stream.invoke( "getSystemId" ) ) );
+
+        isStreamSource.add( streamCopy.invoke( "setPublicId" ).arg( stream.invoke( "getPublicId" ) ) );
+        final JConditional hasInputStream = isStreamSource._if( stream.invoke( "getInputStream" ).ne(
+            JExpr._null() ) );
+
+        final JVar streamBuffer = hasInputStream._then().decl( JMod.FINAL, bufferClass, "buffer", JExpr.invoke(
+            read ).arg( stream.invoke( "getInputStream" ) ) );
+
+        hasInputStream._then().add( stream.invoke( "setInputStream" ).arg( streamBuffer.invoke( "open" ) ) );
+        hasInputStream._then().add( streamCopy.invoke( "setInputStream" ).arg( streamBuffer.invoke( "open" ) ) );
+        final JConditional hasReader = hasInputStream._else()._if( stream.invoke( "getReader" ).ne(
+            JExpr._null() ) );
+
+        final JVar readerCopyBuffer = hasReader._then().decl( JMod.FINAL, bufferClass, "buffer", JExpr.invoke(
+            readChars ).arg( stream.invoke( "getReader" ) ) );
+
+        hasReader._then().add( stream.invoke( "setReader" ).arg( JExpr.invoke( openReader ).arg(
+            readerCopyBuffer ) ) );
+
+        hasReader._then().add( streamCopy.invoke( "setReader" ).arg( JExpr.invoke( openReader ).arg(
+            readerCopyBuffer ) ) );
+
+        isStreamSource._return( streamCopy );
+
+        final JBlock isSaxSource = tryCopySource.body()._if( src._instanceof( saxSource ).cand(
+            JExpr.invoke( JExpr.cast( saxSource, src ), "getInputSource" ).ne( JExpr._null() ) ) )._then();
+
+        final JVar input = isSaxSource.decl( JMod.FINAL, inputSource, "inputSource", JExpr.invoke(
+            JExpr.cast( saxSource, src ), "getInputSource" ) );
+
+        final JBlock hasStreams = isSaxSource._if( input.invoke( "getByteStream" ).ne( JExpr._null() ).cor(
+            input.invoke( "getCharacterStream" ).ne( JExpr._null() ) ) )._then();
+
+        final JVar inputCopy = hasStreams.decl( JMod.FINAL, inputSource, "copy", JExpr._new( inputSource ).arg(
+            input.invoke( "getSystemId" ) ) );
+
+        hasStreams.add( inputCopy.invoke( "setPublicId" ).arg( input.invoke( "getPublicId" ) ) );
+        hasStreams.add( inputCopy.invoke( "setEncoding" ).arg( input.invoke( "getEncoding" ) ) );
+        final JConditional hasByteStream = hasStreams._if( input.invoke( "getByteStream" ).ne( JExpr._null() ) );
+        final JVar byteBuffer = hasByteStream._then().decl( JMod.FINAL, bufferClass, "buffer", JExpr.invoke(
+            read ).arg( input.invoke( "getByteStream" ) ) );
+
+        hasByteStream._then().add( input.invoke( "setByteStream" ).arg( byteBuffer.invoke( "open" ) ) );
+        hasByteStream._then().add( inputCopy.invoke( "setByteStream" ).arg( byteBuffer.invoke( "open" ) ) );
+        final JVar characterBuffer = hasByteStream._else().decl( JMod.FINAL, bufferClass, "buffer",
+                                                                  JExpr.invoke( readChars ).arg(
+            input.invoke( "getCharacterStream" ) ) );
+
+        hasByteStream._else().add( input.invoke( "setCharacterStream" ).arg( JExpr.invoke( openReader ).arg(
+            characterBuffer ) ) );
+
+        hasByteStream._else().add( inputCopy.invoke( "setCharacterStream" ).arg( JExpr.invoke( openReader ).arg(
+            characterBuffer ) ) );
+
+        hasStreams._return( JExpr._new( saxSource ).arg( JExpr.invoke( JExpr.cast( saxSource, src ),
+                                                                       "getXMLReader" ) ).arg( inputCopy ) );
+
+        tryCopySource.body()._return( src );
+
+        final JCatchBlock catchSource = tryCopySource._catch( ioException );
+        catchSource.body()._throw( JExpr._new( ioFailure ).arg( JExpr.lit( "I/O error copying '" ).plus( src ).
+            plus( JExpr.lit( "'." ) ) ).arg( catchSource.param( "e" ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return attachments;
+    }
+
+    private JDefinedClass generateMappedInputStreamClass( final JDefinedClass attachments )
+    {
+        final JCodeModel cm = attachments.owner();
+        final JDefinedClass mappedInputStream;
+
+        try
+        {
+            mappedInputStream = attachments._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "MappedInputStream" );
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        mappedInputStream._extends( InputStream.class );
+        mappedInputStream.javadoc().append( "Stream reading the bytes of a memory mapped file." );
+
+        final JFieldVar buffer = mappedInputStream.field( JMod.PRIVATE | JMod.FINAL, ByteBuffer.class, "buffer" );
+        buffer.javadoc().append( "The mapped bytes to read." );
+
+        final JMethod ctor = mappedInputStream.constructor( JMod.NONE );
+        final JVar ctorBuffer = ctor.param( JMod.FINAL, ByteBuffer.class, "buffer" );
+        ctor.javadoc().append( "Creates a new {@code MappedInputStream} instance." );
+        ctor.javadoc().addParam( ctorBuffer ).append( "The mapped bytes to read." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( buffer ), ctorBuffer );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod read = mappedInputStream.method( JMod.PUBLIC, cm.INT, "read" );
+        read.annotate( Override.class );
+        read.body().directStatement( "// " + getMessage( "title" ) );
+        read.body()._return( JOp.cond( JExpr.refthis( buffer.name() ).invoke( "hasRemaining" ), JOp.band(
+            JExpr.refthis( buffer.name() ).invoke( "get" ), JExpr.lit( 0xff ) ), JExpr.lit( -1 ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod readBytes = mappedInputStream.method( JMod.PUBLIC, cm.INT, "read" );
+        readBytes.annotate( Override.class );
+        final JVar bytes = readBytes.param( JMod.FINAL, cm.BYTE.array(), "bytes" );
+        final JVar off = readBytes.param( JMod.FINAL, cm.INT, "off" );
+        final JVar len = readBytes.param( JMod.FINAL, cm.INT, "len" );
+        readBytes.body().directStatement( "// " + getMessage( "title" ) );
+        readBytes.body()._if( len.eq( JExpr.lit( 0 ) ) )._then()._return( JExpr.lit( 0 ) );
+        readBytes.body()._if( JExpr.refthis( buffer.name() ).invoke( "hasRemaining" ).not() )._then()._return(
+            JExpr.lit( -1 ) );
+
+        final JVar count = readBytes.body().decl( JMod.FINAL, cm.INT, "count", cm.ref( Math.class ).staticInvoke(
+            "min" ).arg( len ).arg( JExpr.refthis( buffer.name() ).invoke( "remaining" ) ) );
+
+        readBytes.body().add( JExpr.refthis( buffer.name() ).invoke( "get" ).arg( bytes ).arg( off ).arg( count ) );
+        readBytes.body()._return( count );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod available = mappedInputStream.method( JMod.PUBLIC, cm.INT, "available" );
+        available.annotate( Override.class );
+        available.body().directStatement( "// " + getMessage( "title" ) );
+        available.body()._return( JExpr.refthis( buffer.name() ).invoke( "remaining" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return mappedInputStream;
+    }
+
+    private JDefinedClass generateAttachmentBufferClass( final JDefinedClass attachments, final JFieldVar threshold,
+                                                         final JDefinedClass mappedInputStream )
+    {
+        final JCodeModel cm = attachments.owner();
+        final JClass ioException = cm.ref( IOException.class );
+        final JDefinedClass bufferClass;
+
+        try
+        {
+            bufferClass = attachments._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "Buffer" );
+        }
+        catch ( final JClassAlreadyExistsException e )
+        {
+            throw new AssertionError( e );
+        }
+
+        bufferClass._extends( OutputStream.class );
+        bufferClass.javadoc().append( "Buffer of the content of an attachment spilling to a temporary file once its "
+                                      + "size exceeds the threshold.\n<p>The file is deleted as soon as it has been "
+                                      + "memory mapped. Files too large to be mapped are deleted when the buffer is "
+                                      + "finalized. Files which cannot be deleted while mapped are deleted when the "
+                                      + "virtual machine exits.</p>" );
+
+        final JFieldVar bytes = bufferClass.field( JMod.PRIVATE, cm.BYTE.array(), "bytes", JExpr.newArray(
+            cm.BYTE, cm.ref( Math.class ).staticInvoke( "min" ).arg( threshold ).arg( JExpr.lit( 8192 ) ) ) );
+
+        bytes.javadoc().append( "The content buffered on the heap or {@code null}, if spilled to a file." );
+
+        final JFieldVar size = bufferClass.field( JMod.PRIVATE, cm.LONG, "size" );
+        size.javadoc().append( "Number of bytes of content." );
+
+        final JFieldVar file = bufferClass.field( JMod.PRIVATE, File.class, "file" );
+        file.javadoc().append( "The file holding the content or {@code null}, if buffered on the heap or memory "
+                              + "mapped." );
+
+        final JFieldVar out = bufferClass.field( JMod.PRIVATE, OutputStream.class, "out" );
+        out.javadoc().append( "Stream writing to the file until the buffer is closed." );
+
+        final JFieldVar mapped = bufferClass.field( JMod.PRIVATE, ByteBuffer.class, "mapped" );
+        mapped.javadoc().append( "The memory mapped content of the file or {@code null}." );
+
+        final JMethod ctor = bufferClass.constructor( JMod.NONE );
+        ctor.javadoc().append( "Creates a new {@code Buffer} instance." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod writeByte = bufferClass.method( JMod.PUBLIC, cm.VOID, "write" );
+        writeByte.annotate( Override.class );
+        final JVar b = writeByte.param( JMod.FINAL, cm.INT, "b" );
+        writeByte._throws( ioException );
+        writeByte.body().directStatement( "// " + getMessage( "title" ) );
+        writeByte.body().invoke( "write" ).arg( JExpr.newArray( cm.BYTE ).add( JExpr.cast( cm.BYTE, b ) ) ).arg(
+            JExpr.lit( 0 ) ).arg( JExpr.lit( 1 ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod write = bufferClass.method( JMod.PUBLIC, cm.VOID, "write" );
+        write.annotate( Override.class );
+        final JVar buf = write.param( JMod.FINAL, cm.BYTE.array(), "buf" );
+        final JVar off = write.param( JMod.FINAL, cm.INT, "off" );
+        final JVar len = write.param( JMod.FINAL, cm.INT, "len" );
+        write._throws( ioException );
+        write.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JBlock spill = write.body()._if( JExpr.refthis( file.name() ).eq( JExpr._null() ).cand(
+            JExpr.refthis( size.name() ).plus( len ).gt( threshold ) ) )._then();
+
+        spill.assign( JExpr._this().ref( file ), cm.ref( File.class ).staticInvoke( "createTempFile" ).arg(
+            "cc-xjc-" ).arg( ".tmp" ) );
+
+        spill.add( JExpr.refthis( file.name() ).invoke( "deleteOnExit" ) );
+        spill.assign( JExpr._this().ref( out ), JExpr._new( cm.ref( FileOutputStream.class ) ).arg(
+            JExpr.refthis( file.name() ) ) );
+
+        spill.add( JExpr.refthis( out.name() ).invoke( "write" ).arg( JExpr.refthis( bytes.name() ) ).arg(
+            JExpr.lit( 0 ) ).arg( JExpr.cast( cm.INT, JExpr.refthis( size.name() ) ) ) );
+
+        spill.assign( JExpr._this().ref( bytes ), JExpr._null() );
+
+        final JConditional isSpilled = write.body()._if( JExpr.refthis( out.name() ).ne( JExpr._null() ) );
+        isSpilled._then().add( JExpr.refthis( out.name() ).invoke( "write" ).arg( buf ).arg( off ).arg( len ) );
+
+        final JBlock grow = isSpilled._else()._if( JExpr.refthis( size.name() ).plus( len ).gt(
+            JExpr.refthis( bytes.name() ).ref( "length" ) ) )._then();
+
+        final JVar grown = grow.decl( JMod.FINAL, cm.BYTE.array(), "grown", JExpr.newArray(
+            cm.BYTE, cm.ref( Math.class ).staticInvoke( "min" ).arg( threshold ).arg( cm.ref( Math.class ).
+            staticInvoke( "max" ).arg( JExpr.refthis( bytes.name() ).ref( "length" ).shl( JExpr.lit( 1 ) ) ).arg(
+            JOp.plus( JExpr.cast( cm.INT, JExpr.refthis( size.name() ) ), len ) ) ) ) );
+
+        grow.add( cm.ref( System.class ).staticInvoke( "arraycopy" ).arg( JExpr.refthis( bytes.name() ) ).arg(
+            JExpr.lit( 0 ) ).arg( grown ).arg( JExpr.lit( 0 ) ).arg( JExpr.cast( cm.INT, JExpr.refthis(
+            size.name() ) ) ) );
+
+        grow.assign( JExpr._this().ref( bytes ), grown );
+        isSpilled._else().add( cm.ref( System.class ).staticInvoke( "arraycopy" ).arg( buf ).arg( off ).arg(
+            JExpr.refthis( bytes.name() ) ).arg( JExpr.cast( cm.INT, JExpr.refthis( size.name() ) ) ).arg( len ) );
+
+        write.body().assignPlus( JExpr._this().ref( size ), len );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod close = bufferClass.method( JMod.PUBLIC, cm.VOID, "close" );
+        close.annotate( Override.class );
+        close._throws( ioException );
+        close.body().directStatement( "// " + getMessage( "title" ) );
+        final JBlock isOpen = close.body()._if( JExpr.refthis( out.name() ).ne( JExpr._null() ) )._then();
+        isOpen.add( JExpr.refthis( out.name() ).invoke( "close" ) );
+        isOpen.assign( JExpr._this().ref( out ), JExpr._null() );
+
+        final JBlock isMappable = isOpen._if( JExpr.refthis( size.name() ).lte( cm.ref( Integer.class ).staticRef(
+            "MAX_VALUE" ) ) )._then();
+
+        final JVar randomAccessFile = isMappable.decl( JMod.FINAL, cm.ref( RandomAccessFile.class ), "randomAccessFile",
+                                                       JExpr._new( cm.ref( RandomAccessFile.class ) ).arg(
+            JExpr.refthis( file.name() ) ).arg( "r" ) );
+
+        final JTryBlock tryMap = isMappable._try();
+        tryMap.body().assign( JExpr._this().ref( mapped ), randomAccessFile.invoke( "getChannel" ).invoke(
+            "map" ).arg( cm.ref( FileChannel.MapMode.class ).staticRef( "READ_ONLY" ) ).arg( JExpr.lit( 0L ) ).arg(
+            JExpr.refthis( size.name() ) ) );
+
+        tryMap._finally().invoke( randomAccessFile, "close" );
+
+        // The mapping remains valid after the file has been deleted on platforms supporting this.
+        isMappable._if( JExpr.refthis( file.name() ).invoke( "delete" ) )._then().assign(
+            JExpr._this().ref( file ), JExpr._null() );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod discard = bufferClass.method( JMod.NONE, cm.VOID, "discard" );
+        discard.javadoc().append( "Closes the buffer and deletes its file after a failure, ignoring any further "
+                                  + "failures." );
+
+        discard.body().directStatement( "// " + getMessage( "title" ) );
+        final JBlock isDiscardOpen = discard.body()._if( JExpr.refthis( out.name() ).ne( JExpr._null() ) )._then();
+        final JTryBlock tryDiscard = isDiscardOpen._try();
+        tryDiscard.body().add( JExpr.refthis( out.name() ).invoke( "close" ) );
+        tryDiscard._catch( ioException ).body().directStatement( "// The file is deleted regardless." );
+        isDiscardOpen.assign( JExpr._this().ref( out ), JExpr._null() );
+
+        discard.body()._if( JExpr.refthis( file.name() ).ne( JExpr._null() ).cand( JExpr.refthis( file.name() ).
+            invoke( "delete" ) ) )._then().assign( JExpr._this().ref( file ), JExpr._null() );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod finalize = bufferClass.method( JMod.PROTECTED, cm.VOID, "finalize" );
+        finalize.annotate( Override.class );
+        finalize._throws( Throwable.class );
+        finalize.javadoc().append( "Deletes the file of the buffer, if not already deleted." );
+        finalize.javadoc().addThrows( Throwable.class ).append( "if finalization fails." );
+        finalize.body().directStatement( "// " + getMessage( "title" ) );
+        final JTryBlock tryFinalize = finalize.body()._try();
+        tryFinalize.body()._if( JExpr.refthis( out.name() ).ne( JExpr._null() ) )._then().add(
+            JExpr.refthis( out.name() ).invoke( "close" ) );
+
+        tryFinalize.body()._if( JExpr.refthis( file.name() ).ne( JExpr._null() ) )._then().add(
+            JExpr.refthis( file.name() ).invoke( "delete" ) );
+
+        tryFinalize._finally().invoke( JExpr._super(), "finalize" );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod open = bufferClass.method( JMod.NONE, InputStream.class, "open" );
+        open._throws( ioException );
+        open.javadoc().append( "Opens a stream reading the content of the buffer." );
+        open.javadoc().addReturn().append( "A new stream reading the content of the buffer." );
+        open.javadoc().addThrows( IOException.class ).append( "if opening the file of the buffer fails." );
+        open.body().directStatement( "// " + getMessage( "title" ) );
+        open.body()._if( JExpr.refthis( bytes.name() ).ne( JExpr._null() ) )._then()._return( JExpr._new(
+            cm.ref( ByteArrayInputStream.class ) ).arg( JExpr.refthis( bytes.name() ) ).arg( JExpr.lit( 0 ) ).arg(
+            JExpr.cast( cm.INT, JExpr.refthis( size.name() ) ) ) );
+
+        open.body()._if( JExpr.refthis( mapped.name() ).ne( JExpr._null() ) )._then()._return( JExpr._new(
+            mappedInputStream ).arg( JExpr.refthis( mapped.name() ).invoke( "duplicate" ) ) );
+
+        open.body()._return( JExpr._new( cm.ref( FileInputStream.class ) ).arg( JExpr.refthis( file.name() ) ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return bufferClass;
+    }
+
+    private JDefinedClass generateBufferDataSourceClass( final JDefinedClass attachments,
+                                                         final JDefinedClass bufferClass )
+    {
+        final JCodeModel cm = attachments.owner();
+        final JDefinedClass dataSource;
+
+        try
         {
-            expr = sourceExpr;
+            dataSource = attachments._class( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "BufferDataSource" );
         }
-        else if ( type == CBuiltinLeafInfo.QNAME )
+        catch ( final JClassAlreadyExistsException e )
         {
-            expr = sourceExpr;
+            throw new AssertionError( e );
         }
-        else if ( type == CBuiltinLeafInfo.CALENDAR )
-        {
-            final JClass xmlCal = fieldOutline.parent().parent().getCodeModel().ref( XMLGregorianCalendar.class );
-            if ( sourceMaybeNull )
-            {
-                expr = JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(),
-                                 JExpr.cast( xmlCal, sourceExpr.invoke( "clone" ) ) );
 
-            }
-            else
-            {
-                expr = JExpr.cast( xmlCal, sourceExpr.invoke( "clone" ) );
-            }
-        }
-        else if ( type == CBuiltinLeafInfo.DURATION )
-        {
-            expr = sourceExpr;
-        }
-        else if ( type == CBuiltinLeafInfo.DATA_HANDLER || type == CBuiltinLeafInfo.IMAGE
-                  || type == CBuiltinLeafInfo.XML_SOURCE )
-        {
-            this.log( Level.WARNING, "cannotCopyType",
-                      type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).fullName(),
-                      fieldOutline.getPropertyInfo().getName( true ), fieldOutline.parent().implClass.fullName() );
+        dataSource._implements( DataSource.class );
+        dataSource.javadoc().append( "Data source of a copied attachment." );
 
-            expr = sourceExpr;
-        }
+        final JFieldVar buffer = dataSource.field( JMod.PRIVATE | JMod.FINAL, bufferClass, "buffer" );
+        buffer.javadoc().append( "The content of the attachment." );
 
-        return expr;
+        final JFieldVar contentType = dataSource.field( JMod.PRIVATE | JMod.FINAL, String.class, "contentType" );
+        contentType.javadoc().append( "The content type of the attachment." );
+
+        final JFieldVar name = dataSource.field( JMod.PRIVATE | JMod.FINAL, String.class, "name" );
+        name.javadoc().append( "The name of the attachment." );
+
+        final JMethod ctor = dataSource.constructor( JMod.NONE );
+        final JVar ctorBuffer = ctor.param( JMod.FINAL, bufferClass, "buffer" );
+        final JVar ctorContentType = ctor.param( JMod.FINAL, String.class, "contentType" );
+        final JVar ctorName = ctor.param( JMod.FINAL, String.class, "name" );
+        ctor.javadoc().append( "Creates a new {@code BufferDataSource} instance." );
+        ctor.javadoc().addParam( ctorBuffer ).append( "The content of the attachment." );
+        ctor.javadoc().addParam( ctorContentType ).append( "The content type of the attachment." );
+        ctor.javadoc().addParam( ctorName ).append( "The name of the attachment." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( buffer ), ctorBuffer );
+        ctor.body().assign( JExpr._this().ref( contentType ), ctorContentType );
+        ctor.body().assign( JExpr._this().ref( name ), ctorName );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
+
+        final JMethod getInputStream = dataSource.method( JMod.PUBLIC, InputStream.class, "getInputStream" );
+        getInputStream._throws( IOException.class );
+        getInputStream.body().directStatement( "// " + getMessage( "title" ) );
+        getInputStream.body()._return( JExpr.refthis( buffer.name() ).invoke( "open" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getOutputStream = dataSource.method( JMod.PUBLIC, OutputStream.class, "getOutputStream" );
+        getOutputStream._throws( IOException.class );
+        getOutputStream.body().directStatement( "// " + getMessage( "title" ) );
+        getOutputStream.body()._throw( JExpr._new( cm.ref( IOException.class ) ).arg(
+            "Cannot write to a copied attachment." ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getContentType = dataSource.method( JMod.PUBLIC, String.class, "getContentType" );
+        getContentType.body().directStatement( "// " + getMessage( "title" ) );
+        getContentType.body()._return( JExpr.refthis( contentType.name() ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod getName = dataSource.method( JMod.PUBLIC, String.class, "getName" );
+        getName.body().directStatement( "// " + getMessage( "title" ) );
+        getName.body()._return( JExpr.refthis( name.name() ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return dataSource;
     }
 
-    private JExpression getWildcardCopyExpression( final FieldOutline fieldOutline, final CWildcardTypeInfo type,
-                                                   final JBlock block, final JExpression sourceExpr,
-                                                   final boolean sourceMaybeNull )
+    private JExpression getCopyOfElementExpression( final Outline outline, final JExpression sourceExpr,
+                                                    final boolean sourceMaybeNull )
     {
-        block.directStatement( "// CWildcardTypeInfo: " + type.toType( fieldOutline.parent().parent(),
-                                                                       Aspect.IMPLEMENTATION ).binaryName() );
+        final JClass element = outline.getCodeModel().ref( Element.class );
 
-        if ( sourceMaybeNull )
+        if ( this.compactDom )
         {
+            return this.getDomCopiesClass( outline ).staticInvoke( "copyOf" ).arg( sourceExpr );
+        }
 
+        if ( sourceMaybeNull )
+        {
             return JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(),
-                             JExpr.cast( fieldOutline.parent().parent().getCodeModel().ref( Element.class ),
-                                         sourceExpr.invoke( "cloneNode" ).arg( JExpr.TRUE ) ) );
+                             JExpr.cast( element, sourceExpr.invoke( "cloneNode" ).arg( JExpr.TRUE ) ) );
 
         }
-        else
-        {
-            return JExpr.cast( fieldOutline.parent().parent().getCodeModel().ref( Element.class ),
-                               sourceExpr.invoke( "cloneNode" ).arg( JExpr.TRUE ) );
 
-        }
+        return JExpr.cast( element, sourceExpr.invoke( "cloneNode" ).arg( JExpr.TRUE ) );
     }
 
-    private JExpression getClassInfoCopyExpression( final FieldOutline fieldOutline, final CClassInfo type,
-                                                    final JBlock block, final JExpression sourceExpr,
-                                                    final boolean sourceMaybeNull )
+    private JDefinedClass getDomCopiesClass( final Outline outline )
     {
-        block.directStatement(
-            "// CClassInfo: " + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+        JDefinedClass domCopies = this.getSupportClass( outline, DOM_COPIES_CLASS_NAME );
 
-        if ( sourceMaybeNull )
+        if ( domCopies == null )
         {
-            return JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(), sourceExpr.invoke( "clone" ) );
-        }
-        else
-        {
-            return sourceExpr.invoke( "clone" );
+            domCopies = this.generateDomCopiesClass( outline );
         }
+
+        return domCopies;
     }
 
-    private JExpression getNonElementCopyExpression( final FieldOutline fieldOutline, final CNonElement type,
-                                                     final JBlock block, final JExpression sourceExpr,
-                                                     final boolean sourceMaybeNull )
+    private JDefinedClass generateDomCopiesClass( final Outline outline )
     {
-        final JType jType = type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
-        block.directStatement( "// CNonElement: " + jType.binaryName() );
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass domCopies = this.newSupportClass( outline, DOM_COPIES_CLASS_NAME, ClassType.CLASS );
+        final JClass element = cm.ref( Element.class );
+        final JClass document = cm.ref( Document.class );
+        final JClass domImplementation = cm.ref( DOMImplementation.class );
+        final JClass assertionError = cm.ref( AssertionError.class );
+
+        domCopies.javadoc().append( "Copies of DOM elements.\n<p>Elements are copied by importing them into a new "
+                                    + "document, so that copies do not keep the document of the element they have "
+                                    + "been copied from reachable. Elements copied by one copy operation share one "
+                                    + "new document. Elements can be shared instead of being copied by replacing "
+                                    + "them with the result of the {@code share} method. Shared elements are "
+                                    + "ordinary DOM elements which can still be modified, so that modifying a "
+                                    + "shared element modifies it for all instances sharing it.</p>" );
+
+        final JMethod newDomImplementation = domCopies.method( JMod.PRIVATE | JMod.STATIC, domImplementation,
+                                                               "newDomImplementation" );
+
+        newDomImplementation.javadoc().append( "Creates a new DOM implementation." );
+        newDomImplementation.javadoc().addReturn().append( "A new DOM implementation." );
+        newDomImplementation.body().directStatement( "// " + getMessage( "title" ) );
+        final JTryBlock tryNew = newDomImplementation.body()._try();
+        tryNew.body()._return( cm.ref( DocumentBuilderFactory.class ).staticInvoke( "newInstance" ).invoke(
+            "newDocumentBuilder" ).invoke( "getDOMImplementation" ) );
+
+        final JCatchBlock catchNew = tryNew._catch( cm.ref( ParserConfigurationException.class ) );
+        catchNew.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).arg(
+            "Unexpected parser configuration." ).invoke( "initCause" ).arg( catchNew.param( "e" ) ) ) );
 
-        block.directStatement( "// " + WARNING_PREFIX + ": " + "The '" + jType.binaryName() + "'" );
-        block.directStatement( "// " + WARNING_PREFIX + ": type was not part of the compilation unit." );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        block.directStatement( "// " + WARNING_PREFIX + ": "
-                               + "The CC-XJC plugin assumes that type to declare a 'public Object clone()' method." );
+        final JFieldVar implementation = domCopies.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, domImplementation, "DOM_IMPLEMENTATION",
+            JExpr.invoke( newDomImplementation ) );
 
-        block.directStatement( "// " + WARNING_PREFIX + ": "
-                               + "If this warning is part of an 'if instanceof' block, the order of 'if instanceof'" );
+        implementation.javadoc().append( "DOM implementation creating the documents of copies." );
 
-        block.directStatement( "// " + WARNING_PREFIX + ": "
-                               + "statements may be wrong and must be verified." );
+        final JFieldVar sharedKey = domCopies.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, String.class,
+                                                     "SHARED_KEY", JExpr.lit( domCopies.fullName() + ".shared" ) );
 
-        this.log( Level.WARNING, "nonElementWarning",
-                  fieldOutline.parent().implClass.fullName(), fieldOutline.getPropertyInfo().getName( true ),
-                  jType.binaryName(), WARNING_PREFIX );
+        sharedKey.javadoc().append( "Key of the user data marking elements shared instead of being copied." );
 
-        this.tryCatchCopyExpression = true;
+        final JFieldVar operation = domCopies.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.ref( ThreadLocal.class ).narrow( document.array() ),
+            "OPERATION", JExpr._new( cm.ref( ThreadLocal.class ).narrow( document.array() ) ) );
 
-        if ( sourceMaybeNull )
-        {
-            return JOp.cond( sourceExpr.eq( JExpr._null() ), JExpr._null(),
-                             JExpr.cast( jType, sourceExpr.invoke( "clone" ) ) );
+        operation.javadoc().append( "Holder of the document of the copy operation of the current thread." );
 
-        }
-        else
-        {
-            return JExpr.cast( jType, sourceExpr.invoke( "clone" ) );
-        }
-    }
+        final JMethod ctor = domCopies.constructor( JMod.PRIVATE );
+        ctor.javadoc().append( "Prevents instantiation." );
+        ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-    private JExpression getArrayCopyExpression( final FieldOutline fieldOutline, final CArrayInfo type,
-                                                final JBlock block, final JExpression sourceExpr )
-    {
-        block.directStatement( "// CArrayInfo: " + type.fullName() );
-        return this.getCopyOfArrayInfoInvocation( fieldOutline, type ).arg( sourceExpr );
+        final JMethod enter = domCopies.method( JMod.PUBLIC | JMod.STATIC, document.array(), "enter" );
+        enter.javadoc().append( "Enters a copy operation of the current thread.\n<p>Elements copied until the "
+                                + "outermost operation is left share one new document, created when the first "
+                                + "element is copied.</p>" );
+
+        enter.javadoc().addReturn().append( "The holder of the document of the enclosing operation or {@code null}, "
+                                            + "if there is no enclosing operation." );
+
+        enter.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar enclosing = enter.body().decl( JMod.FINAL, document.array(), "enclosing",
+                                                  operation.invoke( "get" ) );
+
+        enter.body()._if( enclosing.eq( JExpr._null() ) )._then().add( operation.invoke( "set" ).arg(
+            JExpr.newArray( document, 1 ) ) );
+
+        enter.body()._return( enclosing );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod leave = domCopies.method( JMod.PUBLIC | JMod.STATIC, cm.VOID, "leave" );
+        final JVar leaveEnclosing = leave.param( JMod.FINAL, document.array(), "enclosing" );
+        leave.javadoc().append( "Leaves a copy operation of the current thread." );
+        leave.javadoc().addParam( leaveEnclosing ).append( "The value returned by the corresponding invocation of "
+                                                           + "the {@code enter} method." );
+
+        leave.body().directStatement( "// " + getMessage( "title" ) );
+        leave.body()._if( leaveEnclosing.eq( JExpr._null() ) )._then().add( operation.invoke( "remove" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod importElement = domCopies.method( JMod.PRIVATE | JMod.STATIC, element, "importElement" );
+        final JVar importSource = importElement.param( JMod.FINAL, element, "element" );
+        importElement.javadoc().append( "Imports an element into the document of the current copy operation." );
+        importElement.javadoc().addParam( importSource ).append( "The element to import." );
+        importElement.javadoc().addReturn().append( "A deep copy of {@code element} owned by the document of the "
+                                                    + "current copy operation or by a new document, if there is no "
+                                                    + "current copy operation." );
+
+        importElement.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar current = importElement.body().decl( JMod.FINAL, document.array(), "current",
+                                                        operation.invoke( "get" ) );
+
+        final JExpression newDocument =
+            implementation.invoke( "createDocument" ).arg( JExpr._null() ).arg( JExpr._null() ).arg( JExpr._null() );
+
+        final JVar owner = importElement.body().decl( document, "owner" );
+        final JConditional hasOperation = importElement.body()._if( current.ne( JExpr._null() ) );
+        hasOperation._then()._if( JOp.eq( current.component( JExpr.lit( 0 ) ), JExpr._null() ) )._then().assign(
+            current.component( JExpr.lit( 0 ) ), newDocument );
+
+        hasOperation._then().assign( owner, current.component( JExpr.lit( 0 ) ) );
+        hasOperation._else().assign( owner, newDocument );
+        importElement.body()._return( JExpr.cast( element, owner.invoke( "importNode" ).arg( importSource ).
+            arg( JExpr.TRUE ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod isShared = domCopies.method( JMod.PUBLIC | JMod.STATIC, cm.BOOLEAN, "isShared" );
+        final JVar isSharedSource = isShared.param( JMod.FINAL, element, "element" );
+        isShared.javadoc().append( "Tests a given {@code Element} instance for being shared by all copies." );
+        isShared.javadoc().addParam( isSharedSource ).append( "The instance to test or {@code null}." );
+        isShared.javadoc().addReturn().append( "{@code true}, if {@code element} has been returned by the "
+                                               + "{@code share} method; {@code false}, if not." );
+
+        isShared.body().directStatement( "// " + getMessage( "title" ) );
+        isShared.body()._return( isSharedSource.ne( JExpr._null() ).cand( isSharedSource.invoke( "getUserData" ).
+            arg( sharedKey ).ne( JExpr._null() ) ) );
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod copyOf = domCopies.method( JMod.PUBLIC | JMod.STATIC, element, "copyOf" );
+        final JVar copySource = copyOf.param( JMod.FINAL, element, "element" );
+        copyOf.javadoc().append( "Creates and returns a deep copy of a given {@code Element} instance." );
+        copyOf.javadoc().addParam( copySource ).append( "The instance to copy or {@code null}." );
+        copyOf.javadoc().addReturn().append( "A deep copy of {@code element} owned by the document of the current "
+                                             + "copy operation, {@code element}, if {@code element} is shared, or "
+                                             + "{@code null} if {@code element} is {@code null}." );
+
+        copyOf.body().directStatement( "// " + getMessage( "title" ) );
+        copyOf.body()._if( copySource.eq( JExpr._null() ).cor( JExpr.invoke( isShared ).arg( copySource ) ) ).
+            _then()._return( copySource );
+
+        copyOf.body()._return( JExpr.invoke( importElement ).arg( copySource ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        final JMethod share = domCopies.method( JMod.PUBLIC | JMod.STATIC, element, "share" );
+        final JVar shareSource = share.param( JMod.FINAL, element, "element" );
+        share.javadoc().append( "Creates and returns a copy of a given {@code Element} instance shared by all "
+                                + "copies.\n<p>Copying the element returned does not copy it but returns the "
+                                + "element itself. The element returned is owned by a new document and is not "
+                                + "protected against modification.</p>" );
+
+        share.javadoc().addParam( shareSource ).append( "The instance to share or {@code null}." );
+        share.javadoc().addReturn().append( "A deep copy of {@code element} owned by a new document and shared "
+                                            + "by all copies, {@code element}, if {@code element} is shared "
+                                            + "already, or {@code null} if {@code element} is {@code null}." );
+
+        share.body().directStatement( "// " + getMessage( "title" ) );
+        share.body()._if( shareSource.eq( JExpr._null() ).cor( JExpr.invoke( isShared ).arg( shareSource ) ) ).
+            _then()._return( shareSource );
+
+        final JVar sharedCopy = share.body().decl( JMod.FINAL, element, "copy", JExpr.cast(
+            element, newDocument.invoke( "importNode" ).arg( shareSource ).arg( JExpr.TRUE ) ) );
+
+        share.body().add( sharedCopy.invoke( "setUserData" ).arg( sharedKey ).arg( cm.ref( Boolean.class ).
+            staticRef( "TRUE" ) ).arg( JExpr._null() ) );
+
+        share.body()._return( sharedCopy );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return domCopies;
     }
 
-    private JExpression getElementCopyExpression( final FieldOutline fieldOutline, final CElementInfo type,
-                                                  final JBlock block, final JExpression sourceExpr )
+    private JBlock generateDomCopyOperation( final ClassOutline clazz, final JBlock block )
     {
-        block.directStatement( "// CElementInfo: "
-                               + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+        if ( !this.compactDom || !this.reachesDom( clazz ) )
+        {
+            return block;
+        }
 
-        return this.getCopyOfElementInfoInvocation( fieldOutline, type ).arg( sourceExpr );
+        final JDefinedClass domCopies = this.getDomCopiesClass( clazz.parent() );
+        final JVar enclosing = block.decl( JMod.FINAL, clazz.parent().getCodeModel().ref( Document.class ).array(),
+                                           "domCopyOperation", domCopies.staticInvoke( "enter" ) );
+
+        final JTryBlock tryCopy = block._try();
+        tryCopy._finally().add( domCopies.staticInvoke( "leave" ).arg( enclosing ) );
+        return tryCopy.body();
     }
 
-    private JExpression getEnumLeafInfoCopyExpression( final FieldOutline fieldOutline, final CEnumLeafInfo type,
-                                                       final JBlock block, final JExpression sourceExpr )
+    private boolean isPackedCalendarProperty( final FieldOutline field )
     {
-        block.directStatement(
-            "// CEnumLeafInfo: " + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+        final JMethod getter = this.getPropertyGetter( field );
+        final JMethod setter = field.parent().implClass.getMethod( "set" + field.getPropertyInfo().getName( true ),
+                                                                    new JType[]
+            {
+                field.getRawType()
+            } );
+
+        return getter != null && setter != null && !field.getPropertyInfo().isCollection()
+               && field.getPropertyInfo().ref().size() == 1 && field.getPropertyInfo().getAdapter() == null
+               && field.getPropertyInfo().ref().iterator().next() == CBuiltinLeafInfo.CALENDAR
+               && field.getRawType().binaryName().equals( XMLGregorianCalendar.class.getName() )
+               && field.parent().implClass.fields().containsKey( field.getPropertyInfo().getName( false ) )
+               && getter.body().getContents().size() == 1 && setter.body().getContents().size() == 1;
 
-        return sourceExpr;
     }
 
-    private JExpression getAdapterInfoCopyExpression( final FieldOutline fieldOutline, final CAdapterInfo type,
-                                                      final JBlock block, final JExpression source )
+    private void generatePackedCalendarFields( final ClassOutline clazz )
     {
-        block.directStatement( "// CAdapterInfo: "
-                               + type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION ).binaryName() );
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            if ( this.isPackedCalendarProperty( field ) )
+            {
+                final JDefinedClass packedCalendar = this.getPackedCalendarClass( clazz.parent() );
+                final String fieldName = field.getPropertyInfo().getName( false );
+                final JFieldVar fieldVar = clazz.implClass.fields().get( fieldName );
+                final JMethod getter = this.getPropertyGetter( field );
+                final JMethod setter = clazz.implClass.getMethod( "set" + field.getPropertyInfo().getName( true ),
+                                                                  new JType[]
+                    {
+                        field.getRawType()
+                    } );
 
-        final JType jType = type.toType( fieldOutline.parent().parent(), Aspect.IMPLEMENTATION );
-        return JExpr.cast( jType, this.getCopyOfObjectInvocation( fieldOutline.parent() ).arg( source ) );
+                JClass adapter = null;
+                for ( JClass nested : packedCalendar.listClasses() )
+                {
+                    if ( nested.name().equals( "Adapter" ) )
+                    {
+                        adapter = nested;
+                    }
+                }
+
+                fieldVar.type( packedCalendar );
+                fieldVar.annotate( XmlJavaTypeAdapter.class ).param( "value", adapter );
+
+                // The accessors generated by XJC cannot be rewritten in place and are replaced.
+                clazz.implClass.methods().remove( getter );
+                clazz.implClass.methods().remove( setter );
+
+                final JMethod packedGetter =
+                    clazz.implClass.method( getter.mods().getValue(), getter.type(), getter.name() );
+
+                packedGetter.javadoc().addAll( getter.javadoc() );
+                packedGetter.javadoc().append( "\n<p>The value of the property is stored packed. This method returns "
+                                               + "a new instance on each invocation. Modifying the instance "
+                                               + "returned does not modify the value of the property.</p>\n" );
+
+                packedGetter.javadoc().addReturn().addAll( getter.javadoc().addReturn() );
+                packedGetter.body().directStatement( "// " + getMessage( "title" ) );
+                packedGetter.body()._return( JOp.cond( JExpr.refthis( fieldName ).eq( JExpr._null() ), JExpr._null(),
+                                                       JExpr.refthis( fieldName ).invoke( "toXMLGregorianCalendar" ) ) );
+
+                final JMethod packedSetter =
+                    clazz.implClass.method( setter.mods().getValue(), setter.type(), setter.name() );
+
+                final JVar value = packedSetter.param( setter.listParams()[0].type(), setter.listParams()[0].name() );
+                packedSetter.javadoc().addAll( setter.javadoc() );
+                packedSetter.javadoc().addParam( value ).addAll( setter.javadoc().addParam( value.name() ) );
+                packedSetter.body().directStatement( "// " + getMessage( "title" ) );
+                packedSetter.body().assign( JExpr._this().ref( fieldVar ),
+                                            packedCalendar.staticInvoke( "valueOf" ).arg( value ) );
+
+                this.methodCount = this.methodCount.add( BigInteger.valueOf( 2L ) );
+                this.packedCalendars.add( field );
+            }
+        }
     }
 
-    private JMethod generateStandardConstructor( final ClassOutline clazz )
+    private JDefinedClass getPackedCalendarClass( final Outline outline )
     {
-        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
-        ctor.body().directStatement( "// " + getMessage( "title" ) );
-        ctor.body().invoke( "super" );
-        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name() + "} instance." );
-        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
-        return ctor;
+        JDefinedClass packedCalendar = this.getSupportClass( outline, PACKED_CALENDAR_CLASS_NAME );
+
+        if ( packedCalendar == null )
+        {
+            packedCalendar = this.generatePackedCalendarClass( outline );
+        }
+
+        return packedCalendar;
     }
 
-    private JMethod generateCopyConstructor( final ClassOutline clazz )
+    private JDefinedClass generatePackedCalendarClass( final Outline outline )
     {
-        final JMethod ctor = clazz.implClass.constructor( JMod.PUBLIC );
-        final JClass paramClass = this.hierarchical ? this.getSupertype( clazz.implClass ) : clazz.implClass;
-        final JVar o = ctor.param( JMod.FINAL, paramClass, "o" );
-        final boolean superTypeParam = !clazz.implClass.equals( paramClass );
+        final JCodeModel cm = outline.getCodeModel();
+        final JDefinedClass packedCalendar =
+            this.newSupportClass( outline, PACKED_CALENDAR_CLASS_NAME, ClassType.CLASS );
+
+        final JClass xmlCal = cm.ref( XMLGregorianCalendar.class );
+        final JClass datatypeFactory = cm.ref( DatatypeFactory.class );
+        final JClass assertionError = cm.ref( AssertionError.class );
+        final JExpression undefined = cm.ref( DatatypeConstants.class ).staticRef( "FIELD_UNDEFINED" );
+
+        packedCalendar._implements( Serializable.class );
+        packedCalendar.javadoc().append(
+            "Immutable {@code XMLGregorianCalendar} values packed into a {@code long} and an {@code int}.\n<p>The "
+            + "year, month, day, hour, minute, second and timezone fields and the number of digits of the "
+            + "fractional second are packed into a single {@code long}, the digits of the fractional second into an "
+            + "{@code int}. Values with a year outside the range of 23 bits or with more than nine digits of "
+            + "fractional seconds are stored as a private copy of the calendar instead. Instances are immutable so "
+            + "that copying them means copying their reference.</p>\n<p>Instances are equal if they have been "
+            + "created from calendars with equal fields. Calendars denoting the same instant in different timezones "
+            + "are not equal.</p>" );
+
+        final JFieldVar serialVersionUid = packedCalendar.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.LONG,
+                                                                 "serialVersionUID", JExpr.lit( 1L ) );
+
+        serialVersionUid.javadoc().append( "Serial version UID for backwards compatibility." );
+
+        final JMethod newDatatypeFactory = packedCalendar.method( JMod.PRIVATE | JMod.STATIC, datatypeFactory,
+                                                                  "newDatatypeFactory" );
+
+        newDatatypeFactory.javadoc().append( "Creates a new datatype factory." );
+        newDatatypeFactory.javadoc().addReturn().append( "A new datatype factory." );
+        newDatatypeFactory.body().directStatement( "// " + getMessage( "title" ) );
+        final JTryBlock tryNew = newDatatypeFactory.body()._try();
+        tryNew.body()._return( datatypeFactory.staticInvoke( "newInstance" ) );
+        final JCatchBlock catchNew = tryNew._catch( cm.ref( DatatypeConfigurationException.class ) );
+        catchNew.body()._throw( JExpr.cast( assertionError, JExpr._new( assertionError ).arg(
+            "Unexpected datatype configuration." ).invoke( "initCause" ).arg( catchNew.param( "e" ) ) ) );
 
-        ctor.javadoc().add( "Creates a new {@code " + clazz.implClass.name()
-                            + "} instance by deeply copying a given {@code " + paramClass.name() + "} instance.\n" );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-        if ( !this.nullable )
-        {
-            ctor.javadoc().addParam( o ).add( "The instance to copy." );
-            ctor.javadoc().addThrows( NullPointerException.class ).append( "if {@code o} is {@code null}." );
-        }
-        else
-        {
-            ctor.javadoc().addParam( o ).add( "The instance to copy or {@code null}." );
-        }
+        final JFieldVar factory = packedCalendar.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, datatypeFactory,
+                                                        "DATATYPE_FACTORY", JExpr.invoke( newDatatypeFactory ) );
+
+        factory.javadoc().append( "Datatype factory creating the calendars of instances." );
+
+        final JFieldVar minYear = packedCalendar.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                        "MIN_YEAR", JExpr.lit( -4194303 ) );
+
+        minYear.javadoc().append( "Minimum year stored packed." );
+
+        final JFieldVar maxYear = packedCalendar.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                        "MAX_YEAR", JExpr.lit( 4194303 ) );
 
+        maxYear.javadoc().append( "Maximum year stored packed." );
+
+        final JFieldVar maxTimezone = packedCalendar.field( JMod.PRIVATE | JMod.STATIC | JMod.FINAL, cm.INT,
+                                                            "MAX_TIMEZONE", JExpr.lit( 840 ) );
+
+        maxTimezone.javadoc().append( "Maximum timezone offset in minutes." );
+
+        final JFieldVar fields = packedCalendar.field( JMod.PRIVATE | JMod.FINAL, cm.LONG, "fields" );
+        fields.javadoc().append( "Packed fields. Bits 0-10 hold the timezone, bits 11-16 the second, bits 17-22 "
+                                 + "the minute, bits 23-27 the hour, bits 28-32 the day, bits 33-36 the month, "
+                                 + "bits 37-40 the number of digits of the fractional second and bits 41-63 the "
+                                 + "year. Undefined fields hold the maximum value of their bits except for the day "
+                                 + "and the month holding zero and the year holding {@code MIN_YEAR - 1}." );
+
+        final JFieldVar fraction = packedCalendar.field( JMod.PRIVATE | JMod.FINAL, cm.INT, "fraction" );
+        fraction.javadoc().append( "Digits of the fractional second." );
+
+        final JFieldVar calendar = packedCalendar.field( JMod.PRIVATE | JMod.FINAL, xmlCal, "calendar" );
+        calendar.javadoc().append( "Calendar not stored packed or {@code null}." );
+
+        final JMethod ctor = packedCalendar.constructor( JMod.PRIVATE );
+        final JVar ctorFields = ctor.param( JMod.FINAL, cm.LONG, "fields" );
+        final JVar ctorFraction = ctor.param( JMod.FINAL, cm.INT, "fraction" );
+        final JVar ctorCalendar = ctor.param( JMod.FINAL, xmlCal, "calendar" );
+        ctor.javadoc().append( "Creates a new {@code " + PACKED_CALENDAR_CLASS_NAME + "} instance." );
+        ctor.javadoc().addParam( ctorFields ).append( "Packed fields." );
+        ctor.javadoc().addParam( ctorFraction ).append( "Digits of the fractional second." );
+        ctor.javadoc().addParam( ctorCalendar ).append( "Calendar not stored packed or {@code null}." );
         ctor.body().directStatement( "// " + getMessage( "title" ) );
+        ctor.body().invoke( "super" );
+        ctor.body().assign( JExpr._this().ref( fields ), ctorFields );
+        ctor.body().assign( JExpr._this().ref( fraction ), ctorFraction );
+        ctor.body().assign( JExpr._this().ref( calendar ), ctorCalendar );
+        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-        if ( this.needsWarningOnReferencedSupertypes( clazz ) )
-        {
-            ctor.body().directStatement(
-                "// " + WARNING_PREFIX + ": A super-class of this class was not part of the compilation unit." );
+        final JMethod pack = packedCalendar.method( JMod.PRIVATE | JMod.STATIC, cm.LONG, "pack" );
+        final JVar packValue = pack.param( JMod.FINAL, cm.INT, "value" );
+        final JVar packUndefined = pack.param( JMod.FINAL, cm.INT, "undefined" );
+        final JVar packOffset = pack.param( JMod.FINAL, cm.INT, "offset" );
+        pack.javadoc().append( "Packs a calendar field." );
+        pack.javadoc().addParam( packValue ).append( "The value of the field." );
+        pack.javadoc().addParam( packUndefined ).append( "The value to pack for an undefined field." );
+        pack.javadoc().addParam( packOffset ).append( "The offset of the bits of the field." );
+        pack.javadoc().addReturn().append( "The field shifted to its bits." );
+        pack.body().directStatement( "// " + getMessage( "title" ) );
+        pack.body()._return( JOp.shl( JExpr.cast( cm.LONG, JOp.cond( packValue.eq( undefined ), packUndefined,
+                                                                      packValue ) ), packOffset ) );
 
-            ctor.body().directStatement( "// " + WARNING_PREFIX
-                                         + ": The plugin assumes this super-class to directly extend class "
-                                         + "'java.lang.Object'." );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            ctor.body().directStatement( "// " + WARNING_PREFIX
-                                         + ": The type of the constructor arguments (type of o) in the hierarchy "
-                                         + "this constructor is part" );
+        final JMethod unpack = packedCalendar.method( JMod.PRIVATE, cm.INT, "unpack" );
+        final JVar unpackOffset = unpack.param( JMod.FINAL, cm.INT, "offset" );
+        final JVar unpackBits = unpack.param( JMod.FINAL, cm.INT, "bits" );
+        final JVar unpackUndefined = unpack.param( JMod.FINAL, cm.INT, "undefined" );
+        unpack.javadoc().append( "Unpacks a calendar field." );
+        unpack.javadoc().addParam( unpackOffset ).append( "The offset of the bits of the field." );
+        unpack.javadoc().addParam( unpackBits ).append( "The number of bits of the field." );
+        unpack.javadoc().addParam( unpackUndefined ).append( "The value packed for an undefined field." );
+        unpack.javadoc().addReturn().append( "The value of the field or {@code DatatypeConstants.FIELD_UNDEFINED}." );
+        unpack.body().directStatement( "// " + getMessage( "title" ) );
+        final JVar unpacked = unpack.body().decl( JMod.FINAL, cm.INT, "value", JExpr.cast( cm.INT, JOp.band(
+            JOp.shrz( JExpr._this().ref( fields ), unpackOffset ),
+            JOp.minus( JOp.shl( JExpr.lit( 1L ), unpackBits ), JExpr.lit( 1L ) ) ) ) );
+
+        unpack.body()._return( JOp.cond( unpacked.eq( unpackUndefined ), undefined, unpacked ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-            ctor.body().directStatement( "// " + WARNING_PREFIX + ": of may be wrong and must be verified." );
-        }
+        final JMethod valueOf = packedCalendar.method( JMod.PUBLIC | JMod.STATIC, packedCalendar, "valueOf" );
+        final JVar source = valueOf.param( JMod.FINAL, xmlCal, "calendar" );
+        valueOf.javadoc().append( "Gets the {@code " + PACKED_CALENDAR_CLASS_NAME + "} instance of a given "
+                                  + "{@code XMLGregorianCalendar} instance." );
 
-        if ( clazz.getSuperClass() != null
-             || ( clazz.implClass._extends() != null
-                  && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) ) )
-        {
-            ctor.body().invoke( "super" ).arg( o );
-        }
-        else
-        {
-            ctor.body().invoke( "super" );
-        }
+        valueOf.javadoc().addParam( source ).append( "The calendar to pack or {@code null}." );
+        valueOf.javadoc().addReturn().append( "An immutable instance holding the fields of {@code calendar} or "
+                                              + "{@code null} if {@code calendar} is {@code null}." );
 
-        if ( !this.nullable )
-        {
-            ctor.body()._if( o.eq( JExpr._null() ) )._then()._throw(
-                JExpr._new( clazz.parent().getCodeModel().ref( NullPointerException.class ) ).
-                arg( "Cannot create a copy of '" + clazz.implClass.name() + "' from 'null'." ) );
+        valueOf.body().directStatement( "// " + getMessage( "title" ) );
+        valueOf.body()._if( source.eq( JExpr._null() ) )._then()._return( JExpr._null() );
 
-        }
+        final JVar year = valueOf.body().decl( JMod.FINAL, cm.INT, "year", source.invoke( "getYear" ) );
+        final JVar timezone = valueOf.body().decl( JMod.FINAL, cm.INT, "timezone", source.invoke( "getTimezone" ) );
+        final JVar fractionalSecond = valueOf.body().decl( JMod.FINAL, cm.ref( BigDecimal.class ), "fractionalSecond",
+                                                           source.invoke( "getFractionalSecond" ) );
 
-        this.contextExceptions.clear();
+        final JExpression notPackable = source.invoke( "getEon" ).ne( JExpr._null() ).cor(
+            year.ne( undefined ).cand( year.lt( minYear ).cor( year.gt( maxYear ) ) ) ).cor(
+            timezone.ne( undefined ).cand( timezone.lt( JOp.minus( maxTimezone ) ).cor( timezone.gt( maxTimezone ) ) ) ).
+            cor( fractionalSecond.ne( JExpr._null() ).cand( fractionalSecond.invoke( "scale" ).lt( JExpr.lit( 0 ) ).
+            cor( fractionalSecond.invoke( "scale" ).gt( JExpr.lit( 9 ) ) ) ) );
 
-        boolean hasFields = false;
-        if ( !clazz.implClass.fields().isEmpty() )
-        {
-            final JBlock copyBlock = new JBlock( false, false );
-            final JExpression source = superTypeParam ? JExpr.cast( clazz.implClass, o ) : o;
+        valueOf.body()._if( notPackable )._then()._return( JExpr._new( packedCalendar ).arg( JExpr.lit( 0L ) ).arg(
+            JExpr.lit( 0 ) ).arg( JExpr.cast( xmlCal, source.invoke( "clone" ) ) ) );
 
-            for ( FieldOutline field : clazz.getDeclaredFields() )
-            {
-                hasFields = true;
-                this.generateCopyOfProperty( field, JExpr._this(), source, copyBlock, false );
-            }
+        JExpression packed = JExpr.invoke( pack ).arg( year ).arg( JOp.minus( minYear, JExpr.lit( 1 ) ) ).
+            arg( JExpr.lit( 41 ) );
+
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( JOp.cond(
+            fractionalSecond.eq( JExpr._null() ), undefined, fractionalSecond.invoke( "scale" ) ) ).
+            arg( JExpr.lit( 15 ) ).arg( JExpr.lit( 37 ) ) );
+
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( source.invoke( "getMonth" ) ).arg( JExpr.lit( 0 ) ).
+            arg( JExpr.lit( 33 ) ) );
 
-            for ( JFieldVar field : clazz.implClass.fields().values() )
-            {
-                if ( ( field.mods().getValue() & JMod.STATIC ) == JMod.STATIC )
-                {
-                    continue;
-                }
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( source.invoke( "getDay" ) ).arg( JExpr.lit( 0 ) ).
+            arg( JExpr.lit( 28 ) ) );
 
-                hasFields = true;
-                final FieldOutline fieldOutline = this.getFieldOutline( clazz, field.name() );
-                if ( fieldOutline == null )
-                {
-                    if ( field.type().isPrimitive() )
-                    {
-                        copyBlock.directStatement( "// Unknown primitive field '" + field.name() + "'." );
-                        copyBlock.assign( JExpr.refthis( field.name() ), source.ref( field ) );
-                        this.log( Level.WARNING, "fieldWithoutProperties", field.name(), clazz.implClass.name() );
-                    }
-                    else
-                    {
-                        if ( field.name().equals( "otherAttributes" ) && clazz.target.declaresAttributeWildcard() )
-                        {
-                            copyBlock.directStatement( "// Other attributes." );
-                            copyBlock.add(
-                                JExpr.refthis( field.name() ).invoke( "putAll" ).arg( source.ref( field ) ) );
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( source.invoke( "getHour" ) ).arg( JExpr.lit( 31 ) ).
+            arg( JExpr.lit( 23 ) ) );
 
-                        }
-                        else
-                        {
-                            copyBlock.directStatement( "// Unknown reference field '" + field.name() + "'." );
-                            copyBlock.assign( JExpr.refthis( field.name() ), JExpr.cast(
-                                field.type(), this.getCopyOfObjectInvocation( clazz ).arg( source.ref( field ) ) ) );
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( source.invoke( "getMinute" ) ).arg( JExpr.lit( 63 ) ).
+            arg( JExpr.lit( 17 ) ) );
 
-                            this.log( Level.WARNING, "fieldWithoutProperties", field.name(), clazz.implClass.name() );
-                        }
-                    }
-                }
-            }
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( source.invoke( "getSecond" ) ).arg( JExpr.lit( 63 ) ).
+            arg( JExpr.lit( 11 ) ) );
 
-            if ( hasFields )
-            {
-                JBlock effective = ctor.body();
+        packed = JOp.bor( packed, JExpr.invoke( pack ).arg( JOp.cond( timezone.eq( undefined ), undefined,
+            JOp.plus( timezone, maxTimezone ) ) ).arg( JExpr.lit( 2047 ) ).arg( JExpr.lit( 0 ) ) );
 
-                if ( !this.contextExceptions.isEmpty() )
-                {
-                    final JTryBlock tryCopy = ctor.body()._try();
-                    effective = tryCopy.body();
+        valueOf.body()._return( JExpr._new( packedCalendar ).arg( packed ).arg( JOp.cond(
+            fractionalSecond.eq( JExpr._null() ), JExpr.lit( 0 ), fractionalSecond.invoke( "unscaledValue" ).
+            invoke( "intValue" ) ) ).arg( JExpr._null() ) );
 
-                    if ( this.contextExceptions.contains( Exception.class ) )
-                    {
-                        this.contextExceptions.retainAll( Arrays.asList( new Class<?>[]
-                            {
-                                Exception.class
-                            } ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-                    }
+        final JMethod toXmlCal = packedCalendar.method( JMod.PUBLIC, xmlCal, "toXMLGregorianCalendar" );
+        toXmlCal.javadoc().append( "Creates a new {@code XMLGregorianCalendar} instance from this instance." );
+        toXmlCal.javadoc().addReturn().append( "A new {@code XMLGregorianCalendar} instance holding the fields of "
+                                               + "this instance." );
+
+        toXmlCal.body().directStatement( "// " + getMessage( "title" ) );
+        toXmlCal.body()._if( JExpr._this().ref( calendar ).ne( JExpr._null() ) )._then()._return(
+            JExpr.cast( xmlCal, JExpr._this().ref( calendar ).invoke( "clone" ) ) );
+
+        final JVar unpackedYear = toXmlCal.body().decl( JMod.FINAL, cm.INT, "year", JExpr.cast( cm.INT, JOp.shr(
+            JExpr._this().ref( fields ), JExpr.lit( 41 ) ) ) );
+
+        final JVar digits = toXmlCal.body().decl( JMod.FINAL, cm.INT, "digits", JExpr.invoke( unpack ).arg(
+            JExpr.lit( 37 ) ).arg( JExpr.lit( 4 ) ).arg( JExpr.lit( 15 ) ) );
+
+        final JVar unpackedTimezone = toXmlCal.body().decl( JMod.FINAL, cm.INT, "timezone", JExpr.invoke( unpack ).
+            arg( JExpr.lit( 0 ) ).arg( JExpr.lit( 11 ) ).arg( JExpr.lit( 2047 ) ) );
+
+        toXmlCal.body()._return( factory.invoke( "newXMLGregorianCalendar" ).
+            arg( JOp.cond( unpackedYear.lt( minYear ), JExpr._null(), cm.ref( BigInteger.class ).staticInvoke(
+            "valueOf" ).arg( unpackedYear ) ) ).
+            arg( JExpr.invoke( unpack ).arg( JExpr.lit( 33 ) ).arg( JExpr.lit( 4 ) ).arg( JExpr.lit( 0 ) ) ).
+            arg( JExpr.invoke( unpack ).arg( JExpr.lit( 28 ) ).arg( JExpr.lit( 5 ) ).arg( JExpr.lit( 0 ) ) ).
+            arg( JExpr.invoke( unpack ).arg( JExpr.lit( 23 ) ).arg( JExpr.lit( 5 ) ).arg( JExpr.lit( 31 ) ) ).
+            arg( JExpr.invoke( unpack ).arg( JExpr.lit( 17 ) ).arg( JExpr.lit( 6 ) ).arg( JExpr.lit( 63 ) ) ).
+            arg( JExpr.invoke( unpack ).arg( JExpr.lit( 11 ) ).arg( JExpr.lit( 6 ) ).arg( JExpr.lit( 63 ) ) ).
+            arg( JOp.cond( digits.eq( undefined ), JExpr._null(), cm.ref( BigDecimal.class ).staticInvoke(
+            "valueOf" ).arg( JExpr.cast( cm.LONG, JExpr._this().ref( fraction ) ) ).arg( digits ) ) ).
+            arg( JOp.cond( unpackedTimezone.eq( undefined ), undefined, JOp.minus( unpackedTimezone,
+                                                                                   maxTimezone ) ) ) );
 
-                    for ( Class<?> e : this.contextExceptions )
-                    {
-                        final JCatchBlock catchBlock = tryCopy._catch( clazz.parent().getCodeModel().ref( e ) );
-                        catchBlock.body().directStatement(
-                            "// Please report this at " + getMessage( "bugtrackerUrl" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-                        catchBlock.body()._throw( JExpr._new( clazz.parent().getCodeModel().
-                            ref( AssertionError.class ) ).arg( catchBlock.param( "e" ) ) );
+        final JMethod equals = packedCalendar.method( JMod.PUBLIC, cm.BOOLEAN, "equals" );
+        final JVar o = equals.param( JMod.FINAL, Object.class, "o" );
+        equals.javadoc().append( "Indicates whether some other object is equal to this one." );
+        equals.javadoc().addParam( o ).append( "The reference object with which to compare." );
+        equals.javadoc().addReturn().append( "{@code true} if this object is the same as {@code o}; {@code false} "
+                                             + "otherwise." );
+
+        equals.body().directStatement( "// " + getMessage( "title" ) );
+        equals.body()._if( o.eq( JExpr._this() ) )._then()._return( JExpr.TRUE );
+        equals.body()._if( o._instanceof( packedCalendar ).not() )._then()._return( JExpr.FALSE );
+        final JVar that = equals.body().decl( JMod.FINAL, packedCalendar, "that", JExpr.cast( packedCalendar, o ) );
+        equals.body()._return( JExpr._this().ref( fields ).eq( that.ref( fields ) ).cand(
+            JExpr._this().ref( fraction ).eq( that.ref( fraction ) ) ).cand( JOp.cond(
+            JExpr._this().ref( calendar ).eq( JExpr._null() ), that.ref( calendar ).eq( JExpr._null() ),
+            JExpr._this().ref( calendar ).invoke( "equals" ).arg( that.ref( calendar ) ) ) ) );
 
-                    }
-                }
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-                if ( superTypeParam )
-                {
-                    effective._if( o._instanceof( clazz.implClass ) )._then().add( copyBlock );
-                }
-                else if ( this.nullable )
-                {
-                    effective._if( o.ne( JExpr._null() ) )._then().add( copyBlock );
-                }
-                else
-                {
-                    effective.add( copyBlock );
-                }
-            }
-        }
+        final JMethod hashCode = packedCalendar.method( JMod.PUBLIC, cm.INT, "hashCode" );
+        hashCode.javadoc().append( "Returns a hash code value for this object." );
+        hashCode.javadoc().addReturn().append( "A hash code value for this object." );
+        hashCode.body().directStatement( "// " + getMessage( "title" ) );
+        hashCode.body()._return( JOp.plus( JOp.mul( JExpr.lit( 31 ), JOp.plus( JOp.mul( JExpr.lit( 31 ), JExpr.cast(
+            cm.INT, JOp.xor( JExpr._this().ref( fields ), JOp.shrz( JExpr._this().ref( fields ), JExpr.lit( 32 ) ) ) ) ),
+            JExpr._this().ref( fraction ) ) ), JOp.cond( JExpr._this().ref( calendar ).eq( JExpr._null() ),
+            JExpr.lit( 0 ), JExpr._this().ref( calendar ).invoke( "hashCode" ) ) ) );
 
-        this.constructorCount = this.constructorCount.add( BigInteger.ONE );
-        return ctor;
-    }
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
 
-    private void warnOnReferencedSupertypes( final ClassOutline clazz )
-    {
-        if ( clazz.getSuperClass() == null && clazz.implClass._extends() != null
-             && !clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
+        final JMethod toString = packedCalendar.method( JMod.PUBLIC, String.class, "toString" );
+        toString.javadoc().append( "Returns a string representation of the object." );
+        toString.javadoc().addReturn().append( "The lexical representation of this instance." );
+        toString.body().directStatement( "// " + getMessage( "title" ) );
+        toString.body()._return( JExpr.invoke( toXmlCal ).invoke( "toXMLFormat" ) );
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+        try
         {
-            this.log( Level.WARNING, "referencedSupertypeWarning", clazz.implClass.fullName(),
-                      clazz.implClass._extends().binaryName(), WARNING_PREFIX );
+            final JDefinedClass adapter = packedCalendar._class( JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Adapter" );
+            adapter._extends( cm.ref( XmlAdapter.class ).narrow( xmlCal, packedCalendar ) );
+            adapter.javadoc().append( "{@code XmlAdapter} binding {@code XMLGregorianCalendar} values to {@code "
+                                      + PACKED_CALENDAR_CLASS_NAME + "} instances." );
 
-        }
+            final JMethod adapterCtor = adapter.constructor( JMod.PUBLIC );
+            adapterCtor.javadoc().append( "Creates a new {@code Adapter} instance." );
+            adapterCtor.body().directStatement( "// " + getMessage( "title" ) );
+            adapterCtor.body().invoke( "super" );
+            this.constructorCount = this.constructorCount.add( BigInteger.ONE );
 
-        if ( clazz.getSuperClass() != null )
+            final JMethod unmarshal = adapter.method( JMod.PUBLIC, packedCalendar, "unmarshal" );
+            final JVar unmarshalValue = unmarshal.param( JMod.FINAL, xmlCal, "value" );
+            unmarshal.javadoc().append( "Packs a given {@code XMLGregorianCalendar} instance." );
+            unmarshal.javadoc().addParam( unmarshalValue ).append( "The calendar to pack or {@code null}." );
+            unmarshal.javadoc().addReturn().append( "The packed calendar or {@code null}." );
+            unmarshal.body().directStatement( "// " + getMessage( "title" ) );
+            unmarshal.body()._return( JExpr.invoke( valueOf ).arg( unmarshalValue ) );
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+
+            final JMethod marshal = adapter.method( JMod.PUBLIC, xmlCal, "marshal" );
+            final JVar marshalValue = marshal.param( JMod.FINAL, packedCalendar, "value" );
+            marshal.javadoc().append( "Unpacks a given {@code " + PACKED_CALENDAR_CLASS_NAME + "} instance." );
+            marshal.javadoc().addParam( marshalValue ).append( "The calendar to unpack or {@code null}." );
+            marshal.javadoc().addReturn().append( "The unpacked calendar or {@code null}." );
+            marshal.body().directStatement( "// " + getMessage( "title" ) );
+            marshal.body()._return( JOp.cond( marshalValue.eq( JExpr._null() ), JExpr._null(), marshalValue.invoke(
+                toXmlCal ) ) );
+
+            this.methodCount = this.methodCount.add( BigInteger.ONE );
+        }
+        catch ( final JClassAlreadyExistsException e )
         {
-            this.warnOnReferencedSupertypes( clazz.getSuperClass() );
+            throw new AssertionError( e );
         }
+
+        return packedCalendar;
     }
 
-    private boolean needsWarningOnReferencedSupertypes( final ClassOutline clazz )
+    private void generateNestedCopyOfProperty( final FieldOutline field, final JExpression targetExpr,
+                                               final JExpression copyArgument, final JBlock block,
+                                               final String comment )
     {
-        if ( clazz.getSuperClass() == null && ( clazz.implClass._extends() != null && !clazz.implClass._extends().
-            binaryName().equals( "java.lang.Object" ) ) )
-        {
-            return true;
-        }
+        final String fieldName = field.getPropertyInfo().getName( false );
+        final JFieldRef source = JExpr.refthis( fieldName );
+        final JFieldRef target = targetExpr.ref( fieldName );
+        final JClass type = field.parent().parent().getClazz(
+            (CClassInfo) field.getPropertyInfo().ref().iterator().next() ).implClass;
 
-        if ( clazz.getSuperClass() != null )
+        if ( field.getPropertyInfo().isCollection() )
         {
-            return this.needsWarningOnReferencedSupertypes( clazz.getSuperClass() );
-        }
+            final JMethod getter = this.getPropertyGetter( field );
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' collection " + comment + "." );
+            block.assign( target, JExpr._null() );
 
-        return false;
-    }
+            final JBlock sourceNotNull = block._if( source.ne( JExpr._null() ) )._then();
+            final JVar copies = sourceNotNull.decl( JMod.FINAL, field.getRawType(), "copies",
+                                                    targetExpr.invoke( getter ) );
 
-    private JClass getSupertype( final JClass clazz )
-    {
-        if ( clazz._extends() != null && !clazz._extends().binaryName().equals( "java.lang.Object" ) )
+            final JForEach forEachElement = sourceNotNull.forEach( type, "element", source );
+            forEachElement.body().add( copies.invoke( "add" ).arg(
+                this.getNestedCopyExpression( forEachElement.var(), copyArgument ) ) );
+
+        }
+        else
         {
-            return this.getSupertype( clazz._extends() );
+            block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' property " + comment + "." );
+            block.assign( target, this.getNestedCopyExpression( source, copyArgument ) );
         }
-
-        return clazz;
     }
 
-    private JMethod generateCloneMethod( final ClassOutline clazz )
+    private JExpression getNestedCopyExpression( final JExpression source, final JExpression copyArgument )
     {
-        final JMethod cloneMethod = clazz.implClass.method( JMod.PUBLIC, clazz.implClass, "clone" );
-        cloneMethod.annotate( Override.class );
-        clazz.implClass._implements( clazz.parent().getCodeModel().ref( Cloneable.class ) );
-        cloneMethod.javadoc().append( "Creates and returns a deep copy of this object.\n" );
-        cloneMethod.javadoc().addReturn().append( "A deep copy of this object." );
-        this.contextExceptions.clear();
+        JExpression copy = source.invoke( "copy" ).arg( copyArgument );
 
-        if ( ( clazz.implClass._extends() != null
-               && clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
-             || ( clazz.getSuperClass() != null
-                  && clazz.getSuperClass().implClass.binaryName().equals( "java.lang.Object" ) ) )
+        if ( this.freezable )
         {
-            // Cannot check the super classes 'clone' method throwing a 'CloneNotSupportedException'.
-            this.contextExceptions.add( CloneNotSupportedException.class );
+            copy = JOp.cond( source.invoke( "isFrozen" ), source, copy );
         }
 
-        final JBlock copyBlock = new JBlock( false, false );
-        copyBlock.directStatement( "// " + getMessage( "title" ) );
-        final JVar clone = copyBlock.decl( JMod.FINAL, clazz.implClass, "clone",
-                                           JExpr.cast( clazz.implClass, JExpr._super().invoke( "clone" ) ) );
+        return JOp.cond( source.eq( JExpr._null() ), JExpr._null(), copy );
+    }
 
-        for ( FieldOutline field : clazz.getDeclaredFields() )
+    private boolean isNestedCopyProperty( final FieldOutline field )
+    {
+        if ( ( field.getPropertyInfo().isCollection() && field.getRawType().isArray() )
+             || field.getPropertyInfo().ref().size() != 1 || field.getPropertyInfo().getAdapter() != null
+             || field.getPropertyInfo().id() == ID.IDREF
+             || field.parent().parent().getModel().strategy != ImplStructureStrategy.BEAN_ONLY )
         {
-            this.generateCopyOfProperty( field, clone, JExpr._this(), copyBlock, true );
+            return false;
         }
 
+        final CTypeInfo type = field.getPropertyInfo().ref().iterator().next();
+        return type instanceof CClassInfo && field.parent().parent().getClazz( (CClassInfo) type ) != null;
+    }
+
+    private void generateCopyOfUnknownFields( final ClassOutline clazz, final JExpression targetExpr,
+                                              final JBlock copyBlock, final boolean reuseTarget )
+    {
         for ( JFieldVar field : clazz.implClass.fields().values() )
         {
-            if ( ( field.mods().getValue() & JMod.STATIC ) == JMod.STATIC )
+            if ( ( field.mods().getValue() & JMod.STATIC ) == JMod.STATIC || this.supportFields.contains( field ) )
             {
                 continue;
             }
@@ -2494,7 +11429,7 @@ public final class PluginImpl extends Plugin
                 if ( field.type().isPrimitive() )
                 {
                     copyBlock.directStatement( "// Unknown primitive field '" + field.name() + "'." );
-                    copyBlock.assign( clone.ref( field.name() ), JExpr.refthis( field.name() ) );
+                    copyBlock.assign( targetExpr.ref( field.name() ), JExpr.refthis( field.name() ) );
 //                    this.log( Level.WARNING, "fieldWithoutProperties", field.name(), clazz.implClass.name() );
                 }
                 else
@@ -2502,14 +11437,24 @@ public final class PluginImpl extends Plugin
                     if ( field.name().equals( "otherAttributes" ) && clazz.target.declaresAttributeWildcard() )
                     {
                         copyBlock.directStatement( "// Other attributes." );
-                        copyBlock.add( clone.ref( field.name() ).invoke( "putAll" ).
+                        JBlock putBlock = copyBlock;
+
+                        if ( reuseTarget )
+                        {
+                            putBlock = copyBlock._if( targetExpr.ref( field.name() ).ne(
+                                JExpr.refthis( field.name() ) ) )._then();
+
+                            putBlock.add( targetExpr.ref( field.name() ).invoke( "clear" ) );
+                        }
+
+                        putBlock.add( targetExpr.ref( field.name() ).invoke( "putAll" ).
                             arg( JExpr.refthis( field.name() ) ) );
 
                     }
                     else
                     {
                         copyBlock.directStatement( "// Unknown reference field '" + field.name() + "'." );
-                        copyBlock.assign( clone.ref( field.name() ), JExpr.cast(
+                        copyBlock.assign( targetExpr.ref( field.name() ), JExpr.cast(
                             field.type(), this.getCopyOfObjectInvocation( clazz ).arg(
                             JExpr.refthis( field.name() ) ) ) );
 
@@ -2518,12 +11463,13 @@ public final class PluginImpl extends Plugin
                 }
             }
         }
+    }
 
-        copyBlock._return( clone );
-
+    private void addCopyBlock( final ClassOutline clazz, final JBlock body, final JBlock copyBlock )
+    {
         if ( !this.contextExceptions.isEmpty() )
         {
-            final JTryBlock tryCopy = cloneMethod.body()._try();
+            final JTryBlock tryCopy = body._try();
             tryCopy.body().add( copyBlock );
 
             if ( this.contextExceptions.contains( Exception.class ) )
@@ -2546,11 +11492,107 @@ public final class PluginImpl extends Plugin
         }
         else
         {
-            cloneMethod.body().add( copyBlock );
+            body.add( copyBlock );
+        }
+    }
+
+    private boolean extendsObject( final ClassOutline clazz )
+    {
+        return ( clazz.implClass._extends() != null
+                 && clazz.implClass._extends().binaryName().equals( "java.lang.Object" ) )
+               || ( clazz.getSuperClass() != null
+                    && clazz.getSuperClass().implClass.binaryName().equals( "java.lang.Object" ) );
+
+    }
+
+    private JMethod generateCloneShallowMethod( final ClassOutline clazz )
+    {
+        final JClass object = clazz.parent().getCodeModel().ref( Object.class );
+        final JMethod cloneShallow = clazz.implClass.method( JMod.PUBLIC, object, "cloneShallow" );
+        cloneShallow.javadoc().append( "Creates and returns a shallow copy of this object.\n<p>The copy shares the "
+                                       + "values of all properties with this object until it is completed by the "
+                                       + "{@code completeCopy} method.</p>" );
+
+        cloneShallow.javadoc().addReturn().append( "A shallow copy of this object." );
+        cloneShallow.body().directStatement( "// " + getMessage( "title" ) );
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar copy = copyBlock.decl( JMod.FINAL, object, "copy", JExpr._super().invoke( "clone" ) );
+
+        if ( this.needsCopyContext( clazz ) && this.needsCopyRegistration( clazz ) )
+        {
+            final JDefinedClass copyContextClass = this.getCopyContextClass( clazz.parent() );
+            final JVar copyContext = copyBlock.decl( JMod.FINAL, copyContextClass, "copyContext",
+                                                     copyContextClass.staticInvoke( "current" ) );
+
+            this.generateCopyRegistration( copyBlock, copyContext, JExpr._this(), copy );
+        }
+
+        copyBlock._return( copy );
+        this.contextExceptions.clear();
+
+        if ( this.extendsObject( clazz ) )
+        {
+            this.contextExceptions.add( CloneNotSupportedException.class );
         }
 
+        this.addCopyBlock( clazz, cloneShallow.body(), copyBlock );
         this.methodCount = this.methodCount.add( BigInteger.ONE );
-        return cloneMethod;
+        return cloneShallow;
+    }
+
+    private JMethod generateCompleteCopyMethod( final ClassOutline clazz )
+    {
+        final JMethod completeCopy = clazz.implClass.method( JMod.PUBLIC, Void.TYPE, "completeCopy" );
+        final JVar copy = completeCopy.param( JMod.FINAL, clazz.parent().getCodeModel().ref( Object.class ), "copy" );
+        completeCopy.javadoc().append( "Completes a shallow copy of this object.\n<p>Copies the values of the "
+                                       + "properties of this object to a copy created by the {@code cloneShallow} "
+                                       + "method. Schema derived instances referenced by this object are copied by the "
+                                       + "{@code " + COPY_QUEUE_CLASS_NAME + "} of the current thread.</p>" );
+
+        completeCopy.javadoc().addParam( copy ).append( "The shallow copy of this object to complete." );
+        completeCopy.body().directStatement( "// " + getMessage( "title" ) );
+        this.contextExceptions.clear();
+
+        if ( clazz.getSuperClass() != null )
+        {
+            completeCopy.body().add( JExpr._super().invoke( completeCopy ).arg( copy ) );
+        }
+
+        final JBlock copyBlock = new JBlock( false, false );
+        final JVar target = copyBlock.decl( JMod.FINAL, clazz.implClass, "target", JExpr.cast( clazz.implClass, copy ) );
+
+        if ( this.frozenFlags.containsKey( clazz ) )
+        {
+            copyBlock.assign( target.ref( this.frozenFlags.get( clazz ) ), JExpr.FALSE );
+        }
+
+        this.generateTrackingReset( clazz, copyBlock, target );
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            final JFieldVar flag = this.lazyFlags.get( field );
+
+            if ( flag != null )
+            {
+                copyBlock.assign( target.ref( flag ), JExpr.FALSE );
+            }
+        }
+
+        for ( FieldOutline field : clazz.getDeclaredFields() )
+        {
+            this.generateCopyOfProperty( field, target, JExpr._this(), copyBlock, true );
+        }
+
+        this.generateCopyOfUnknownFields( clazz, target, copyBlock, false );
+
+        if ( copyBlock.getContents().size() > 1 )
+        {
+            this.addCopyBlock( clazz, completeCopy.body(), copyBlock );
+        }
+
+        this.methodCount = this.methodCount.add( BigInteger.ONE );
+        return completeCopy;
     }
 
     private void generateCopyOfProperty( final FieldOutline field, final JExpression targetExpr,
@@ -2592,10 +11634,22 @@ public final class PluginImpl extends Plugin
 
                 }
             }
+            else if ( this.sharedFlags.containsKey( field ) )
+            {
+                this.generateCopyOnWriteSharingOfProperty( field, targetExpr, sourceExpr, block );
+            }
+            else if ( this.packedCalendars.contains( field ) )
+            {
+                block.directStatement( "// '" + field.getPropertyInfo().getName( true ) + "' packed." );
+                block.assign( targetExpr.ref( field.getPropertyInfo().getName( false ) ),
+                              JExpr.ref( sourceExpr, field.getPropertyInfo().getName( false ) ) );
+
+            }
             else
             {
                 final JExpression copyExpr;
                 boolean needsToCatchException = false;
+                boolean dataHandler = false;
 
                 if ( field.getPropertyInfo().ref().size() != 1 )
                 {
@@ -2633,6 +11687,7 @@ public final class PluginImpl extends Plugin
 
                     copyExpr = this.getCopyExpression( field, typeInfo, block, source, true );
                     needsToCatchException = needsToCatchException || this.tryCatchCopyExpression;
+                    dataHandler = this.copyAttachments && typeInfo == CBuiltinLeafInfo.DATA_HANDLER;
                 }
 
                 if ( copyExpr == null )
@@ -2669,6 +11724,16 @@ public final class PluginImpl extends Plugin
                             eq( JExpr._null() ), JExpr._null(), copyExpr ) );
 
                     }
+
+                    if ( dataHandler )
+                    {
+                        final JFieldRef sourceField = JExpr.ref( sourceExpr, field.getPropertyInfo().getName( false ) );
+                        final JFieldRef targetField = targetExpr.ref( field.getPropertyInfo().getName( false ) );
+                        this.generateDataHandlerReseat( field.parent().parent(), copyBlock, sourceField, targetField ).
+                            assign( sourceField, this.getAttachmentsClass( field.parent().parent() ).
+                            staticInvoke( "copyOfDataHandler" ).arg( targetField ) );
+
+                    }
                 }
             }
         }
@@ -2714,6 +11779,39 @@ public final class PluginImpl extends Plugin
         }
     }
 
+    private Map<String, Long> readProfile( final String fileName ) throws IOException, BadCommandLineException
+    {
+        final Map<String, Long> counts = new HashMap<String, Long>();
+        final Properties properties = new Properties();
+        final InputStream in = new FileInputStream( fileName );
+
+        try
+        {
+            properties.load( in );
+        }
+        finally
+        {
+            in.close();
+        }
+
+        for ( Map.Entry<Object, Object> e : properties.entrySet() )
+        {
+            final String key = e.getKey().toString();
+            final String value = e.getValue().toString().trim();
+
+            try
+            {
+                counts.put( key, Long.valueOf( value ) );
+            }
+            catch ( final NumberFormatException ex )
+            {
+                throw new BadCommandLineException( getMessage( "illegalProfileCount", value, key, fileName ) );
+            }
+        }
+
+        return counts;
+    }
+
     private Collection<String> readTypes( final String fileName ) throws IOException
     {
         final Collection<String> types = new LinkedList<String>();
@@ -2977,3 +12075,62 @@ class CAdapterInfo implements CTypeInfo
     }
 
 }
+
+class SuperWildcard extends JClass
+{
+
+    private final JClass bound;
+
+    SuperWildcard( final JClass bound )
+    {
+        super( bound.owner() );
+        this.bound = bound;
+    }
+
+    public String name()
+    {
+        return "? super " + this.bound.name();
+    }
+
+    public String fullName()
+    {
+        return "? super " + this.bound.fullName();
+    }
+
+    public JPackage _package()
+    {
+        return null;
+    }
+
+    public JClass _extends()
+    {
+        return this.owner().ref( Object.class );
+    }
+
+    public Iterator<JClass> _implements()
+    {
+        return Collections.<JClass>emptyList().iterator();
+    }
+
+    public boolean isInterface()
+    {
+        return false;
+    }
+
+    public boolean isAbstract()
+    {
+        return false;
+    }
+
+    protected JClass substituteParams( final JTypeVar[] variables, final List<JClass> bindings )
+    {
+        return this;
+    }
+
+    @Override
+    public void generate( final JFormatter f )
+    {
+        f.p( "? super" ).g( this.bound );
+    }
+
+}